@@ -7,18 +7,29 @@ import com.olo.features.FinallyCall;
 import com.olo.features.NodeExecutionContext;
 import com.olo.features.PluginExecutionResult;
 import com.olo.features.PreNodeCall;
+import com.olo.plugin.cache.ModelResponseCache;
+import com.olo.plugin.http.PluginHttpTransport;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Feature that records node execution metrics (e.g. counter per tenant/nodeType) and,
  * for PLUGIN nodes, detailed modal/plugin metrics: tenantId, pipeline, pluginId, modelId,
- * promptTokens, completionTokens, durationMs, success, timestamp.
+ * promptTokens, completionTokens, durationMs, success, timestamp; time to first token and tokens/sec when the
+ * plugin reports them (streaming model executors). Per-endpoint counters of the shared plugin HTTP transport are
+ * bound as {@code olo.plugin.http.*} meters (tag {@code endpoint}) once the endpoint has been called, and the shared
+ * model response cache as {@code olo.model.response_cache.*} meters after the first PLUGIN node.
  * Uses a lazy, thread-safe holder: on first execution the registry is created via CAS
  * and reused forever. No synchronized blocks; kernel remains untouched.
  */
@@ -31,6 +42,23 @@ public final class MetricsFeature implements PreNodeCall, FinallyCall, ResourceC
     private static final String KEY_PROMPT_TOKENS = "promptTokens";
     private static final String KEY_COMPLETION_TOKENS = "completionTokens";
     private static final String KEY_MODEL_ID = "modelId";
+    private static final String KEY_TIME_TO_FIRST_TOKEN_MS = "timeToFirstTokenMs";
+    private static final String KEY_TOKENS_PER_SECOND = "tokensPerSecond";
+
+    /** PluginHttpTransport stats: monotonic counters and point-in-time gauges, by meter name suffix. */
+    private static final Map<String, String> HTTP_COUNTERS = Map.of(
+            "requests", "requests", "failures", "failures", "errorResponses", "error_responses",
+            "rejected", "rejected", "totalMillis", "total_millis");
+    private static final Map<String, String> HTTP_GAUGES = Map.of(
+            "maxMillis", "max_millis", "inFlight", "in_flight", "waiting", "waiting");
+    private static final Set<String> BOUND_HTTP_ENDPOINTS = ConcurrentHashMap.newKeySet();
+    /** ModelResponseCache stats, same split as the HTTP ones. */
+    private static final Map<String, String> CACHE_COUNTERS = Map.of(
+            "memoryHits", "memory_hits", "diskHits", "disk_hits", "misses", "misses", "writes", "writes",
+            "diskEvictions", "disk_evictions");
+    private static final Map<String, String> CACHE_GAUGES = Map.of(
+            "memoryEntries", "memory_entries", "diskBytes", "disk_bytes");
+    private static final AtomicBoolean CACHE_BOUND = new AtomicBoolean();
 
     /**
      * Returns the shared meter registry, creating it on first call (lock-free CAS).
@@ -48,6 +76,19 @@ public final class MetricsFeature implements PreNodeCall, FinallyCall, ResourceC
         return REGISTRY.get();
     }
 
+    /**
+     * Publishes a value of a worker component this feature cannot depend on (e.g. the engine executor) as a gauge
+     * on the shared registry.
+     */
+    public static <T> void registerGauge(String name, T source, ToDoubleFunction<T> value) {
+        Gauge.builder(name, source, value).register(getRegistry());
+    }
+
+    /** Same as {@link #registerGauge} for a count that only grows. */
+    public static <T> void registerCounter(String name, T source, ToDoubleFunction<T> count) {
+        FunctionCounter.builder(name, source, count).register(getRegistry());
+    }
+
     @Override
     public void before(NodeExecutionContext ctx) {
         // No timing in context; PluginInvoker measures at execution boundary
@@ -67,6 +108,32 @@ public final class MetricsFeature implements PreNodeCall, FinallyCall, ResourceC
 
         if ("PLUGIN".equals(ctx.getType()) && ctx.getPluginId() != null && !ctx.getPluginId().isBlank()) {
             recordPluginMetrics(registry, ctx, result);
+            bindHttpEndpoints(registry, PluginHttpTransport.shared());
+            if (CACHE_BOUND.compareAndSet(false, true)) {
+                bindModelResponseCache(registry, ModelResponseCache.shared());
+            }
+        }
+    }
+
+    private static void bindModelResponseCache(MeterRegistry registry, ModelResponseCache cache) {
+        CACHE_COUNTERS.forEach((stat, meter) ->
+                FunctionCounter.builder("olo.model.response_cache." + meter, cache, c -> c.stat(stat)).register(registry));
+        CACHE_GAUGES.forEach((stat, meter) ->
+                Gauge.builder("olo.model.response_cache." + meter, cache, c -> c.stat(stat)).register(registry));
+    }
+
+    /** Registers meters for endpoints the transport has called since the last check; each endpoint once. */
+    private static void bindHttpEndpoints(MeterRegistry registry, PluginHttpTransport transport) {
+        for (String endpoint : transport.endpoints()) {
+            if (!BOUND_HTTP_ENDPOINTS.add(endpoint)) continue;
+            HTTP_COUNTERS.forEach((stat, meter) ->
+                    FunctionCounter.builder("olo.plugin.http." + meter, transport, t -> t.stat(endpoint, stat))
+                            .tag("endpoint", endpoint)
+                            .register(registry));
+            HTTP_GAUGES.forEach((stat, meter) ->
+                    Gauge.builder("olo.plugin.http." + meter, transport, t -> t.stat(endpoint, stat))
+                            .tag("endpoint", endpoint)
+                            .register(registry));
         }
     }
 
@@ -107,10 +174,15 @@ public final class MetricsFeature implements PreNodeCall, FinallyCall, ResourceC
 
         long promptTokens = 0;
         long completionTokens = 0;
+        long timeToFirstTokenMs = -1;
+        double tokensPerSecond = 0;
         String modelId = "unknown";
         if (outputs != null) {
             promptTokens = toLong(outputs.get(KEY_PROMPT_TOKENS), 0);
             completionTokens = toLong(outputs.get(KEY_COMPLETION_TOKENS), 0);
+            timeToFirstTokenMs = toLong(outputs.get(KEY_TIME_TO_FIRST_TOKEN_MS), -1);
+            Object tps = outputs.get(KEY_TOKENS_PER_SECOND);
+            if (tps instanceof Number) tokensPerSecond = ((Number) tps).doubleValue();
             Object m = outputs.get(KEY_MODEL_ID);
             if (m != null && m.toString() != null && !m.toString().isBlank()) modelId = m.toString().trim();
         }
@@ -125,6 +197,18 @@ public final class MetricsFeature implements PreNodeCall, FinallyCall, ResourceC
         }
         timerBuilder.register(registry).record(durationMs, TimeUnit.MILLISECONDS);
 
+        // Streaming model plugins report latency to the first token and generation speed.
+        if (timeToFirstTokenMs >= 0) {
+            registry.timer("olo.plugin.time_to_first_token",
+                    "tenant", tenantId, "pipeline", pipeline, "pluginId", pluginIdStr)
+                    .record(timeToFirstTokenMs, TimeUnit.MILLISECONDS);
+        }
+        if (tokensPerSecond > 0) {
+            registry.summary("olo.plugin.tokens_per_second",
+                    "tenant", tenantId, "pipeline", pipeline, "pluginId", pluginIdStr)
+                    .record(tokensPerSecond);
+        }
+
         if (promptTokens > 0) {
             if (includeModelTag) {
                 registry.counter("olo.plugin.prompt_tokens",
@@ -0,0 +1,164 @@
+package com.olo.plugin.embedding.ollama;
+
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single responsibility: merge concurrent embedding requests for the same (base URL, model) into one upstream call.
+ * The first caller opens a batch and waits up to the window (or until the batch reaches the max size); callers
+ * arriving meanwhile append their texts. The opener then makes one call and every caller gets the vectors for its
+ * own texts, in order. A failed call fails every caller in the batch. A caller with no other call in flight for
+ * the same key sends at once, so lone calls never pay the window. An opener interrupted before its call completes
+ * drops the batch and the callers that joined it send again among themselves, so one caller's interrupt does not
+ * fail the others.
+ */
+final class EmbeddingBatcher {
+
+    /** Vectors for the texts of one call, and the model that produced them. */
+    record Embeddings(List<float[]> vectors, String model) {}
+
+    interface EmbedCall {
+        Embeddings embed(String baseUrl, String model, List<String> texts) throws Exception;
+    }
+
+    /** Completes a batch whose opener was interrupted before its call completed; joined callers send again. */
+    private static final class OpenerInterrupted extends RuntimeException {
+        OpenerInterrupted() {
+            super("embedding batch opener was interrupted", null, false, false);
+        }
+    }
+
+    private final long windowMs;
+    private final int maxBatchSize;
+    private final EmbedCall call;
+    /** Batch still accepting texts, per base URL and model. Guarded by {@code this}. */
+    private final Map<String, Batch> open = new HashMap<>();
+    /** Callers inside {@link #embed} (waiting or sending), per base URL and model. Guarded by {@code this}. */
+    private final Map<String, Integer> active = new HashMap<>();
+
+    /**
+     * @param windowMs     how long the first caller waits for others (0 disables batching)
+     * @param maxBatchSize texts per upstream call; a full batch is sent without waiting out the window
+     */
+    EmbeddingBatcher(long windowMs, int maxBatchSize, EmbedCall call) {
+        this.windowMs = Math.max(0L, windowMs);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.call = call;
+    }
+
+    Embeddings embed(String baseUrl, String model, List<String> texts) throws Exception {
+        if (windowMs == 0 || texts.size() >= maxBatchSize) return call.embed(baseUrl, model, texts);
+        String key = baseUrl + '\u0000' + model;
+        synchronized (this) {
+            active.merge(key, 1, Integer::sum);
+        }
+        try {
+            while (true) {
+                Batch batch;
+                int offset;
+                boolean opener;
+                synchronized (this) {
+                    batch = open.get(key);
+                    if (batch != null && batch.texts.size() + texts.size() > maxBatchSize) {
+                        // Does not fit: send the current batch now and start a new one.
+                        open.remove(key);
+                        batch.full.countDown();
+                        batch = null;
+                    }
+                    opener = batch == null;
+                    if (opener) {
+                        batch = new Batch();
+                        if (active.get(key) == 1) {
+                            // Nobody else in flight: nothing to wait for.
+                            batch.full.countDown();
+                        } else {
+                            open.put(key, batch);
+                        }
+                    }
+                    offset = batch.texts.size();
+                    batch.texts.addAll(texts);
+                    if (batch.texts.size() >= maxBatchSize) {
+                        open.remove(key, batch);
+                        batch.full.countDown();
+                    }
+                }
+                try {
+                    if (opener) send(key, baseUrl, model, batch);
+                    Embeddings all = await(batch.result);
+                    return new Embeddings(new ArrayList<>(all.vectors().subList(offset, offset + texts.size())), all.model());
+                } catch (OpenerInterrupted e) {
+                    // Our batch was dropped without a call: send our texts again.
+                }
+            }
+        } finally {
+            synchronized (this) {
+                active.computeIfPresent(key, (k, n) -> n > 1 ? n - 1 : null);
+            }
+        }
+    }
+
+    /**
+     * Waits out the window and makes the batch's call. When the opener is interrupted, the batch is completed with
+     * {@link OpenerInterrupted} for the callers that joined it and the opener's own failure is thrown.
+     */
+    private void send(String key, String baseUrl, String model, Batch batch) throws Exception {
+        try {
+            batch.full.await(windowMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            synchronized (this) {
+                open.remove(key, batch);
+            }
+            batch.result.completeExceptionally(new OpenerInterrupted());
+            throw e;
+        }
+        synchronized (this) {
+            open.remove(key, batch);
+        }
+        try {
+            Embeddings all = call.embed(baseUrl, model, batch.texts);
+            if (all.vectors().size() != batch.texts.size()) {
+                throw new IllegalStateException("Ollama embed returned " + all.vectors().size()
+                        + " vectors for " + batch.texts.size() + " texts");
+            }
+            batch.result.complete(all);
+        } catch (Exception | Error e) {
+            batch.result.completeExceptionally(interrupted(e) ? new OpenerInterrupted() : e);
+            throw e;
+        }
+    }
+
+    /** True when the failure is the calling thread's interrupt rather than the upstream call's own. */
+    private static boolean interrupted(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) return true;
+        for (Throwable c = e; c != null; c = c.getCause() == c ? null : c.getCause()) {
+            if (c instanceof InterruptedException || c instanceof InterruptedIOException
+                    || c instanceof ClosedByInterruptException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Embeddings await(CompletableFuture<Embeddings> result) throws Exception {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static final class Batch {
+        final List<String> texts = new ArrayList<>();
+        final CountDownLatch full = new CountDownLatch(1);
+        final CompletableFuture<Embeddings> result = new CompletableFuture<>();
+    }
+}
@@ -5,9 +5,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.olo.config.TenantConfig;
 import com.olo.plugin.EmbeddingPlugin;
 import com.olo.plugin.PluginRegistry;
+import com.olo.plugin.http.PluginHttpTransport;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -21,20 +21,37 @@ import java.util.Objects;
 /**
  * Embedding plugin that calls Ollama /api/embed. Input: "text" or "texts".
  * Output: "embeddings" (List of float[]), "model".
+ * <p>
+ * Concurrent calls for the same base URL and model are micro-batched into one /api/embed request (see
+ * {@link EmbeddingBatcher}) when a batch window is set: the first caller waits up to the window for others, up
+ * to the max batch size. Off by default.
  */
 public final class OllamaEmbeddingPlugin implements EmbeddingPlugin {
 
+    /** Default time the first caller of a batch waits for concurrent callers (0 = no batching). */
+    static final long DEFAULT_BATCH_WINDOW_MS = 0;
+    /** Default maximum number of texts sent in one /api/embed request. */
+    static final int DEFAULT_MAX_BATCH_SIZE = 32;
+
     private static final ObjectMapper MAPPER = new ObjectMapper();
     private final String baseUrl;
     private final String model;
-    private final HttpClient httpClient;
+    private final PluginHttpTransport transport;
+    private final EmbeddingBatcher batcher;
 
     public OllamaEmbeddingPlugin(String baseUrl, String model) {
+        this(baseUrl, model, DEFAULT_BATCH_WINDOW_MS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @param batchWindowMs how long the first of concurrent calls waits for others to join its batch (0 disables batching)
+     * @param maxBatchSize  maximum texts per /api/embed request; a full batch is sent immediately
+     */
+    public OllamaEmbeddingPlugin(String baseUrl, String model, long batchWindowMs, int maxBatchSize) {
         this.baseUrl = baseUrl != null && !baseUrl.isBlank() ? baseUrl.trim() : "http://localhost:11434";
         this.model = model != null && !model.isBlank() ? model.trim() : "nomic-embed-text";
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+        this.transport = PluginHttpTransport.shared();
+        this.batcher = new EmbeddingBatcher(batchWindowMs, maxBatchSize, this::callEmbed);
     }
 
     public OllamaEmbeddingPlugin() {
@@ -60,6 +77,16 @@ public final class OllamaEmbeddingPlugin implements EmbeddingPlugin {
         String effectiveModel = tenantConfig != null && tenantConfig.get("ollamaEmbeddingModel") != null
                 ? Objects.toString(tenantConfig.get("ollamaEmbeddingModel")).trim() : model;
 
+        EmbeddingBatcher.Embeddings result = batcher.embed(effectiveBaseUrl, effectiveModel, texts);
+        Map<String, Object> out = new HashMap<>();
+        out.put("embeddings", result.vectors());
+        out.put("model", result.model());
+        return out;
+    }
+
+    /** One /api/embed request for the texts; vectors come back in input order. */
+    private EmbeddingBatcher.Embeddings callEmbed(String effectiveBaseUrl, String effectiveModel, List<String> texts)
+            throws Exception {
         Map<String, Object> reqBody = new HashMap<>();
         reqBody.put("model", effectiveModel);
         reqBody.put("input", texts.size() == 1 ? texts.get(0) : texts);
@@ -72,7 +99,7 @@ public final class OllamaEmbeddingPlugin implements EmbeddingPlugin {
                 .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> response = transport.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
         if (response.statusCode() != 200) {
             throw new RuntimeException("Ollama embed API error: " + response.statusCode() + " " + response.body());
         }
@@ -89,11 +116,7 @@ public final class OllamaEmbeddingPlugin implements EmbeddingPlugin {
                 }
             }
         }
-        String outModel = root.path("model").asText(effectiveModel);
-        Map<String, Object> out = new HashMap<>();
-        out.put("embeddings", embeddings);
-        out.put("model", outModel);
-        return out;
+        return new EmbeddingBatcher.Embeddings(embeddings, root.path("model").asText(effectiveModel));
     }
 
     public void register(String tenantId, String pluginId) {
@@ -5,7 +5,8 @@ import com.olo.plugin.ExecutablePlugin;
 import com.olo.plugin.PluginProvider;
 
 /**
- * SPI provider for the Ollama embedding plugin. Reads OLLAMA_BASE_URL and OLLAMA_EMBEDDING_MODEL from env.
+ * SPI provider for the Ollama embedding plugin. Reads OLLAMA_BASE_URL and OLLAMA_EMBEDDING_MODEL from env, plus
+ * OLLAMA_EMBEDDING_BATCH_WINDOW_MS and OLLAMA_EMBEDDING_MAX_BATCH for micro-batching (window default 0 = off).
  * Only registers when OLLAMA_EMBEDDING_MODEL is set.
  */
 public final class OllamaEmbeddingPluginProvider implements PluginProvider {
@@ -17,7 +18,18 @@ public final class OllamaEmbeddingPluginProvider implements PluginProvider {
         if (baseUrl == null || baseUrl.isBlank()) baseUrl = "http://localhost:11434";
         String model = System.getenv("OLLAMA_EMBEDDING_MODEL");
         if (model == null || model.isBlank()) model = "nomic-embed-text";
-        this.plugin = new OllamaEmbeddingPlugin(baseUrl, model);
+        this.plugin = new OllamaEmbeddingPlugin(baseUrl, model,
+                parseLong(System.getenv("OLLAMA_EMBEDDING_BATCH_WINDOW_MS"), OllamaEmbeddingPlugin.DEFAULT_BATCH_WINDOW_MS),
+                (int) parseLong(System.getenv("OLLAMA_EMBEDDING_MAX_BATCH"), OllamaEmbeddingPlugin.DEFAULT_MAX_BATCH_SIZE));
+    }
+
+    private static long parseLong(String s, long defaultValue) {
+        if (s == null || s.isBlank()) return defaultValue;
+        try {
+            return Long.parseLong(s.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
     }
 
     @Override
@@ -40,4 +52,9 @@ public final class OllamaEmbeddingPluginProvider implements PluginProvider {
     public ExecutablePlugin getPlugin() {
         return plugin;
     }
+
+    @Override
+    public boolean isReusable() {
+        return true;
+    }
 }
@@ -0,0 +1,195 @@
+package com.olo.plugin.embedding.ollama;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddingBatcherTest {
+
+    private static final String HOLD = "hold";
+
+    /** Upstream stub: one vector per text ({@code hashCode} of the text); a call for {@link #HOLD} blocks until released. */
+    private static final class FakeEmbed implements EmbeddingBatcher.EmbedCall {
+        final List<List<String>> calls = new CopyOnWriteArrayList<>();
+        final CountDownLatch holding = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RuntimeException failure = new IllegalStateException("embed failed");
+
+        @Override
+        public EmbeddingBatcher.Embeddings embed(String baseUrl, String model, List<String> texts) throws Exception {
+            calls.add(List.copyOf(texts));
+            if (texts.contains(HOLD)) {
+                holding.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            if (texts.contains("bad")) throw failure;
+            List<float[]> vectors = new ArrayList<>();
+            for (String t : texts) vectors.add(new float[] {t.hashCode()});
+            return new EmbeddingBatcher.Embeddings(vectors, model);
+        }
+
+        Set<List<String>> callSet() {
+            return new HashSet<>(calls);
+        }
+    }
+
+    private static List<Float> firstComponents(EmbeddingBatcher.Embeddings embeddings) {
+        List<Float> out = new ArrayList<>();
+        for (float[] v : embeddings.vectors()) out.add(v[0]);
+        return out;
+    }
+
+    private static List<Float> expected(String... texts) {
+        List<Float> out = new ArrayList<>();
+        for (String t : texts) out.add((float) t.hashCode());
+        return out;
+    }
+
+    /** Puts one call in flight (blocked upstream) so that the next callers batch. */
+    private static Future<EmbeddingBatcher.Embeddings> hold(ExecutorService executor, EmbeddingBatcher batcher, FakeEmbed fake)
+            throws InterruptedException {
+        Future<EmbeddingBatcher.Embeddings> held = executor.submit(() -> batcher.embed("u", "m", List.of(HOLD)));
+        assertTrue(fake.holding.await(5, TimeUnit.SECONDS));
+        return held;
+    }
+
+    /** Starts a caller on its own thread (so it can be interrupted) and waits until it blocks in {@code state}. */
+    private static FutureTask<EmbeddingBatcher.Embeddings> start(EmbeddingBatcher batcher, String text,
+                                                                 Thread.State state, List<Thread> threads)
+            throws InterruptedException {
+        FutureTask<EmbeddingBatcher.Embeddings> task = new FutureTask<>(() -> batcher.embed("u", "m", List.of(text)));
+        Thread thread = new Thread(task);
+        threads.add(thread);
+        thread.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(state, thread.getState());
+        return task;
+    }
+
+    @Test
+    void loneCallerDoesNotWaitOutTheWindow() throws Exception {
+        FakeEmbed fake = new FakeEmbed();
+        EmbeddingBatcher batcher = new EmbeddingBatcher(5_000, 8, fake);
+        long start = System.nanoTime();
+        assertEquals(expected("a"), firstComponents(batcher.embed("u", "m", List.of("a"))));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(List.of(List.of("a")), fake.calls);
+    }
+
+    @Test
+    void concurrentCallersShareOneCallAndGetTheirOwnSlice() throws Exception {
+        FakeEmbed fake = new FakeEmbed();
+        EmbeddingBatcher batcher = new EmbeddingBatcher(5_000, 3, fake);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<EmbeddingBatcher.Embeddings> held = hold(executor, batcher, fake);
+            // One text and two texts fill the batch of three, so it is sent without waiting out the window.
+            Future<EmbeddingBatcher.Embeddings> one = executor.submit(() -> batcher.embed("u", "m", List.of("b1")));
+            Future<EmbeddingBatcher.Embeddings> two = executor.submit(() -> batcher.embed("u", "m", List.of("c1", "c2")));
+
+            assertEquals(expected("b1"), firstComponents(one.get(5, TimeUnit.SECONDS)));
+            assertEquals(expected("c1", "c2"), firstComponents(two.get(5, TimeUnit.SECONDS)));
+            fake.release.countDown();
+            assertEquals(expected(HOLD), firstComponents(held.get(5, TimeUnit.SECONDS)));
+
+            assertEquals(2, fake.calls.size());
+            assertEquals(3, fake.calls.get(1).size());
+        } finally {
+            fake.release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void textsThatDoNotFitStartANewBatch() throws Exception {
+        FakeEmbed fake = new FakeEmbed();
+        EmbeddingBatcher batcher = new EmbeddingBatcher(300, 3, fake);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<EmbeddingBatcher.Embeddings> held = hold(executor, batcher, fake);
+            Future<EmbeddingBatcher.Embeddings> first = executor.submit(() -> batcher.embed("u", "m", List.of("1", "2")));
+            Future<EmbeddingBatcher.Embeddings> second = executor.submit(() -> batcher.embed("u", "m", List.of("3", "4")));
+
+            assertEquals(expected("1", "2"), firstComponents(first.get(5, TimeUnit.SECONDS)));
+            assertEquals(expected("3", "4"), firstComponents(second.get(5, TimeUnit.SECONDS)));
+            fake.release.countDown();
+            held.get(5, TimeUnit.SECONDS);
+
+            assertEquals(Set.of(List.of(HOLD), List.of("1", "2"), List.of("3", "4")), fake.callSet());
+        } finally {
+            fake.release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedCallFailsEveryCallerInTheBatch() throws Exception {
+        FakeEmbed fake = new FakeEmbed();
+        EmbeddingBatcher batcher = new EmbeddingBatcher(5_000, 2, fake);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<EmbeddingBatcher.Embeddings> held = hold(executor, batcher, fake);
+            Future<EmbeddingBatcher.Embeddings> bad = executor.submit(() -> batcher.embed("u", "m", List.of("bad")));
+            Future<EmbeddingBatcher.Embeddings> good = executor.submit(() -> batcher.embed("u", "m", List.of("good")));
+
+            ExecutionException badError = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+            ExecutionException goodError = assertThrows(ExecutionException.class, () -> good.get(5, TimeUnit.SECONDS));
+            assertSame(fake.failure, badError.getCause());
+            assertSame(fake.failure, goodError.getCause());
+            assertEquals(2, fake.calls.size());
+
+            fake.release.countDown();
+            held.get(5, TimeUnit.SECONDS);
+        } finally {
+            fake.release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void interruptedOpenerDoesNotFailTheCallersThatJoined() throws Exception {
+        FakeEmbed fake = new FakeEmbed();
+        EmbeddingBatcher batcher = new EmbeddingBatcher(300, 8, fake);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<Thread> threads = new ArrayList<>();
+        try {
+            Future<EmbeddingBatcher.Embeddings> held = hold(executor, batcher, fake);
+            // The opener waits out the window; the joiner waits for the opener's call.
+            FutureTask<EmbeddingBatcher.Embeddings> opener = start(batcher, "opener", Thread.State.TIMED_WAITING, threads);
+            FutureTask<EmbeddingBatcher.Embeddings> joiner = start(batcher, "joiner", Thread.State.WAITING, threads);
+
+            threads.get(0).interrupt();
+
+            ExecutionException openerError = assertThrows(ExecutionException.class, () -> opener.get(5, TimeUnit.SECONDS));
+            assertTrue(openerError.getCause() instanceof InterruptedException);
+            assertEquals(expected("joiner"), firstComponents(joiner.get(5, TimeUnit.SECONDS)));
+            assertEquals(List.of(List.of(HOLD), List.of("joiner")), fake.calls);
+
+            fake.release.countDown();
+            held.get(5, TimeUnit.SECONDS);
+        } finally {
+            fake.release.countDown();
+            threads.forEach(Thread::interrupt);
+            executor.shutdownNow();
+        }
+    }
+}
@@ -5,9 +5,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.olo.config.TenantConfig;
 import com.olo.plugin.ImageGenerationPlugin;
 import com.olo.plugin.PluginRegistry;
+import com.olo.plugin.http.PluginHttpTransport;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -28,14 +28,12 @@ public final class ComfyUIImagePlugin implements ImageGenerationPlugin {
     private static final ObjectMapper MAPPER = new ObjectMapper();
     private final String baseUrl;
     private final String checkpointName;
-    private final HttpClient httpClient;
+    private final PluginHttpTransport transport;
 
     public ComfyUIImagePlugin(String baseUrl, String checkpointName) {
         this.baseUrl = baseUrl != null && !baseUrl.isBlank() ? baseUrl.trim() : "http://localhost:8188";
         this.checkpointName = checkpointName != null && !checkpointName.isBlank() ? checkpointName.trim() : "v1-5-pruned-emaonly.safetensors";
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(java.time.Duration.ofSeconds(10))
-                .build();
+        this.transport = PluginHttpTransport.shared();
     }
 
     public ComfyUIImagePlugin() {
@@ -138,7 +136,7 @@ public final class ComfyUIImagePlugin implements ImageGenerationPlugin {
                 .timeout(java.time.Duration.ofSeconds(30))
                 .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
                 .build();
-        HttpResponse<String> res = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> res = transport.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
         if (res.statusCode() != 200) {
             throw new RuntimeException("ComfyUI submit failed: " + res.statusCode() + " " + res.body());
         }
@@ -154,7 +152,7 @@ public final class ComfyUIImagePlugin implements ImageGenerationPlugin {
         while (waited < maxWait) {
             URI uri = URI.create(base + "/history/" + promptId);
             HttpRequest req = HttpRequest.newBuilder(uri).timeout(java.time.Duration.ofSeconds(10)).GET().build();
-            HttpResponse<String> res = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            HttpResponse<String> res = transport.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
             if (res.statusCode() != 200) continue;
             JsonNode hist = MAPPER.readTree(res.body());
             if (hist.has(promptId)) {
@@ -172,7 +170,7 @@ public final class ComfyUIImagePlugin implements ImageGenerationPlugin {
     private String getOutputImage(String base, String promptId) throws Exception {
         URI uri = URI.create(base + "/history/" + promptId);
         HttpRequest req = HttpRequest.newBuilder(uri).timeout(java.time.Duration.ofSeconds(10)).GET().build();
-        HttpResponse<String> res = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> res = transport.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
         if (res.statusCode() != 200) return "";
         JsonNode hist = MAPPER.readTree(res.body());
         JsonNode run = hist.path(promptId);
@@ -187,7 +185,7 @@ public final class ComfyUIImagePlugin implements ImageGenerationPlugin {
         String type = images.get(0).path("type").asText("output");
         String viewUrl = base + "/view?filename=" + filename + "&subfolder=" + subfolder + "&type=" + type;
         HttpRequest getReq = HttpRequest.newBuilder(URI.create(viewUrl)).timeout(java.time.Duration.ofSeconds(30)).GET().build();
-        HttpResponse<byte[]> imgRes = httpClient.send(getReq, HttpResponse.BodyHandlers.ofByteArray());
+        HttpResponse<byte[]> imgRes = transport.send(getReq, HttpResponse.BodyHandlers.ofByteArray());
         if (imgRes.statusCode() != 200) return "";
         return Base64.getEncoder().encodeToString(imgRes.body());
     }
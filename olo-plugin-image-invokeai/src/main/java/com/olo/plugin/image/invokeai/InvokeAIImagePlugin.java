@@ -5,9 +5,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.olo.config.TenantConfig;
 import com.olo.plugin.ImageGenerationPlugin;
 import com.olo.plugin.PluginRegistry;
+import com.olo.plugin.http.PluginHttpTransport;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -25,14 +25,12 @@ public final class InvokeAIImagePlugin implements ImageGenerationPlugin {
     private static final ObjectMapper MAPPER = new ObjectMapper();
     private final String baseUrl;
     private final String apiPath;
-    private final HttpClient httpClient;
+    private final PluginHttpTransport transport;
 
     public InvokeAIImagePlugin(String baseUrl, String apiPath) {
         this.baseUrl = baseUrl != null && !baseUrl.isBlank() ? baseUrl.trim() : "http://localhost:9090";
         this.apiPath = apiPath != null && !apiPath.isBlank() ? apiPath.trim() : "/api/v1/generate";
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(java.time.Duration.ofSeconds(10))
-                .build();
+        this.transport = PluginHttpTransport.shared();
     }
 
     public InvokeAIImagePlugin() {
@@ -75,7 +73,7 @@ public final class InvokeAIImagePlugin implements ImageGenerationPlugin {
                 .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> response = transport.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
         if (response.statusCode() != 200) {
             throw new RuntimeException("InvokeAI API error: " + response.statusCode() + " " + response.body());
         }
@@ -5,9 +5,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.olo.config.TenantConfig;
 import com.olo.plugin.ImageGenerationPlugin;
 import com.olo.plugin.PluginRegistry;
+import com.olo.plugin.http.PluginHttpTransport;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -25,13 +25,11 @@ public final class StableDiffusionImagePlugin implements ImageGenerationPlugin {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
     private final String baseUrl;
-    private final HttpClient httpClient;
+    private final PluginHttpTransport transport;
 
     public StableDiffusionImagePlugin(String baseUrl) {
         this.baseUrl = baseUrl != null && !baseUrl.isBlank() ? baseUrl.trim() : "http://localhost:7860";
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+        this.transport = PluginHttpTransport.shared();
     }
 
     public StableDiffusionImagePlugin() {
@@ -71,7 +69,7 @@ public final class StableDiffusionImagePlugin implements ImageGenerationPlugin {
                 .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> response = transport.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
         if (response.statusCode() != 200) {
             throw new RuntimeException("Stable Diffusion API error: " + response.statusCode() + " " + response.body());
         }
@@ -8,9 +8,10 @@ import com.olo.annotations.ResourceCleanup;
 import com.olo.config.TenantConfig;
 import com.olo.plugin.ModelExecutorPlugin;
 import com.olo.plugin.PluginRegistry;
+import com.olo.plugin.cache.ModelResponseCache;
+import com.olo.plugin.http.PluginHttpTransport;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -24,6 +25,7 @@ import java.util.Objects;
  * Model-executor plugin that calls an OpenAI-compatible API (e.g. LiteLLM proxy in front of Ollama).
  * Uses POST /v1/chat/completions. Default base URL http://localhost:4000 (LiteLLM).
  * Input: "prompt". Output: "responseText", "promptTokens", "completionTokens", "modelId".
+ * Responses are served from {@link ModelResponseCache} when the tenant enables it.
  */
 @OloPlugin(
         id = "LITELLM_EXECUTOR",
@@ -46,14 +48,12 @@ public final class LiteLLMModelExecutorPlugin implements ModelExecutorPlugin, Re
 
     private final String baseUrl;
     private final String model;
-    private final HttpClient httpClient;
+    private final PluginHttpTransport transport;
 
     public LiteLLMModelExecutorPlugin(String baseUrl, String model) {
         this.baseUrl = baseUrl != null && !baseUrl.isBlank() ? baseUrl.trim() : "http://localhost:4000";
         this.model = model != null && !model.isBlank() ? model.trim() : "ollama/llama3.2";
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+        this.transport = PluginHttpTransport.shared();
     }
 
     public LiteLLMModelExecutorPlugin() {
@@ -72,7 +72,17 @@ public final class LiteLLMModelExecutorPlugin implements ModelExecutorPlugin, Re
                 ? Objects.toString(tenantConfig.get("litellmBaseUrl")).trim() : baseUrl;
         String effectiveModel = tenantConfig != null && tenantConfig.get("litellmModel") != null
                 ? Objects.toString(tenantConfig.get("litellmModel")).trim() : model;
+        Map<String, Object> cacheKey = Map.of(
+                "plugin", "litellm",
+                "endpoint", effectiveBaseUrl + "/v1/chat/completions",
+                "model", effectiveModel,
+                "messages", List.of(Map.of("role", "user", "content", prompt)));
+        return ModelResponseCache.shared().getOrCall(tenantConfig, cacheKey,
+                () -> callChatCompletions(prompt, effectiveBaseUrl, effectiveModel));
+    }
 
+    private Map<String, Object> callChatCompletions(String prompt, String effectiveBaseUrl, String effectiveModel)
+            throws Exception {
         Map<String, Object> reqBody = new HashMap<>();
         reqBody.put("model", effectiveModel);
         reqBody.put("messages", List.of(Map.of("role", "user", "content", prompt)));
@@ -85,7 +95,7 @@ public final class LiteLLMModelExecutorPlugin implements ModelExecutorPlugin, Re
                 .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> response = transport.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
         if (response.statusCode() != 200) {
             throw new RuntimeException("LiteLLM API error: " + response.statusCode() + " " + response.body());
         }
@@ -39,4 +39,9 @@ public final class LiteLLMPluginProvider implements PluginProvider {
     public ExecutablePlugin getPlugin() {
         return plugin;
     }
+
+    @Override
+    public boolean isReusable() {
+        return true;
+    }
 }
@@ -2,7 +2,7 @@ package com.olo.plugin.ollama;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
-/** Ollama /api/chat response (non-streaming). Ignores extra fields. */
+/** Ollama /api/chat response, or one line of a streamed response ({@code done} on the last). Ignores extra fields. */
 @JsonIgnoreProperties(ignoreUnknown = true)
 final class OllamaChatResponse {
 
@@ -10,6 +10,8 @@ final class OllamaChatResponse {
     private Message message;
     private Long prompt_eval_count;
     private Long eval_count;
+    private Long eval_duration;
+    private boolean done;
 
     @JsonIgnoreProperties(ignoreUnknown = true)
     static final class Message {
@@ -30,4 +32,9 @@ final class OllamaChatResponse {
     public void setPrompt_eval_count(Long prompt_eval_count) { this.prompt_eval_count = prompt_eval_count; }
     public Long getEval_count() { return eval_count; }
     public void setEval_count(Long eval_count) { this.eval_count = eval_count; }
+    /** Generation time in nanoseconds (final chunk / non-streaming response). */
+    public Long getEval_duration() { return eval_duration; }
+    public void setEval_duration(Long eval_duration) { this.eval_duration = eval_duration; }
+    public boolean isDone() { return done; }
+    public void setDone(boolean done) { this.done = done; }
 }
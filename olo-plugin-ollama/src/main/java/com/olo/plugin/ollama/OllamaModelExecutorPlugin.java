@@ -6,25 +6,43 @@ import com.olo.annotations.OloPluginParam;
 import com.olo.annotations.ResourceCleanup;
 import com.olo.config.TenantConfig;
 import com.olo.plugin.ModelExecutorPlugin;
+import com.olo.plugin.PartialOutputContext;
+import com.olo.plugin.PartialOutputListener;
 import com.olo.plugin.PluginRegistry;
+import com.olo.plugin.cache.ModelResponseCache;
+import com.olo.plugin.http.PluginHttpTransport;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Model-executor plugin that calls the Ollama API to get AI model responses.
  * Registers with {@link PluginRegistry} under a configurable id (e.g. "GPT4_EXECUTOR" for olo-chat-queue-ollama).
  * <p>
  * Input: "prompt" (String). Output: "responseText" (String).
- * Uses {@code POST http://baseUrl/api/chat} with {@code model} and a single user message.
+ * Uses {@code POST http://baseUrl/api/chat} with {@code model} and a single user message. With streaming enabled the
+ * response is read chunk by chunk, which adds time-to-first-token, passes each chunk to the
+ * {@link PartialOutputContext} listener (execution events show it as {@code model.token}) and allows stopping early
+ * (stop sequences, a token budget or the listener); the whole stream must arrive within the request timeout.
+ * Responses are served from {@link ModelResponseCache} when the tenant enables it; timing outputs are not cached.
  */
 @OloPlugin(
         id = "GPT4_EXECUTOR",
@@ -43,16 +61,38 @@ public final class OllamaModelExecutorPlugin implements ModelExecutorPlugin, Res
     public static final String OUTPUT_PROMPT_TOKENS = "promptTokens";
     public static final String OUTPUT_COMPLETION_TOKENS = "completionTokens";
     public static final String OUTPUT_MODEL = "modelId";
+    /** Generation speed, from Ollama's eval stats (or measured when a stream is stopped early). */
+    public static final String OUTPUT_TOKENS_PER_SECOND = "tokensPerSecond";
+    /** Streaming only: ms from sending the request to the first content chunk. */
+    public static final String OUTPUT_TIME_TO_FIRST_TOKEN_MS = "timeToFirstTokenMs";
+    /** Streaming only: why generation ended ({@code done}, {@code stop}, {@code budget} or {@code listener}). */
+    public static final String OUTPUT_STOP_REASON = "stopReason";
+
+    /** Optional input: true to stream the response (overrides tenant config "ollamaStream" and the plugin default). */
+    private static final String INPUT_STREAM = "stream";
+    /** Optional streaming input: string or list; generation stops when the text contains one (excluded from output). */
+    private static final String INPUT_STOP_SEQUENCES = "stopSequences";
+    /** Optional streaming input: stop after this many completion tokens. */
+    private static final String INPUT_MAX_COMPLETION_TOKENS = "maxCompletionTokens";
+
+    private static final String STOP_REASON_DONE = "done";
+    private static final String STOP_REASON_STOP = "stop";
+    private static final String STOP_REASON_BUDGET = "budget";
+    private static final String STOP_REASON_LISTENER = "listener";
+
+    /** Outputs measured per call; a cached response must not repeat them. */
+    private static final Set<String> PER_CALL_OUTPUTS = Set.of(OUTPUT_TOKENS_PER_SECOND, OUTPUT_TIME_TO_FIRST_TOKEN_MS);
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
     /** Default HTTP request timeout for chat (tool chains like RESEARCH_TOOL may need longer). */
-    private static final int DEFAULT_REQUEST_TIMEOUT_SECONDS = 300;
+    static final int DEFAULT_REQUEST_TIMEOUT_SECONDS = 300;
 
     private final String baseUrl;
     private final String model;
     private final int requestTimeoutSeconds;
-    private final HttpClient httpClient;
+    private final boolean stream;
+    private final PluginHttpTransport transport;
 
     /**
      * Creates a plugin using the given base URL (e.g. "http://localhost:11434") and model name (e.g. "llama3.2").
@@ -70,12 +110,19 @@ public final class OllamaModelExecutorPlugin implements ModelExecutorPlugin, Res
      * @param requestTimeoutSeconds timeout for the HTTP request (default 300)
      */
     public OllamaModelExecutorPlugin(String baseUrl, String model, int requestTimeoutSeconds) {
+        this(baseUrl, model, requestTimeoutSeconds, false);
+    }
+
+    /**
+     * Creates a plugin that streams responses by default when {@code stream} is true (tenant config "ollamaStream"
+     * and the "stream" input still override it per call).
+     */
+    public OllamaModelExecutorPlugin(String baseUrl, String model, int requestTimeoutSeconds, boolean stream) {
+        this.stream = stream;
         this.baseUrl = baseUrl != null && !baseUrl.isBlank() ? baseUrl.trim() : "http://localhost:11434";
         this.model = model != null && !model.isBlank() ? model.trim() : "llama3.2";
         this.requestTimeoutSeconds = requestTimeoutSeconds > 0 ? requestTimeoutSeconds : DEFAULT_REQUEST_TIMEOUT_SECONDS;
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+        this.transport = PluginHttpTransport.shared();
     }
 
     /**
@@ -87,23 +134,79 @@ public final class OllamaModelExecutorPlugin implements ModelExecutorPlugin, Res
 
     @Override
     public void onExit() {
-        // HttpClient is not AutoCloseable in Java 17; on Java 21+ you may close it here to release resources
+        // Connections belong to the shared PluginHttpTransport; nothing to release per plugin instance
     }
 
     @Override
     public Map<String, Object> execute(Map<String, Object> inputs, TenantConfig tenantConfig) throws Exception {
         Object promptObj = inputs == null ? null : inputs.get(INPUT_PROMPT);
         String prompt = promptObj != null ? Objects.toString(promptObj).trim() : "";
-        String effectiveBaseUrl = tenantConfig != null && tenantConfig.get("ollamaBaseUrl") != null
+        String effectiveBaseUrl = effectiveBaseUrl(tenantConfig);
+        String effectiveModel = effectiveModel(tenantConfig);
+        boolean streaming = isStreaming(inputs, tenantConfig);
+        List<String> stopSequences = streaming ? stopSequences(inputs) : List.of();
+        long maxCompletionTokens = streaming ? maxCompletionTokens(inputs) : 0L;
+        Map<String, Object> cacheKey = new HashMap<>();
+        cacheKey.put("plugin", "ollama");
+        cacheKey.put("endpoint", effectiveBaseUrl + "/api/chat");
+        cacheKey.put("model", effectiveModel);
+        cacheKey.put("messages", List.of(Map.of("role", "user", "content", prompt)));
+        if (!stopSequences.isEmpty()) cacheKey.put("stopSequences", stopSequences);
+        if (maxCompletionTokens > 0) cacheKey.put("maxCompletionTokens", maxCompletionTokens);
+        return ModelResponseCache.shared().getOrCall(tenantConfig, cacheKey, PER_CALL_OUTPUTS, () -> toOutputs(streaming
+                ? callOllamaChatStreaming(prompt, effectiveBaseUrl, effectiveModel, stopSequences, maxCompletionTokens)
+                : callOllamaChat(prompt, effectiveBaseUrl, effectiveModel), effectiveModel));
+    }
+
+    private String effectiveBaseUrl(TenantConfig tenantConfig) {
+        return tenantConfig != null && tenantConfig.get("ollamaBaseUrl") != null
                 ? Objects.toString(tenantConfig.get("ollamaBaseUrl")).trim() : baseUrl;
-        String effectiveModel = tenantConfig != null && tenantConfig.get("ollamaModel") != null
+    }
+
+    private String effectiveModel(TenantConfig tenantConfig) {
+        return tenantConfig != null && tenantConfig.get("ollamaModel") != null
                 ? Objects.toString(tenantConfig.get("ollamaModel")).trim() : model;
-        ChatResult result = callOllamaChat(prompt, effectiveBaseUrl, effectiveModel);
+    }
+
+    /** Input {@value #INPUT_STREAM}, else tenant config "ollamaStream", else the plugin default. */
+    private boolean isStreaming(Map<String, Object> inputs, TenantConfig tenantConfig) {
+        Object v = inputs != null ? inputs.get(INPUT_STREAM) : null;
+        if (v == null && tenantConfig != null) v = tenantConfig.get("ollamaStream");
+        if (v == null) return stream;
+        return v instanceof Boolean b ? b : "true".equalsIgnoreCase(v.toString().trim());
+    }
+
+    private static List<String> stopSequences(Map<String, Object> inputs) {
+        Object v = inputs != null ? inputs.get(INPUT_STOP_SEQUENCES) : null;
+        if (v instanceof Collection<?> c) {
+            List<String> out = new ArrayList<>();
+            for (Object o : c) {
+                if (o != null && !o.toString().isEmpty()) out.add(o.toString());
+            }
+            return out;
+        }
+        return v != null && !v.toString().isEmpty() ? List.of(v.toString()) : List.of();
+    }
+
+    private static long maxCompletionTokens(Map<String, Object> inputs) {
+        Object v = inputs != null ? inputs.get(INPUT_MAX_COMPLETION_TOKENS) : null;
+        if (v instanceof Number n) return n.longValue();
+        try {
+            return v != null ? Long.parseLong(v.toString().trim()) : 0L;
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static Map<String, Object> toOutputs(ChatResult result, String effectiveModel) {
         Map<String, Object> out = new HashMap<>();
         out.put(OUTPUT_RESPONSE_TEXT, result.content != null ? result.content : "");
         out.put(OUTPUT_PROMPT_TOKENS, result.promptTokens);
         out.put(OUTPUT_COMPLETION_TOKENS, result.completionTokens);
         out.put(OUTPUT_MODEL, result.model != null ? result.model : effectiveModel);
+        if (result.tokensPerSecond > 0) out.put(OUTPUT_TOKENS_PER_SECOND, result.tokensPerSecond);
+        if (result.timeToFirstTokenMs >= 0) out.put(OUTPUT_TIME_TO_FIRST_TOKEN_MS, result.timeToFirstTokenMs);
+        if (result.stopReason != null) out.put(OUTPUT_STOP_REASON, result.stopReason);
         return out;
     }
 
@@ -112,15 +215,158 @@ public final class OllamaModelExecutorPlugin implements ModelExecutorPlugin, Res
         final long promptTokens;
         final long completionTokens;
         final String model;
+        final double tokensPerSecond;
+        /** -1 when not streamed or no token arrived. */
+        final long timeToFirstTokenMs;
+        /** Null when not streamed. */
+        final String stopReason;
+
+        ChatResult(String content, long promptTokens, long completionTokens, String model, double tokensPerSecond) {
+            this(content, promptTokens, completionTokens, model, tokensPerSecond, -1L, null);
+        }
 
-        ChatResult(String content, long promptTokens, long completionTokens, String model) {
+        ChatResult(String content, long promptTokens, long completionTokens, String model, double tokensPerSecond,
+                   long timeToFirstTokenMs, String stopReason) {
             this.content = content;
             this.promptTokens = promptTokens;
             this.completionTokens = completionTokens;
             this.model = model;
+            this.tokensPerSecond = tokensPerSecond;
+            this.timeToFirstTokenMs = timeToFirstTokenMs;
+            this.stopReason = stopReason;
         }
     }
 
+    /** Tokens per second from Ollama's eval_count and eval_duration (ns), or 0 when not reported. */
+    private static double tokensPerSecond(Long evalCount, Long evalDurationNs) {
+        if (evalCount == null || evalDurationNs == null || evalCount <= 0 || evalDurationNs <= 0) return 0;
+        return evalCount / (evalDurationNs / 1_000_000_000.0);
+    }
+
+    private static RuntimeException apiError(int statusCode, String body, String effectiveModel, String effectiveBaseUrl) {
+        if (statusCode == 404 && body != null && body.contains("not found")) {
+            return new RuntimeException(
+                "Ollama model '" + effectiveModel + "' not found. Pull it with: ollama pull " + effectiveModel
+                    + " (or set OLLAMA_MODEL / tenant ollamaModel to a model you have). "
+                    + "Ollama must be available at " + effectiveBaseUrl + ". Original: " + body);
+        }
+        return new RuntimeException("Ollama API error: " + statusCode + " " + body);
+    }
+
+    /**
+     * Calls /api/chat with {@code stream=true} and reads the NDJSON chunks as they arrive. Stops early when the text
+     * contains a stop sequence (cut before it), after {@code maxCompletionTokens} chunks (one token each) or when the
+     * thread's {@link PartialOutputListener} returns false; closing the response stream then aborts the request so
+     * Ollama stops generating.
+     * {@link HttpRequest#timeout} only covers the wait for response headers, so the read has its own deadline
+     * ({@code requestTimeoutSeconds} from sending): a stalled stream is closed when it passes.
+     */
+    private ChatResult callOllamaChatStreaming(String prompt, String effectiveBaseUrl, String effectiveModel,
+                                               List<String> stopSequences, long maxCompletionTokens) throws Exception {
+        OllamaChatRequest.Message msg = new OllamaChatRequest.Message("user", prompt);
+        String json = MAPPER.writeValueAsString(new OllamaChatRequest(effectiveModel, List.of(msg), true));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(effectiveBaseUrl + "/api/chat"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(requestTimeoutSeconds))
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+                .build();
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.SECONDS.toNanos(requestTimeoutSeconds);
+        HttpResponse<InputStream> response = transport.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        InputStream body = response.body();
+        // Unblocks a read that is waiting on a stalled stream once the deadline passes.
+        CompletableFuture<Void> readDeadline = new CompletableFuture<>();
+        readDeadline.orTimeout(Math.max(0L, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)
+                .whenComplete((v, t) -> {
+                    if (t != null) closeQuietly(body);
+                });
+        PartialOutputListener listener = PartialOutputContext.get();
+        StringBuilder text = new StringBuilder();
+        long firstTokenNanos = 0;
+        long chunks = 0;
+        String stopReason = STOP_REASON_DONE;
+        OllamaChatResponse last = null;
+        String responseModel = effectiveModel;
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            if (response.statusCode() != 200) {
+                throw apiError(response.statusCode(), lines.lines().collect(Collectors.joining("\n")), effectiveModel, effectiveBaseUrl);
+            }
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (System.nanoTime() - deadlineNanos > 0) throw streamTimeout(effectiveBaseUrl, null);
+                if (line.isBlank()) continue;
+                OllamaChatResponse chunk = MAPPER.readValue(line, OllamaChatResponse.class);
+                if (chunk.getModel() != null && !chunk.getModel().isBlank()) responseModel = chunk.getModel();
+                String content = chunk.getMessage() != null ? chunk.getMessage().getContent() : null;
+                if (content != null && !content.isEmpty()) {
+                    if (firstTokenNanos == 0) firstTokenNanos = System.nanoTime();
+                    chunks++;
+                    int before = text.length();
+                    text.append(content);
+                    int stopAt = indexOfStop(text, stopSequences, before);
+                    if (stopAt >= 0) text.setLength(stopAt);
+                    boolean keepGoing = text.length() <= before || listener == null
+                            || listener.onChunk(text.substring(before), text.toString());
+                    if (stopAt >= 0) {
+                        stopReason = STOP_REASON_STOP;
+                        break;
+                    }
+                    if (!keepGoing) {
+                        stopReason = STOP_REASON_LISTENER;
+                        break;
+                    }
+                    if (maxCompletionTokens > 0 && chunks >= maxCompletionTokens) {
+                        stopReason = STOP_REASON_BUDGET;
+                        break;
+                    }
+                }
+                if (chunk.isDone()) {
+                    last = chunk;
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            if (System.nanoTime() - deadlineNanos > 0) throw streamTimeout(effectiveBaseUrl, e);
+            throw e;
+        } finally {
+            readDeadline.complete(null);
+        }
+        long promptTokens = last != null && last.getPrompt_eval_count() != null ? last.getPrompt_eval_count() : 0;
+        long completionTokens = last != null && last.getEval_count() != null ? last.getEval_count() : chunks;
+        double tokensPerSecond = last != null ? tokensPerSecond(last.getEval_count(), last.getEval_duration()) : 0;
+        if (tokensPerSecond == 0 && chunks > 0) {
+            long generatingNanos = System.nanoTime() - firstTokenNanos;
+            if (generatingNanos > 0) tokensPerSecond = chunks / (generatingNanos / 1_000_000_000.0);
+        }
+        long ttftMs = firstTokenNanos > 0 ? (firstTokenNanos - startNanos) / 1_000_000 : -1L;
+        return new ChatResult(text.toString(), promptTokens, completionTokens, responseModel, tokensPerSecond,
+                ttftMs, stopReason);
+    }
+
+    private HttpTimeoutException streamTimeout(String effectiveBaseUrl, IOException cause) {
+        HttpTimeoutException e = new HttpTimeoutException("Ollama stream from " + effectiveBaseUrl
+                + " did not complete within " + requestTimeoutSeconds + "s");
+        if (cause != null) e.initCause(cause);
+        return e;
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /** Start of the first stop sequence in {@code text} that ends after {@code from}, or -1. */
+    private static int indexOfStop(StringBuilder text, List<String> stopSequences, int from) {
+        int found = -1;
+        for (String stop : stopSequences) {
+            int i = text.indexOf(stop, Math.max(0, from - stop.length() + 1));
+            if (i >= 0 && (found < 0 || i < found)) found = i;
+        }
+        return found;
+    }
+
     private ChatResult callOllamaChat(String prompt, String effectiveBaseUrl, String effectiveModel) throws Exception {
         OllamaChatRequest.Message msg = new OllamaChatRequest.Message("user", prompt);
         OllamaChatRequest req = new OllamaChatRequest(effectiveModel, List.of(msg), false);
@@ -131,16 +377,9 @@ public final class OllamaModelExecutorPlugin implements ModelExecutorPlugin, Res
                 .timeout(Duration.ofSeconds(requestTimeoutSeconds))
                 .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
                 .build();
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> response = transport.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
         if (response.statusCode() != 200) {
-            String body = response.body();
-            if (response.statusCode() == 404 && body != null && body.contains("not found")) {
-                throw new RuntimeException(
-                    "Ollama model '" + effectiveModel + "' not found. Pull it with: ollama pull " + effectiveModel
-                        + " (or set OLLAMA_MODEL / tenant ollamaModel to a model you have). "
-                        + "Ollama must be available at " + effectiveBaseUrl + ". Original: " + body);
-            }
-            throw new RuntimeException("Ollama API error: " + response.statusCode() + " " + body);
+            throw apiError(response.statusCode(), response.body(), effectiveModel, effectiveBaseUrl);
         }
         String body = response.body();
         OllamaChatResponse resp = MAPPER.readValue(body, OllamaChatResponse.class);
@@ -148,7 +387,9 @@ public final class OllamaModelExecutorPlugin implements ModelExecutorPlugin, Res
         long promptTokens = 0;
         long completionTokens = 0;
         String model = effectiveModel;
+        double tokensPerSecond = 0;
         if (resp != null) {
+            tokensPerSecond = tokensPerSecond(resp.getEval_count(), resp.getEval_duration());
             if (resp.getMessage() != null) content = resp.getMessage().getContent();
             if (resp.getPrompt_eval_count() != null) promptTokens = resp.getPrompt_eval_count();
             if (resp.getEval_count() != null) completionTokens = resp.getEval_count();
@@ -173,7 +414,7 @@ public final class OllamaModelExecutorPlugin implements ModelExecutorPlugin, Res
                 }
             }
         }
-        return new ChatResult(content != null ? content : "", promptTokens, completionTokens, model);
+        return new ChatResult(content != null ? content : "", promptTokens, completionTokens, model, tokensPerSecond);
     }
 
     /**
@@ -5,7 +5,7 @@ import com.olo.plugin.ExecutablePlugin;
 import com.olo.plugin.PluginProvider;
 
 /**
- * SPI provider for the Ollama model-executor plugin. Reads OLLAMA_BASE_URL and OLLAMA_MODEL from env.
+ * SPI provider for the Ollama model-executor plugin. Reads OLLAMA_BASE_URL, OLLAMA_MODEL and OLLAMA_STREAM from env.
  */
 public final class OllamaPluginProvider implements PluginProvider {
 
@@ -16,7 +16,9 @@ public final class OllamaPluginProvider implements PluginProvider {
         if (baseUrl == null || baseUrl.isBlank()) baseUrl = "http://localhost:11434";
         String model = System.getenv("OLLAMA_MODEL");
         if (model == null || model.isBlank()) model = "llama3.2";
-        this.plugin = new OllamaModelExecutorPlugin(baseUrl, model);
+        boolean stream = "true".equalsIgnoreCase(System.getenv("OLLAMA_STREAM"));
+        this.plugin = new OllamaModelExecutorPlugin(baseUrl, model,
+                OllamaModelExecutorPlugin.DEFAULT_REQUEST_TIMEOUT_SECONDS, stream);
     }
 
     @Override
@@ -33,4 +35,9 @@ public final class OllamaPluginProvider implements PluginProvider {
     public ExecutablePlugin getPlugin() {
         return plugin;
     }
+
+    @Override
+    public boolean isReusable() {
+        return true;
+    }
 }
@@ -0,0 +1,119 @@
+package com.olo.plugin.ollama;
+
+import com.olo.config.TenantConfig;
+import com.olo.plugin.PartialOutputContext;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OllamaModelExecutorPluginTest {
+
+    private static final String CHUNK = "{\"model\":\"m\",\"message\":{\"role\":\"assistant\",\"content\":\"%s\"},\"done\":%s}\n";
+
+    /** Serves /api/chat as a stream: the given chunks, then (when {@code stall}) nothing until released. */
+    private static HttpServer server(CountDownLatch release, boolean stall, String... chunks) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/chat", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (String chunk : chunks) {
+                    out.write(chunk.getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+                if (stall) release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception ignored) {
+                // Client closed the stream.
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static String baseUrl(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Test
+    void stalledStreamFailsAtTheRequestTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = server(release, true, String.format(CHUNK, "Hi", false));
+        try {
+            OllamaModelExecutorPlugin plugin = new OllamaModelExecutorPlugin(baseUrl(server), "m", 1, true);
+            long start = System.nanoTime();
+            assertThrows(HttpTimeoutException.class, () -> plugin.execute(Map.of("prompt", "q"), TenantConfig.EMPTY));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(elapsedMs < 5_000, "elapsed " + elapsedMs);
+        } finally {
+            release.countDown();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void streamStopsAtStopSequence() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = server(release, true,
+                String.format(CHUNK, "Hello ", false), String.format(CHUNK, "world.END", false));
+        try {
+            OllamaModelExecutorPlugin plugin = new OllamaModelExecutorPlugin(baseUrl(server), "m", 5, true);
+            Map<String, Object> outputs = plugin.execute(Map.of("prompt", "q", "stopSequences", "END"), TenantConfig.EMPTY);
+            assertEquals("Hello world.", outputs.get("responseText"));
+            assertEquals("stop", outputs.get(OllamaModelExecutorPlugin.OUTPUT_STOP_REASON));
+        } finally {
+            release.countDown();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void streamPassesEachChunkToTheBoundListener() throws Exception {
+        HttpServer server = server(new CountDownLatch(0), false, String.format(CHUNK, "Hello ", false),
+                String.format(CHUNK, "world", false), String.format(CHUNK, "", true));
+        List<String> chunks = new ArrayList<>();
+        PartialOutputContext.set((chunk, textSoFar) -> chunks.add(chunk));
+        try {
+            OllamaModelExecutorPlugin plugin = new OllamaModelExecutorPlugin(baseUrl(server), "m", 5, true);
+            Map<String, Object> outputs = plugin.execute(Map.of("prompt", "q"), TenantConfig.EMPTY);
+            assertEquals(List.of("Hello ", "world"), chunks);
+            assertEquals("Hello world", outputs.get("responseText"));
+            assertEquals("done", outputs.get(OllamaModelExecutorPlugin.OUTPUT_STOP_REASON));
+        } finally {
+            PartialOutputContext.clear();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void listenerCanStopTheStream() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = server(release, true,
+                String.format(CHUNK, "Hello ", false), String.format(CHUNK, "world", false));
+        PartialOutputContext.set((chunk, textSoFar) -> !textSoFar.contains("world"));
+        try {
+            OllamaModelExecutorPlugin plugin = new OllamaModelExecutorPlugin(baseUrl(server), "m", 5, true);
+            Map<String, Object> outputs = plugin.execute(Map.of("prompt", "q"), TenantConfig.EMPTY);
+            assertEquals("Hello world", outputs.get("responseText"));
+            assertEquals("listener", outputs.get(OllamaModelExecutorPlugin.OUTPUT_STOP_REASON));
+        } finally {
+            PartialOutputContext.clear();
+            release.countDown();
+            server.stop(0);
+        }
+    }
+}
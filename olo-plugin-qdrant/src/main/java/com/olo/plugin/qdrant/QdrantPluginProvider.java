@@ -38,4 +38,9 @@ public final class QdrantPluginProvider implements PluginProvider {
     public ExecutablePlugin getPlugin() {
         return plugin;
     }
+
+    @Override
+    public boolean isReusable() {
+        return true;
+    }
 }
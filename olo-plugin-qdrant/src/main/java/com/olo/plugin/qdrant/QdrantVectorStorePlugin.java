@@ -4,9 +4,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.olo.config.TenantConfig;
 import com.olo.plugin.PluginRegistry;
 import com.olo.plugin.VectorStorePlugin;
+import com.olo.plugin.http.PluginHttpTransport;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -33,13 +33,11 @@ public final class QdrantVectorStorePlugin implements VectorStorePlugin {
     private static final String RESULTS = "results";
 
     private final String baseUrl;
-    private final HttpClient httpClient;
+    private final PluginHttpTransport transport;
 
     public QdrantVectorStorePlugin(String baseUrl) {
         this.baseUrl = baseUrl != null && !baseUrl.isBlank() ? baseUrl.trim() : "http://localhost:6333";
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+        this.transport = PluginHttpTransport.shared();
     }
 
     public QdrantVectorStorePlugin() {
@@ -114,7 +112,7 @@ public final class QdrantVectorStorePlugin implements VectorStorePlugin {
                 .timeout(Duration.ofSeconds(30))
                 .PUT(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
                 .build();
-        HttpResponse<String> res = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> res = transport.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
         if (res.statusCode() == 200 || res.statusCode() == 201) return;
         if (res.statusCode() == 409) return; // already exists
         throw new RuntimeException("Qdrant create collection failed: " + res.statusCode() + " " + res.body());
@@ -137,7 +135,7 @@ public final class QdrantVectorStorePlugin implements VectorStorePlugin {
                 .timeout(Duration.ofSeconds(60))
                 .PUT(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
                 .build();
-        HttpResponse<String> res = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> res = transport.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
         if (res.statusCode() != 200) {
             throw new RuntimeException("Qdrant upsert failed: " + res.statusCode() + " " + res.body());
         }
@@ -157,7 +155,7 @@ public final class QdrantVectorStorePlugin implements VectorStorePlugin {
                 .timeout(Duration.ofSeconds(30))
                 .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
                 .build();
-        HttpResponse<String> res = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> res = transport.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
         if (res.statusCode() != 200) {
             throw new RuntimeException("Qdrant query failed: " + res.statusCode() + " " + res.body());
         }
@@ -181,7 +179,7 @@ public final class QdrantVectorStorePlugin implements VectorStorePlugin {
                 .timeout(Duration.ofSeconds(30))
                 .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
                 .build();
-        HttpResponse<String> res = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> res = transport.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
         if (res.statusCode() != 200) {
             throw new RuntimeException("Qdrant delete failed: " + res.statusCode() + " " + res.body());
         }
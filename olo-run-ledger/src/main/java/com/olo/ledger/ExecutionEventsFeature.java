@@ -6,6 +6,7 @@ import com.olo.features.FinallyCall;
 import com.olo.features.NodeExecutionContext;
 import com.olo.features.PluginExecutionResult;
 import com.olo.features.PreNodeCall;
+import com.olo.plugin.PartialOutputContext;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -13,6 +14,8 @@ import java.util.Map;
 /**
  * Emits semantic execution events to {@link ExecutionEventSink} for chat UI display.
  * Expose readable steps (e.g. "Planner decided to call: searchDocuments") instead of raw logs.
+ * While a PLUGIN node runs, partial output from streaming model plugins ({@link PartialOutputContext}) is emitted
+ * as {@link ExecutionEvent.EventType#MODEL_TOKEN} events.
  *
  * @see ExecutionEvent
  * @see ExecutionEvent.EventType
@@ -28,6 +31,8 @@ public final class ExecutionEventsFeature implements PreNodeCall, FinallyCall {
 
     @Override
     public void before(NodeExecutionContext context) {
+        // A node whose pre phase failed never reached afterFinally; do not let its listener see this node's output.
+        PartialOutputContext.clear();
         if (sink == null) return;
         String runId = LedgerContext.getRunId();
         if (runId == null || runId.isBlank()) return;
@@ -39,10 +44,20 @@ public final class ExecutionEventsFeature implements PreNodeCall, FinallyCall {
         String nodeId = context.getNodeId();
         String label = semanticLabel(startedType, context, null);
         sink.emit(runId, new ExecutionEvent(startedType, label, payload(context.getPluginId(), context.getQueueName(), null), now, nodeId));
+        if ("PLUGIN".equalsIgnoreCase(type)) {
+            String pluginId = context.getPluginId();
+            PartialOutputContext.set((chunk, textSoFar) -> {
+                sink.emit(runId, new ExecutionEvent(ExecutionEvent.EventType.MODEL_TOKEN,
+                        ExecutionEvent.uiLabelForEventType(ExecutionEvent.EventType.MODEL_TOKEN),
+                        tokenPayload(pluginId, chunk), System.currentTimeMillis(), nodeId));
+                return true;
+            });
+        }
     }
 
     @Override
     public void afterFinally(NodeExecutionContext context, Object nodeResult) {
+        PartialOutputContext.clear();
         if (sink == null) return;
         String runId = LedgerContext.getRunId();
         if (runId == null || runId.isBlank()) return;
@@ -149,6 +164,13 @@ public final class ExecutionEventsFeature implements PreNodeCall, FinallyCall {
         return text.length() <= maxLen ? text : text.substring(0, maxLen) + "...";
     }
 
+    private static Map<String, Object> tokenPayload(String pluginId, String chunk) {
+        Map<String, Object> p = new LinkedHashMap<>();
+        if (pluginId != null && !pluginId.isBlank()) p.put("pluginId", pluginId);
+        p.put("text", chunk);
+        return p;
+    }
+
     private static Map<String, Object> payload(String pluginId, String queueName, Object nodeResult) {
         Map<String, Object> p = new LinkedHashMap<>();
         if (pluginId != null && !pluginId.isBlank()) p.put("pluginId", pluginId);
@@ -52,7 +52,12 @@ public final class InMemoryExecutionEventSink implements ExecutionEventSink {
         String message = event.getPayload() != null && event.getPayload().get("message") != null
                 ? String.valueOf(event.getPayload().get("message"))
                 : event.getLabel();
-        log.info("Execution event | runId={} | eventType={} | message={}", runId, event.getEventType(), message != null ? message : "");
+        if (ExecutionEvent.EventType.MODEL_TOKEN.equals(event.getEventType())) {
+            // One per streamed chunk; too many for the info log.
+            log.debug("Execution event | runId={} | eventType={} | message={}", runId, event.getEventType(), message != null ? message : "");
+        } else {
+            log.info("Execution event | runId={} | eventType={} | message={}", runId, event.getEventType(), message != null ? message : "");
+        }
         if (maxRuns > 0 && eventsByRunId.size() > maxRuns) {
             evictOldestRun();
         }
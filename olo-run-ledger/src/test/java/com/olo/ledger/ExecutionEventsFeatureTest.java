@@ -0,0 +1,67 @@
+package com.olo.ledger;
+
+import com.olo.features.NodeExecutionContext;
+import com.olo.plugin.PartialOutputContext;
+import com.olo.plugin.PartialOutputListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExecutionEventsFeatureTest {
+
+    private static NodeExecutionContext pluginNode(String nodeId) {
+        return new NodeExecutionContext(nodeId, "PLUGIN", "PLUGIN", null, "t", null, "q", "GPT4_EXECUTOR", null);
+    }
+
+    @Test
+    void pluginNodePartialOutputIsEmittedAsModelTokens() {
+        InMemoryExecutionEventSink sink = InMemoryExecutionEventSink.unbounded();
+        ExecutionEventsFeature feature = new ExecutionEventsFeature(sink);
+        LedgerContext.setRunId("run-1");
+        try {
+            NodeExecutionContext context = pluginNode("n1");
+            feature.before(context);
+            PartialOutputListener listener = PartialOutputContext.get();
+            assertNotNull(listener);
+            listener.onChunk("Hel", "Hel");
+            listener.onChunk("lo", "Hello");
+            feature.afterFinally(context.withExecutionSucceeded(true), null);
+            assertNull(PartialOutputContext.get());
+
+            List<ExecutionEvent> tokens = sink.getEvents("run-1").stream()
+                    .filter(e -> ExecutionEvent.EventType.MODEL_TOKEN.equals(e.getEventType()))
+                    .collect(Collectors.toList());
+            assertEquals(List.of("Hel", "lo"), tokens.stream().map(e -> e.getPayload().get("text")).collect(Collectors.toList()));
+            assertEquals("n1", tokens.get(0).getNodeId());
+            assertEquals(List.of(ExecutionEvent.EventType.MODEL_STARTED, ExecutionEvent.EventType.MODEL_TOKEN,
+                            ExecutionEvent.EventType.MODEL_TOKEN, ExecutionEvent.EventType.MODEL_COMPLETED),
+                    sink.getEvents("run-1").stream().map(ExecutionEvent::getEventType).collect(Collectors.toList()));
+        } finally {
+            PartialOutputContext.clear();
+            LedgerContext.clear();
+        }
+    }
+
+    @Test
+    void listenerLeftByAFailedPrePhaseIsNotReused() {
+        ExecutionEventsFeature feature = new ExecutionEventsFeature(InMemoryExecutionEventSink.unbounded());
+        LedgerContext.setRunId("run-2");
+        try {
+            feature.before(pluginNode("n1"));
+            assertNotNull(PartialOutputContext.get());
+            // n1's pre phase failed after this feature ran, so afterFinally never cleared its listener.
+            feature.before(new NodeExecutionContext("n2", "PLANNER", "PLANNER", null, "t", null, "q", null, null));
+            assertNull(PartialOutputContext.get());
+            feature.before(pluginNode("n3"));
+            assertNotNull(PartialOutputContext.get());
+        } finally {
+            PartialOutputContext.clear();
+            LedgerContext.clear();
+        }
+    }
+}
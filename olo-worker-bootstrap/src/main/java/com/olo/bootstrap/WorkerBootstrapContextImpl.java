@@ -86,18 +86,7 @@ public final class WorkerBootstrapContextImpl implements WorkerBootstrapContext
 
     @Override
     public void runResourceCleanup() {
-        for (Map<String, PluginRegistry.PluginEntry> byId : PluginRegistry.getInstance().getAllByTenant().values()) {
-            for (PluginRegistry.PluginEntry e : byId.values()) {
-                Object p = e.getPlugin();
-                if (p instanceof ResourceCleanup) {
-                    try {
-                        ((ResourceCleanup) p).onExit();
-                    } catch (Exception ex) {
-                        log.warn("Plugin {} onExit failed: {}", e.getId(), ex.getMessage());
-                    }
-                }
-            }
-        }
+        PluginRegistry.getInstance().runResourceCleanup();
         for (FeatureRegistry.FeatureEntry e : FeatureRegistry.getInstance().getAll().values()) {
             Object inst = e.getInstance();
             if (inst instanceof ResourceCleanup) {
@@ -24,6 +24,10 @@ public final class OloSessionCache {
     private static final ObjectMapper JSON_MAPPER = new ObjectMapper()
             .setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
+    /** Content-addressed entries (plan, config) expire after this many seconds if not refreshed. */
+    private static final long CONTENT_TTL_SECONDS = 7L * 24 * 60 * 60;
+    private static final String CONTENT_KEY_SEGMENT = "content:";
+
     private final OloConfig config;
     private final RedisCacheWriter redisWriter;
 
@@ -83,6 +87,40 @@ public final class OloSessionCache {
         log.debug("Cache update: session USERINPUT for tenant={} transactionId={}", tenantId, transactionId);
     }
 
+    /**
+     * Stores content (e.g. execution plan or pipeline config JSON) under its content hash.
+     * Key is tenant-scoped: &lt;tenantId&gt;:olo:kernel:sessions:content:&lt;contentHash&gt;. The same hash always maps to
+     * the same content, so an existing entry is simply overwritten, which also restarts its TTL.
+     */
+    public void putContent(String tenantId, String contentHash, String content) {
+        Objects.requireNonNull(contentHash, "contentHash");
+        Objects.requireNonNull(content, "content");
+        redisWriter.put(contentKey(tenantId, contentHash), content, CONTENT_TTL_SECONDS);
+        log.debug("Content put for tenant={} hash={}", tenantId, contentHash);
+    }
+
+    /**
+     * Returns content previously stored with {@link #putContent(String, String, String)}, or null if missing or expired.
+     * A hit restarts the entry's TTL, so content still in use by running workflows does not expire.
+     */
+    public String getContent(String tenantId, String contentHash) {
+        if (contentHash == null || contentHash.isBlank()) return null;
+        return redisWriter.getAndTouch(contentKey(tenantId, contentHash), CONTENT_TTL_SECONDS);
+    }
+
+    /**
+     * Restarts the TTL of stored content without reading it (for callers that hold the content locally).
+     * Returns false if the entry no longer exists.
+     */
+    public boolean touchContent(String tenantId, String contentHash) {
+        if (contentHash == null || contentHash.isBlank()) return false;
+        return redisWriter.touch(contentKey(tenantId, contentHash), CONTENT_TTL_SECONDS);
+    }
+
+    private String contentKey(String tenantId, String contentHash) {
+        return config.getSessionDataPrefix(tenantId) + CONTENT_KEY_SEGMENT + contentHash;
+    }
+
     private static String toJsonExcludingNulls(WorkflowInput input) {
         try {
             return JSON_MAPPER.writeValueAsString(input);
@@ -3,6 +3,7 @@ package com.olo.config;
 import com.olo.input.producer.CacheWriter;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.params.SetParams;
 
 import java.util.Objects;
 
@@ -30,6 +31,45 @@ final class RedisCacheWriter implements CacheWriter {
         }
     }
 
+    /**
+     * Sets the key, expiring after {@code ttlSeconds}; an existing value and TTL are replaced (e.g. for
+     * content-addressed plan data, where rewriting the same value just extends its lifetime).
+     */
+    public void put(String key, String value, long ttlSeconds) {
+        try (var jedis = pool.getResource()) {
+            jedis.set(key, value, SetParams.setParams().ex(ttlSeconds));
+        }
+    }
+
+    /**
+     * Gets the value of a key and, when present, resets its expiry to {@code ttlSeconds}. Returns null if missing.
+     */
+    public String getAndTouch(String key, long ttlSeconds) {
+        try (var jedis = pool.getResource()) {
+            String value = jedis.get(key);
+            if (value != null) jedis.expire(key, ttlSeconds);
+            return value;
+        }
+    }
+
+    /**
+     * Resets the expiry of a key to {@code ttlSeconds}. Returns true if the key exists.
+     */
+    public boolean touch(String key, long ttlSeconds) {
+        try (var jedis = pool.getResource()) {
+            return jedis.expire(key, ttlSeconds) == 1L;
+        }
+    }
+
+    /**
+     * Gets the value of a key, or null if missing.
+     */
+    public String get(String key) {
+        try (var jedis = pool.getResource()) {
+            return jedis.get(key);
+        }
+    }
+
     /**
      * Gets the current value of a key (e.g. for active workflow count). Returns 0 if key is missing or not a number.
      */
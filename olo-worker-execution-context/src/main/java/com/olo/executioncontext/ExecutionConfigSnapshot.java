@@ -33,7 +33,7 @@ public final class ExecutionConfigSnapshot {
      *
      * @param tenantId             tenant id
      * @param queueName            queue name (e.g. task queue)
-     * @param pipelineConfiguration deep-copied config (must not be mutated during the run)
+     * @param pipelineConfiguration immutable config snapshot (shared with other runs)
      * @param snapshotVersionId    optional version id (e.g. config version from input or config.getVersion())
      */
     public static ExecutionConfigSnapshot of(String tenantId, String queueName,
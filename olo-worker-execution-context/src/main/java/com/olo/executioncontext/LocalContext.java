@@ -1,6 +1,5 @@
 package com.olo.executioncontext;
 
-import com.olo.executiontree.ExecutionTreeConfig;
 import com.olo.executiontree.config.PipelineConfiguration;
 import com.olo.executiontree.load.GlobalConfigurationContext;
 import com.olo.executiontree.load.GlobalContext;
@@ -10,12 +9,14 @@ import org.slf4j.LoggerFactory;
 import java.util.Objects;
 
 /**
- * Local (per-workflow) execution context holding a deep copy of the pipeline configuration
+ * Local (per-workflow) execution context holding the pipeline configuration snapshot
  * (execution tree) for the queue where the workflow was created.
  * <p>
- * Create via {@link #forQueue(String)} when a new workflow starts: obtains the configuration
- * for that queue from the global context and stores a deep copy so the workflow can use it
- * without being affected by later global changes.
+ * Create via {@link #forQueue(String, String)} when a new workflow starts: obtains the configuration
+ * for that queue from the global context and keeps a reference to it. The configuration is immutable
+ * (including node params) and a reload puts a new instance in the global context, so the workflow is not
+ * affected by later global changes without copying it; runs that change parts of it (e.g. planner-built nodes,
+ * {@code with*} methods) get new objects that share the unchanged parts.
  */
 public final class LocalContext {
 
@@ -30,12 +31,12 @@ public final class LocalContext {
     }
 
     /**
-     * Creates a local context for the given tenant and queue by taking a deep copy of the pipeline
-     * configuration from the global context. Call this when a new workflow starts.
+     * Creates a local context for the given tenant and queue from the pipeline configuration snapshot
+     * in the global context. Call this when a new workflow starts.
      *
      * @param tenantKey tenant id (use {@link com.olo.config.OloConfig#normalizeTenantId(String)} if from workflow context)
      * @param queueName task queue name (e.g. olo-chat-queue-ollama or olo-chat-queue-ollama-debug)
-     * @return local context with a deep copy of the execution tree for that queue, or null if no config is loaded for the tenant/queue
+     * @return local context with the configuration snapshot for that queue, or null if no config is loaded for the tenant/queue
      */
     public static LocalContext forQueue(String tenantKey, String queueName) {
         return forQueue(tenantKey, queueName, null);
@@ -50,7 +51,7 @@ public final class LocalContext {
      * @param tenantKey    tenant id
      * @param queueName    task queue name
      * @param configVersion optional version to pin to (e.g. from routing); null = no version check
-     * @return local context with a deep copy, or null if no config is loaded for the tenant/queue
+     * @return local context with the configuration snapshot, or null if no config is loaded for the tenant/queue
      * @throws ConfigVersionMismatchException if configVersion is set and does not match the loaded config version
      */
     public static LocalContext forQueue(String tenantKey, String queueName, String configVersion) {
@@ -68,18 +69,8 @@ public final class LocalContext {
                 throw new ConfigVersionMismatchException(configVersion.trim(), loadedVersion != null ? loadedVersion : "(none)");
             }
         }
-        PipelineConfiguration deepCopy = deepCopy(source);
-        log.debug("Created LocalContext for tenant={} queue={} with deep copy of pipeline configuration", tenant, queueName);
-        return new LocalContext(queueName, deepCopy);
-    }
-
-    /**
-     * Returns a deep copy of the given pipeline configuration (via JSON round-trip).
-     */
-    public static PipelineConfiguration deepCopy(PipelineConfiguration config) {
-        if (config == null) return null;
-        String json = ExecutionTreeConfig.toJson(config);
-        return ExecutionTreeConfig.fromJson(json);
+        log.debug("Created LocalContext for tenant={} queue={} sharing pipeline configuration snapshot", tenant, queueName);
+        return new LocalContext(queueName, source);
     }
 
     /** Queue name this context was created for. */
@@ -87,7 +78,7 @@ public final class LocalContext {
         return queueName;
     }
 
-    /** Deep copy of the pipeline configuration (execution tree) for this queue. Safe to use and mutate locally. */
+    /** Pipeline configuration (execution tree) for this queue. Immutable and shared with other runs of the same config. */
     public PipelineConfiguration getPipelineConfiguration() {
         return pipelineConfiguration;
     }
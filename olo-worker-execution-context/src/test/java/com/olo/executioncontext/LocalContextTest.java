@@ -0,0 +1,47 @@
+package com.olo.executioncontext;
+
+import com.olo.config.OloConfig;
+import com.olo.executiontree.config.PipelineConfiguration;
+import com.olo.executiontree.load.GlobalConfigurationContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocalContextTest {
+
+    private static PipelineConfiguration load(String tenant, String queue, String version) {
+        PipelineConfiguration config = new PipelineConfiguration(version, null, null, null, Map.of());
+        GlobalConfigurationContext.put(OloConfig.normalizeTenantId(tenant), queue, config);
+        return config;
+    }
+
+    @Test
+    void everyRunSharesTheLoadedSnapshot() {
+        PipelineConfiguration config = load("t-local", "q-shared", "1.0");
+
+        LocalContext first = LocalContext.forQueue("t-local", "q-shared");
+        LocalContext second = LocalContext.forQueue("t-local", "q-shared");
+
+        assertSame(config, first.getPipelineConfiguration());
+        assertSame(config, second.getPipelineConfiguration());
+        assertEquals("q-shared", first.getQueueName());
+    }
+
+    @Test
+    void pinnedVersionMustMatchTheLoadedOne() {
+        PipelineConfiguration config = load("t-local", "q-pinned", "2.0");
+
+        assertSame(config, LocalContext.forQueue("t-local", "q-pinned", " 2.0 ").getPipelineConfiguration());
+        assertThrows(ConfigVersionMismatchException.class, () -> LocalContext.forQueue("t-local", "q-pinned", "1.0"));
+    }
+
+    @Test
+    void unknownQueueHasNoContext() {
+        assertNull(LocalContext.forQueue("t-local", "q-missing"));
+    }
+}
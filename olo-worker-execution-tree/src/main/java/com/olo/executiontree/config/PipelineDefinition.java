@@ -9,6 +9,7 @@ import com.olo.executiontree.scope.Scope;
 import com.olo.executiontree.defaults.ActivityDefaultTimeouts;
 import com.olo.executiontree.tree.ExecutionTreeNode;
 import com.olo.executiontree.variableregistry.VariableRegistryEntry;
+import com.olo.executiontree.variableregistry.VariableSlots;
 
 import java.util.Collections;
 import java.util.List;
@@ -33,6 +34,10 @@ public final class PipelineDefinition {
     private final List<ResultMapping> resultMapping;
     private final ExecutionType executionType;
     private final Map<String, ActivityDefaultTimeouts> resolvedNodeTimeouts;
+    /** id → node of {@link #executionTree}; built once per definition (the tree is immutable). Not serialized. */
+    private final Map<String, ExecutionTreeNode> nodeIndex;
+    /** Slot layout of {@link #variableRegistry}; built once per definition. Not serialized. */
+    private final VariableSlots variableSlots;
 
     @JsonCreator
     public PipelineDefinition(
@@ -56,6 +61,8 @@ public final class PipelineDefinition {
         this.resultMapping = resultMapping != null ? List.copyOf(resultMapping) : List.of();
         this.executionType = executionType != null ? executionType : ExecutionType.SYNC;
         this.resolvedNodeTimeouts = resolvedNodeTimeouts != null ? Collections.unmodifiableMap(resolvedNodeTimeouts) : null;
+        this.nodeIndex = ExecutionTreeNode.indexById(executionTree);
+        this.variableSlots = VariableSlots.of(this.variableRegistry);
     }
 
     /** Constructor for JSON deserialization when resolvedNodeTimeouts is not present. */
@@ -89,6 +96,11 @@ public final class PipelineDefinition {
         return variableRegistry;
     }
 
+    /** Slot index of each registry variable (array-backed variable storage during execution). */
+    public VariableSlots variableSlots() {
+        return variableSlots;
+    }
+
     public Scope getScope() {
         return scope;
     }
@@ -97,6 +109,15 @@ public final class PipelineDefinition {
         return executionTree;
     }
 
+    /**
+     * Returns the node with the given id in the execution tree, or null. Constant-time lookup via the index built
+     * with the definition; same result as {@link ExecutionTreeNode#findNodeById} on {@link #getExecutionTree()}.
+     */
+    public ExecutionTreeNode findNode(String nodeId) {
+        if (nodeId == null || nodeId.isBlank()) return null;
+        return nodeIndex.get(nodeId);
+    }
+
     /** Output contract: final result shape to the user. */
     public OutputContract getOutputContract() {
         return outputContract;
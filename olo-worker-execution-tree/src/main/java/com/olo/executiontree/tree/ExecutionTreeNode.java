@@ -3,6 +3,12 @@ package com.olo.executiontree.tree;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -84,7 +90,7 @@ public final class ExecutionTreeNode {
         this.finallyExecution = finallyExecution != null ? List.copyOf(finallyExecution) : List.of();
         this.featureRequired = featureRequired != null ? List.copyOf(featureRequired) : List.of();
         this.featureNotRequired = featureNotRequired != null ? List.copyOf(featureNotRequired) : List.of();
-        this.params = params != null ? Map.copyOf(params) : Map.of();
+        this.params = params != null ? freezeParams(params) : Map.of();
         this.scheduleToStartSeconds = scheduleToStartSeconds;
         this.startToCloseSeconds = startToCloseSeconds;
         this.scheduleToCloseSeconds = scheduleToCloseSeconds;
@@ -95,6 +101,31 @@ public final class ExecutionTreeNode {
         return id;
     }
 
+    /** Copies params with nested maps and lists made unmodifiable, so one parsed tree can be shared by all runs. */
+    private static Map<String, Object> freezeParams(Map<String, Object> params) {
+        Map<String, Object> frozen = new HashMap<>();
+        for (Map.Entry<String, Object> e : params.entrySet()) {
+            frozen.put(e.getKey(), freezeValue(e.getValue()));
+        }
+        return Map.copyOf(frozen);
+    }
+
+    private static Object freezeValue(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> out = new LinkedHashMap<>();
+            map.forEach((k, v) -> out.put(k, freezeValue(v)));
+            return Collections.unmodifiableMap(out);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> out = new ArrayList<>(list.size());
+            for (Object v : list) {
+                out.add(freezeValue(v));
+            }
+            return Collections.unmodifiableList(out);
+        }
+        return value;
+    }
+
     /**
      * Finds a node by id in the tree (DFS). Returns null if not found.
      */
@@ -110,6 +141,28 @@ public final class ExecutionTreeNode {
         return null;
     }
 
+    /**
+     * Builds an id → node index of the tree (pre-order DFS; on duplicate ids the first node wins, as in
+     * {@link #findNodeById}). Nodes with null or blank id are skipped. Returned map is unmodifiable.
+     */
+    public static Map<String, ExecutionTreeNode> indexById(ExecutionTreeNode root) {
+        if (root == null) return Map.of();
+        Map<String, ExecutionTreeNode> index = new HashMap<>();
+        Deque<ExecutionTreeNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            ExecutionTreeNode node = stack.pop();
+            if (node.id != null && !node.id.isBlank()) index.putIfAbsent(node.id, node);
+            List<ExecutionTreeNode> children = node.children;
+            if (children != null) {
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    if (children.get(i) != null) stack.push(children.get(i));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
     /** Human-readable name for UI (optional). */
     public String getDisplayName() {
         return displayName;
@@ -185,6 +238,40 @@ public final class ExecutionTreeNode {
         );
     }
 
+    /**
+     * Returns a new tree where every node id is prefixed with {@code prefix} (null ids stay null).
+     * Use to inline a sub-pipeline's tree under a parent node without id collisions.
+     */
+    public static ExecutionTreeNode withIdPrefix(ExecutionTreeNode node, String prefix) {
+        if (node == null) return null;
+        List<ExecutionTreeNode> newChildren = node.children.stream()
+                .map(child -> withIdPrefix(child, prefix))
+                .toList();
+        return new ExecutionTreeNode(
+                node.id != null ? prefix + node.id : null,
+                node.displayName,
+                node.type,
+                newChildren,
+                node.nodeType,
+                node.pluginRef,
+                node.inputMappings,
+                node.outputMappings,
+                node.features,
+                node.preExecution,
+                node.postExecution,
+                node.postSuccessExecution,
+                node.postErrorExecution,
+                node.finallyExecution,
+                node.featureRequired,
+                node.featureNotRequired,
+                node.params,
+                node.scheduleToStartSeconds,
+                node.startToCloseSeconds,
+                node.scheduleToCloseSeconds,
+                node.executionMode
+        );
+    }
+
     /**
      * Returns a new node with the same fields but the given feature list.
      * Use when attaching pipeline/queue features to planner-added or other dynamic nodes.
@@ -297,7 +384,7 @@ public final class ExecutionTreeNode {
         return featureNotRequired;
     }
 
-    /** Type-specific parameters (e.g. conditionVariable for IF, mergeStrategy for JOIN, collectionVariable for ITERATOR). Unmodifiable. */
+    /** Type-specific parameters (e.g. conditionVariable for IF, mergeStrategy for JOIN, collectionVariable for ITERATOR). Unmodifiable, including nested maps and lists. */
     public Map<String, Object> getParams() {
         return params;
     }
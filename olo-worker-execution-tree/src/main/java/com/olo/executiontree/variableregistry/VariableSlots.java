@@ -0,0 +1,58 @@
+package com.olo.executiontree.variableregistry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Slot layout of a variable registry: each distinct variable name gets a fixed index (registry order, first
+ * occurrence wins), so executions can hold variables in an array instead of a map. Immutable.
+ */
+public final class VariableSlots {
+
+    private static final VariableSlots EMPTY = new VariableSlots(List.of());
+
+    private final Map<String, Integer> slotByName;
+    private final List<String> names;
+
+    private VariableSlots(List<String> names) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            index.put(names.get(i), i);
+        }
+        this.slotByName = Collections.unmodifiableMap(index);
+        this.names = List.copyOf(names);
+    }
+
+    /** Builds the layout for the registry; entries without a name are ignored. */
+    public static VariableSlots of(List<VariableRegistryEntry> registry) {
+        if (registry == null || registry.isEmpty()) return EMPTY;
+        Set<String> names = new LinkedHashSet<>();
+        for (VariableRegistryEntry entry : registry) {
+            String name = entry != null ? entry.getName() : null;
+            if (name != null) names.add(name);
+        }
+        return new VariableSlots(new ArrayList<>(names));
+    }
+
+    /** Slot of the variable, or -1 when it is not declared in the registry. */
+    public int slotOf(String name) {
+        if (name == null) return -1;
+        Integer slot = slotByName.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    /** Variable name at the slot. */
+    public String name(int slot) {
+        return names.get(slot);
+    }
+
+    /** Number of slots (distinct declared variables). */
+    public int size() {
+        return names.size();
+    }
+}
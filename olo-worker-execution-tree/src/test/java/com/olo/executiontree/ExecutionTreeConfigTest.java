@@ -20,6 +20,8 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ExecutionTreeConfigTest {
@@ -192,6 +194,23 @@ class ExecutionTreeConfigTest {
         assertEquals(pipeline, parsed);
     }
 
+    @Test
+    void findNode_matchesTreeSearch() {
+        PipelineConfiguration config = ExecutionTreeConfig.fromJson(SAMPLE_CONFIG_JSON);
+        PipelineDefinition pipeline = config.getPipelines().get("ai-pipeline");
+        ExecutionTreeNode root = pipeline.getExecutionTree();
+        assertSame(root, pipeline.findNode("root"));
+        assertSame(ExecutionTreeNode.findNodeById(root, "modelNode"), pipeline.findNode("modelNode"));
+        assertNull(pipeline.findNode("missing"));
+        assertNull(pipeline.findNode(null));
+
+        PipelineConfiguration normalized = ExecutionTreeConfig.ensureUniqueNodeIds(config);
+        PipelineDefinition normalizedPipeline = normalized.getPipelines().get("ai-pipeline");
+        String childId = normalizedPipeline.getExecutionTree().getChildren().get(0).getId();
+        assertSame(normalizedPipeline.getExecutionTree().getChildren().get(0), normalizedPipeline.findNode(childId));
+        assertNull(normalizedPipeline.findNode("modelNode"));
+    }
+
     @Test
     void ensureUniqueNodeIds_assignsUuidWhenIdNotValidUuid() {
         PipelineConfiguration config = ExecutionTreeConfig.fromJson(SAMPLE_CONFIG_JSON);
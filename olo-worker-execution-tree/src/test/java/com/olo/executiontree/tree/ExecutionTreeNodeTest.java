@@ -0,0 +1,73 @@
+package com.olo.executiontree.tree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExecutionTreeNodeTest {
+
+    private static ExecutionTreeNode nodeWithParams(Map<String, Object> params) {
+        return new ExecutionTreeNode("n", "n", NodeType.PLUGIN, List.of(), null, null, null, null, null, null, null,
+                null, null, null, null, null, params, null, null, null, null);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void nestedParamsAreUnmodifiable() {
+        Map<String, Object> inner = new LinkedHashMap<>();
+        inner.put("tags", new ArrayList<>(List.of("a")));
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("meta", inner);
+        params.put("list", new ArrayList<>(List.of(new LinkedHashMap<>(Map.of("k", "v")))));
+
+        Map<String, Object> frozen = nodeWithParams(params).getParams();
+        Map<String, Object> meta = (Map<String, Object>) frozen.get("meta");
+        List<Object> tags = (List<Object>) meta.get("tags");
+        Map<String, Object> listed = (Map<String, Object>) ((List<Object>) frozen.get("list")).get(0);
+
+        assertThrows(UnsupportedOperationException.class, () -> frozen.put("x", 1));
+        assertThrows(UnsupportedOperationException.class, () -> meta.put("x", 1));
+        assertThrows(UnsupportedOperationException.class, () -> tags.add("b"));
+        assertThrows(UnsupportedOperationException.class, () -> listed.put("x", 1));
+    }
+
+    @Test
+    void paramsDoNotTrackTheSourceMaps() {
+        List<Object> tags = new ArrayList<>(List.of("a"));
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("tags", tags);
+
+        ExecutionTreeNode node = nodeWithParams(params);
+        tags.add("b");
+        params.put("late", true);
+
+        assertEquals(Map.of("tags", List.of("a")), node.getParams());
+    }
+
+    @Test
+    void withIdPrefixRenamesEveryNodeAndKeepsTheRest() {
+        ExecutionTreeNode child = new ExecutionTreeNode("c", "Child", NodeType.PLUGIN, List.of(), null, "P", null, null,
+                List.of("f"), null, null, null, null, null, null, null, Map.of("k", "v"), null, null, null, null);
+        ExecutionTreeNode root = new ExecutionTreeNode("r", "Root", NodeType.SEQUENCE, List.of(child), null, null, null,
+                null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+
+        ExecutionTreeNode prefixed = ExecutionTreeNode.withIdPrefix(root, "sp/");
+        ExecutionTreeNode prefixedChild = prefixed.getChildren().get(0);
+
+        assertEquals("sp/r", prefixed.getId());
+        assertEquals("sp/c", prefixedChild.getId());
+        assertEquals("Child", prefixedChild.getDisplayName());
+        assertEquals("P", prefixedChild.getPluginRef());
+        assertEquals(List.of("f"), prefixedChild.getFeatures());
+        assertEquals(Map.of("k", "v"), prefixedChild.getParams());
+        assertEquals("c", root.getChildren().get(0).getId());
+        assertNull(ExecutionTreeNode.withIdPrefix(null, "sp/"));
+    }
+}
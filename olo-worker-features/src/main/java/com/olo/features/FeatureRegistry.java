@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Global registry of features. Register classes annotated with {@link OloFeature};
@@ -19,6 +20,8 @@ public final class FeatureRegistry {
     private static final FeatureRegistry INSTANCE = new FeatureRegistry();
 
     private final Map<String, FeatureEntry> byName = new ConcurrentHashMap<>();
+    /** Bumped on every registration change so callers can cache results derived from the registry. */
+    private final AtomicLong modificationCount = new AtomicLong();
 
     public static FeatureRegistry getInstance() {
         return INSTANCE;
@@ -70,6 +73,7 @@ public final class FeatureRegistry {
         if (byName.putIfAbsent(name, entry) != null) {
             throw new IllegalArgumentException("Feature already registered: " + name);
         }
+        modificationCount.incrementAndGet();
     }
 
     /**
@@ -105,6 +109,7 @@ public final class FeatureRegistry {
         if (byName.putIfAbsent(name, entry) != null) {
             throw new IllegalArgumentException("Feature already registered: " + name);
         }
+        modificationCount.incrementAndGet();
     }
 
     public void register(String name, FeaturePhase phase, String[] applicableNodeTypes, String contractVersion, Object featureInstance) {
@@ -139,11 +144,17 @@ public final class FeatureRegistry {
         return Collections.unmodifiableMap(byName);
     }
 
+    /** Changes whenever a feature is registered or the registry is cleared; use to invalidate derived caches. */
+    public long getModificationCount() {
+        return modificationCount.get();
+    }
+
     /**
      * Clears all registrations (mainly for tests).
      */
     public void clear() {
         byName.clear();
+        modificationCount.incrementAndGet();
     }
 
     /**
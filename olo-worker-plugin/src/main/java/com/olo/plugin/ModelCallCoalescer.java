@@ -0,0 +1,195 @@
+package com.olo.plugin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.olo.config.TenantConfig;
+
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight for model-executor calls: while a call for (tenant, plugin id, inputs) is in flight, identical calls
+ * wait for it and get a copy of its outputs (or its failure) instead of calling the model again. Nothing is kept
+ * once the call completes (see {@link com.olo.plugin.cache.ModelResponseCache} for caching).
+ * <p>
+ * Opt-in, since callers that want independent samples of the same prompt must not share one: tenant config
+ * {@value #TENANT_KEY} (true/false), falling back to env {@code OLO_MODEL_SINGLE_FLIGHT} (default false).
+ * <p>
+ * A waiter only shares the leader's own outcome: when the leader is interrupted or cancelled (e.g. it lost a FORK
+ * race), its waiters re-issue the call and one of them becomes the new leader. A waiter that is interrupted stops
+ * waiting on its own; one that has waited {@code OLO_MODEL_SINGLE_FLIGHT_MAX_WAIT_MS} (default 0 = as long as the
+ * leader runs) makes its own call.
+ */
+public final class ModelCallCoalescer {
+
+    /** Tenant config key enabling single-flight for the tenant's model-executor calls. */
+    static final String TENANT_KEY = "modelSingleFlight";
+
+    private static final ModelCallCoalescer SHARED = new ModelCallCoalescer(
+            "true".equalsIgnoreCase(System.getenv("OLO_MODEL_SINGLE_FLIGHT")),
+            parseLong(System.getenv("OLO_MODEL_SINGLE_FLIGHT_MAX_WAIT_MS"), 0L));
+    /** Inputs serialize with sorted map keys so equal inputs give the same key regardless of map order. */
+    private static final ObjectMapper KEY_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    interface ModelCall {
+        Map<String, Object> call() throws Exception;
+    }
+
+    /** Completes a leader's future when the leader gave up without an outcome of its own; waiters re-issue. */
+    private static final class LeaderAbandoned extends RuntimeException {
+        LeaderAbandoned() {
+            super("single-flight leader was interrupted", null, false, false);
+        }
+    }
+
+    /** A waiter's own max wait ran out (kept apart from a TimeoutException the leader's call may fail with). */
+    private static final class WaitTimedOut extends RuntimeException {
+        WaitTimedOut() {
+            super("single-flight wait timed out", null, false, false);
+        }
+    }
+
+    private final boolean enabledByDefault;
+    private final long maxWaitMs;
+    private final Map<String, CompletableFuture<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder reissued = new LongAdder();
+    private final LongAdder waitTimeouts = new LongAdder();
+
+    ModelCallCoalescer(boolean enabledByDefault) {
+        this(enabledByDefault, 0L);
+    }
+
+    /**
+     * @param maxWaitMs how long a waiter waits for the leader before making its own call; 0 = no limit
+     */
+    ModelCallCoalescer(boolean enabledByDefault, long maxWaitMs) {
+        this.enabledByDefault = enabledByDefault;
+        this.maxWaitMs = Math.max(0L, maxWaitMs);
+    }
+
+    /** Process-wide coalescer used for all model-executor plugin calls. */
+    public static ModelCallCoalescer shared() {
+        return SHARED;
+    }
+
+    /**
+     * Runs {@code call}, or waits for an identical one already in flight. Falls through to a plain call when
+     * single-flight is off for the tenant or the inputs cannot be serialized into a key.
+     */
+    Map<String, Object> execute(String tenantId, String pluginId, Map<String, Object> inputs,
+                                TenantConfig tenantConfig, ModelCall call) throws Exception {
+        String key = isEnabled(tenantConfig) ? key(tenantId, pluginId, inputs) : null;
+        if (key == null) return call.call();
+        while (true) {
+            CompletableFuture<Map<String, Object>> mine = new CompletableFuture<>();
+            CompletableFuture<Map<String, Object>> running = inFlight.putIfAbsent(key, mine);
+            if (running == null) return lead(key, mine, call);
+            coalesced.increment();
+            try {
+                return copy(await(running));
+            } catch (LeaderAbandoned e) {
+                reissued.increment();
+            } catch (WaitTimedOut e) {
+                waitTimeouts.increment();
+                calls.increment();
+                return call.call();
+            }
+        }
+    }
+
+    private Map<String, Object> lead(String key, CompletableFuture<Map<String, Object>> mine, ModelCall call)
+            throws Exception {
+        calls.increment();
+        try {
+            Map<String, Object> outputs = call.call();
+            mine.complete(outputs);
+            inFlight.remove(key, mine);
+            return outputs;
+        } catch (Exception | Error e) {
+            // Removed first, so waiters that re-issue do not find this future again.
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(interrupted(e) ? new LeaderAbandoned() : e);
+            throw e;
+        }
+    }
+
+    /** True when the failure is the calling thread's interrupt or cancellation rather than the model call's own. */
+    private static boolean interrupted(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) return true;
+        for (Throwable c = e; c != null; c = c.getCause() == c ? null : c.getCause()) {
+            if (c instanceof InterruptedException || c instanceof InterruptedIOException
+                    || c instanceof ClosedByInterruptException || c instanceof CancellationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isEnabled(TenantConfig tenantConfig) {
+        Object v = tenantConfig != null ? tenantConfig.get(TENANT_KEY) : null;
+        if (v == null) return enabledByDefault;
+        return v instanceof Boolean b ? b : "true".equalsIgnoreCase(v.toString().trim());
+    }
+
+    private static String key(String tenantId, String pluginId, Map<String, Object> inputs) {
+        try {
+            return tenantId + '\u0000' + pluginId + '\u0000' + KEY_MAPPER.writeValueAsString(inputs);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /** Waits for the leader; the waiter's own interrupt ends the wait with InterruptedException. */
+    private Map<String, Object> await(CompletableFuture<Map<String, Object>> running) throws Exception {
+        try {
+            return maxWaitMs > 0 ? running.get(maxWaitMs, TimeUnit.MILLISECONDS) : running.get();
+        } catch (TimeoutException e) {
+            throw new WaitTimedOut();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            if (cause instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    /** Each waiter gets its own map, since callers may add to or modify the outputs they receive. */
+    private static Map<String, Object> copy(Map<String, Object> outputs) {
+        return outputs != null ? new LinkedHashMap<>(outputs) : null;
+    }
+
+    /**
+     * Counters since startup: calls (made upstream), coalesced (waited on another in-flight call), reissued (waits
+     * whose leader was interrupted), waitTimeouts (waiters that gave up and called themselves) and inFlight.
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        out.put("calls", calls.sum());
+        out.put("coalesced", coalesced.sum());
+        out.put("reissued", reissued.sum());
+        out.put("waitTimeouts", waitTimeouts.sum());
+        out.put("inFlight", (long) inFlight.size());
+        return out;
+    }
+
+    private static long parseLong(String s, long defaultValue) {
+        if (s == null || s.isBlank()) return defaultValue;
+        try {
+            return Long.parseLong(s.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.olo.plugin;
+
+/**
+ * Thread-local {@link PartialOutputListener} for the plugin call running on this thread. Set before the node's plugin
+ * runs and cleared after it; plugins call {@link #get()} and skip partial output when it returns null.
+ */
+public final class PartialOutputContext {
+
+    private static final ThreadLocal<PartialOutputListener> LISTENER = new ThreadLocal<>();
+
+    private PartialOutputContext() {
+    }
+
+    public static void set(PartialOutputListener listener) {
+        LISTENER.set(listener);
+    }
+
+    public static PartialOutputListener get() {
+        return LISTENER.get();
+    }
+
+    public static void clear() {
+        LISTENER.remove();
+    }
+}
@@ -0,0 +1,19 @@
+package com.olo.plugin;
+
+/**
+ * Receives partial output of a model call as it is generated (e.g. streamed chat chunks), so consumers can show text
+ * before the node completes. The worker binds one per node with {@link PartialOutputContext}; plugins that stream
+ * read it from there.
+ */
+@FunctionalInterface
+public interface PartialOutputListener {
+
+    /**
+     * Called for each chunk of generated text, on the thread that runs the plugin.
+     *
+     * @param chunk     text added by this chunk
+     * @param textSoFar all text generated so far, including {@code chunk}
+     * @return false to stop generation early
+     */
+    boolean onChunk(String chunk, String textSoFar);
+}
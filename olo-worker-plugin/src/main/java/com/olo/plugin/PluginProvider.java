@@ -39,6 +39,19 @@ public interface PluginProvider {
         return getPlugin();
     }
 
+    /**
+     * Whether plugin instances are thread-safe and may be shared by all nodes and runs. When true, the registry
+     * creates one instance per tenant registration ({@link #createPlugin()}, on first use) and returns it for every
+     * node instead of a per-node instance, so clients and connection pools are built once per worker.
+     * Return true only when the plugin keeps no per-node or per-run state: anything it holds (HTTP clients,
+     * transports, batchers, caches) must be safe for concurrent calls from unrelated runs. The shared instance's
+     * {@link com.olo.annotations.ResourceCleanup#onExit()} is invoked once at worker shutdown.
+     * Default false (per-node instances).
+     */
+    default boolean isReusable() {
+        return false;
+    }
+
     /**
      * Plugin/contract version for compatibility and audit (e.g. "1.0", "2.1.0").
      * Used for config compatibility checks and future pluginId+version resolution.
@@ -1,6 +1,9 @@
 package com.olo.plugin;
 
+import com.olo.annotations.ResourceCleanup;
 import com.olo.config.OloConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.Map;
@@ -14,6 +17,7 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public final class PluginRegistry {
 
+    private static final Logger log = LoggerFactory.getLogger(PluginRegistry.class);
     private static final PluginRegistry INSTANCE = new PluginRegistry();
 
     /** tenantId → (pluginId → PluginEntry) */
@@ -171,6 +175,8 @@ public final class PluginRegistry {
      * Returns the plugin instance for the given node. One instance per node in the tree (mounted per node);
      * when the same node runs again (e.g. in a loop), the same instance is returned. {@code cache} is keyed by nodeId
      * and must be run-scoped (e.g. created at the start of execution and passed through).
+     * Providers that declare {@link PluginProvider#isReusable()} get one warm instance per registration instead,
+     * shared by all nodes and runs; the cache is not used for them.
      *
      * @param tenantId tenant id
      * @param pluginId plugin id
@@ -184,6 +190,7 @@ public final class PluginRegistry {
         PluginEntry e = get(tenantId, pluginId);
         if (e == null) return null;
         if (e.provider != null) {
+            if (e.provider.isReusable()) return e.getSharedInstance();
             ExecutablePlugin cached = cache.get(nodeId);
             if (cached != null) return cached;
             Object p = e.provider.createPlugin();
@@ -250,6 +257,33 @@ public final class PluginRegistry {
         return Collections.unmodifiableMap(pluginsByTenant);
     }
 
+    /**
+     * Invokes {@link ResourceCleanup#onExit()} on every registered plugin that implements it, and on the shared
+     * instance of each reusable provider once it has been created. Failures are logged and do not stop the sweep.
+     */
+    public void runResourceCleanup() {
+        for (Map<String, PluginEntry> byId : pluginsByTenant.values()) {
+            for (PluginEntry e : byId.values()) {
+                Object p = e.getPlugin();
+                if (p instanceof ResourceCleanup) {
+                    try {
+                        ((ResourceCleanup) p).onExit();
+                    } catch (Exception ex) {
+                        log.warn("Plugin {} onExit failed: {}", e.getId(), ex.getMessage());
+                    }
+                }
+                Object shared = e.peekSharedInstance();
+                if (shared != null && shared != p && shared instanceof ResourceCleanup) {
+                    try {
+                        ((ResourceCleanup) shared).onExit();
+                    } catch (Exception ex) {
+                        log.warn("Plugin {} shared instance onExit failed: {}", e.getId(), ex.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
     /** Removes all registrations (mainly for tests). */
     public void clear() {
         pluginsByTenant.clear();
@@ -266,6 +300,8 @@ public final class PluginRegistry {
         private final Map<String, Object> capabilityMetadata;
         private final Object plugin;
         private final PluginProvider provider;
+        /** Warm instance for reusable providers; created on first use. */
+        private volatile ExecutablePlugin sharedInstance;
 
         PluginEntry(String id, String contractType, String contractVersion, Object plugin) {
             this(id, contractType, contractVersion, null, plugin, null);
@@ -303,5 +339,29 @@ public final class PluginRegistry {
         public Object getPlugin() {
             return provider != null ? provider.getPlugin() : plugin;
         }
+
+        /**
+         * Instance shared by all nodes and runs for a reusable provider ({@link PluginProvider#isReusable()}),
+         * created on first call; null when the provider is not reusable or there is no provider.
+         */
+        public ExecutablePlugin getSharedInstance() {
+            if (provider == null || !provider.isReusable()) return null;
+            ExecutablePlugin instance = sharedInstance;
+            if (instance == null) {
+                synchronized (this) {
+                    instance = sharedInstance;
+                    if (instance == null) {
+                        instance = provider.createPlugin();
+                        sharedInstance = instance;
+                    }
+                }
+            }
+            return instance;
+        }
+
+        /** Shared instance if it has been created, else null (does not create it). */
+        public ExecutablePlugin peekSharedInstance() {
+            return sharedInstance;
+        }
     }
 }
@@ -4,6 +4,12 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.olo.config.TenantConfigRegistry;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -28,22 +34,90 @@ public final class RegistryPluginExecutor implements com.olo.plugin.PluginExecut
 
     @Override
     public String execute(String pluginId, String inputsJson, String nodeId) {
-        ExecutablePlugin plugin = (nodeId != null && nodeInstanceCache != null)
-                ? PluginRegistry.getInstance().getExecutable(tenantId, pluginId, nodeId, nodeInstanceCache)
-                : PluginRegistry.getInstance().getExecutable(tenantId, pluginId);
-        if (plugin == null) {
-            throw new IllegalArgumentException("No plugin registered for tenant=" + tenantId + " id=" + pluginId);
-        }
+        ExecutablePlugin plugin = resolve(pluginId, nodeId);
         Map<String, Object> inputs;
         try {
             inputs = MAPPER.readValue(inputsJson, MAP_TYPE);
         } catch (Exception e) {
             throw new IllegalArgumentException("Invalid inputs JSON for plugin " + pluginId + ": " + e.getMessage(), e);
         }
+        Map<String, Object> outputs = invoke(plugin, pluginId, inputs);
+        try {
+            return MAPPER.writeValueAsString(outputs);
+        } catch (Exception e) {
+            throw new RuntimeException("Plugin execution failed: " + pluginId + " - " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * In-process path: hands the input map to the plugin and returns its outputs without JSON.
+     * Inputs and outputs are deep-copied ({@link #plainCopy}), so the plugin never holds the caller's live nested
+     * values and variables hold the same kinds of values the JSON path would produce.
+     */
+    @Override
+    public Map<String, Object> executeWithMap(String pluginId, Map<String, Object> inputs, String nodeId) {
+        ExecutablePlugin plugin = resolve(pluginId, nodeId);
+        return plainCopy(invoke(plugin, pluginId, inputs != null ? plainCopy(inputs) : null));
+    }
+
+    /**
+     * Copies a map the way a JSON round trip would, without serializing: nested maps and lists are copied, strings
+     * and booleans are shared, numbers take the type Jackson would read back and other values are converted with
+     * {@code convertValue}.
+     */
+    static Map<String, Object> plainCopy(Map<?, ?> map) {
+        Map<String, Object> out = new LinkedHashMap<>(Math.max(4, map.size() * 4 / 3 + 1));
+        for (Map.Entry<?, ?> e : map.entrySet()) {
+            out.put(String.valueOf(e.getKey()), plainValue(e.getValue()));
+        }
+        return out;
+    }
+
+    private static Object plainValue(Object v) {
+        if (v == null || v instanceof String || v instanceof Boolean || v instanceof Integer || v instanceof Double) {
+            return v;
+        }
+        if (v instanceof Map<?, ?> m) return plainCopy(m);
+        if (v instanceof Collection<?> c) {
+            List<Object> out = new ArrayList<>(c.size());
+            for (Object item : c) out.add(plainValue(item));
+            return out;
+        }
+        if (v instanceof Long || v instanceof Short || v instanceof Byte || v instanceof BigInteger) {
+            return integral(v instanceof BigInteger b ? b : BigInteger.valueOf(((Number) v).longValue()));
+        }
+        if (v instanceof Float f) return Double.valueOf(f.toString());
+        if (v instanceof BigDecimal d) return d.doubleValue();
+        return MAPPER.convertValue(v, Object.class);
+    }
+
+    /** Integer, Long or BigInteger, whichever is the smallest that holds the value (as Jackson reads JSON ints). */
+    private static Object integral(BigInteger b) {
+        if (b.bitLength() < 32) return b.intValue();
+        if (b.bitLength() < 64) return b.longValue();
+        return b;
+    }
+
+    private ExecutablePlugin resolve(String pluginId, String nodeId) {
+        ExecutablePlugin plugin = (nodeId != null && nodeInstanceCache != null)
+                ? PluginRegistry.getInstance().getExecutable(tenantId, pluginId, nodeId, nodeInstanceCache)
+                : PluginRegistry.getInstance().getExecutable(tenantId, pluginId);
+        if (plugin == null) {
+            throw new IllegalArgumentException("No plugin registered for tenant=" + tenantId + " id=" + pluginId);
+        }
+        return plugin;
+    }
+
+    private Map<String, Object> invoke(ExecutablePlugin plugin, String pluginId, Map<String, Object> inputs) {
         var tenantConfig = TenantConfigRegistry.getInstance().get(tenantId);
+        Map<String, Object> in = inputs != null ? inputs : Map.of();
         try {
-            Map<String, Object> outputs = plugin.execute(inputs != null ? inputs : Map.of(), tenantConfig);
-            return MAPPER.writeValueAsString(outputs != null ? outputs : Map.of());
+            // Model calls with identical inputs may share one in-flight upstream call (opt-in; see ModelCallCoalescer).
+            Map<String, Object> outputs = plugin instanceof ModelExecutorPlugin
+                    ? ModelCallCoalescer.shared().execute(tenantId, pluginId, in, tenantConfig,
+                            () -> plugin.execute(in, tenantConfig))
+                    : plugin.execute(in, tenantConfig);
+            return outputs != null ? outputs : Map.of();
         } catch (Exception e) {
             throw new RuntimeException("Plugin execution failed: " + pluginId + " - " + e.getMessage(), e);
         }
@@ -0,0 +1,392 @@
+package com.olo.plugin.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.olo.config.TenantConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Opt-in cache of model-executor plugin outputs, keyed by a SHA-256 hash of the normalized request (tenant, plugin,
+ * endpoint, model, messages, options). Two tiers: a bounded in-memory LRU and, when a directory is configured, one
+ * JSON file per entry on local disk so entries survive worker restarts. Failed calls are never cached.
+ * <p>
+ * Caching is enabled per tenant by a positive TTL: tenant config {@value #TENANT_TTL_KEY} (seconds), falling back to
+ * env {@code OLO_MODEL_RESPONSE_CACHE_TTL_SECONDS} (unset or 0 = disabled). Env {@code OLO_MODEL_RESPONSE_CACHE_DIR}
+ * enables the disk tier; {@code OLO_MODEL_RESPONSE_CACHE_MAX_ENTRIES} bounds the memory tier (default 1024) and
+ * {@code OLO_MODEL_RESPONSE_CACHE_DIR_MAX_BYTES} the disk tier (default 256 MiB).
+ * <p>
+ * Each disk entry's last-modified time is set to its expiry, so the disk sweep works from file attributes alone:
+ * it deletes expired entries and, while the tier is over its bound, the entries closest to expiry. The sweep runs in
+ * the background at most every {@value #SWEEP_INTERVAL_MS} ms after a write, or sooner once writes push the tier
+ * over its bound.
+ */
+public final class ModelResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelResponseCache.class);
+
+    /** Tenant config key: TTL in seconds for this tenant's cached responses (0 disables caching for the tenant). */
+    public static final String TENANT_TTL_KEY = "modelResponseCacheTtlSeconds";
+
+    static final int DEFAULT_MAX_ENTRIES = 1024;
+    static final long DEFAULT_MAX_DISK_BYTES = 256L * 1024 * 1024;
+    static final long SWEEP_INTERVAL_MS = 10 * 60_000L;
+    /** Temp files older than this are left over from a crash mid-write. */
+    private static final long STALE_TEMP_MS = 60 * 60_000L;
+
+    /** Request keys serialize with sorted map keys so equal requests hash the same regardless of map order. */
+    private static final ObjectMapper KEY_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    /** Runs disk sweeps off the caller and off the common pool; one daemon thread, gone when idle. */
+    private static final ExecutorService SWEEPER = newSweeper();
+
+    private static volatile ModelResponseCache shared;
+
+    private final Map<String, Entry> memory;
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final long defaultTtlSeconds;
+    /** Disk tier size as of the last sweep plus bytes written since; triggers an early sweep past the bound. */
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile long lastSweepMs;
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder diskEvictions = new LongAdder();
+
+    private static final class Entry {
+        final Map<String, Object> outputs;
+        final long expiresAtMs;
+
+        Entry(Map<String, Object> outputs, long expiresAtMs) {
+            this.outputs = outputs;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+
+    /**
+     * @param maxEntries        bound of the in-memory tier
+     * @param directory         disk tier directory, or null for memory only
+     * @param defaultTtlSeconds TTL for tenants without {@value #TENANT_TTL_KEY}; 0 disables caching for them
+     */
+    public ModelResponseCache(int maxEntries, Path directory, long defaultTtlSeconds) {
+        this(maxEntries, directory, DEFAULT_MAX_DISK_BYTES, defaultTtlSeconds);
+    }
+
+    /**
+     * @param maxEntries        bound of the in-memory tier
+     * @param directory         disk tier directory, or null for memory only
+     * @param maxDiskBytes      bound of the disk tier, enforced by the sweep
+     * @param defaultTtlSeconds TTL for tenants without {@value #TENANT_TTL_KEY}; 0 disables caching for them
+     */
+    public ModelResponseCache(int maxEntries, Path directory, long maxDiskBytes, long defaultTtlSeconds) {
+        int max = Math.max(1, maxEntries);
+        this.memory = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > max;
+            }
+        });
+        this.directory = directory;
+        this.maxDiskBytes = Math.max(1L, maxDiskBytes);
+        this.defaultTtlSeconds = Math.max(0L, defaultTtlSeconds);
+    }
+
+    /** Process-wide cache configured from env, shared by all model-executor plugins. */
+    public static ModelResponseCache shared() {
+        ModelResponseCache c = shared;
+        if (c == null) {
+            synchronized (ModelResponseCache.class) {
+                c = shared;
+                if (c == null) {
+                    String dir = System.getenv("OLO_MODEL_RESPONSE_CACHE_DIR");
+                    c = new ModelResponseCache(
+                            parseInt(System.getenv("OLO_MODEL_RESPONSE_CACHE_MAX_ENTRIES"), DEFAULT_MAX_ENTRIES),
+                            dir != null && !dir.isBlank() ? Paths.get(dir.trim()) : null,
+                            parseLong(System.getenv("OLO_MODEL_RESPONSE_CACHE_DIR_MAX_BYTES"), DEFAULT_MAX_DISK_BYTES),
+                            parseInt(System.getenv("OLO_MODEL_RESPONSE_CACHE_TTL_SECONDS"), 0));
+                    shared = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Returns the cached outputs for the request when the tenant has caching enabled and a live entry exists;
+     * otherwise runs {@code call} and caches its result. The returned map is a mutable copy.
+     *
+     * @param request normalized request description (plugin, endpoint, model, messages, options); JSON-serializable
+     */
+    public Map<String, Object> getOrCall(TenantConfig tenantConfig, Map<String, Object> request,
+                                         Callable<Map<String, Object>> call) throws Exception {
+        return getOrCall(tenantConfig, request, Set.of(), call);
+    }
+
+    /**
+     * Same as {@link #getOrCall(TenantConfig, Map, Callable)}; {@code perCallKeys} (e.g. timings) are returned from a
+     * live call but not stored, so a cache hit never reports another call's measurements.
+     */
+    public Map<String, Object> getOrCall(TenantConfig tenantConfig, Map<String, Object> request, Set<String> perCallKeys,
+                                         Callable<Map<String, Object>> call) throws Exception {
+        long ttlSeconds = ttlSeconds(tenantConfig);
+        if (ttlSeconds <= 0) return call.call();
+        String tenantId = tenantConfig != null ? tenantConfig.getTenantId() : "";
+        String key = key(tenantId, request);
+        Map<String, Object> cached = get(key);
+        if (cached != null) return new HashMap<>(cached);
+        misses.increment();
+        Map<String, Object> outputs = call.call();
+        if (outputs != null) put(key, outputs, perCallKeys, ttlSeconds);
+        return outputs;
+    }
+
+    /** TTL in seconds for the tenant: tenant config {@value #TENANT_TTL_KEY}, else the default. */
+    long ttlSeconds(TenantConfig tenantConfig) {
+        Object v = tenantConfig != null ? tenantConfig.get(TENANT_TTL_KEY) : null;
+        if (v instanceof Number n) return n.longValue();
+        return v != null ? parseInt(v.toString(), (int) defaultTtlSeconds) : defaultTtlSeconds;
+    }
+
+    /** Hex SHA-256 of the tenant id and the request serialized with sorted map keys. */
+    static String key(String tenantId, Map<String, Object> request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Objects.toString(tenantId, "").getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(KEY_MAPPER.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException("Cannot hash model request", e);
+        }
+    }
+
+    private Map<String, Object> get(String key) {
+        long now = System.currentTimeMillis();
+        Entry entry = memory.get(key);
+        if (entry != null) {
+            if (entry.expiresAtMs > now) {
+                memoryHits.increment();
+                return entry.outputs;
+            }
+            memory.remove(key);
+        }
+        entry = readFromDisk(key, now);
+        if (entry == null) return null;
+        memory.put(key, entry);
+        diskHits.increment();
+        return entry.outputs;
+    }
+
+    private void put(String key, Map<String, Object> outputs, Set<String> perCallKeys, long ttlSeconds) {
+        Map<String, Object> stored = new HashMap<>(outputs);
+        stored.keySet().removeAll(perCallKeys);
+        Entry entry = new Entry(Collections.unmodifiableMap(stored), System.currentTimeMillis() + ttlSeconds * 1000L);
+        memory.put(key, entry);
+        writes.increment();
+        writeToDisk(key, entry);
+    }
+
+    private Entry readFromDisk(String key, long now) {
+        if (directory == null) return null;
+        Path file = fileFor(key);
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            Map<String, Object> stored = MAPPER.readValue(file.toFile(), MAP_TYPE);
+            long expiresAtMs = stored.get("expiresAtMs") instanceof Number n ? n.longValue() : 0L;
+            Object outputs = stored.get("outputs");
+            if (expiresAtMs <= now || !(outputs instanceof Map)) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> outputMap = (Map<String, Object>) outputs;
+            return new Entry(Collections.unmodifiableMap(outputMap), expiresAtMs);
+        } catch (IOException e) {
+            log.warn("Model response cache: unreadable entry {}; ignoring: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes to a temp file and moves it into place, so readers never see a partial entry. The file's last-modified
+     * time is the entry's expiry (see {@link #sweepDisk}).
+     */
+    private void writeToDisk(String key, Entry entry) {
+        if (directory == null) return;
+        Path file = fileFor(key);
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tmp = Files.createTempFile(file.getParent(), key, ".tmp");
+            Map<String, Object> stored = new LinkedHashMap<>();
+            stored.put("expiresAtMs", entry.expiresAtMs);
+            stored.put("outputs", entry.outputs);
+            MAPPER.writeValue(tmp.toFile(), stored);
+            Files.setLastModifiedTime(tmp, FileTime.fromMillis(entry.expiresAtMs));
+            long size = Files.size(tmp);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+            diskBytes.addAndGet(size);
+        } catch (IOException e) {
+            log.warn("Model response cache: could not write {}; entry kept in memory only: {}", file, e.getMessage());
+        } finally {
+            if (tmp != null) deleteQuietly(tmp);
+        }
+        long now = System.currentTimeMillis();
+        if ((now - lastSweepMs >= SWEEP_INTERVAL_MS || diskBytes.get() > maxDiskBytes) && sweeping.compareAndSet(false, true)) {
+            lastSweepMs = now;
+            SWEEPER.execute(() -> {
+                try {
+                    sweepDisk(System.currentTimeMillis());
+                } finally {
+                    sweeping.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Deletes expired entries and stale temp files, then, while the tier is over {@code maxDiskBytes}, the entries
+     * that expire first. Works from file attributes only (last-modified time is the expiry).
+     */
+    void sweepDisk(long now) {
+        if (directory == null || !Files.isDirectory(directory)) return;
+        List<Path> live = new ArrayList<>();
+        Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+        long total = 0;
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    continue;
+                }
+                if (!attrs.isRegularFile()) continue;
+                String name = file.getFileName().toString();
+                long modifiedMs = attrs.lastModifiedTime().toMillis();
+                if (name.endsWith(".tmp")) {
+                    if (now - modifiedMs > STALE_TEMP_MS) deleteQuietly(file);
+                } else if (name.endsWith(".json")) {
+                    if (modifiedMs <= now) {
+                        deleteQuietly(file);
+                        diskEvictions.increment();
+                    } else {
+                        live.add(file);
+                        attributes.put(file, attrs);
+                        total += attrs.size();
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Model response cache: sweep of {} failed: {}", directory, e.getMessage());
+            return;
+        }
+        if (total > maxDiskBytes) {
+            live.sort(Comparator.comparingLong(f -> attributes.get(f).lastModifiedTime().toMillis()));
+            for (Path file : live) {
+                if (total <= maxDiskBytes) break;
+                deleteQuietly(file);
+                total -= attributes.get(file).size();
+                diskEvictions.increment();
+            }
+        }
+        diskBytes.set(total);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /** {@code <dir>/<first two hex chars>/<hash>.json}, so no single directory holds every entry. */
+    private Path fileFor(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    /** Counters since startup: memoryHits, diskHits, misses, writes, diskEvictions, memoryEntries, diskBytes. */
+    public Map<String, Long> stats() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        out.put("memoryHits", memoryHits.sum());
+        out.put("diskHits", diskHits.sum());
+        out.put("misses", misses.sum());
+        out.put("writes", writes.sum());
+        out.put("diskEvictions", diskEvictions.sum());
+        out.put("memoryEntries", (long) memory.size());
+        out.put("diskBytes", diskBytes.get());
+        return out;
+    }
+
+    /** One counter from {@link #stats()}; 0 when the counter is unknown. */
+    public long stat(String name) {
+        return stats().getOrDefault(name, 0L);
+    }
+
+    private static ExecutorService newSweeper() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "olo-model-cache-sweep");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static long parseLong(String s, long defaultValue) {
+        if (s == null || s.isBlank()) return defaultValue;
+        try {
+            return Long.parseLong(s.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static int parseInt(String s, int defaultValue) {
+        if (s == null || s.isBlank()) return defaultValue;
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
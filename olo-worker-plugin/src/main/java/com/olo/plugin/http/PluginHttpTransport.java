@@ -0,0 +1,332 @@
+package com.olo.plugin.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared HTTP transport for plugins that call HTTP services (Ollama, LiteLLM, Qdrant, image backends). Requests are
+ * routed per endpoint (scheme, host, port): each endpoint gets its own {@link HttpClient} and so its own connection
+ * pool, an optional cap on concurrent requests, and latency/error counters (see {@link #stats()}).
+ * <p>
+ * HTTPS endpoints prefer HTTP/2 (negotiated via ALPN, falling back to HTTP/1.1); plain HTTP endpoints use HTTP/1.1
+ * keep-alive, since most local model servers do not speak cleartext HTTP/2. Request timeouts stay with each plugin.
+ * <p>
+ * A caller waits for a concurrency slot at most the request's own timeout (else the transport's acquire timeout),
+ * then fails with {@link HttpTimeoutException} like any other timed-out request.
+ * <p>
+ * Env: {@code OLO_PLUGIN_HTTP_CONNECT_TIMEOUT_SECONDS} (default 10), {@code OLO_PLUGIN_HTTP_MAX_CONCURRENCY} per
+ * endpoint (default 0 = unlimited), {@code OLO_PLUGIN_HTTP_ENDPOINT_MAX_CONCURRENCY} per-endpoint overrides
+ * ({@code http://host:port=n,...}), {@code OLO_PLUGIN_HTTP_ACQUIRE_TIMEOUT_SECONDS} slot wait for requests without a
+ * timeout (default 60), {@code OLO_PLUGIN_HTTP_KEEPALIVE_SECONDS} idle time before a pooled connection is closed
+ * (JDK-wide; applied only if {@code jdk.httpclient.keepalive.timeout} is not already set).
+ */
+public final class PluginHttpTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(PluginHttpTransport.class);
+
+    static final int DEFAULT_CONNECT_TIMEOUT_SECONDS = 10;
+    static final int DEFAULT_ACQUIRE_TIMEOUT_SECONDS = 60;
+
+    private static volatile PluginHttpTransport shared;
+
+    private final Duration connectTimeout;
+    private final int maxConcurrencyPerEndpoint;
+    private final Map<String, Integer> endpointMaxConcurrency;
+    private final Duration acquireTimeout;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * @param connectTimeoutSeconds     TCP/TLS connect timeout for every endpoint
+     * @param maxConcurrencyPerEndpoint requests allowed in flight per endpoint; further callers wait (0 = unlimited)
+     */
+    public PluginHttpTransport(int connectTimeoutSeconds, int maxConcurrencyPerEndpoint) {
+        this(connectTimeoutSeconds, maxConcurrencyPerEndpoint, Map.of(), DEFAULT_ACQUIRE_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * @param endpointMaxConcurrency per-endpoint caps overriding {@code maxConcurrencyPerEndpoint}, keyed by
+     *                               {@link #endpointKey(URI)} (0 = unlimited for that endpoint)
+     * @param acquireTimeoutSeconds  how long a request without its own timeout waits for a slot
+     */
+    public PluginHttpTransport(int connectTimeoutSeconds, int maxConcurrencyPerEndpoint,
+                               Map<String, Integer> endpointMaxConcurrency, int acquireTimeoutSeconds) {
+        this.connectTimeout = Duration.ofSeconds(connectTimeoutSeconds > 0 ? connectTimeoutSeconds : DEFAULT_CONNECT_TIMEOUT_SECONDS);
+        this.maxConcurrencyPerEndpoint = Math.max(0, maxConcurrencyPerEndpoint);
+        this.endpointMaxConcurrency = endpointMaxConcurrency != null ? Map.copyOf(endpointMaxConcurrency) : Map.of();
+        this.acquireTimeout = Duration.ofSeconds(acquireTimeoutSeconds > 0 ? acquireTimeoutSeconds : DEFAULT_ACQUIRE_TIMEOUT_SECONDS);
+    }
+
+    /** Process-wide transport configured from env, shared by all HTTP plugins. */
+    public static PluginHttpTransport shared() {
+        PluginHttpTransport t = shared;
+        if (t == null) {
+            synchronized (PluginHttpTransport.class) {
+                t = shared;
+                if (t == null) {
+                    applyKeepAlive(System.getenv("OLO_PLUGIN_HTTP_KEEPALIVE_SECONDS"));
+                    t = new PluginHttpTransport(
+                            parseInt(System.getenv("OLO_PLUGIN_HTTP_CONNECT_TIMEOUT_SECONDS"), DEFAULT_CONNECT_TIMEOUT_SECONDS),
+                            parseInt(System.getenv("OLO_PLUGIN_HTTP_MAX_CONCURRENCY"), 0),
+                            parseEndpointMaxConcurrency(System.getenv("OLO_PLUGIN_HTTP_ENDPOINT_MAX_CONCURRENCY")),
+                            parseInt(System.getenv("OLO_PLUGIN_HTTP_ACQUIRE_TIMEOUT_SECONDS"), DEFAULT_ACQUIRE_TIMEOUT_SECONDS));
+                    shared = t;
+                }
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Sends the request on its endpoint's client, waiting for a slot first when the endpoint is at its concurrency
+     * cap. The slot, the in-flight count and the latency measurement last until the response body is done: for
+     * buffered handlers (ofString, ofByteArray) that is before {@code send} returns; for streaming handlers (ofLines,
+     * ofInputStream) it is when the body has been read to the end or closed, so callers must close streamed bodies.
+     *
+     * @throws HttpTimeoutException when no slot frees up within the request's timeout (or the acquire timeout)
+     */
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        Endpoint endpoint = endpoint(request.uri());
+        if (endpoint.permits != null) {
+            Duration wait = request.timeout().orElse(acquireTimeout);
+            if (!endpoint.permits.tryAcquire(wait.toMillis(), TimeUnit.MILLISECONDS)) {
+                endpoint.rejected.increment();
+                throw new HttpTimeoutException("No free slot for " + endpoint.key + " within " + wait.toMillis() + " ms");
+            }
+        }
+        Lease lease = new Lease(endpoint);
+        try {
+            HttpResponse<T> response = endpoint.client.send(request, info -> new LeasedSubscriber<>(handler.apply(info), lease));
+            if (response.statusCode() >= 400) endpoint.errorResponses.increment();
+            return response;
+        } catch (IOException e) {
+            lease.release(true);
+            throw e;
+        } catch (InterruptedException | RuntimeException | Error e) {
+            lease.release(false);
+            throw e;
+        }
+    }
+
+    private Endpoint endpoint(URI uri) {
+        return endpoints.computeIfAbsent(endpointKey(uri), this::newEndpoint);
+    }
+
+    private Endpoint newEndpoint(String key) {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .version(key.startsWith("https:") ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .build();
+        int maxConcurrency = endpointMaxConcurrency.getOrDefault(key, maxConcurrencyPerEndpoint);
+        if (log.isInfoEnabled()) {
+            log.info("Plugin HTTP endpoint {} | maxConcurrency={}", key, maxConcurrency > 0 ? maxConcurrency : "unlimited");
+        }
+        return new Endpoint(key, client, maxConcurrency > 0 ? new Semaphore(maxConcurrency, true) : null);
+    }
+
+    /** {@code scheme://host:port} with the scheme's default port filled in. */
+    static String endpointKey(URI uri) {
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "http";
+        int port = uri.getPort() >= 0 ? uri.getPort() : ("https".equals(scheme) ? 443 : 80);
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : "";
+        return scheme + "://" + host + ":" + port;
+    }
+
+    /**
+     * Parses per-endpoint caps from {@code endpoint=n} pairs separated by commas; the endpoint may be any URL of
+     * the service (its path is ignored). Malformed pairs are skipped.
+     */
+    static Map<String, Integer> parseEndpointMaxConcurrency(String spec) {
+        Map<String, Integer> out = new LinkedHashMap<>();
+        if (spec == null || spec.isBlank()) return out;
+        for (String pair : spec.split(",")) {
+            int eq = pair.lastIndexOf('=');
+            if (eq <= 0) continue;
+            try {
+                URI uri = URI.create(pair.substring(0, eq).trim());
+                if (uri.getHost() == null) continue;
+                out.put(endpointKey(uri), Math.max(0, Integer.parseInt(pair.substring(eq + 1).trim())));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring malformed OLO_PLUGIN_HTTP_ENDPOINT_MAX_CONCURRENCY entry: {}", pair.trim());
+            }
+        }
+        return out;
+    }
+
+    /** Endpoints ({@code scheme://host:port}) this transport has sent to so far. */
+    public Set<String> endpoints() {
+        return Set.copyOf(endpoints.keySet());
+    }
+
+    /**
+     * Per-endpoint counters since startup: requests, failures (I/O errors and timeouts), errorResponses (HTTP 4xx/5xx),
+     * rejected (no concurrency slot in time), totalMillis and maxMillis (time in {@code send}), inFlight and waiting
+     * (for a concurrency slot).
+     */
+    public Map<String, Map<String, Long>> stats() {
+        Map<String, Map<String, Long>> out = new TreeMap<>();
+        endpoints.forEach((key, e) -> out.put(key, e.stats()));
+        return out;
+    }
+
+    /** One counter from {@link #stats()} for one endpoint; 0 when the endpoint or counter is unknown. */
+    public long stat(String endpointKey, String name) {
+        Endpoint e = endpoints.get(endpointKey);
+        return e != null ? e.stats().getOrDefault(name, 0L) : 0L;
+    }
+
+    /** One request's slot, in-flight count and start time; released once, when the exchange or its body ends. */
+    private static final class Lease {
+        final Endpoint endpoint;
+        final long startNanos = System.nanoTime();
+        final AtomicBoolean released = new AtomicBoolean();
+
+        Lease(Endpoint endpoint) {
+            this.endpoint = endpoint;
+            endpoint.inFlight.increment();
+        }
+
+        void release(boolean failed) {
+            if (!released.compareAndSet(false, true)) return;
+            endpoint.record(System.nanoTime() - startNanos);
+            if (failed) endpoint.failures.increment();
+            endpoint.inFlight.decrement();
+            if (endpoint.permits != null) endpoint.permits.release();
+        }
+    }
+
+    /** Hands the body to the caller's subscriber; releases the lease when the body completes, fails or is cancelled. */
+    private static final class LeasedSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private final HttpResponse.BodySubscriber<T> delegate;
+        private final Lease lease;
+
+        LeasedSubscriber(HttpResponse.BodySubscriber<T> delegate, Lease lease) {
+            this.delegate = delegate;
+            this.lease = lease;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    try {
+                        subscription.cancel();
+                    } finally {
+                        lease.release(false);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            try {
+                delegate.onError(throwable);
+            } finally {
+                lease.release(true);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                delegate.onComplete();
+            } finally {
+                lease.release(false);
+            }
+        }
+    }
+
+    private static final class Endpoint {
+        final String key;
+        final HttpClient client;
+        final Semaphore permits;
+        final LongAdder requests = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder errorResponses = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final LongAdder inFlight = new LongAdder();
+
+        Endpoint(String key, HttpClient client, Semaphore permits) {
+            this.key = key;
+            this.client = client;
+            this.permits = permits;
+        }
+
+        void record(long nanos) {
+            requests.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Long> stats() {
+            Map<String, Long> out = new LinkedHashMap<>();
+            out.put("requests", requests.sum());
+            out.put("failures", failures.sum());
+            out.put("errorResponses", errorResponses.sum());
+            out.put("rejected", rejected.sum());
+            out.put("totalMillis", totalNanos.sum() / 1_000_000L);
+            out.put("maxMillis", maxNanos.get() / 1_000_000L);
+            out.put("inFlight", inFlight.sum());
+            out.put("waiting", permits != null ? (long) permits.getQueueLength() : 0L);
+            return out;
+        }
+    }
+
+    /** The JDK reads its keep-alive timeout once, when the first client is created; later changes have no effect. */
+    private static void applyKeepAlive(String seconds) {
+        if (seconds == null || seconds.isBlank() || System.getProperty("jdk.httpclient.keepalive.timeout") != null) return;
+        int s = parseInt(seconds, 0);
+        if (s > 0) System.setProperty("jdk.httpclient.keepalive.timeout", Integer.toString(s));
+    }
+
+    private static int parseInt(String s, int defaultValue) {
+        if (s == null || s.isBlank()) return defaultValue;
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -10,6 +10,7 @@
  *   <li>{@link com.olo.plugin.PluginManager} – internal registration and community loading from a controlled directory</li>
  *   <li>{@link com.olo.plugin.RestrictedPluginClassLoader} – hardened parent for community JARs (plugin API + slf4j only)</li>
  *   <li>{@link com.olo.plugin.PluginRegistry} – tenant-scoped registration and lookup</li>
+ *   <li>{@link com.olo.plugin.PartialOutputListener}, {@link com.olo.plugin.PartialOutputContext} – partial model output (streamed chunks) for the node running on this thread</li>
  *   <li>{@link com.olo.annotations.ResourceCleanup} – onExit() for shutdown</li>
  * </ul>
  * <p>
@@ -0,0 +1,166 @@
+package com.olo.plugin;
+
+import com.olo.config.TenantConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelCallCoalescerTest {
+
+    private static final Map<String, Object> INPUTS = Map.of("prompt", "q");
+
+    private static Map<String, Object> run(ModelCallCoalescer coalescer, ModelCallCoalescer.ModelCall call) throws Exception {
+        return coalescer.execute("t", "p", INPUTS, TenantConfig.of("t", Map.of()), call);
+    }
+
+    /** Call that blocks until {@code release} and then answers {@code text}. */
+    private static ModelCallCoalescer.ModelCall blocking(CountDownLatch started, CountDownLatch release, String text) {
+        return () -> {
+            started.countDown();
+            release.await();
+            return Map.of("text", text);
+        };
+    }
+
+    private static long stat(ModelCallCoalescer coalescer, String name) {
+        return coalescer.stats().get(name);
+    }
+
+    private static void awaitStat(ModelCallCoalescer coalescer, String name, long value) throws InterruptedException {
+        for (int i = 0; i < 500 && stat(coalescer, name) < value; i++) Thread.sleep(10);
+        assertEquals(value, stat(coalescer, name), name);
+    }
+
+    @Test
+    void waitersShareTheLeadersCall() throws Exception {
+        ModelCallCoalescer coalescer = new ModelCallCoalescer(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<Map<String, Object>> leader = executor.submit(() -> run(coalescer, blocking(started, release, "a")));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Map<String, Object>> w1 = executor.submit(() -> run(coalescer, () -> Map.of("text", "own")));
+            Future<Map<String, Object>> w2 = executor.submit(() -> run(coalescer, () -> Map.of("text", "own")));
+            awaitStat(coalescer, "coalesced", 2);
+            release.countDown();
+
+            assertEquals(Map.of("text", "a"), leader.get(5, TimeUnit.SECONDS));
+            Map<String, Object> first = w1.get(5, TimeUnit.SECONDS);
+            assertEquals(Map.of("text", "a"), first);
+            assertNotSame(first, w2.get(5, TimeUnit.SECONDS));
+            assertEquals(1L, stat(coalescer, "calls"));
+            assertEquals(0L, stat(coalescer, "inFlight"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void interruptedLeaderDoesNotFailItsWaiters() throws Exception {
+        ModelCallCoalescer coalescer = new ModelCallCoalescer(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Future<Map<String, Object>> leader = executor.submit(() -> run(coalescer, blocking(started, new CountDownLatch(1), "a")));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Map<String, Object>> waiter = executor.submit(() -> run(coalescer, () -> Map.of("text", "reissued")));
+            awaitStat(coalescer, "coalesced", 1);
+
+            leader.cancel(true);
+
+            assertEquals(Map.of("text", "reissued"), waiter.get(5, TimeUnit.SECONDS));
+            assertEquals(1L, stat(coalescer, "reissued"));
+            assertEquals(2L, stat(coalescer, "calls"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void leadersOwnFailureReachesWaiters() throws Exception {
+        ModelCallCoalescer coalescer = new ModelCallCoalescer(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<Map<String, Object>> leader = executor.submit(() -> run(coalescer, () -> {
+                started.countDown();
+                release.await();
+                throw new IllegalStateException("model down");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Map<String, Object>> waiter = executor.submit(() -> run(coalescer, () -> Map.of("text", "own")));
+            awaitStat(coalescer, "coalesced", 1);
+            release.countDown();
+
+            Exception thrown = assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertTrue(thrown.getCause() instanceof IllegalStateException, String.valueOf(thrown.getCause()));
+            assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertEquals(1L, stat(coalescer, "calls"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void interruptedWaiterStopsWaitingAlone() throws Exception {
+        ModelCallCoalescer coalescer = new ModelCallCoalescer(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Exception> waiterError = new AtomicReference<>();
+        try {
+            Future<Map<String, Object>> leader = executor.submit(() -> run(coalescer, blocking(started, release, "a")));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<?> waiter = executor.submit(() -> {
+                try {
+                    run(coalescer, () -> Map.of("text", "own"));
+                } catch (Exception e) {
+                    waiterError.set(e);
+                }
+            });
+            awaitStat(coalescer, "coalesced", 1);
+
+            waiter.cancel(true);
+            for (int i = 0; i < 500 && waiterError.get() == null; i++) Thread.sleep(10);
+            release.countDown();
+
+            assertTrue(waiterError.get() instanceof InterruptedException, String.valueOf(waiterError.get()));
+            assertEquals(Map.of("text", "a"), leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void waiterPastMaxWaitMakesItsOwnCall() throws Exception {
+        ModelCallCoalescer coalescer = new ModelCallCoalescer(true, 50L);
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<Map<String, Object>> leader = executor.submit(() -> run(coalescer, blocking(started, release, "a")));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertEquals(Map.of("text", "own"), run(coalescer, () -> Map.of("text", "own")));
+            assertEquals(1L, stat(coalescer, "waitTimeouts"));
+
+            release.countDown();
+            assertEquals(Map.of("text", "a"), leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.olo.plugin;
+
+import com.olo.annotations.ResourceCleanup;
+import com.olo.config.TenantConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PluginRegistryTest {
+
+    static final class CountingPlugin implements ExecutablePlugin, ResourceCleanup {
+        final AtomicInteger exits = new AtomicInteger();
+
+        @Override
+        public Map<String, Object> execute(Map<String, Object> inputs, TenantConfig tenantConfig) {
+            return Map.of();
+        }
+
+        @Override
+        public void onExit() {
+            exits.incrementAndGet();
+        }
+    }
+
+    static final class CountingProvider implements PluginProvider {
+        final boolean reusable;
+        final CountingPlugin singleton = new CountingPlugin();
+        final AtomicInteger created = new AtomicInteger();
+        CountingPlugin last;
+
+        CountingProvider(boolean reusable) {
+            this.reusable = reusable;
+        }
+
+        @Override
+        public String getPluginId() {
+            return "counting";
+        }
+
+        @Override
+        public String getContractType() {
+            return ContractType.REDUCER;
+        }
+
+        @Override
+        public ExecutablePlugin getPlugin() {
+            return singleton;
+        }
+
+        @Override
+        public ExecutablePlugin createPlugin() {
+            created.incrementAndGet();
+            last = new CountingPlugin();
+            return last;
+        }
+
+        @Override
+        public boolean isReusable() {
+            return reusable;
+        }
+    }
+
+    private static CountingProvider register(String tenant, boolean reusable) {
+        CountingProvider provider = new CountingProvider(reusable);
+        PluginRegistry.getInstance().register(tenant, "counting", ContractType.REDUCER, "1.0", null, provider);
+        return provider;
+    }
+
+    @Test
+    void reusableProviderYieldsOneInstanceAcrossNodesAndRuns() {
+        CountingProvider provider = register("t-reusable", true);
+        PluginRegistry registry = PluginRegistry.getInstance();
+        Map<String, ExecutablePlugin> run1 = new HashMap<>();
+        Map<String, ExecutablePlugin> run2 = new HashMap<>();
+
+        ExecutablePlugin a = registry.getExecutable("t-reusable", "counting", "n1", run1);
+        ExecutablePlugin b = registry.getExecutable("t-reusable", "counting", "n2", run1);
+        ExecutablePlugin c = registry.getExecutable("t-reusable", "counting", "n1", run2);
+
+        assertSame(a, b);
+        assertSame(a, c);
+        assertEquals(1, provider.created.get());
+        assertEquals(0, run1.size());
+    }
+
+    @Test
+    void nonReusableProviderYieldsOneInstancePerNodePerRun() {
+        CountingProvider provider = register("t-per-node", false);
+        PluginRegistry registry = PluginRegistry.getInstance();
+        Map<String, ExecutablePlugin> run1 = new HashMap<>();
+        Map<String, ExecutablePlugin> run2 = new HashMap<>();
+
+        ExecutablePlugin a = registry.getExecutable("t-per-node", "counting", "n1", run1);
+
+        assertSame(a, registry.getExecutable("t-per-node", "counting", "n1", run1));
+        assertNotSame(a, registry.getExecutable("t-per-node", "counting", "n2", run1));
+        assertNotSame(a, registry.getExecutable("t-per-node", "counting", "n1", run2));
+        assertEquals(3, provider.created.get());
+    }
+
+    @Test
+    void cleanupCallsOnExitOnTheSharedInstanceOnce() {
+        CountingProvider provider = register("t-cleanup", true);
+        PluginRegistry registry = PluginRegistry.getInstance();
+        registry.getExecutable("t-cleanup", "counting", "n1", new HashMap<>());
+
+        registry.runResourceCleanup();
+
+        assertEquals(1, provider.last.exits.get());
+        assertEquals(1, provider.singleton.exits.get());
+    }
+}
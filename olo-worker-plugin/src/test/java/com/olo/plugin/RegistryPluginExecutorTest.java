@@ -0,0 +1,82 @@
+package com.olo.plugin;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RegistryPluginExecutorTest {
+
+    public record Point(int x, String label) {}
+
+    private static RegistryPluginExecutor register(String tenant, ExecutablePlugin plugin) {
+        PluginRegistry.getInstance().register(tenant, "p", ContractType.REDUCER, plugin);
+        return new RegistryPluginExecutor(tenant, null);
+    }
+
+    private static Map<String, Object> nestedInputs() {
+        Map<String, Object> inner = new LinkedHashMap<>();
+        inner.put("tags", new ArrayList<>(List.of("a", "b")));
+        inner.put("count", 3);
+        Map<String, Object> inputs = new LinkedHashMap<>();
+        inputs.put("prompt", "hi");
+        inputs.put("meta", inner);
+        return inputs;
+    }
+
+    @Test
+    void mapAndJsonPathsYieldEqualOutputs() {
+        RegistryPluginExecutor executor = register("t-equal", (in, cfg) -> {
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("echo", in);
+            out.put("long", 5L);
+            out.put("bigLong", 5_000_000_000L);
+            out.put("float", 0.1f);
+            out.put("decimal", new BigDecimal("1.50"));
+            out.put("bigInt", new BigInteger("123456789012345678901234567890"));
+            out.put("set", Set.of("only"));
+            out.put("unit", TimeUnit.SECONDS);
+            out.put("point", new Point(1, "p"));
+            out.put("array", new int[] {1, 2});
+            out.put("nested", Map.of("list", List.of(Map.of("n", (short) 7)), "nil", new LinkedHashMap<>()));
+            out.put("none", null);
+            return out;
+        });
+        Map<String, Object> inputs = nestedInputs();
+
+        Map<String, Object> viaMap = executor.executeWithMap("p", inputs, null);
+        Map<String, Object> viaJson = executor.fromJson(executor.execute("p", executor.toJson(inputs), null));
+
+        assertEquals(viaJson, viaMap);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pluginDoesNotShareNestedValuesWithCaller() {
+        AtomicReference<Map<String, Object>> kept = new AtomicReference<>();
+        RegistryPluginExecutor executor = register("t-copy", (in, cfg) -> {
+            Map<String, Object> meta = (Map<String, Object>) in.get("meta");
+            ((List<Object>) meta.get("tags")).add("from-plugin");
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("result", new ArrayList<>(List.of("x")));
+            kept.set(out);
+            return out;
+        });
+        Map<String, Object> inputs = nestedInputs();
+
+        Map<String, Object> outputs = executor.executeWithMap("p", inputs, null);
+        ((List<Object>) outputs.get("result")).add("from-caller");
+
+        assertEquals(List.of("a", "b"), ((Map<?, ?>) inputs.get("meta")).get("tags"));
+        assertEquals(List.of("x"), kept.get().get("result"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.olo.plugin.cache;
+
+import com.olo.config.TenantConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelResponseCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private static TenantConfig tenant(long ttlSeconds) {
+        return TenantConfig.of("t", Map.of(ModelResponseCache.TENANT_TTL_KEY, ttlSeconds));
+    }
+
+    private static Map<String, Object> request(String prompt) {
+        return Map.of("model", "m", "prompt", prompt);
+    }
+
+    private Path fileFor(String prompt) {
+        String key = ModelResponseCache.key("t", request(prompt));
+        return dir.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    private static void cache(ModelResponseCache cache, long ttlSeconds, String prompt) throws Exception {
+        cache.getOrCall(tenant(ttlSeconds), request(prompt), () -> Map.of("text", "x"));
+    }
+
+    private List<Path> tempFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".tmp")).toList();
+        }
+    }
+
+    @Test
+    void sweepDeletesExpiredEntries() throws Exception {
+        ModelResponseCache cache = new ModelResponseCache(16, dir, 1_000_000L, 0);
+        cache(cache, 3600, "expired");
+        cache(cache, 3600, "live");
+        long now = System.currentTimeMillis();
+        Files.setLastModifiedTime(fileFor("expired"), FileTime.fromMillis(now - 1));
+
+        cache.sweepDisk(now);
+
+        assertFalse(Files.exists(fileFor("expired")));
+        assertTrue(Files.exists(fileFor("live")));
+    }
+
+    @Test
+    void sweepEvictsEntriesClosestToExpiryWhenOverBound() throws Exception {
+        // Each entry is about 50 bytes, so the bound holds two of the three.
+        ModelResponseCache cache = new ModelResponseCache(16, dir, 130L, 0);
+        cache(cache, 100, "soonest");
+        cache(cache, 300, "latest");
+        cache(cache, 200, "middle");
+
+        cache.sweepDisk(System.currentTimeMillis());
+
+        assertFalse(Files.exists(fileFor("soonest")));
+        assertTrue(Files.exists(fileFor("latest")));
+        assertTrue(Files.exists(fileFor("middle")));
+        assertTrue(cache.stats().get("diskBytes") <= 130L);
+    }
+
+    @Test
+    void perCallKeysAreReturnedButNotCached() throws Exception {
+        ModelResponseCache cache = new ModelResponseCache(16, null, 0);
+        Map<String, Object> live = cache.getOrCall(tenant(3600), request("timed"), Set.of("timeToFirstTokenMs"),
+                () -> Map.of("text", "x", "timeToFirstTokenMs", 42L));
+        Map<String, Object> cached = cache.getOrCall(tenant(3600), request("timed"), Set.of("timeToFirstTokenMs"),
+                () -> Map.of("text", "other"));
+
+        assertEquals(42L, live.get("timeToFirstTokenMs"));
+        assertEquals(Map.of("text", "x"), cached);
+    }
+
+    @Test
+    void failedMoveLeavesNoTempFile() throws Exception {
+        ModelResponseCache cache = new ModelResponseCache(16, dir, 1_000_000L, 0);
+        // A non-empty directory where the entry file belongs makes the move fail.
+        Path blocked = fileFor("blocked");
+        Files.createDirectories(blocked);
+        Files.writeString(blocked.resolve("keep"), "x");
+
+        Map<String, Object> outputs = cache.getOrCall(tenant(3600), request("blocked"), () -> Map.of("text", "x"));
+
+        assertEquals("x", outputs.get("text"));
+        assertEquals(List.of(), tempFiles());
+    }
+
+    @Test
+    void statsCountHitsPerTierAndMisses() throws Exception {
+        ModelResponseCache first = new ModelResponseCache(16, dir, 1_000_000L, 0);
+        cache(first, 3600, "a");
+        cache(first, 3600, "a");
+        ModelResponseCache restarted = new ModelResponseCache(16, dir, 1_000_000L, 0);
+        cache(restarted, 3600, "a");
+
+        assertEquals(1L, first.stat("misses"));
+        assertEquals(1L, first.stat("writes"));
+        assertEquals(1L, first.stat("memoryHits"));
+        assertEquals(1L, restarted.stat("diskHits"));
+        assertEquals(0L, restarted.stat("misses"));
+        assertEquals(0L, restarted.stat("unknown"));
+    }
+
+    @Test
+    void writeOverTheBoundSweepsInTheBackground() throws Exception {
+        ModelResponseCache cache = new ModelResponseCache(16, dir, 1L, 0);
+        cache(cache, 3600, "big");
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (cache.stat("diskEvictions") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1L, cache.stat("diskEvictions"));
+        assertFalse(Files.exists(fileFor("big")));
+    }
+}
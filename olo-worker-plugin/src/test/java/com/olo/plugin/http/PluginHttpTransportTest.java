@@ -0,0 +1,130 @@
+package com.olo.plugin.http;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PluginHttpTransportTest {
+
+    @Test
+    void endpointOverridesAreKeyedLikeRequests() {
+        Map<String, Integer> overrides = PluginHttpTransport.parseEndpointMaxConcurrency(
+                "http://Ollama:11434/api=4, https://api.example.com=16,bad,no-scheme=2,http://x:1=n");
+        assertEquals(Map.of("http://ollama:11434", 4, "https://api.example.com:443", 16), overrides);
+    }
+
+    @Test
+    void saturatedEndpointFailsWithinTheRequestTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        ExecutorService handlers = Executors.newCachedThreadPool();
+        server.setExecutor(handlers);
+        server.start();
+        try {
+            URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+            // Unlimited by default; the override caps this endpoint at one request in flight.
+            PluginHttpTransport transport = new PluginHttpTransport(5, 0,
+                    Map.of(PluginHttpTransport.endpointKey(uri), 1), 30);
+            CompletableFuture<HttpResponse<String>> holder = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return transport.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            String key = PluginHttpTransport.endpointKey(uri);
+            for (int i = 0; i < 500 && transport.stat(key, "inFlight") < 1; i++) Thread.sleep(10);
+
+            long start = System.nanoTime();
+            HttpRequest second = HttpRequest.newBuilder(uri).timeout(Duration.ofMillis(200)).build();
+            assertThrows(HttpTimeoutException.class, () -> transport.send(second, HttpResponse.BodyHandlers.ofString()));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            assertEquals(1L, (long) transport.stats().get(key).get("rejected"));
+
+            release.countDown();
+            assertEquals("ok", holder.get(10, TimeUnit.SECONDS).body());
+        } finally {
+            release.countDown();
+            server.stop(0);
+            handlers.shutdownNow();
+        }
+    }
+
+    @Test
+    void streamedBodyHoldsItsSlotUntilClosedOrReadToTheEnd() throws Exception {
+        CountDownLatch finish = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try (OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(200, 0);
+                out.write("first\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                finish.await(10, TimeUnit.SECONDS);
+                out.write("rest\n".getBytes(StandardCharsets.UTF_8));
+            } catch (IOException | InterruptedException e) {
+                // The client closed the stream early.
+            }
+        });
+        ExecutorService handlers = Executors.newCachedThreadPool();
+        server.setExecutor(handlers);
+        server.start();
+        try {
+            URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+            String key = PluginHttpTransport.endpointKey(uri);
+            PluginHttpTransport transport = new PluginHttpTransport(5, 0, Map.of(key, 1), 30);
+            HttpRequest quick = HttpRequest.newBuilder(uri).timeout(Duration.ofMillis(200)).build();
+
+            HttpResponse<InputStream> open = transport.send(HttpRequest.newBuilder(uri).build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            assertEquals(1L, transport.stat(key, "inFlight"));
+            assertThrows(HttpTimeoutException.class, () -> transport.send(quick, HttpResponse.BodyHandlers.ofString()));
+            open.body().close();
+            assertEquals(0L, transport.stat(key, "inFlight"));
+
+            HttpResponse<InputStream> read = transport.send(HttpRequest.newBuilder(uri).build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            assertEquals(1L, transport.stat(key, "inFlight"));
+            finish.countDown();
+            try (InputStream body = read.body()) {
+                assertEquals("first\nrest\n", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            assertEquals(0L, transport.stat(key, "inFlight"));
+            assertEquals(2L, transport.stat(key, "requests"));
+        } finally {
+            finish.countDown();
+            server.stop(0);
+            handlers.shutdownNow();
+        }
+    }
+}
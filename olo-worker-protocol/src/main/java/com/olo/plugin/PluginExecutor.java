@@ -25,6 +25,22 @@ public interface PluginExecutor {
         return execute(pluginId, inputsJson, null);
     }
 
+    /**
+     * Executes the plugin with an input map and returns its output map, for callers in the same process.
+     * The default goes through the JSON contract ({@link #toJson}, {@link #execute(String, String, String)},
+     * {@link #fromJson}); executors that run plugins in-process override it to hand the maps over directly.
+     * Input values may be shared with the caller's variables; plugins must not modify them.
+     *
+     * @param pluginId plugin id (e.g. from tree node pluginRef)
+     * @param inputs   input parameter names to values
+     * @param nodeId   optional; when non-null, per-node instance is used
+     * @return output parameter names to values; never null
+     */
+    default Map<String, Object> executeWithMap(String pluginId, Map<String, Object> inputs, String nodeId) {
+        Map<String, Object> outputs = fromJson(execute(pluginId, toJson(inputs), nodeId));
+        return outputs != null ? outputs : Map.of();
+    }
+
     /**
      * Serializes a map to JSON. Used for plugin inputs.
      */
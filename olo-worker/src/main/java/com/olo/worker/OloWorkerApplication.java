@@ -4,15 +4,21 @@ import com.olo.bootstrap.OloBootstrap;
 import com.olo.bootstrap.WorkerBootstrapContext;
 import com.olo.config.OloConfig;
 import com.olo.config.OloSessionCache;
+import com.olo.features.metrics.MetricsFeature;
 import com.olo.ledger.ExecutionEventSink;
 import com.olo.ledger.RunLedger;
 import com.olo.plugin.PluginExecutorFactory;
 import com.olo.worker.activity.ExecuteNodeDynamicActivity;
 import com.olo.ledger.NoOpLedgerStore;
 import com.olo.worker.activity.impl.OloKernelActivitiesImpl;
+import com.olo.worker.codec.CompressingPayloadCodec;
+import com.olo.worker.engine.EngineExecutor;
 import com.olo.worker.workflow.impl.OloKernelWorkflowImpl;
 import io.temporal.client.WorkflowClient;
 import io.temporal.client.WorkflowClientOptions;
+import io.temporal.common.converter.CodecDataConverter;
+import io.temporal.common.converter.DataConverter;
+import io.temporal.common.converter.DefaultDataConverter;
 import io.temporal.serviceclient.WorkflowServiceStubs;
 import io.temporal.serviceclient.WorkflowServiceStubsOptions;
 import io.temporal.worker.Worker;
@@ -69,10 +75,27 @@ public final class OloWorkerApplication {
                         .setTarget(temporalTarget)
                         .build()
         );
+        // Payload compression is opt-in: OLO_PAYLOAD_COMPRESSION_THRESHOLD_BYTES > 0 enables the codec (suggested 4096).
+        // Every client that starts these workflows or reads their results must use CompressingPayloadCodec first.
+        int compressionThresholdBytes = parseIntEnv("OLO_PAYLOAD_COMPRESSION_THRESHOLD_BYTES", 0);
+        DataConverter dataConverter = compressionThresholdBytes > 0
+                ? new CodecDataConverter(DefaultDataConverter.newDefaultInstance(),
+                        List.of(new CompressingPayloadCodec(compressionThresholdBytes)))
+                : DefaultDataConverter.newDefaultInstance();
+        // ASYNC engine runs share one executor: OLO_ENGINE_MAX_THREADS (worker-wide), OLO_ENGINE_MAX_THREADS_PER_RUN, OLO_ENGINE_VIRTUAL_THREADS.
+        EngineExecutor engineExecutor = EngineExecutor.initShared(
+                parseIntEnv("OLO_ENGINE_MAX_THREADS", EngineExecutor.DEFAULT_MAX_THREADS),
+                parseIntEnv("OLO_ENGINE_MAX_THREADS_PER_RUN", EngineExecutor.DEFAULT_MAX_THREADS_PER_RUN),
+                "true".equalsIgnoreCase(String.valueOf(System.getenv("OLO_ENGINE_VIRTUAL_THREADS")).trim()));
+        MetricsFeature.registerGauge("olo.engine.max_threads", engineExecutor, EngineExecutor::getMaxThreads);
+        MetricsFeature.registerGauge("olo.engine.active_tasks", engineExecutor, EngineExecutor::getActiveTasks);
+        MetricsFeature.registerCounter("olo.engine.completed_tasks", engineExecutor, EngineExecutor::getCompletedTasks);
+        MetricsFeature.registerCounter("olo.engine.caller_runs_tasks", engineExecutor, EngineExecutor::getCallerRunsTasks);
         WorkflowClient client = WorkflowClient.newInstance(
                 service,
                 WorkflowClientOptions.newBuilder()
                         .setNamespace(temporalNamespace)
+                        .setDataConverter(dataConverter)
                         .build()
         );
         WorkerFactory factory = WorkerFactory.newInstance(client);
@@ -97,8 +120,10 @@ public final class OloWorkerApplication {
         }
 
         log.info("Task queues registered: {}", taskQueues);
-        log.info("Starting worker | Temporal: {} | namespace: {} | Cache: {}:{} | DB: {}:{}",
-                temporalTarget, temporalNamespace,
+        log.info("Starting worker | Temporal: {} | namespace: {} | payload compression threshold: {} | engine threads: {} (per run {}, {}) | Cache: {}:{} | DB: {}:{}",
+                temporalTarget, temporalNamespace, compressionThresholdBytes > 0 ? compressionThresholdBytes + "B" : "off",
+                engineExecutor.getMaxThreads(), engineExecutor.getMaxThreadsPerRun(),
+                engineExecutor.isVirtualThreads() ? "virtual" : "platform",
                 config.getCacheHost(), config.getCachePort(),
                 config.getDbHost(), config.getDbPort());
 
@@ -110,6 +135,8 @@ public final class OloWorkerApplication {
                 factory.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
             } catch (Exception e) {
                 log.error("Error during worker shutdown: {}", e.getMessage());
+            } finally {
+                engineExecutor.shutdown();
             }
         }));
 
@@ -126,8 +153,20 @@ public final class OloWorkerApplication {
                 factory.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
             } catch (Exception ex) {
                 log.error("Error during worker shutdown: {}", ex.getMessage());
+            } finally {
+                engineExecutor.shutdown();
             }
         }
     }
 
+    private static int parseIntEnv(String name, int defaultValue) {
+        String v = System.getenv(name);
+        if (v == null || v.isBlank()) return defaultValue;
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid {}={}; using default {}", name, v, defaultValue);
+            return defaultValue;
+        }
+    }
 }
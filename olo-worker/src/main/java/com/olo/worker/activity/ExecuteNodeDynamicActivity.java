@@ -5,9 +5,16 @@ import io.temporal.activity.Activity;
 import io.temporal.activity.DynamicActivity;
 import io.temporal.common.converter.EncodedValues;
 
-/** Handles per-node activity invocations; tasks for unknown types are dispatched here. */
+/**
+ * Handles per-node activity invocations; tasks for unknown types are dispatched here.
+ * Argument 0 is the plan JSON or its content reference ({@code sha256:...}). Optional argument 6 is the result
+ * mode: {@value #RESULT_MODE_DELTA} returns only the variables the node changed (parallel plan branches).
+ */
 public final class ExecuteNodeDynamicActivity implements DynamicActivity {
 
+    /** Result mode argument value requesting a variable delta instead of the full variable map. */
+    public static final String RESULT_MODE_DELTA = "delta";
+
     private final OloKernelActivitiesImpl delegate;
 
     public ExecuteNodeDynamicActivity(OloKernelActivitiesImpl delegate) {
@@ -28,7 +35,13 @@ public final class ExecuteNodeDynamicActivity implements DynamicActivity {
         } catch (Exception e) {
             dynamicStepsJson = null;
         }
+        String resultMode;
+        try {
+            resultMode = args.get(6, String.class);
+        } catch (Exception e) {
+            resultMode = null;
+        }
         return delegate.executeNode(activityType, planJson, nodeId, variableMapJson,
-                queueName != null ? queueName : "", workflowInputJson, dynamicStepsJson);
+                queueName != null ? queueName : "", workflowInputJson, dynamicStepsJson, RESULT_MODE_DELTA.equals(resultMode));
     }
 }
@@ -47,6 +47,20 @@ public interface OloKernelActivities {
     @ActivityMethod
     String runExecutionTree(String queueName, String workflowInputJson);
 
+    /**
+     * Continues a RunExecutionTree run that ended for a RETRY backoff. That activity fails with a non-retryable failure
+     * of type {@code TreeRetryBackoff} whose details are the checkpoint JSON and the backoff in ms; the workflow waits
+     * out the backoff on a timer and passes the checkpoint here. The run resumes at the RETRY node's next attempt, with
+     * the variables and node statuses it had when it stopped, and may end for a further backoff the same way.
+     *
+     * @param queueName         pipeline/task queue name (as for runExecutionTree)
+     * @param workflowInputJson workflow input JSON (as for runExecutionTree)
+     * @param checkpointJson    first detail of the backoff failure
+     * @return workflow result string
+     */
+    @ActivityMethod
+    String resumeExecutionTree(String queueName, String workflowInputJson, String checkpointJson);
+
     /**
      * Returns an execution plan JSON when the tree is linear (only SEQUENCE, GROUP, and leaf nodes).
      * Plan contains: linear (true/false), and when true: configJson, pipelineName, queueName,
@@ -12,6 +12,7 @@ import com.olo.worker.activity.node.impl.NodeExecutionService;
 import com.olo.worker.activity.plan.impl.ExecutionPlanService;
 import com.olo.worker.activity.plugin.impl.PluginExecutionService;
 import com.olo.worker.activity.tree.impl.TreeRunService;
+import com.olo.worker.cache.PlanContentStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,9 +47,10 @@ public class OloKernelActivitiesImpl implements OloKernelActivities {
                                    NodeFeatureEnricher nodeFeatureEnricher) {
         this.sessionCache = sessionCache;
         this.allowedTenantIds = allowedTenantIds != null ? Set.copyOf(allowedTenantIds) : Set.of();
-        this.planService = new ExecutionPlanService(this.allowedTenantIds);
+        PlanContentStore contentStore = new PlanContentStore(sessionCache);
+        this.planService = new ExecutionPlanService(this.allowedTenantIds, contentStore);
         this.pluginService = new PluginExecutionService(pluginExecutorFactory);
-        this.nodeExecutionService = new NodeExecutionService(this.allowedTenantIds, runLedger, executionEventSink, pluginExecutorFactory, dynamicNodeBuilder, nodeFeatureEnricher);
+        this.nodeExecutionService = new NodeExecutionService(this.allowedTenantIds, runLedger, executionEventSink, pluginExecutorFactory, dynamicNodeBuilder, nodeFeatureEnricher, contentStore);
         this.treeRunService = new TreeRunService(this.allowedTenantIds, sessionCache, runLedger, executionEventSink, pluginExecutorFactory, dynamicNodeBuilder, nodeFeatureEnricher);
     }
 
@@ -88,12 +90,23 @@ public class OloKernelActivitiesImpl implements OloKernelActivities {
 
     @Override
     public String applyResultMapping(String planJson, String variableMapJson) {
-        return planService.applyResultMapping(planJson, variableMapJson);
+        String result = planService.applyResultMapping(planJson, variableMapJson);
+        nodeExecutionService.runCompleted(planJson);
+        return result;
     }
 
     @Override
     public String executeNode(String activityType, String planJson, String nodeId, String variableMapJson,
                               String queueName, String workflowInputJson, String dynamicStepsJson) {
+        return executeNode(activityType, planJson, nodeId, variableMapJson, queueName, workflowInputJson, dynamicStepsJson, false);
+    }
+
+    /**
+     * Same as {@link #executeNode(String, String, String, String, String, String, String)}; when {@code deltaResult}
+     * is true the returned JSON holds only the variables the node added or changed (used for parallel plan branches).
+     */
+    public String executeNode(String activityType, String planJson, String nodeId, String variableMapJson,
+                              String queueName, String workflowInputJson, String dynamicStepsJson, boolean deltaResult) {
         Map<String, Object> payload = new java.util.LinkedHashMap<>();
         payload.put("planJson", planJson);
         payload.put("nodeId", nodeId);
@@ -101,15 +114,24 @@ public class OloKernelActivitiesImpl implements OloKernelActivities {
         payload.put("queueName", queueName != null ? queueName : "");
         payload.put("workflowInputJson", workflowInputJson);
         if (dynamicStepsJson != null && !dynamicStepsJson.isBlank()) payload.put("dynamicStepsJson", dynamicStepsJson);
+        if (deltaResult) payload.put("deltaResult", true);
+        String payloadJson;
         try {
-            return nodeExecutionService.executeNode(MAPPER.writeValueAsString(payload));
+            payloadJson = MAPPER.writeValueAsString(payload);
         } catch (Exception e) {
             throw new RuntimeException("Failed to build executeNode payload", e);
         }
+        // Node failures propagate unwrapped so Temporal sees their failure type (e.g. non-retryable content misses).
+        return nodeExecutionService.executeNode(payloadJson);
     }
 
     @Override
     public String runExecutionTree(String queueName, String workflowInputJson) {
         return treeRunService.runExecutionTree(queueName, workflowInputJson);
     }
+
+    @Override
+    public String resumeExecutionTree(String queueName, String workflowInputJson, String checkpointJson) {
+        return treeRunService.resumeExecutionTree(queueName, workflowInputJson, checkpointJson);
+    }
 }
@@ -14,6 +14,18 @@ final class NodeExecutionHelpers {
         return NodeExecutionPlanUtils.isFirstNodeInPlan(plan, nodeId);
     }
 
+    static boolean isLastNodeInPlan(Map<String, Object> plan, String nodeId) {
+        return NodeExecutionPlanUtils.isLastNodeInPlan(plan, nodeId);
+    }
+
+    static String runIdOfPlan(String planJson) {
+        return NodeExecutionPlanUtils.runIdOfPlan(planJson);
+    }
+
+    static String tenantIdOfInput(String workflowInputJson) {
+        return NodeExecutionPlanUtils.tenantIdOfInput(workflowInputJson);
+    }
+
     static Map<String, Object> dynamicStepFromNode(ExecutionTreeNode n) {
         return NodeExecutionStepUtils.dynamicStepFromNode(n);
     }
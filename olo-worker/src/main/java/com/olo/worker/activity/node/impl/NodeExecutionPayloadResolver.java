@@ -6,6 +6,7 @@ import com.olo.config.OloConfig;
 import com.olo.executiontree.config.PipelineConfiguration;
 import com.olo.executiontree.config.PipelineDefinition;
 import com.olo.input.model.WorkflowInput;
+import com.olo.worker.cache.PlanContentStore;
 
 import java.util.Map;
 import java.util.Set;
@@ -22,10 +23,17 @@ final class NodeExecutionPayloadResolver {
         final PipelineDefinition pipeline;
         final String nodeId, variableMapJson, runId;
         final boolean isFirstNode;
+        /** True when no plan node follows this one (see {@link NodeExecutionPlanUtils#isLastNodeInPlan}). */
+        final boolean isLastNode;
+        /** True when {@link #runId} comes from the plan (stable across the run's node activities), false when generated. */
+        final boolean runIdFromPlan;
+        /** When true, the activity returns only the variables it changed (parallel plan branches). */
+        final boolean deltaResult;
 
         ResolvedPayload(String tenantId, String queueName, String workflowInputJson, String dynamicStepsJson,
                         PipelineConfiguration config, PipelineDefinition pipeline, String nodeId,
-                        String variableMapJson, String runId, boolean isFirstNode) {
+                        String variableMapJson, String runId, boolean runIdFromPlan, boolean isFirstNode, boolean isLastNode,
+                        boolean deltaResult) {
             this.tenantId = tenantId;
             this.queueName = queueName;
             this.workflowInputJson = workflowInputJson;
@@ -35,11 +43,24 @@ final class NodeExecutionPayloadResolver {
             this.nodeId = nodeId;
             this.variableMapJson = variableMapJson;
             this.runId = runId;
+            this.runIdFromPlan = runIdFromPlan;
             this.isFirstNode = isFirstNode;
+            this.isLastNode = isLastNode;
+            this.deltaResult = deltaResult;
         }
     }
 
     static ResolvedPayload resolve(String payloadJson, Set<String> allowedTenantIds) {
+        return resolve(payloadJson, allowedTenantIds, null, null);
+    }
+
+    /**
+     * Resolves the payload. {@code planJson} may be a content reference ({@code sha256:...}); it and the plan's
+     * {@code configRef} are then looked up in {@code contentStore}. When {@code planCache} is non-null, parsed
+     * plan, config and tenant are reused across node activities of the same run.
+     */
+    static ResolvedPayload resolve(String payloadJson, Set<String> allowedTenantIds, PlanContentStore contentStore,
+                                   ParsedPlanCache planCache) {
         Map<String, Object> payload;
         try { payload = MAPPER.readValue(payloadJson, MAP_TYPE); } catch (Exception e) {
             throw new IllegalArgumentException("Invalid executeNode payload: " + e.getMessage(), e);
@@ -50,28 +71,58 @@ final class NodeExecutionPayloadResolver {
         String queueName = payload.get("queueName") != null ? payload.get("queueName").toString() : "";
         String workflowInputJson = (String) payload.get("workflowInputJson");
         String dynamicStepsJson = (String) payload.get("dynamicStepsJson");
+        boolean deltaResult = Boolean.TRUE.equals(payload.get("deltaResult"));
         if (planJson == null || nodeId == null || variableMapJson == null || workflowInputJson == null)
             throw new IllegalArgumentException("executeNode payload missing required fields");
+        String planKey = planCache != null ? ParsedPlanCache.planKey(
+                OloConfig.normalizeTenantId(NodeExecutionHelpers.tenantIdOfInput(workflowInputJson)), planJson) : null;
+        ParsedPlanCache.ParsedPlan parsed = planKey != null ? planCache.getPlan(planKey) : null;
+        if (parsed == null) {
+            parsed = parsePlan(planJson, workflowInputJson, allowedTenantIds, contentStore, planCache);
+            if (planKey != null) planCache.putPlan(planKey, parsed);
+        } else if (!allowedTenantIds.isEmpty() && !allowedTenantIds.contains(parsed.tenantId)) {
+            throw new IllegalArgumentException("Unknown tenant: " + parsed.tenantId);
+        }
+        boolean runIdFromPlan = parsed.planRunId != null && !parsed.planRunId.isBlank();
+        String runId = runIdFromPlan ? parsed.planRunId : UUID.randomUUID().toString();
+        boolean isFirstNode = NodeExecutionHelpers.isFirstNodeInPlan(parsed.plan, nodeId);
+        boolean isLastNode = NodeExecutionHelpers.isLastNodeInPlan(parsed.plan, nodeId);
+        return new ResolvedPayload(parsed.tenantId, queueName, workflowInputJson, dynamicStepsJson, parsed.config, parsed.pipeline,
+                nodeId, variableMapJson, runId, runIdFromPlan, isFirstNode, isLastNode, deltaResult);
+    }
+
+    private static ParsedPlanCache.ParsedPlan parsePlan(String planJson, String workflowInputJson, Set<String> allowedTenantIds,
+                                                        PlanContentStore contentStore, ParsedPlanCache planCache) {
         WorkflowInput workflowInput = WorkflowInput.fromJson(workflowInputJson);
         String tenantId = OloConfig.normalizeTenantId(workflowInput.getContext() != null ? workflowInput.getContext().getTenantId() : null);
         if (!allowedTenantIds.isEmpty() && !allowedTenantIds.contains(tenantId))
             throw new IllegalArgumentException("Unknown tenant: " + tenantId);
+        if (PlanContentStore.isRef(planJson)) {
+            String planRef = planJson;
+            planJson = contentStore != null ? contentStore.get(tenantId, planRef) : null;
+            if (planJson == null) throw PlanContentStore.contentMissing(planRef);
+        }
         Map<String, Object> plan;
         try { plan = MAPPER.readValue(planJson, MAP_TYPE); } catch (Exception e) {
             throw new IllegalArgumentException("Invalid planJson: " + e.getMessage(), e);
         }
-        String configJson = (String) plan.get("configJson");
+        String configJson = contentStore != null ? contentStore.resolveConfigJson(plan, tenantId) : (String) plan.get("configJson");
         String pipelineName = (String) plan.get("pipelineName");
         if (configJson == null || pipelineName == null) throw new IllegalArgumentException("planJson missing configJson or pipelineName");
-        PipelineConfiguration config;
-        try { config = MAPPER.readValue(configJson, PipelineConfiguration.class); } catch (Exception e) {
-            throw new IllegalArgumentException("Invalid configJson: " + e.getMessage(), e);
-        }
+        Object configRef = plan.get("configRef");
+        String configIdentity = configRef != null ? tenantId + ":" + configRef : configJson;
+        PipelineConfiguration config = planCache != null
+                ? planCache.getOrParseConfig(configIdentity, () -> parseConfig(configJson))
+                : parseConfig(configJson);
         PipelineDefinition pipeline = config.getPipelines() != null ? config.getPipelines().get(pipelineName) : null;
         if (pipeline == null || pipeline.getExecutionTree() == null) throw new IllegalArgumentException("Pipeline or execution tree not found");
         String planRunId = plan.get("runId") != null ? plan.get("runId").toString() : null;
-        String runId = (planRunId != null && !planRunId.isBlank()) ? planRunId : UUID.randomUUID().toString();
-        boolean isFirstNode = NodeExecutionHelpers.isFirstNodeInPlan(plan, nodeId);
-        return new ResolvedPayload(tenantId, queueName, workflowInputJson, dynamicStepsJson, config, pipeline, nodeId, variableMapJson, runId, isFirstNode);
+        return new ParsedPlanCache.ParsedPlan(tenantId, plan, config, pipeline, planRunId);
+    }
+
+    private static PipelineConfiguration parseConfig(String configJson) {
+        try { return MAPPER.readValue(configJson, PipelineConfiguration.class); } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid configJson: " + e.getMessage(), e);
+        }
     }
 }
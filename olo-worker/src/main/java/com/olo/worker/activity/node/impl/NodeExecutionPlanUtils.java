@@ -1,16 +1,19 @@
 package com.olo.worker.activity.node.impl;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.olo.executiontree.config.PipelineConfiguration;
 import com.olo.executiontree.config.PipelineDefinition;
 import com.olo.executiontree.tree.ExecutionTreeNode;
 import com.olo.executiontree.tree.NodeType;
+import com.olo.worker.cache.PlanContentStore;
 
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
-/** Plan-level helpers (first node check, plugin versions JSON). */
+/** Plan-level helpers (first/last node check, run id, input tenant, plugin versions JSON). */
 final class NodeExecutionPlanUtils {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
@@ -35,6 +38,75 @@ final class NodeExecutionPlanUtils {
         return false;
     }
 
+    /**
+     * True when the node is the only node of the plan's last step (or the last of its nodes), i.e. the run has no
+     * further plan node after it. A last step with several parallel nodes never counts, since its siblings may still
+     * be running.
+     */
+    static boolean isLastNodeInPlan(Map<String, Object> plan, String nodeId) {
+        if (nodeId == null) return false;
+        @SuppressWarnings("unchecked")
+        List<List<Map<String, Object>>> steps = (List<List<Map<String, Object>>>) plan.get("steps");
+        if (steps != null && !steps.isEmpty()) {
+            List<Map<String, Object>> lastStep = steps.get(steps.size() - 1);
+            if (lastStep != null && lastStep.size() == 1) {
+                Object nid = lastStep.get(0).get("nodeId");
+                return nodeId.equals(nid != null ? nid.toString() : null);
+            }
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        List<Map<String, String>> nodes = (List<Map<String, String>>) plan.get("nodes");
+        if (nodes != null && !nodes.isEmpty()) {
+            return nodeId.equals(nodes.get(nodes.size() - 1).get("nodeId"));
+        }
+        return false;
+    }
+
+    /** Top-level {@code runId} of a plan JSON, read without parsing the rest of the plan; null if absent or invalid. */
+    static String runIdOfPlan(String planJson) {
+        if (planJson == null || PlanContentStore.isRef(planJson)) return null;
+        try (JsonParser parser = MAPPER.getFactory().createParser(planJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("runId".equals(field)) {
+                    return value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                }
+                parser.skipChildren();
+            }
+        } catch (Exception ignored) {
+        }
+        return null;
+    }
+
+    /** {@code context.tenantId} of a workflow input JSON, read without parsing the rest; null if absent or invalid. */
+    static String tenantIdOfInput(String workflowInputJson) {
+        if (workflowInputJson == null) return null;
+        try (JsonParser parser = MAPPER.getFactory().createParser(workflowInputJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("context".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String contextField = parser.currentName();
+                        JsonToken contextValue = parser.nextToken();
+                        if ("tenantId".equals(contextField)) {
+                            return contextValue == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                        }
+                        parser.skipChildren();
+                    }
+                    return null;
+                }
+                parser.skipChildren();
+            }
+        } catch (Exception ignored) {
+        }
+        return null;
+    }
+
     static String buildPluginVersionsJson(PipelineConfiguration config) {
         Map<String, String> versions = new TreeMap<>();
         if (config != null && config.getPipelines() != null) {
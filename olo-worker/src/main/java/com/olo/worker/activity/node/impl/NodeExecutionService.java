@@ -2,6 +2,7 @@ package com.olo.worker.activity.node.impl;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olo.config.TenantConfig;
 import com.olo.config.TenantConfigRegistry;
 import com.olo.executiontree.tree.ExecutionTreeNode;
 import com.olo.executiontree.tree.NodeType;
@@ -14,6 +15,7 @@ import com.olo.ledger.RunLedger;
 import com.olo.node.NodeFeatureEnricher;
 import com.olo.node.PipelineFeatureContextImpl;
 import com.olo.plugin.PluginExecutorFactory;
+import com.olo.worker.cache.PlanContentStore;
 import com.olo.worker.engine.PluginInvoker;
 import com.olo.worker.engine.VariableEngine;
 import com.olo.worker.engine.node.NodeExecutor;
@@ -22,6 +24,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /** Execute a single node from a payload (plan + nodeId + variableMap), including ledger and planner handling. */
 public final class NodeExecutionService {
@@ -35,6 +39,9 @@ public final class NodeExecutionService {
     private final PluginExecutorFactory pluginExecutorFactory;
     private final com.olo.node.DynamicNodeBuilder dynamicNodeBuilder;
     private final NodeFeatureEnricher nodeFeatureEnricher;
+    private final PlanContentStore contentStore;
+    private final ParsedPlanCache planCache = new ParsedPlanCache();
+    private final RunScaffoldCache scaffoldCache = new RunScaffoldCache();
 
     public NodeExecutionService(Set<String> allowedTenantIds, RunLedger runLedger,
                                 PluginExecutorFactory pluginExecutorFactory,
@@ -48,16 +55,29 @@ public final class NodeExecutionService {
                                 PluginExecutorFactory pluginExecutorFactory,
                                 com.olo.node.DynamicNodeBuilder dynamicNodeBuilder,
                                 NodeFeatureEnricher nodeFeatureEnricher) {
+        this(allowedTenantIds, runLedger, executionEventSink, pluginExecutorFactory, dynamicNodeBuilder, nodeFeatureEnricher, null);
+    }
+
+    /**
+     * @param contentStore resolves plan/config content references ({@code planRef}, {@code configRef}); null = inline plans only
+     */
+    public NodeExecutionService(Set<String> allowedTenantIds, RunLedger runLedger,
+                                ExecutionEventSink executionEventSink,
+                                PluginExecutorFactory pluginExecutorFactory,
+                                com.olo.node.DynamicNodeBuilder dynamicNodeBuilder,
+                                NodeFeatureEnricher nodeFeatureEnricher,
+                                PlanContentStore contentStore) {
         this.allowedTenantIds = allowedTenantIds != null ? allowedTenantIds : Set.of();
         this.runLedger = runLedger;
         this.executionEventSink = executionEventSink;
         this.pluginExecutorFactory = pluginExecutorFactory;
         this.dynamicNodeBuilder = dynamicNodeBuilder;
         this.nodeFeatureEnricher = nodeFeatureEnricher != null ? nodeFeatureEnricher : (n, c) -> n;
+        this.contentStore = contentStore;
     }
 
     public String executeNode(String payloadJson) {
-        NodeExecutionPayloadResolver.ResolvedPayload r = NodeExecutionPayloadResolver.resolve(payloadJson, allowedTenantIds);
+        NodeExecutionPayloadResolver.ResolvedPayload r = NodeExecutionPayloadResolver.resolve(payloadJson, allowedTenantIds, contentStore, planCache);
         RunLedger effectiveRunLedger = runLedger != null ? runLedger : new RunLedger(new NoOpLedgerStore());
         LedgerContext.setRunId(r.runId);
         long ledgerStartTime = 0L;
@@ -80,20 +100,16 @@ public final class NodeExecutionService {
         String runResult = null;
         String runStatus = "SUCCESS";
         try {
-            ExecutionTreeNode node = ExecutionTreeNode.findNodeById(r.pipeline.getExecutionTree(), r.nodeId);
+            ExecutionTreeNode node = r.pipeline.findNode(r.nodeId);
             Map<String, Object> variableMap = MAPPER.readValue(r.variableMapJson, MAP_TYPE);
             VariableEngine variableEngine = VariableEngine.fromVariableMap(r.pipeline, variableMap);
-            Map<String, Object> nodeInstanceCache = new LinkedHashMap<>();
-            var executor = pluginExecutorFactory.create(r.tenantId, nodeInstanceCache);
-            PluginInvoker pluginInvoker = new PluginInvoker(executor);
-            NodeExecutor nodeExecutor = new NodeExecutor(pluginInvoker, r.config, r.pipeline.getExecutionType(), null, r.tenantId,
-                    TenantConfigRegistry.getInstance().get(r.tenantId).getConfigMap(), r.runId, dynamicNodeBuilder, nodeFeatureEnricher);
+            NodeExecutor nodeExecutor = nodeExecutorFor(r);
             if (node == null && r.dynamicStepsJson != null && !r.dynamicStepsJson.isBlank()) {
                 ExecutionTreeNode stepNode = NodeExecutionHelpers.resolveDynamicStep(r.nodeId, r.dynamicStepsJson);
                 if (stepNode != null) {
                     stepNode = nodeFeatureEnricher.enrich(stepNode, new PipelineFeatureContextImpl(r.pipeline.getScope(), r.queueName));
                     nodeExecutor.executeSingleNode(stepNode, r.pipeline, variableEngine, r.queueName);
-                    runResult = MAPPER.writeValueAsString(variableEngine.getExportMap());
+                    runResult = MAPPER.writeValueAsString(r.deltaResult ? variableEngine.getDeltaExportMap(variableMap) : variableEngine.getExportMap());
                     return runResult;
                 }
             }
@@ -108,10 +124,13 @@ public final class NodeExecutionService {
                 return runResult;
             }
             nodeExecutor.executeSingleNode(node, r.pipeline, variableEngine, r.queueName);
-            runResult = MAPPER.writeValueAsString(variableEngine.getExportMap());
+            // No plan node follows: the run's scaffolding is not needed again on this worker.
+            if (r.isLastNode) scaffoldCache.evict(r.runId);
+            runResult = MAPPER.writeValueAsString(r.deltaResult ? variableEngine.getDeltaExportMap(variableMap) : variableEngine.getExportMap());
             return runResult;
         } catch (Throwable t) {
             runStatus = "FAILED";
+            scaffoldCache.evict(r.runId);
             if (t instanceof RuntimeException) throw (RuntimeException) t;
             throw new RuntimeException(t);
         } finally {
@@ -131,4 +150,29 @@ public final class NodeExecutionService {
             InternalFeatures.clearLedgerForRun();
         }
     }
+
+    /**
+     * Drops the cached scaffolding of the plan's run once the workflow has applied its result mapping (covers runs
+     * whose last node ran elsewhere or whose plan ends in dynamic steps). The idle timeout remains the backstop.
+     */
+    public void runCompleted(String planJson) {
+        scaffoldCache.evict(NodeExecutionHelpers.runIdOfPlan(planJson));
+    }
+
+    /**
+     * Node executor for the run: reused from earlier node activities of the same run on this worker when the plan
+     * carries a run id, else built for this activity only. Plugin instances are cached per node for the run.
+     */
+    private NodeExecutor nodeExecutorFor(NodeExecutionPayloadResolver.ResolvedPayload r) {
+        TenantConfig tenantConfig = TenantConfigRegistry.getInstance().get(r.tenantId);
+        Supplier<NodeExecutor> factory = () -> {
+            Map<String, Object> nodeInstanceCache = new ConcurrentHashMap<>();
+            var executor = pluginExecutorFactory.create(r.tenantId, nodeInstanceCache);
+            PluginInvoker pluginInvoker = new PluginInvoker(executor);
+            return new NodeExecutor(pluginInvoker, r.config, r.pipeline.getExecutionType(), null, r.tenantId,
+                    tenantConfig.getConfigMap(), r.runId, dynamicNodeBuilder, nodeFeatureEnricher);
+        };
+        if (!r.runIdFromPlan) return factory.get();
+        return scaffoldCache.getOrCreate(r.runId, r.pipeline, r.config, tenantConfig, r.queueName, factory).nodeExecutor;
+    }
 }
@@ -0,0 +1,90 @@
+package com.olo.worker.activity.node.impl;
+
+import com.olo.executiontree.config.PipelineConfiguration;
+import com.olo.executiontree.config.PipelineDefinition;
+import com.olo.worker.cache.PlanContentStore;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Single responsibility: bounded worker-local cache of parsed, read-only plan and pipeline objects so only the
+ * first node activity of a run on this worker pays the JSON parse cost.
+ * Plans are keyed by tenant and plan identity (see {@link #planKey}); parsed configs are keyed by config identity
+ * (config reference or inline config JSON) and shared across runs.
+ */
+final class ParsedPlanCache {
+
+    static final int DEFAULT_MAX_PLANS = 128;
+    static final int DEFAULT_MAX_CONFIGS = 16;
+
+    /** Parsed plan for one run. All fields are read-only; do not mutate {@link #plan}. */
+    static final class ParsedPlan {
+        final String tenantId;
+        final Map<String, Object> plan;
+        final PipelineConfiguration config;
+        final PipelineDefinition pipeline;
+        final String planRunId;
+
+        ParsedPlan(String tenantId, Map<String, Object> plan, PipelineConfiguration config,
+                   PipelineDefinition pipeline, String planRunId) {
+            this.tenantId = tenantId;
+            this.plan = Collections.unmodifiableMap(plan);
+            this.config = config;
+            this.pipeline = pipeline;
+            this.planRunId = planRunId;
+        }
+    }
+
+    private final Map<String, ParsedPlan> plans;
+    private final Map<String, PipelineConfiguration> configs;
+
+    ParsedPlanCache() {
+        this(DEFAULT_MAX_PLANS, DEFAULT_MAX_CONFIGS);
+    }
+
+    ParsedPlanCache(int maxPlans, int maxConfigs) {
+        this.plans = lru(maxPlans);
+        this.configs = lru(maxConfigs);
+    }
+
+    /** Returns the parsed plan for a {@link #planKey}, or null if not cached. */
+    ParsedPlan getPlan(String planKey) {
+        return plans.get(planKey);
+    }
+
+    void putPlan(String planKey, ParsedPlan parsed) {
+        plans.put(planKey, parsed);
+    }
+
+    /** Returns the parsed config for the identity, parsing and caching it on a miss. */
+    PipelineConfiguration getOrParseConfig(String configIdentity, Supplier<PipelineConfiguration> parser) {
+        PipelineConfiguration cached = configs.get(configIdentity);
+        if (cached != null) return cached;
+        PipelineConfiguration parsed = parser.get();
+        if (parsed != null) configs.put(configIdentity, parsed);
+        return parsed;
+    }
+
+    /**
+     * Key of a run's plan: tenant plus plan reference. The reference is the hash of the plan content, which carries
+     * the run's runId, so it identifies the run's plan; an inline plan is keyed by the same content hash. Only the
+     * tenant depends on the workflow input, so the input itself is not part of the key.
+     */
+    static String planKey(String tenantId, String planJson) {
+        String identity = PlanContentStore.isRef(planJson) ? planJson : PlanContentStore.refOf(planJson);
+        return (tenantId != null ? tenantId : "") + "\n" + identity;
+    }
+
+    private static <V> Map<String, V> lru(int maxEntries) {
+        int max = Math.max(1, maxEntries);
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > max;
+            }
+        });
+    }
+}
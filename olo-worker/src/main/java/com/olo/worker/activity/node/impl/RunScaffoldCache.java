@@ -0,0 +1,112 @@
+package com.olo.worker.activity.node.impl;
+
+import com.olo.config.TenantConfig;
+import com.olo.executiontree.config.PipelineConfiguration;
+import com.olo.executiontree.config.PipelineDefinition;
+import com.olo.worker.engine.node.NodeExecutor;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Single responsibility: bounded worker-local cache of per-run execution scaffolding (node executor with its plugin
+ * invoker, plugin executor and run-scoped plugin instances) so consecutive node activities of a run that land on
+ * this worker reuse it instead of rebuilding it per node.
+ * An entry is reused only while the run's pipeline, config and tenant config are the same objects. It is evicted
+ * when the run completes; {@code idleTimeoutMs} without use, or least recently used first when the cache is full,
+ * are backstops for runs that never report completion to this worker.
+ */
+final class RunScaffoldCache {
+
+    static final int DEFAULT_MAX_RUNS = 256;
+    static final long DEFAULT_IDLE_TIMEOUT_MS = 10 * 60_000L;
+
+    /** Scaffolding for one run; the node executor is stateless between calls and safe for concurrent nodes. */
+    static final class RunScaffold {
+        final NodeExecutor nodeExecutor;
+        private final PipelineDefinition pipeline;
+        private final PipelineConfiguration config;
+        private final TenantConfig tenantConfig;
+        private final String queueName;
+        private volatile long lastUsedMs;
+
+        RunScaffold(NodeExecutor nodeExecutor, PipelineDefinition pipeline, PipelineConfiguration config,
+                    TenantConfig tenantConfig, String queueName, long nowMs) {
+            this.nodeExecutor = nodeExecutor;
+            this.pipeline = pipeline;
+            this.config = config;
+            this.tenantConfig = tenantConfig;
+            this.queueName = queueName;
+            this.lastUsedMs = nowMs;
+        }
+
+        private boolean matches(PipelineDefinition pipeline, PipelineConfiguration config,
+                                TenantConfig tenantConfig, String queueName) {
+            return this.pipeline == pipeline && this.config == config && this.tenantConfig == tenantConfig
+                    && this.queueName.equals(queueName);
+        }
+    }
+
+    private final Map<String, RunScaffold> runs;
+    private final long idleTimeoutMs;
+    private long lastSweepMs;
+
+    RunScaffoldCache() {
+        this(DEFAULT_MAX_RUNS, DEFAULT_IDLE_TIMEOUT_MS);
+    }
+
+    RunScaffoldCache(int maxRuns, long idleTimeoutMs) {
+        int max = Math.max(1, maxRuns);
+        this.idleTimeoutMs = Math.max(1, idleTimeoutMs);
+        this.runs = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RunScaffold> eldest) {
+                return size() > max;
+            }
+        });
+    }
+
+    /**
+     * Returns the run's scaffolding, building it with {@code factory} when there is none or it was built for a
+     * different pipeline, config, tenant config or queue.
+     */
+    RunScaffold getOrCreate(String runId, PipelineDefinition pipeline, PipelineConfiguration config,
+                            TenantConfig tenantConfig, String queueName, Supplier<NodeExecutor> factory) {
+        long now = System.currentTimeMillis();
+        sweep(now);
+        String queue = queueName != null ? queueName : "";
+        // compute runs under the map's lock, so concurrent first nodes of a run build one scaffold between them.
+        return runs.compute(runId, (id, scaffold) -> {
+            if (scaffold != null && scaffold.matches(pipeline, config, tenantConfig, queue)
+                    && now - scaffold.lastUsedMs <= idleTimeoutMs) {
+                scaffold.lastUsedMs = now;
+                return scaffold;
+            }
+            return new RunScaffold(factory.get(), pipeline, config, tenantConfig, queue, now);
+        });
+    }
+
+    /** Drops the run's scaffolding (after the run completed or failed). */
+    void evict(String runId) {
+        if (runId != null) runs.remove(runId);
+    }
+
+    int size() {
+        return runs.size();
+    }
+
+    /** Removes idle entries, at most every quarter of the idle timeout. */
+    private void sweep(long now) {
+        synchronized (runs) {
+            if (now - lastSweepMs < idleTimeoutMs / 4) return;
+            lastSweepMs = now;
+            Iterator<RunScaffold> it = runs.values().iterator();
+            while (it.hasNext()) {
+                if (now - it.next().lastUsedMs > idleTimeoutMs) it.remove();
+            }
+        }
+    }
+}
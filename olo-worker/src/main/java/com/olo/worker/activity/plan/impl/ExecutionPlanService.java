@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.olo.executiontree.config.PipelineConfiguration;
 import com.olo.executiontree.config.PipelineDefinition;
 import com.olo.input.model.WorkflowInput;
+import com.olo.worker.cache.PlanContentStore;
 import com.olo.worker.engine.ExecutionPlanBuilder;
 import com.olo.worker.engine.ResultMapper;
 
@@ -18,9 +19,19 @@ public final class ExecutionPlanService {
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
     private final Set<String> allowedTenantIds;
+    private final PlanContentStore contentStore;
 
     public ExecutionPlanService(Set<String> allowedTenantIds) {
+        this(allowedTenantIds, null);
+    }
+
+    /**
+     * @param contentStore when non-null, plan and config are stored by content hash and the plan carries
+     *                     {@code planRef}/{@code configRef} instead of the embedded config
+     */
+    public ExecutionPlanService(Set<String> allowedTenantIds, PlanContentStore contentStore) {
         this.allowedTenantIds = allowedTenantIds != null ? allowedTenantIds : Set.of();
+        this.contentStore = contentStore;
     }
 
     public String getExecutionPlan(String queueName, String workflowInputJson) {
@@ -46,7 +57,7 @@ public final class ExecutionPlanService {
         try {
             String runIdFromContext = workflowInput.getContext() != null && workflowInput.getContext().getRunId() != null
                     ? workflowInput.getContext().getRunId().trim() : null;
-            return PlanJsonSerializer.buildPlanJson(ctx, workflowInputJson, plan, parallelResult, runIdFromContext);
+            return PlanJsonSerializer.buildPlanJson(ctx, workflowInputJson, plan, parallelResult, runIdFromContext, contentStore);
         } catch (Exception e) {
             return "{\"linear\":false}";
         }
@@ -57,7 +68,9 @@ public final class ExecutionPlanService {
         try {
             Map<String, Object> plan = MAPPER.readValue(planJson, MAP_TYPE);
             if (!Boolean.TRUE.equals(plan.get("linear"))) return "";
-            String configJson = (String) plan.get("configJson");
+            String configJson = contentStore != null
+                    ? contentStore.resolveConfigJson(plan, (String) plan.get("tenantId"))
+                    : (String) plan.get("configJson");
             String pipelineName = (String) plan.get("pipelineName");
             if (configJson == null || pipelineName == null) return "";
             PipelineConfiguration config = MAPPER.readValue(configJson, PipelineConfiguration.class);
@@ -66,6 +79,8 @@ public final class ExecutionPlanService {
             Map<String, Object> variableMap = MAPPER.readValue(variableMapJson, MAP_TYPE);
             return ResultMapper.applyFromMap(pipeline, variableMap);
         } catch (Exception e) {
+            // Lost config content is recoverable: the workflow re-publishes the plan and calls again.
+            if (PlanContentStore.isContentMissing(e)) throw (RuntimeException) e;
             return "";
         }
     }
@@ -3,6 +3,7 @@ package com.olo.worker.activity.plan.impl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.olo.executiontree.tree.ExecutionTreeNode;
 import com.olo.executiontree.tree.ParameterMapping;
+import com.olo.worker.cache.PlanContentStore;
 import com.olo.worker.engine.ExecutionPlanBuilder;
 import com.olo.worker.engine.VariableEngine;
 
@@ -21,30 +22,41 @@ final class PlanJsonSerializer {
     static String buildPlanJson(PlanContextResolver.ResolvedPlanContext ctx, String workflowInputJson,
                                 List<ExecutionPlanBuilder.PlanEntry> linearPlan,
                                 ExecutionPlanBuilder.PlanWithParallelResult parallelResult) throws Exception {
-        return buildPlanJson(ctx, workflowInputJson, linearPlan, parallelResult, null);
+        return buildPlanJson(ctx, workflowInputJson, linearPlan, parallelResult, null, null);
     }
 
+    /**
+     * When {@code contentStore} is non-null, the config is stored once under its content hash ({@code configRef})
+     * and the plan itself is stored under {@code planRef}; node activities then receive only the plan reference.
+     * The workflow input is not embedded in that case, since every node activity already receives it.
+     */
     static String buildPlanJson(PlanContextResolver.ResolvedPlanContext ctx, String workflowInputJson,
                                 List<ExecutionPlanBuilder.PlanEntry> linearPlan,
                                 ExecutionPlanBuilder.PlanWithParallelResult parallelResult,
-                                String runIdFromContext) throws Exception {
+                                String runIdFromContext, PlanContentStore contentStore) throws Exception {
         VariableEngine initialEngine = new VariableEngine(ctx.pipeline, ctx.inputValues);
         String initialVariableMapJson = MAPPER.writeValueAsString(initialEngine.getExportMap());
         Map<String, Object> out = new LinkedHashMap<>();
         out.put("linear", true);
         out.put("runId", (runIdFromContext != null && !runIdFromContext.isBlank()) ? runIdFromContext : UUID.randomUUID().toString());
-        out.put("configJson", MAPPER.writeValueAsString(ctx.config));
+        String configJson = MAPPER.writeValueAsString(ctx.config);
+        String configRef = contentStore != null ? contentStore.put(ctx.tenantId, configJson) : null;
+        if (configRef != null) {
+            out.put("tenantId", ctx.tenantId);
+            out.put("configRef", configRef);
+        } else {
+            out.put("configJson", configJson);
+        }
         out.put("pipelineName", ctx.pipeline.getName());
         out.put("queueName", ctx.effectiveQueue);
-        out.put("workflowInputJson", workflowInputJson);
+        if (configRef == null) out.put("workflowInputJson", workflowInputJson);
         out.put("initialVariableMapJson", initialVariableMapJson);
         if (parallelResult != null) {
             List<List<Map<String, Object>>> stepsData = new ArrayList<>();
-            ExecutionTreeNode treeRoot = ctx.pipeline.getExecutionTree();
             for (List<ExecutionPlanBuilder.PlanEntry> step : parallelResult.getSteps()) {
                 List<Map<String, Object>> stepNodes = new ArrayList<>();
                 for (ExecutionPlanBuilder.PlanEntry e : step) {
-                    ExecutionTreeNode node = ExecutionTreeNode.findNodeById(treeRoot, e.getNodeId());
+                    ExecutionTreeNode node = ctx.pipeline.findNode(e.getNodeId());
                     List<String> outputVars = node == null || node.getOutputMappings() == null ? List.of()
                             : node.getOutputMappings().stream().map(ParameterMapping::getVariable).filter(Objects::nonNull).toList();
                     Map<String, Object> nodeData = new LinkedHashMap<>();
@@ -62,6 +74,11 @@ final class PlanJsonSerializer {
                 if (parallelResult.getTryCatchErrorVariable() != null) tryCatchMeta.put("errorVariable", parallelResult.getTryCatchErrorVariable());
                 out.put("tryCatch", tryCatchMeta);
             }
+            if (!parallelResult.getStepRetries().isEmpty()) {
+                Map<String, Object> retries = new LinkedHashMap<>();
+                parallelResult.getStepRetries().forEach((stepIndex, policy) -> retries.put(String.valueOf(stepIndex), policy.toPlanMap()));
+                out.put("retries", retries);
+            }
         } else {
             List<Map<String, String>> nodes = new ArrayList<>();
             for (ExecutionPlanBuilder.PlanEntry e : linearPlan) {
@@ -69,6 +86,11 @@ final class PlanJsonSerializer {
             }
             out.put("nodes", nodes);
         }
+        String planJson = MAPPER.writeValueAsString(out);
+        if (configRef == null) return planJson;
+        String planRef = contentStore.put(ctx.tenantId, planJson);
+        if (planRef == null) return planJson;
+        out.put("planRef", planRef);
         return MAPPER.writeValueAsString(out);
     }
 }
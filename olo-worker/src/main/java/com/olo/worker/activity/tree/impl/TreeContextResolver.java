@@ -51,6 +51,11 @@ final class TreeContextResolver {
     }
 
     static ResolvedContext resolve(String tenantId, String queueName, WorkflowInput workflowInput) {
+        return resolve(tenantId, queueName, workflowInput, null);
+    }
+
+    /** @param resumeRunId run id of the run being resumed (keeps a generated run id across a RETRY backoff); may be null */
+    static ResolvedContext resolve(String tenantId, String queueName, WorkflowInput workflowInput, String resumeRunId) {
         String requestedVersion = workflowInput.getRouting() != null ? workflowInput.getRouting().getConfigVersion() : null;
         if (requestedVersion != null) requestedVersion = requestedVersion.isBlank() ? null : requestedVersion.trim();
         TreeContextLookup.QueueAndContext qc = TreeContextLookup.getLocalContext(tenantId, queueName, requestedVersion);
@@ -71,7 +76,8 @@ final class TreeContextResolver {
         String transactionId = workflowInput.getRouting() != null ? workflowInput.getRouting().getTransactionId() : null;
         String contextRunId = workflowInput.getContext() != null && workflowInput.getContext().getRunId() != null
                 ? workflowInput.getContext().getRunId().trim() : null;
-        String runId = (contextRunId != null && !contextRunId.isBlank()) ? contextRunId : java.util.UUID.randomUUID().toString();
+        String runId = resumeRunId != null && !resumeRunId.isBlank() ? resumeRunId
+                : (contextRunId != null && !contextRunId.isBlank()) ? contextRunId : java.util.UUID.randomUUID().toString();
         log.info("OloKernel runExecutionTree | transactionId={} | runId={} | pipelineName={} | queue={} | tenantId={} | rootNodeId={} | rootNodeType={} | configVersion={}",
                 transactionId, runId, pipeline.getName(), effectiveQueue, tenantId, rootNode != null ? rootNode.getId() : null,
                 rootNode != null && rootNode.getType() != null ? rootNode.getType().name() : null, snapshotVersionId);
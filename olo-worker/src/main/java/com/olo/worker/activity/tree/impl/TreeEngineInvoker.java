@@ -2,6 +2,7 @@ package com.olo.worker.activity.tree.impl;
 
 import com.olo.executioncontext.ExecutionConfigSnapshot;
 import com.olo.worker.engine.ExecutionEngine;
+import com.olo.worker.engine.TreeCheckpoint;
 import com.olo.plugin.PluginExecutorFactory;
 
 final class TreeEngineInvoker {
@@ -9,8 +10,10 @@ final class TreeEngineInvoker {
     static String run(TreeContextResolver.ResolvedContext ctx,
                       PluginExecutorFactory pluginExecutorFactory,
                       com.olo.node.DynamicNodeBuilder dynamicNodeBuilder,
-                      com.olo.node.NodeFeatureEnricher nodeFeatureEnricher) {
+                      com.olo.node.NodeFeatureEnricher nodeFeatureEnricher,
+                      TreeCheckpoint resumeFrom) {
         var executor = pluginExecutorFactory.create(ctx.tenantId, ctx.nodeInstanceCache);
-        return ExecutionEngine.run(ctx.snapshot, ctx.inputValues, executor, ctx.tenantConfigMap, dynamicNodeBuilder, nodeFeatureEnricher);
+        return ExecutionEngine.runResumable(ctx.snapshot, ctx.inputValues, executor, ctx.tenantConfigMap,
+                dynamicNodeBuilder, nodeFeatureEnricher, resumeFrom);
     }
 }
@@ -46,6 +46,22 @@ final class TreeRunLedger {
         return new LedgerRunContext(effectiveRunLedger, ledgerStartTime);
     }
 
+    /**
+     * Continues a run that {@link #startRun} recorded in an earlier activity (resume after a RETRY backoff): sets the
+     * run id without a second runStarted record; the run's duration counts from {@code startedAtMs}.
+     */
+    static LedgerRunContext resumeRun(TreeContextResolver.ResolvedContext ctx, RunLedger runLedger, long startedAtMs) {
+        RunLedger effectiveRunLedger = runLedger != null ? runLedger : new RunLedger(new NoOpLedgerStore());
+        LedgerContext.setRunId(ctx.runId);
+        return new LedgerRunContext(effectiveRunLedger, startedAtMs);
+    }
+
+    /** Ends this activity's part of a run that a later activity resumes: clears run state without a runEnded record. */
+    static void suspendRun() {
+        LedgerContext.clear();
+        InternalFeatures.clearLedgerForRun();
+    }
+
     static void endRun(TreeContextResolver.ResolvedContext ctx, LedgerRunContext ledgerCtx, String runResult, String runStatus, Throwable runFailure) {
         String runIdForEnd = LedgerContext.getRunId();
         if (runIdForEnd == null) runIdForEnd = ctx.runId;
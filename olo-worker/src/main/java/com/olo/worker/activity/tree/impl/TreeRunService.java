@@ -7,15 +7,24 @@ import com.olo.ledger.ExecutionEvent;
 import com.olo.ledger.ExecutionEventSink;
 import com.olo.ledger.RunLedger;
 import com.olo.plugin.PluginExecutorFactory;
+import com.olo.worker.engine.TreeCheckpoint;
+import com.olo.worker.engine.TreeRunSuspendedException;
+import io.temporal.failure.ApplicationFailure;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Set;
 
-/** Coordinate full execution tree run (context resolver + engine invoker + ledger). */
+/**
+ * Coordinate full execution tree run (context resolver + engine invoker + ledger). A RETRY backoff ends the activity
+ * with a {@link #RETRY_BACKOFF} failure carrying a {@link TreeCheckpoint}; the workflow waits on a timer and continues
+ * the run with {@link #resumeExecutionTree}.
+ */
 public final class TreeRunService {
 
     private static final Logger log = LoggerFactory.getLogger(TreeRunService.class);
+    /** Temporal failure type of a tree run that ended for a RETRY backoff. Details: checkpoint JSON, backoff ms. */
+    public static final String RETRY_BACKOFF = "TreeRetryBackoff";
 
     private final Set<String> allowedTenantIds;
     private final OloSessionCache sessionCache;
@@ -47,6 +56,15 @@ public final class TreeRunService {
     }
 
     public String runExecutionTree(String queueName, String workflowInputJson) {
+        return runExecutionTree(queueName, workflowInputJson, null);
+    }
+
+    /** Continues a run that ended with a {@link #RETRY_BACKOFF} failure, from that failure's checkpoint. */
+    public String resumeExecutionTree(String queueName, String workflowInputJson, String checkpointJson) {
+        return runExecutionTree(queueName, workflowInputJson, TreeCheckpoint.fromJson(checkpointJson));
+    }
+
+    private String runExecutionTree(String queueName, String workflowInputJson, TreeCheckpoint resumeFrom) {
         int inputLen = workflowInputJson != null ? workflowInputJson.length() : 0;
         String inputSnippet = workflowInputJson != null && workflowInputJson.length() > 300 ? workflowInputJson.substring(0, 300) + "...[truncated]" : (workflowInputJson != null ? workflowInputJson : "");
         log.info("Activity entry | runExecutionTree | queue={} | workflowInputLength={} | workflowInputSnippet={}", queueName != null ? queueName : "", inputLen, inputSnippet);
@@ -59,26 +77,37 @@ public final class TreeRunService {
         log.info("RunExecutionTree activity started | invoked from workflow | queue={} | tenantId={}", queueName != null ? queueName : "", tenantId);
         if (!allowedTenantIds.isEmpty() && !allowedTenantIds.contains(tenantId)) throw new IllegalArgumentException("Unknown tenant: " + tenantId);
         sessionCache.incrActiveWorkflows(tenantId);
-        try { return doRunExecutionTree(tenantId, queueName, workflowInput, workflowInputJson); }
+        try { return doRunExecutionTree(tenantId, queueName, workflowInput, workflowInputJson, resumeFrom); }
         finally { sessionCache.decrActiveWorkflows(tenantId); }
     }
 
-    private String doRunExecutionTree(String tenantId, String queueName, WorkflowInput workflowInput, String workflowInputJson) {
-        TreeContextResolver.ResolvedContext ctx = TreeContextResolver.resolve(tenantId, queueName, workflowInput);
+    private String doRunExecutionTree(String tenantId, String queueName, WorkflowInput workflowInput, String workflowInputJson,
+                                      TreeCheckpoint resumeFrom) {
+        TreeContextResolver.ResolvedContext ctx = TreeContextResolver.resolve(tenantId, queueName, workflowInput,
+                resumeFrom != null ? resumeFrom.getRunId() : null);
         if (ctx.status == TreeContextResolver.Status.NO_CONFIG || ctx.status == TreeContextResolver.Status.NO_PIPELINE) return "";
-        TreeRunLedger.LedgerRunContext ledgerCtx = TreeRunLedger.startRun(ctx, runLedger, workflowInputJson);
-        if (executionEventSink != null && ctx.runId != null) {
+        TreeRunLedger.LedgerRunContext ledgerCtx = resumeFrom != null
+                ? TreeRunLedger.resumeRun(ctx, runLedger, resumeFrom.getStartedAtMs())
+                : TreeRunLedger.startRun(ctx, runLedger, workflowInputJson);
+        if (resumeFrom == null && executionEventSink != null && ctx.runId != null) {
             executionEventSink.emit(ctx.runId, new ExecutionEvent(
                     ExecutionEvent.EventType.WORKFLOW_STARTED, "Workflow started", null, System.currentTimeMillis(), null));
         }
         String runResult = null;
         String runStatus = "FAILED";
         Throwable runFailure = null;
+        boolean suspended = false;
         try {
-            runResult = TreeEngineInvoker.run(ctx, pluginExecutorFactory, dynamicNodeBuilder, nodeFeatureEnricher);
+            runResult = TreeEngineInvoker.run(ctx, pluginExecutorFactory, dynamicNodeBuilder, nodeFeatureEnricher, resumeFrom);
             runStatus = "SUCCESS";
             log.info("Execution tree exit | transactionId={} | status={} | resultLength={}", ctx.transactionId, runStatus, runResult != null ? runResult.length() : 0);
             return runResult != null ? runResult : "";
+        } catch (TreeRunSuspendedException e) {
+            suspended = true;
+            TreeCheckpoint checkpoint = e.getCheckpoint();
+            log.info("Execution tree suspended | transactionId={} | retryNodeId={} | nextAttempt={} | backoffMs={}",
+                    ctx.transactionId, checkpoint.getRetryNodeId(), checkpoint.getNextAttempt(), checkpoint.getBackoffMs());
+            throw retryBackoff(checkpoint);
         } catch (IllegalArgumentException e) {
             log.warn("Execution engine validation failed: {}", e.getMessage());
             runFailure = e;
@@ -88,12 +117,24 @@ public final class TreeRunService {
             log.info("Execution tree exit | transactionId={} | status=FAILED | error={}", ctx.transactionId, t.getMessage());
             throw t;
         } finally {
-            if (executionEventSink != null && ctx.runId != null) {
-                String eventType = "SUCCESS".equals(runStatus) ? ExecutionEvent.EventType.WORKFLOW_COMPLETED : ExecutionEvent.EventType.WORKFLOW_FAILED;
-                String label = "SUCCESS".equals(runStatus) ? "Done" : ("Error: " + (runFailure != null ? runFailure.getMessage() : runStatus));
-                executionEventSink.emit(ctx.runId, new ExecutionEvent(eventType, label, null, System.currentTimeMillis(), null));
+            if (suspended) {
+                // The run continues in a later activity; it has neither completed nor failed.
+                TreeRunLedger.suspendRun();
+            } else {
+                if (executionEventSink != null && ctx.runId != null) {
+                    String eventType = "SUCCESS".equals(runStatus) ? ExecutionEvent.EventType.WORKFLOW_COMPLETED : ExecutionEvent.EventType.WORKFLOW_FAILED;
+                    String label = "SUCCESS".equals(runStatus) ? "Done" : ("Error: " + (runFailure != null ? runFailure.getMessage() : runStatus));
+                    executionEventSink.emit(ctx.runId, new ExecutionEvent(eventType, label, null, System.currentTimeMillis(), null));
+                }
+                TreeRunLedger.endRun(ctx, ledgerCtx, runResult, runStatus, runFailure);
             }
-            TreeRunLedger.endRun(ctx, ledgerCtx, runResult, runStatus, runFailure);
         }
     }
+
+    /** Non-retryable failure that hands the checkpoint to the workflow, which waits out the backoff on a timer. */
+    static ApplicationFailure retryBackoff(TreeCheckpoint checkpoint) {
+        return ApplicationFailure.newNonRetryableFailure("RETRY node " + checkpoint.getRetryNodeId() + " backing off "
+                        + checkpoint.getBackoffMs() + " ms before attempt " + checkpoint.getNextAttempt(),
+                RETRY_BACKOFF, checkpoint.toJson(), checkpoint.getBackoffMs());
+    }
 }
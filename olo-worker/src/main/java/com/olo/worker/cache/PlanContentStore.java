@@ -0,0 +1,166 @@
+package com.olo.worker.cache;
+
+import com.olo.config.OloSessionCache;
+import io.temporal.failure.ApplicationFailure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Single responsibility: content-addressed store for plan and config JSON.
+ * Content is stored once under {@code sha256:<hex>} so per-node activities receive only the reference
+ * instead of the full plan. Lookups hit a bounded worker-local map first, then the session cache (Redis)
+ * so any worker polling the queue can resolve a reference produced by another.
+ * <p>
+ * Shared entries expire unless refreshed: every put and shared-store hit restarts the TTL, and local hits restart it
+ * at most once per {@value #TOUCH_INTERVAL_MS} ms (re-writing the entry if it has already expired). When content is
+ * still missing, node activities fail with the non-retryable {@value #CONTENT_MISSING} failure and the workflow
+ * re-publishes the plan.
+ */
+public final class PlanContentStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PlanContentStore.class);
+
+    /** Prefix of every content reference; used to tell references apart from inline JSON. */
+    public static final String REF_PREFIX = "sha256:";
+    /** Temporal failure type of activities that could not resolve a content reference. */
+    public static final String CONTENT_MISSING = "PlanContentMissing";
+    private static final int DEFAULT_MAX_LOCAL_ENTRIES = 256;
+    static final long TOUCH_INTERVAL_MS = 60L * 60 * 1000;
+
+    private final OloSessionCache sessionCache;
+    private final Map<String, LocalEntry> local;
+
+    private static final class LocalEntry {
+        final String content;
+        volatile long touchedAtMs;
+
+        LocalEntry(String content, long touchedAtMs) {
+            this.content = content;
+            this.touchedAtMs = touchedAtMs;
+        }
+    }
+
+    /**
+     * @param sessionCache shared backing store; null = worker-local only (single worker / tests)
+     */
+    public PlanContentStore(OloSessionCache sessionCache) {
+        this(sessionCache, DEFAULT_MAX_LOCAL_ENTRIES);
+    }
+
+    public PlanContentStore(OloSessionCache sessionCache, int maxLocalEntries) {
+        this.sessionCache = sessionCache;
+        int max = Math.max(1, maxLocalEntries);
+        this.local = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LocalEntry> eldest) {
+                return size() > max;
+            }
+        });
+    }
+
+    /** Returns true if the value is a content reference produced by {@link #put(String, String)}. */
+    public static boolean isRef(String value) {
+        return value != null && value.startsWith(REF_PREFIX);
+    }
+
+    /**
+     * Stores the content and returns its reference, or null if the shared store could not be written
+     * (callers then keep the content inline).
+     */
+    public String put(String tenantId, String content) {
+        if (content == null) return null;
+        String ref = refOf(content);
+        if (sessionCache != null) {
+            try {
+                sessionCache.putContent(tenantId, ref, content);
+            } catch (Exception e) {
+                log.warn("Failed to store plan content for tenant={} ref={}; keeping content inline: {}", tenantId, ref, e.getMessage());
+                return null;
+            }
+        }
+        local.put(localKey(tenantId, ref), new LocalEntry(content, System.currentTimeMillis()));
+        return ref;
+    }
+
+    /** Returns the content for the reference, or null if it is not known locally or in the shared store. */
+    public String get(String tenantId, String ref) {
+        if (!isRef(ref)) return null;
+        String key = localKey(tenantId, ref);
+        LocalEntry entry = local.get(key);
+        if (entry != null) {
+            keepAlive(tenantId, ref, entry);
+            return entry.content;
+        }
+        if (sessionCache == null) return null;
+        String content = sessionCache.getContent(tenantId, ref);
+        if (content != null) local.put(key, new LocalEntry(content, System.currentTimeMillis()));
+        return content;
+    }
+
+    /** Restarts the shared entry's TTL on a local hit, at most once per interval; re-writes it if it expired. */
+    private void keepAlive(String tenantId, String ref, LocalEntry entry) {
+        long now = System.currentTimeMillis();
+        if (sessionCache == null || now - entry.touchedAtMs < TOUCH_INTERVAL_MS) return;
+        entry.touchedAtMs = now;
+        try {
+            if (!sessionCache.touchContent(tenantId, ref)) sessionCache.putContent(tenantId, ref, entry.content);
+        } catch (Exception e) {
+            log.warn("Failed to refresh plan content for tenant={} ref={}: {}", tenantId, ref, e.getMessage());
+        }
+    }
+
+    /** Non-retryable activity failure for a reference that could not be resolved; see {@link #isContentMissing}. */
+    public static ApplicationFailure contentMissing(String ref) {
+        return ApplicationFailure.newNonRetryableFailure("Plan content not found for ref " + ref, CONTENT_MISSING);
+    }
+
+    /** Returns true if the failure (or one of its causes) is a {@link #contentMissing(String)} failure. */
+    public static boolean isContentMissing(Throwable t) {
+        for (Throwable c = t; c != null; c = c.getCause()) {
+            if (c instanceof ApplicationFailure af && CONTENT_MISSING.equals(af.getType())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the pipeline config JSON of a plan: inline {@code configJson} if present, else the content
+     * behind {@code configRef}. Returns null if the plan has neither; throws {@link #contentMissing(String)} if the
+     * referenced content is gone.
+     */
+    public String resolveConfigJson(Map<String, Object> plan, String tenantId) {
+        if (plan == null) return null;
+        Object inline = plan.get("configJson");
+        if (inline != null) return inline.toString();
+        Object ref = plan.get("configRef");
+        if (ref == null) return null;
+        String content = get(tenantId, ref.toString());
+        if (content == null) throw contentMissing(ref.toString());
+        return content;
+    }
+
+    /** The reference {@link #put} would return for the content (its SHA-256), without storing anything. */
+    public static String refOf(String content) {
+        return REF_PREFIX + sha256Hex(content);
+    }
+
+    private static String localKey(String tenantId, String ref) {
+        return (tenantId != null ? tenantId : "") + ":" + ref;
+    }
+
+    private static String sha256Hex(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.olo.worker.codec;
+
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.payload.codec.PayloadCodec;
+import io.temporal.payload.codec.PayloadCodecException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Single responsibility: gzip Temporal payloads above a size threshold (plan, variable map, workflow input JSON).
+ * The whole original payload (metadata + data) is compressed into the data of a new payload whose encoding is
+ * {@value #ENCODING}; payloads without that encoding are passed through on decode, so histories written before
+ * compression was enabled still replay. Clients that start workflows and read results must use the same codec, so the
+ * worker installs it only when OLO_PAYLOAD_COMPRESSION_THRESHOLD_BYTES is set.
+ */
+public final class CompressingPayloadCodec implements PayloadCodec {
+
+    /** Metadata encoding of compressed payloads. */
+    public static final String ENCODING = "binary/olo-gzip";
+    /** Suggested threshold: payloads smaller than this (serialized bytes) are left as is. */
+    public static final int DEFAULT_THRESHOLD_BYTES = 4096;
+
+    private static final String METADATA_ENCODING_KEY = "encoding";
+
+    private final int thresholdBytes;
+
+    public CompressingPayloadCodec() {
+        this(DEFAULT_THRESHOLD_BYTES);
+    }
+
+    /**
+     * @param thresholdBytes minimum serialized payload size to compress; values &lt; 1 are treated as 1
+     */
+    public CompressingPayloadCodec(int thresholdBytes) {
+        this.thresholdBytes = Math.max(1, thresholdBytes);
+    }
+
+    @Override
+    public List<Payload> encode(List<Payload> payloads) {
+        List<Payload> out = new ArrayList<>(payloads.size());
+        for (Payload payload : payloads) {
+            out.add(encodeOne(payload));
+        }
+        return out;
+    }
+
+    @Override
+    public List<Payload> decode(List<Payload> payloads) {
+        List<Payload> out = new ArrayList<>(payloads.size());
+        for (Payload payload : payloads) {
+            out.add(decodeOne(payload));
+        }
+        return out;
+    }
+
+    private Payload encodeOne(Payload payload) {
+        if (payload.getSerializedSize() < thresholdBytes || isCompressed(payload)) return payload;
+        byte[] original = payload.toByteArray();
+        byte[] compressed = gzip(original);
+        if (compressed.length >= original.length) return payload;
+        return Payload.newBuilder()
+                .putMetadata(METADATA_ENCODING_KEY, ByteString.copyFromUtf8(ENCODING))
+                .setData(ByteString.copyFrom(compressed))
+                .build();
+    }
+
+    private static Payload decodeOne(Payload payload) {
+        if (!isCompressed(payload)) return payload;
+        try (InputStream in = new GZIPInputStream(payload.getData().newInput())) {
+            return Payload.parseFrom(in.readAllBytes());
+        } catch (IOException e) {
+            throw new PayloadCodecException("Failed to decompress payload", e);
+        }
+    }
+
+    private static boolean isCompressed(Payload payload) {
+        return ENCODING.equals(payload.getMetadataOrDefault(METADATA_ENCODING_KEY, ByteString.EMPTY).toStringUtf8());
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(bytes)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new PayloadCodecException("Failed to compress payload", e);
+        }
+        return bytes.toByteArray();
+    }
+}
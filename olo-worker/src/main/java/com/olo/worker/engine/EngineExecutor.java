@@ -0,0 +1,247 @@
+package com.olo.worker.engine;
+
+import com.olo.ledger.LedgerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single responsibility: worker-wide executor shared by all ASYNC engine runs.
+ * At most {@code maxThreads} tasks run at once across the worker, and each run gets its own view
+ * ({@link #newRunExecutor()}) that holds at most {@code maxThreadsPerRun} of those slots. When no slot is free the
+ * task runs on the submitting thread instead of queueing, so nested waits (FORK inside FORK) cannot deadlock.
+ * Uses a bounded platform thread pool, or virtual threads when opted in and the JDK provides them (looked up
+ * reflectively; the build targets 17).
+ */
+public final class EngineExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineExecutor.class);
+
+    public static final int DEFAULT_MAX_THREADS = 64;
+    public static final int DEFAULT_MAX_THREADS_PER_RUN = 16;
+    private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    private static volatile EngineExecutor shared;
+
+    private final ExecutorService delegate;
+    private final Semaphore workerSlots;
+    private final int maxThreads;
+    private final int maxThreadsPerRun;
+    private final boolean virtualThreads;
+    private final AtomicInteger activeTasks = new AtomicInteger();
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicLong callerRunsTasks = new AtomicLong();
+
+    /**
+     * @param maxThreads       max tasks running at once across all runs; values &lt; 1 use {@link #DEFAULT_MAX_THREADS}
+     * @param maxThreadsPerRun max tasks one run may have running at once; values &lt; 1 use {@link #DEFAULT_MAX_THREADS_PER_RUN}
+     * @param useVirtualThreads use virtual threads when the JDK supports them
+     */
+    public EngineExecutor(int maxThreads, int maxThreadsPerRun, boolean useVirtualThreads) {
+        this.maxThreads = maxThreads > 0 ? maxThreads : DEFAULT_MAX_THREADS;
+        this.maxThreadsPerRun = maxThreadsPerRun > 0 ? maxThreadsPerRun : DEFAULT_MAX_THREADS_PER_RUN;
+        this.workerSlots = new Semaphore(this.maxThreads);
+        ExecutorService virtual = useVirtualThreads ? newVirtualThreadExecutor() : null;
+        this.virtualThreads = virtual != null;
+        this.delegate = virtual != null ? virtual : newPlatformPool(this.maxThreads);
+    }
+
+    /** Worker-wide instance; created with defaults on first use unless {@link #initShared} ran first. */
+    public static EngineExecutor shared() {
+        EngineExecutor e = shared;
+        if (e == null) {
+            synchronized (EngineExecutor.class) {
+                e = shared;
+                if (e == null) {
+                    e = new EngineExecutor(DEFAULT_MAX_THREADS, DEFAULT_MAX_THREADS_PER_RUN, false);
+                    shared = e;
+                }
+            }
+        }
+        return e;
+    }
+
+    /**
+     * Replaces the worker-wide instance (call once at worker startup, before runs start).
+     * A previous instance is shut down after its running tasks finish.
+     */
+    public static synchronized EngineExecutor initShared(int maxThreads, int maxThreadsPerRun, boolean useVirtualThreads) {
+        EngineExecutor previous = shared;
+        shared = new EngineExecutor(maxThreads, maxThreadsPerRun, useVirtualThreads);
+        if (previous != null) previous.shutdown();
+        return shared;
+    }
+
+    /**
+     * Executor view for one run. Shutting it down only stops new submissions for that run and lets
+     * awaitTermination wait for the run's tasks; shutdownNow also interrupts the run's tasks running on shared
+     * threads. Other runs' tasks and the shared threads themselves are not touched.
+     */
+    public ExecutorService newRunExecutor() {
+        return new RunExecutor(maxThreadsPerRun);
+    }
+
+    public int getMaxThreads() { return maxThreads; }
+    public int getMaxThreadsPerRun() { return maxThreadsPerRun; }
+    public boolean isVirtualThreads() { return virtualThreads; }
+    /** Tasks currently running on shared threads. */
+    public int getActiveTasks() { return activeTasks.get(); }
+    /** Tasks finished on shared threads since start. */
+    public long getCompletedTasks() { return completedTasks.get(); }
+    /** Tasks that ran on the submitting thread because no worker or run slot was free. */
+    public long getCallerRunsTasks() { return callerRunsTasks.get(); }
+
+    /** Stops the shared threads after running tasks finish (worker shutdown). */
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.info("Virtual threads not available on this JDK ({}); using platform thread pool", Runtime.version());
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformPool(int maxThreads) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(0, maxThreads, IDLE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+                    Thread t = new Thread(r, "olo-engine-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /** Per-run view: acquires a run slot and a worker slot per task, or runs the task on the caller. */
+    private final class RunExecutor extends AbstractExecutorService {
+
+        private final Semaphore runSlots;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        /** Shared threads currently running this run's tasks. Guarded by itself, so an interrupt cannot reach a thread that moved on. */
+        private final Set<Thread> running = new HashSet<>();
+        private volatile boolean shutdown;
+        private boolean shutdownNow;
+
+        RunExecutor(int maxThreadsPerRun) {
+            this.runSlots = new Semaphore(maxThreadsPerRun);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (shutdown) throw new RejectedExecutionException("Run executor is shut down");
+            if (runSlots.tryAcquire()) {
+                if (workerSlots.tryAcquire()) {
+                    inFlight.incrementAndGet();
+                    try {
+                        delegate.execute(() -> runOnShared(task));
+                        return;
+                    } catch (RejectedExecutionException e) {
+                        release();
+                    }
+                } else {
+                    runSlots.release();
+                }
+            } else if (log.isDebugEnabled()) {
+                log.debug("Engine run limit reached ({}); running task on caller thread", maxThreadsPerRun);
+            }
+            callerRunsTasks.incrementAndGet();
+            // Tasks set and clear LedgerContext for the thread they run on; keep the caller's run id intact.
+            String callerRunId = LedgerContext.getRunId();
+            try {
+                task.run();
+            } finally {
+                if (callerRunId != null) {
+                    LedgerContext.setRunId(callerRunId);
+                } else {
+                    LedgerContext.clear();
+                }
+            }
+        }
+
+        private void runOnShared(Runnable task) {
+            Thread thread = Thread.currentThread();
+            synchronized (running) {
+                running.add(thread);
+                if (shutdownNow) thread.interrupt();
+            }
+            activeTasks.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                synchronized (running) {
+                    running.remove(thread);
+                }
+                // Do not carry this run's interrupt into the next task on a pooled thread.
+                Thread.interrupted();
+                activeTasks.decrementAndGet();
+                completedTasks.incrementAndGet();
+                release();
+            }
+        }
+
+        private void release() {
+            workerSlots.release();
+            runSlots.release();
+            if (inFlight.decrementAndGet() == 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        /** Stops new submissions and interrupts this run's tasks on shared threads. There is no queue to drain. */
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            synchronized (running) {
+                shutdownNow = true;
+                for (Thread thread : running) {
+                    thread.interrupt();
+                }
+            }
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && inFlight.get() == 0;
+        }
+
+        @Override
+        public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isTerminated()) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) return false;
+                wait(remainingMs);
+            }
+            return true;
+        }
+    }
+}
@@ -49,6 +49,34 @@ public final class ExecutionEngine {
                 nodeFeatureEnricher);
     }
 
+    /**
+     * Like {@link #run(ExecutionConfigSnapshot, Map, PluginExecutor, Map, DynamicNodeBuilder, NodeFeatureEnricher)},
+     * but a RETRY node scheduled by the tree loop does not wait out its backoff: the run ends with
+     * {@link TreeRunSuspendedException}, and passing its checkpoint as {@code resumeFrom} continues the run at the
+     * RETRY node's next attempt. {@code resumeFrom} null starts the run.
+     *
+     * @throws TreeRunSuspendedException when a RETRY backoff ended the run
+     * @throws IllegalStateException     when {@code resumeFrom} was taken with a different config version
+     */
+    public static String runResumable(
+            ExecutionConfigSnapshot snapshot,
+            Map<String, Object> inputValues,
+            PluginExecutor pluginExecutor,
+            Map<String, Object> tenantConfigMap,
+            DynamicNodeBuilder dynamicNodeBuilder,
+            NodeFeatureEnricher nodeFeatureEnricher,
+            TreeCheckpoint resumeFrom) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        Objects.requireNonNull(pluginExecutor, "pluginExecutor");
+        PipelineConfiguration config = snapshot.getPipelineConfiguration();
+        Objects.requireNonNull(config, "config");
+        Map<String, PipelineDefinition> pipelines = config.getPipelines();
+        if (pipelines == null || pipelines.isEmpty()) throw new IllegalArgumentException("config has no pipelines");
+        return ExecutionEngineRunner.run(pipelines.values().iterator().next(), snapshot.getQueueName(), inputValues,
+                pluginExecutor, snapshot.getTenantId(), tenantConfigMap, snapshot.getRunId(), config,
+                dynamicNodeBuilder, nodeFeatureEnricher, true, resumeFrom);
+    }
+
     /** Internal: run with optional ledger run id (for olo_run_node when ASYNC). */
     public static String run(
             PipelineConfiguration config,
@@ -68,7 +96,7 @@ public final class ExecutionEngine {
         PipelineDefinition pipeline = entryPipelineName != null ? pipelines.get(entryPipelineName) : null;
         if (pipeline == null) pipeline = pipelines.values().iterator().next();
         return ExecutionEngineRunner.run(pipeline, queueName, inputValues, pluginExecutor, tenantId, tenantConfigMap,
-                ledgerRunId, config, dynamicNodeBuilder, nodeFeatureEnricher);
+                ledgerRunId, config, dynamicNodeBuilder, nodeFeatureEnricher, false, null);
     }
 
     /**
@@ -96,7 +124,7 @@ public final class ExecutionEngine {
         Objects.requireNonNull(pipeline, "pipeline");
         Objects.requireNonNull(pluginExecutor, "pluginExecutor");
         return ExecutionEngineRunner.run(pipeline, queueName, inputValues, pluginExecutor, tenantId, tenantConfigMap,
-                null, null, dynamicNodeBuilder, nodeFeatureEnricher);
+                null, null, dynamicNodeBuilder, nodeFeatureEnricher, false, null);
     }
 
     private ExecutionEngine() {
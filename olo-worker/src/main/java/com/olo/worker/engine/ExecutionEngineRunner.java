@@ -8,15 +8,19 @@ import com.olo.node.DynamicNodeBuilder;
 import com.olo.node.NodeFeatureEnricher;
 import com.olo.plugin.PluginExecutor;
 import com.olo.worker.engine.node.NodeExecutor;
+import com.olo.worker.engine.node.RetryBackoffException;
 import com.olo.worker.engine.runtime.RuntimeExecutionTree;
 
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Single responsibility: run the execution tree for one pipeline (variable engine, executor, tree loop, result).
+ * ASYNC runs use a per-run view of the worker-wide {@link EngineExecutor}; shutting the view down does not stop shared threads.
+ * With {@code durableRetryBackoff} a RETRY backoff ends the run with a {@link TreeCheckpoint}; {@code resumeFrom}
+ * continues such a run.
  */
 final class ExecutionEngineRunner {
 
@@ -26,18 +30,35 @@ final class ExecutionEngineRunner {
     static String run(PipelineDefinition pipeline, String queueName, Map<String, Object> inputValues,
                       PluginExecutor pluginExecutor, String tenantId, Map<String, Object> tenantConfigMap,
                       String ledgerRunId, PipelineConfiguration config,
-                      DynamicNodeBuilder dynamicNodeBuilder, NodeFeatureEnricher nodeFeatureEnricher) {
-        VariableEngine variableEngine = new VariableEngine(pipeline, inputValues);
+                      DynamicNodeBuilder dynamicNodeBuilder, NodeFeatureEnricher nodeFeatureEnricher,
+                      boolean durableRetryBackoff, TreeCheckpoint resumeFrom) {
+        String configVersion = config != null ? config.getVersion() : null;
+        if (resumeFrom != null && resumeFrom.getConfigVersion() != null
+                && !Objects.equals(resumeFrom.getConfigVersion(), configVersion)) {
+            throw new IllegalStateException("Cannot resume run " + resumeFrom.getRunId() + ": config version changed from "
+                    + resumeFrom.getConfigVersion() + " to " + configVersion + " during the RETRY backoff");
+        }
+        long startedAtMs = resumeFrom != null ? resumeFrom.getStartedAtMs() : System.currentTimeMillis();
+        VariableEngine variableEngine = resumeFrom != null
+                ? VariableEngine.fromVariableMap(pipeline, resumeFrom.getVariables())
+                : new VariableEngine(pipeline, inputValues);
         PluginInvoker pluginInvoker = new PluginInvoker(pluginExecutor);
         ExecutionType executionType = pipeline.getExecutionType();
-        ExecutorService executor = executionType == ExecutionType.ASYNC ? Executors.newCachedThreadPool() : null;
+        ExecutorService executor = executionType == ExecutionType.ASYNC ? EngineExecutor.shared().newRunExecutor() : null;
         try {
             NodeExecutor nodeExecutor = new NodeExecutor(pluginInvoker, config, executionType, executor,
                     tenantId, tenantConfigMap, ledgerRunId, dynamicNodeBuilder, nodeFeatureEnricher);
             ExecutionTreeNode root = pipeline.getExecutionTree();
             if (root != null) {
                 RuntimeExecutionTree runtimeTree = new RuntimeExecutionTree(root);
-                nodeExecutor.runWithTree(runtimeTree, pipeline, variableEngine, queueName != null ? queueName : "");
+                if (durableRetryBackoff) runtimeTree.enableDurableRetryBackoff();
+                if (resumeFrom != null) resumeFrom.restore(runtimeTree);
+                try {
+                    nodeExecutor.runWithTree(runtimeTree, pipeline, variableEngine, queueName != null ? queueName : "");
+                } catch (RetryBackoffException e) {
+                    throw new TreeRunSuspendedException(TreeCheckpoint.capture(e, runtimeTree, variableEngine,
+                            ledgerRunId, configVersion, startedAtMs), e);
+                }
             }
             return ResultMapper.apply(pipeline, variableEngine);
         } finally {
@@ -1,9 +1,11 @@
 package com.olo.worker.engine;
 
 import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.worker.engine.node.RetryPolicy;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -16,24 +18,35 @@ import java.util.Objects;
 public final class ExecutionPlanBuilder {
 
     /**
-     * Result of building a plan with parallel and/or try-catch steps.
+     * Result of building a plan with parallel, try-catch and/or retried steps.
      */
     public static final class PlanWithParallelResult {
         private final List<List<PlanEntry>> steps;
         private final Integer tryCatchCatchStepIndex;
         private final String tryCatchErrorVariable;
+        private final Map<Integer, RetryPolicy> stepRetries;
 
         public PlanWithParallelResult(List<List<PlanEntry>> steps,
                                       Integer tryCatchCatchStepIndex,
                                       String tryCatchErrorVariable) {
+            this(steps, tryCatchCatchStepIndex, tryCatchErrorVariable, null);
+        }
+
+        public PlanWithParallelResult(List<List<PlanEntry>> steps,
+                                      Integer tryCatchCatchStepIndex,
+                                      String tryCatchErrorVariable,
+                                      Map<Integer, RetryPolicy> stepRetries) {
             this.steps = steps;
             this.tryCatchCatchStepIndex = tryCatchCatchStepIndex;
             this.tryCatchErrorVariable = tryCatchErrorVariable;
+            this.stepRetries = stepRetries != null ? stepRetries : Map.of();
         }
 
         public List<List<PlanEntry>> getSteps() { return steps; }
         public Integer getTryCatchCatchStepIndex() { return tryCatchCatchStepIndex; }
         public String getTryCatchErrorVariable() { return tryCatchErrorVariable; }
+        /** Retry policy per step index, for steps produced by a RETRY node. */
+        public Map<Integer, RetryPolicy> getStepRetries() { return stepRetries; }
     }
 
     /**
@@ -65,7 +78,7 @@ public final class ExecutionPlanBuilder {
         return out;
     }
 
-    /** Builds a plan with parallel steps (FORK) and/or try-catch (TRY_CATCH). Returns null if not representable. */
+    /** Builds a plan with parallel steps (FORK), try-catch (TRY_CATCH) and/or retried steps (RETRY). Returns null if not representable. */
     public static PlanWithParallelResult buildPlanWithParallel(ExecutionTreeNode root) {
         return ParallelPlanCollector.build(root);
     }
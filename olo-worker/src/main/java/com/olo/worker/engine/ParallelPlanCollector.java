@@ -3,12 +3,17 @@ package com.olo.worker.engine;
 import com.olo.executiontree.tree.ExecutionTreeNode;
 import com.olo.executiontree.tree.NodeType;
 import com.olo.worker.engine.node.NodeActivityPredicate;
+import com.olo.worker.engine.node.RetryPolicy;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Single responsibility: collect execution steps for FORK/JOIN/TRY_CATCH and linear sequences.
+ * Single responsibility: collect execution steps for FORK/JOIN/TRY_CATCH/RETRY and linear sequences.
+ * A RETRY node is representable when its child is a single step (activity leaf or FORK); the step then carries the
+ * node's {@link RetryPolicy} so the workflow retries it with a timer between attempts.
  */
 final class ParallelPlanCollector {
 
@@ -20,15 +25,17 @@ final class ParallelPlanCollector {
         List<List<ExecutionPlanBuilder.PlanEntry>> steps = new ArrayList<>();
         int[] tryCatchCatchStepIndex = { -1 };
         String[] tryCatchErrorVariable = { null };
-        if (!collectSteps(root, steps, tryCatchCatchStepIndex, tryCatchErrorVariable)) return null;
+        Map<Integer, RetryPolicy> stepRetries = new LinkedHashMap<>();
+        if (!collectSteps(root, steps, tryCatchCatchStepIndex, tryCatchErrorVariable, stepRetries)) return null;
         return steps.isEmpty() ? null
                 : new ExecutionPlanBuilder.PlanWithParallelResult(steps,
                 tryCatchCatchStepIndex[0] >= 0 ? tryCatchCatchStepIndex[0] : null,
-                tryCatchErrorVariable[0]);
+                tryCatchErrorVariable[0], stepRetries);
     }
 
     private static boolean collectSteps(ExecutionTreeNode node, List<List<ExecutionPlanBuilder.PlanEntry>> steps,
-                                        int[] tryCatchCatchStepIndex, String[] tryCatchErrorVariable) {
+                                        int[] tryCatchCatchStepIndex, String[] tryCatchErrorVariable,
+                                        Map<Integer, RetryPolicy> stepRetries) {
         NodeType type = node.getType();
         if (type == null) type = NodeType.UNKNOWN;
         boolean isLeaf = node.getChildren() == null || node.getChildren().isEmpty();
@@ -43,7 +50,7 @@ final class ParallelPlanCollector {
         }
         if (type == NodeType.SEQUENCE || type == NodeType.GROUP) {
             for (ExecutionTreeNode child : node.getChildren()) {
-                if (!collectSteps(child, steps, tryCatchCatchStepIndex, tryCatchErrorVariable)) return false;
+                if (!collectSteps(child, steps, tryCatchCatchStepIndex, tryCatchErrorVariable, stepRetries)) return false;
             }
             return true;
         }
@@ -72,15 +79,28 @@ final class ParallelPlanCollector {
         if (type == NodeType.TRY_CATCH) {
             List<ExecutionTreeNode> children = node.getChildren();
             if (children == null || children.size() < 2) return false;
-            if (!collectSteps(children.get(0), steps, tryCatchCatchStepIndex, tryCatchErrorVariable)) return false;
+            if (!collectSteps(children.get(0), steps, tryCatchCatchStepIndex, tryCatchErrorVariable, stepRetries)) return false;
             int catchIndex = steps.size();
-            if (!collectSteps(children.get(1), steps, tryCatchCatchStepIndex, tryCatchErrorVariable)) return false;
+            if (!collectSteps(children.get(1), steps, tryCatchCatchStepIndex, tryCatchErrorVariable, stepRetries)) return false;
             tryCatchCatchStepIndex[0] = catchIndex;
             Object ev = node.getParams() != null ? node.getParams().get("errorVariable") : null;
             tryCatchErrorVariable[0] = ev != null ? ev.toString().trim() : null;
             if (tryCatchErrorVariable[0] != null && tryCatchErrorVariable[0].isEmpty()) tryCatchErrorVariable[0] = null;
             return true;
         }
+        if (type == NodeType.RETRY) {
+            List<ExecutionTreeNode> children = node.getChildren();
+            if (children == null || children.isEmpty()) return false;
+            ExecutionTreeNode child = children.get(0);
+            NodeType childType = child.getType() != null ? child.getType() : NodeType.UNKNOWN;
+            boolean leaf = child.getChildren() == null || child.getChildren().isEmpty();
+            if (!(leaf && NodeActivityPredicate.isActivityNode(child)) && childType != NodeType.FORK) return false;
+            int stepIndex = steps.size();
+            if (!collectSteps(child, steps, tryCatchCatchStepIndex, tryCatchErrorVariable, stepRetries)) return false;
+            if (steps.size() != stepIndex + 1) return false;
+            stepRetries.put(stepIndex, RetryPolicy.of(node));
+            return true;
+        }
         return false;
     }
 }
@@ -13,7 +13,8 @@ import java.util.Map;
  * Reads variables from the engine, calls the plugin, writes outputs back.
  * Measures duration at the exact execution boundary and returns {@link PluginExecutionResult}
  * so features get duration and success without recomputation (and so retry/wrapping logic
- * does not skew timing). Uses the protocol {@link PluginExecutor} so the worker depends on contract only.
+ * does not skew timing). Uses the protocol {@link PluginExecutor} so the worker depends on contract only; calls go
+ * through {@link PluginExecutor#executeWithMap} so in-process plugins get and return maps without JSON round trips.
  */
 public final class PluginInvoker {
 
@@ -40,16 +41,14 @@ public final class PluginInvoker {
             Object val = variableEngine.get(m.getVariable());
             pluginInputs.put(m.getPluginParameter(), val != null ? val : "");
         }
-        String inputsJson = pluginExecutor.toJson(pluginInputs);
         long start = System.currentTimeMillis();
-        String outputsJson = pluginExecutor.execute(pluginRef, inputsJson, node.getId());
+        Map<String, Object> outputs = pluginExecutor.executeWithMap(pluginRef, pluginInputs, node.getId());
         long durationMs = System.currentTimeMillis() - start;
-        Map<String, Object> outputs = pluginExecutor.fromJson(outputsJson);
         for (ParameterMapping m : node.getOutputMappings()) {
-            Object val = outputs != null ? outputs.get(m.getPluginParameter()) : null;
+            Object val = outputs.get(m.getPluginParameter());
             variableEngine.put(m.getVariable(), val != null ? val : "");
         }
-        return new PluginExecutionResult(outputs != null ? outputs : Map.of(), durationMs, true);
+        return new PluginExecutionResult(outputs, durationMs, true);
     }
 
     /**
@@ -73,13 +72,11 @@ public final class PluginInvoker {
                 pluginInputs.put(e.getValue(), val != null ? val : "");
             }
         }
-        String inputsJson = pluginExecutor.toJson(pluginInputs);
-        String outputsJson = pluginExecutor.execute(pluginRef, inputsJson, null);
-        Map<String, Object> outputs = pluginExecutor.fromJson(outputsJson);
+        Map<String, Object> outputs = pluginExecutor.executeWithMap(pluginRef, pluginInputs, null);
         Object firstOutput = null;
         if (outputParamToVar != null) {
             for (Map.Entry<String, String> e : outputParamToVar.entrySet()) {
-                Object val = outputs != null ? outputs.get(e.getKey()) : null;
+                Object val = outputs.get(e.getKey());
                 variableEngine.put(e.getValue(), val != null ? val : "");
                 if (firstOutput == null) firstOutput = val;
             }
@@ -93,10 +90,7 @@ public final class PluginInvoker {
      */
     public Map<String, Object> invokeWithInputMap(String pluginRef, Map<String, Object> inputMap) {
         if (pluginRef == null || pluginRef.isBlank()) return Map.of();
-        String inputsJson = pluginExecutor.toJson(inputMap != null ? inputMap : Map.of());
-        String outputsJson = pluginExecutor.execute(pluginRef, inputsJson, null);
-        Map<String, Object> outputs = pluginExecutor.fromJson(outputsJson);
-        return outputs != null ? outputs : Map.of();
+        return pluginExecutor.executeWithMap(pluginRef, inputMap != null ? inputMap : Map.of(), null);
     }
 
 }
@@ -0,0 +1,94 @@
+package com.olo.worker.engine;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olo.worker.engine.node.RetryBackoffException;
+import com.olo.worker.engine.runtime.NodeStatus;
+import com.olo.worker.engine.runtime.RuntimeExecutionTree;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * State of a tree run that stopped for a RETRY backoff ({@link RetryBackoffException}): node statuses of the static
+ * tree, the variables and the attempt the RETRY node resumes at. The workflow waits out {@link #getBackoffMs()} on a
+ * timer and then continues the run from it (see {@link ExecutionEngine#runResumable}), so no activity holds a worker
+ * slot during the backoff. JSON form: {@link #toJson()} / {@link #fromJson(String)}.
+ */
+public final class TreeCheckpoint {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String runId;
+    private final String configVersion;
+    private final long startedAtMs;
+    private final String retryNodeId;
+    private final int nextAttempt;
+    private final long backoffMs;
+    private final Map<String, NodeStatus> statuses;
+    private final Map<String, Object> variables;
+
+    @JsonCreator
+    public TreeCheckpoint(@JsonProperty("runId") String runId,
+                          @JsonProperty("configVersion") String configVersion,
+                          @JsonProperty("startedAtMs") long startedAtMs,
+                          @JsonProperty("retryNodeId") String retryNodeId,
+                          @JsonProperty("nextAttempt") int nextAttempt,
+                          @JsonProperty("backoffMs") long backoffMs,
+                          @JsonProperty("statuses") Map<String, NodeStatus> statuses,
+                          @JsonProperty("variables") Map<String, Object> variables) {
+        this.runId = runId;
+        this.configVersion = configVersion;
+        this.startedAtMs = startedAtMs;
+        this.retryNodeId = Objects.requireNonNull(retryNodeId, "retryNodeId");
+        this.nextAttempt = nextAttempt;
+        this.backoffMs = backoffMs;
+        this.statuses = statuses != null ? statuses : Map.of();
+        this.variables = variables != null ? variables : Map.of();
+    }
+
+    /**
+     * Captures the run after {@code backoff} unwound it: the RETRY node and its subtree are set back to NOT_STARTED so
+     * the resumed tree loop schedules the RETRY node next.
+     */
+    static TreeCheckpoint capture(RetryBackoffException backoff, RuntimeExecutionTree tree, VariableEngine variables,
+                                  String runId, String configVersion, long startedAtMs) {
+        tree.resetSubtreeToNotStarted(backoff.getRetryNodeId());
+        return new TreeCheckpoint(runId, configVersion, startedAtMs, backoff.getRetryNodeId(), backoff.getNextAttempt(),
+                backoff.getBackoffMs(), tree.staticStatuses(), new LinkedHashMap<>(variables.getExportMap()));
+    }
+
+    /** Applies the node statuses and the RETRY node's next attempt to a tree freshly built from the same pipeline. */
+    void restore(RuntimeExecutionTree tree) {
+        tree.restoreStatuses(statuses);
+        tree.resumeRetryAt(retryNodeId, nextAttempt);
+    }
+
+    public String getRunId() { return runId; }
+    public String getConfigVersion() { return configVersion; }
+    /** Epoch millis when the run first started (before any backoff). */
+    public long getStartedAtMs() { return startedAtMs; }
+    public String getRetryNodeId() { return retryNodeId; }
+    public int getNextAttempt() { return nextAttempt; }
+    public long getBackoffMs() { return backoffMs; }
+    public Map<String, NodeStatus> getStatuses() { return statuses; }
+    public Map<String, Object> getVariables() { return variables; }
+
+    public String toJson() {
+        try {
+            return MAPPER.writeValueAsString(this);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize tree checkpoint for RETRY node " + retryNodeId, e);
+        }
+    }
+
+    public static TreeCheckpoint fromJson(String json) {
+        try {
+            return MAPPER.readValue(json, TreeCheckpoint.class);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid tree checkpoint JSON: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.olo.worker.engine;
+
+/**
+ * Thrown by {@link ExecutionEngine#runResumable} when a RETRY node ended the run for its backoff. The run continues
+ * from {@link #getCheckpoint()} once the backoff has passed.
+ */
+public final class TreeRunSuspendedException extends RuntimeException {
+
+    private final TreeCheckpoint checkpoint;
+
+    public TreeRunSuspendedException(TreeCheckpoint checkpoint, Throwable cause) {
+        super("Run suspended: RETRY node " + checkpoint.getRetryNodeId() + " backing off " + checkpoint.getBackoffMs()
+                + " ms before attempt " + checkpoint.getNextAttempt(), cause);
+        this.checkpoint = checkpoint;
+    }
+
+    public TreeCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+}
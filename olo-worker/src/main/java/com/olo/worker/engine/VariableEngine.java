@@ -4,10 +4,17 @@ import com.olo.executiontree.config.PipelineDefinition;
 import com.olo.executiontree.inputcontract.InputContract;
 import com.olo.executiontree.variableregistry.VariableRegistryEntry;
 import com.olo.executiontree.variableregistry.VariableScope;
+import com.olo.executiontree.variableregistry.VariableSlots;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -16,15 +23,19 @@ import java.util.stream.Collectors;
 /**
  * Single responsibility: variable map lifecycle for execution.
  * Initializes IN from input, INTERNAL and OUT to null; rejects unknown input names when strict.
- * Uses ConcurrentHashMap so ASYNC execution (multiple threads) is safe.
- * Null values are stored as a sentinel because ConcurrentHashMap does not allow null values.
+ * Registry variables live in an array indexed by the pipeline's {@link VariableSlots} (volatile element access, so
+ * ASYNC execution on multiple threads is safe); names outside the registry go to a ConcurrentHashMap, where null
+ * values are stored as a sentinel because ConcurrentHashMap does not allow null values.
  */
 public final class VariableEngine {
 
-    /** Sentinel for null values; ConcurrentHashMap does not allow null. */
+    /** Sentinel for null values in {@link #extraVariables}; ConcurrentHashMap does not allow null. */
     private static final Object NULL = new Object();
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
 
-    private final Map<String, Object> variableMap;
+    private final VariableSlots slots;
+    private final Object[] values;
+    private final ConcurrentHashMap<String, Object> extraVariables;
 
     /**
      * Builds the variable map from the pipeline registry and input values.
@@ -46,18 +57,15 @@ public final class VariableEngine {
                 }
             }
         }
-        this.variableMap = new ConcurrentHashMap<>();
+        this.slots = pipeline.variableSlots();
+        this.values = new Object[slots.size()];
+        this.extraVariables = new ConcurrentHashMap<>();
         List<VariableRegistryEntry> registry = pipeline.getVariableRegistry();
         if (registry != null) {
             for (VariableRegistryEntry entry : registry) {
                 String name = entry.getName();
                 if (name == null) continue;
-                if (entry.getScope() == VariableScope.IN) {
-                    Object val = inputValuesCopy.get(name);
-                    variableMap.put(name, val != null ? val : NULL);
-                } else {
-                    variableMap.put(name, NULL);
-                }
+                values[slots.slotOf(name)] = entry.getScope() == VariableScope.IN ? inputValuesCopy.get(name) : null;
             }
         }
     }
@@ -66,56 +74,166 @@ public final class VariableEngine {
      * Builds a variable engine from an existing variable map (e.g. from a previous execution step).
      * Copies existing keys and ensures all pipeline registry variables exist (with null if missing)
      * so that getExportMap() returns a consistent set of keys and merging parallel activity results
-     * does not drop variables that one branch did not write.
+     * does not drop variables that one branch did not write. A map from {@link #getExportMap()} of the same
+     * pipeline is copied as an array.
      */
     public static VariableEngine fromVariableMap(PipelineDefinition pipeline, Map<String, Object> existingVariableMap) {
         Objects.requireNonNull(pipeline, "pipeline");
-        ConcurrentHashMap<String, Object> map = new ConcurrentHashMap<>();
-        List<VariableRegistryEntry> registry = pipeline.getVariableRegistry();
-        if (registry != null) {
-            for (VariableRegistryEntry entry : registry) {
-                String name = entry.getName();
-                if (name == null) continue;
-                Object v = existingVariableMap != null ? existingVariableMap.get(name) : null;
-                map.put(name, v == null ? NULL : v);
-            }
+        VariableSlots slots = pipeline.variableSlots();
+        if (existingVariableMap instanceof Snapshot snapshot && snapshot.slots == slots) {
+            ConcurrentHashMap<String, Object> extra = new ConcurrentHashMap<>();
+            snapshot.extra.forEach((k, v) -> extra.put(k, v == null ? NULL : v));
+            return new VariableEngine(slots, snapshot.values.clone(), extra);
         }
+        Object[] values = new Object[slots.size()];
+        ConcurrentHashMap<String, Object> extra = new ConcurrentHashMap<>();
         if (existingVariableMap != null) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = existingVariableMap.get(slots.name(i));
+            }
             for (Map.Entry<String, Object> e : existingVariableMap.entrySet()) {
-                if (e.getKey() != null && !map.containsKey(e.getKey())) {
+                if (e.getKey() != null && slots.slotOf(e.getKey()) < 0) {
                     Object v = e.getValue();
-                    map.put(e.getKey(), v == null ? NULL : v);
+                    extra.put(e.getKey(), v == null ? NULL : v);
                 }
             }
         }
-        return new VariableEngine(pipeline, map);
+        return new VariableEngine(slots, values, extra);
     }
 
-    /** Private constructor for fromVariableMap; backing map already has NULL sentinel. */
-    private VariableEngine(PipelineDefinition pipeline, ConcurrentHashMap<String, Object> backingMap) {
-        Objects.requireNonNull(pipeline, "pipeline");
-        this.variableMap = backingMap != null ? backingMap : new ConcurrentHashMap<>();
+    /** Private constructor for fromVariableMap; extra map already has NULL sentinel. */
+    private VariableEngine(VariableSlots slots, Object[] values, ConcurrentHashMap<String, Object> extraVariables) {
+        this.slots = slots;
+        this.values = values;
+        this.extraVariables = extraVariables;
     }
 
-    public Map<String, Object> getVariableMap() {
-        return variableMap;
+    /**
+     * Returns a read-only snapshot of all variables suitable for JSON serialization (null values allowed;
+     * registry variables first, in registry order). Taking it copies the value array, not a map.
+     */
+    public Map<String, Object> getExportMap() {
+        Object[] copy = new Object[values.length];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = SLOT.getVolatile(values, i);
+        }
+        return new Snapshot(slots, copy, exportExtra());
     }
 
-    /** Returns a map suitable for JSON serialization (NULL sentinel converted to null). Uses LinkedHashMap so null values are allowed. */
-    public Map<String, Object> getExportMap() {
+    /**
+     * Returns only the variables whose value differs from {@code baseline} (added or changed), for returning a
+     * parallel branch's writes instead of its full map. NULL sentinel is exported as null.
+     */
+    public Map<String, Object> getDeltaExportMap(Map<String, Object> baseline) {
         Map<String, Object> out = new LinkedHashMap<>();
-        for (Map.Entry<String, Object> e : variableMap.entrySet()) {
-            out.put(e.getKey(), e.getValue() == NULL ? null : e.getValue());
+        Snapshot base = baseline instanceof Snapshot s && s.slots == slots ? s : null;
+        for (int i = 0; i < values.length; i++) {
+            Object v = SLOT.getVolatile(values, i);
+            if (base != null) {
+                Object before = base.values[i];
+                if (before == v || Objects.equals(before, v)) continue;
+            } else if (baseline != null && baseline.containsKey(slots.name(i))) {
+                Object before = baseline.get(slots.name(i));
+                if (before == v || Objects.equals(before, v)) continue;
+            }
+            out.put(slots.name(i), v);
+        }
+        for (Map.Entry<String, Object> e : extraVariables.entrySet()) {
+            Object v = e.getValue() == NULL ? null : e.getValue();
+            if (baseline != null && baseline.containsKey(e.getKey())) {
+                Object before = baseline.get(e.getKey());
+                if (before == v || Objects.equals(before, v)) continue;
+            }
+            out.put(e.getKey(), v);
         }
         return out;
     }
 
     public Object get(String name) {
-        Object v = variableMap.get(name);
+        int slot = slots.slotOf(name);
+        if (slot >= 0) return SLOT.getVolatile(values, slot);
+        Object v = name != null ? extraVariables.get(name) : null;
         return v == NULL ? null : v;
     }
 
     public void put(String name, Object value) {
-        variableMap.put(name, value != null ? value : NULL);
+        int slot = slots.slotOf(name);
+        if (slot >= 0) {
+            SLOT.setVolatile(values, slot, value);
+        } else {
+            extraVariables.put(name, value != null ? value : NULL);
+        }
+    }
+
+    private Map<String, Object> exportExtra() {
+        if (extraVariables.isEmpty()) return Map.of();
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> e : extraVariables.entrySet()) {
+            out.put(e.getKey(), e.getValue() == NULL ? null : e.getValue());
+        }
+        return out;
+    }
+
+    /** Read-only map over a copied value array plus variables outside the registry. */
+    private static final class Snapshot extends AbstractMap<String, Object> {
+        private final VariableSlots slots;
+        private final Object[] values;
+        private final Map<String, Object> extra;
+
+        Snapshot(VariableSlots slots, Object[] values, Map<String, Object> extra) {
+            this.slots = slots;
+            this.values = values;
+            this.extra = extra;
+        }
+
+        @Override
+        public Object get(Object key) {
+            int slot = key instanceof String s ? slots.slotOf(s) : -1;
+            return slot >= 0 ? values[slot] : key != null ? extra.get(key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String s && (slots.slotOf(s) >= 0 || extra.containsKey(s));
+        }
+
+        @Override
+        public int size() {
+            return values.length + extra.size();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    Iterator<Entry<String, Object>> extraIt = extra.entrySet().iterator();
+                    return new Iterator<>() {
+                        private int slot;
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot < values.length || extraIt.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (slot < values.length) {
+                                int i = slot++;
+                                return new SimpleImmutableEntry<>(slots.name(i), values[i]);
+                            }
+                            if (!extraIt.hasNext()) throw new NoSuchElementException();
+                            Entry<String, Object> e = extraIt.next();
+                            return new SimpleImmutableEntry<>(e.getKey(), e.getValue());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return Snapshot.this.size();
+                }
+            };
+        }
     }
 }
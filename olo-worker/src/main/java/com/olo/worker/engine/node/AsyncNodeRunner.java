@@ -3,16 +3,17 @@ package com.olo.worker.engine.node;
 import com.olo.executiontree.config.ExecutionType;
 import com.olo.executiontree.config.PipelineDefinition;
 import com.olo.executiontree.tree.ExecutionTreeNode;
-import com.olo.executiontree.tree.NodeType;
 import com.olo.ledger.LedgerContext;
 import com.olo.worker.engine.VariableEngine;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 
 /**
  * Single responsibility: run one node with optional async execution and LedgerContext.
  * Delegates the actual node execution to SingleNodeRunner.
+ * {@link #executeNode} runs on the calling thread (handing a node to another thread only to wait for it gains
+ * nothing); {@link #startNode} runs ASYNC nodes on the executor and returns a future to compose with others.
  */
 public final class AsyncNodeRunner {
 
@@ -30,46 +31,44 @@ public final class AsyncNodeRunner {
     }
 
     /**
-     * Execute node: set LedgerContext, then run sync or async (activity nodes only), then clear context.
+     * Execute node on the calling thread with LedgerContext set; the caller's previous run id is restored afterwards.
      */
     public void executeNode(ExecutionTreeNode node, PipelineDefinition pipeline, VariableEngine variableEngine,
                             String queueName, ChildNodeRunner runChild, ChildNodeRunner runChildSync) {
         if (node == null) return;
+        String previousRunId = LedgerContext.getRunId();
         if (ledgerRunId != null && !ledgerRunId.isBlank()) {
             LedgerContext.setRunId(ledgerRunId);
         }
         try {
-            boolean runAsync = executionType == ExecutionType.ASYNC
-                    && executor != null
-                    && NodeActivityPredicate.isActivityNode(node)
-                    && node.getType() != NodeType.JOIN;
-            if (runAsync) {
-                Future<?> future = executor.submit(() -> {
-                    if (ledgerRunId != null && !ledgerRunId.isBlank()) {
-                        LedgerContext.setRunId(ledgerRunId);
-                    }
-                    try {
-                        singleNodeRunner.runOne(node, pipeline, variableEngine, queueName, runChild, runChildSync);
-                    } finally {
-                        if (ledgerRunId != null && !ledgerRunId.isBlank()) {
-                            LedgerContext.clear();
-                        }
-                    }
-                });
-                try {
-                    future.get();
-                } catch (Exception e) {
-                    Throwable cause = e.getCause() != null ? e.getCause() : e;
-                    if (cause instanceof RuntimeException re) throw re;
-                    throw new RuntimeException(cause);
-                }
-            } else {
-                singleNodeRunner.runOne(node, pipeline, variableEngine, queueName, runChild, runChildSync);
-            }
+            singleNodeRunner.runOne(node, pipeline, variableEngine, queueName, runChild, runChildSync);
         } finally {
-            if (ledgerRunId != null && !ledgerRunId.isBlank()) {
+            if (previousRunId != null) {
+                LedgerContext.setRunId(previousRunId);
+            } else {
                 LedgerContext.clear();
             }
         }
     }
+
+    /**
+     * Start node: with ASYNC and an executor the node (and its subtree) runs on the executor and the caller continues
+     * immediately; otherwise it runs on the calling thread. The future completes (exceptionally on failure) when the
+     * node has finished.
+     */
+    public CompletableFuture<Void> startNode(ExecutionTreeNode node, PipelineDefinition pipeline,
+                                             VariableEngine variableEngine, String queueName,
+                                             ChildNodeRunner runChild, ChildNodeRunner runChildSync) {
+        if (node == null) return CompletableFuture.completedFuture(null);
+        if (executionType != ExecutionType.ASYNC || executor == null) {
+            try {
+                executeNode(node, pipeline, variableEngine, queueName, runChild, runChildSync);
+                return CompletableFuture.completedFuture(null);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.runAsync(
+                () -> executeNode(node, pipeline, variableEngine, queueName, runChild, runChildSync), executor);
+    }
 }
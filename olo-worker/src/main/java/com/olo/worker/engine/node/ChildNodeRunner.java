@@ -4,6 +4,8 @@ import com.olo.executiontree.config.PipelineDefinition;
 import com.olo.executiontree.tree.ExecutionTreeNode;
 import com.olo.worker.engine.VariableEngine;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Callback to run a child node (used by NodeExecutionDispatcher for SEQUENCE, IF, FORK, etc.).
  */
@@ -12,4 +14,18 @@ public interface ChildNodeRunner {
 
     void run(ExecutionTreeNode child, PipelineDefinition pipeline,
              VariableEngine variableEngine, String queueName);
+
+    /**
+     * Starts the child and returns a future that completes when it (and its subtree) has finished, so callers can
+     * start independent children before waiting. Default runs the child on the calling thread.
+     */
+    default CompletableFuture<Void> start(ExecutionTreeNode child, PipelineDefinition pipeline,
+                                          VariableEngine variableEngine, String queueName) {
+        try {
+            run(child, pipeline, variableEngine, queueName);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -9,14 +9,20 @@ import com.olo.features.ResolvedPrePost;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Single responsibility: resolve the effective pre/post feature list for a node.
  * Delegates to {@link FeatureAttachmentResolver} with scope feature names derived from pipeline scope.
+ * Results are memoized per node (see {@link IdentityMemo}), then per scope, queue and registry; an entry resolved
+ * before the registry last changed is resolved again and replaced.
  */
 public final class FeatureResolver {
 
+    private static final IdentityMemo<ExecutionTreeNode, Map<Key, Resolved>> CACHE = new IdentityMemo<>();
+
     /**
      * Resolves pre/post feature names for the given node.
      *
@@ -33,6 +39,26 @@ public final class FeatureResolver {
             FeatureRegistry registry) {
         Objects.requireNonNull(node, "node");
         Objects.requireNonNull(registry, "registry");
+        Map<Key, Resolved> byContext = CACHE.computeIfAbsent(node, n -> new ConcurrentHashMap<>());
+        long modificationCount = registry.getModificationCount();
+        return byContext.compute(new Key(scope, queueName, registry), (k, cached) ->
+                cached != null && cached.registryModificationCount == modificationCount
+                        ? cached
+                        : new Resolved(modificationCount, resolveUncached(node, queueName, scope, registry)))
+                .prePost;
+    }
+
+    /** Number of memoized contexts for the node (tests). */
+    static int cachedContexts(ExecutionTreeNode node) {
+        Map<Key, Resolved> byContext = CACHE.get(node);
+        return byContext != null ? byContext.size() : 0;
+    }
+
+    private static ResolvedPrePost resolveUncached(
+            ExecutionTreeNode node,
+            String queueName,
+            Scope scope,
+            FeatureRegistry registry) {
         List<String> scopeFeatureNames = getScopeFeatureNames(scope);
         // When run ledger is enabled, ledger-node is registered but may not be in pipeline scope; attach it so olo_run_node is populated.
         if (registry.get("ledger-node") != null && !scopeFeatureNames.contains("ledger-node")) {
@@ -63,6 +89,33 @@ public final class FeatureResolver {
         return names;
     }
 
-    private FeatureResolver() {
+    /** Resolved features and the registry modification count they were resolved at. */
+    private record Resolved(long registryModificationCount, ResolvedPrePost prePost) {}
+
+    /** Cache key within a node: scope and registry by identity; queue by value. */
+    private static final class Key {
+        private final Scope scope;
+        private final String queueName;
+        private final FeatureRegistry registry;
+        private final int hash;
+
+        Key(Scope scope, String queueName, FeatureRegistry registry) {
+            this.scope = scope;
+            this.queueName = queueName;
+            this.registry = registry;
+            this.hash = 31 * System.identityHashCode(scope) + Objects.hashCode(queueName);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key k)) return false;
+            return scope == k.scope && registry == k.registry && Objects.equals(queueName, k.queueName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 }
@@ -0,0 +1,126 @@
+package com.olo.worker.engine.node;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Single responsibility: memoize a value per object, by identity, for as long as the object is in use.
+ * Used for data compiled from immutable, shared definitions (tree nodes, configs), whose equality is deep and too
+ * costly per lookup. Keys are held weakly: an entry goes away once its key is no longer referenced (e.g. planner
+ * nodes after their run, pipelines after a config reload), so the memo needs no size bound. Values must not
+ * reference their own key, or the entry is never dropped.
+ */
+public final class IdentityMemo<K, V> {
+
+    private final Map<Object, V> values = new ConcurrentHashMap<>();
+    private final ReferenceQueue<K> collected = new ReferenceQueue<>();
+
+    /** Value memoized for the key, or null. */
+    public V get(K key) {
+        return key != null ? values.get(new Lookup(key)) : null;
+    }
+
+    /**
+     * Returns the value memoized for the key, computing it at most once per key on first use (concurrent callers
+     * for the same key wait for that computation). A null result is not memoized.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> compute) {
+        if (key == null) return compute.apply(null);
+        V value = values.get(new Lookup(key));
+        if (value != null) return value;
+        expungeCollected();
+        return values.computeIfAbsent(new WeakKey<>(key, collected), k -> compute.apply(key));
+    }
+
+    /** Replaces the value memoized for the key. */
+    public void put(K key, V value) {
+        if (key == null || value == null) return;
+        expungeCollected();
+        values.put(new WeakKey<>(key, collected), value);
+    }
+
+    /** Number of live entries (entries of collected keys may still count until the next update). */
+    int size() {
+        expungeCollected();
+        return values.size();
+    }
+
+    /**
+     * Clears the key's entry reference and enqueues it, as the garbage collector does once the key is unreachable;
+     * the entry is then dropped on the next update. For tests, since collection itself cannot be forced.
+     */
+    void markCollected(K key) {
+        for (Object k : values.keySet()) {
+            if (k instanceof WeakKey<?> weak && weak.get() == key) {
+                weak.clear();
+                weak.enqueue();
+            }
+        }
+    }
+
+    private void expungeCollected() {
+        Reference<? extends K> ref;
+        while ((ref = collected.poll()) != null) {
+            values.remove(ref);
+        }
+    }
+
+    /** Either kind of map key: compares the referenced objects by identity. */
+    private interface IdentityKey {
+        Object referent();
+    }
+
+    private static final class WeakKey<K> extends WeakReference<K> implements IdentityKey {
+        private final int hash;
+
+        WeakKey(K key, ReferenceQueue<K> queue) {
+            super(key, queue);
+            this.hash = System.identityHashCode(key);
+        }
+
+        @Override
+        public Object referent() {
+            return get();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            Object referent = get();
+            return referent != null && o instanceof IdentityKey k && k.referent() == referent;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /** Short-lived strong key for lookups, so a read allocates no WeakReference. */
+    private static final class Lookup implements IdentityKey {
+        private final Object key;
+
+        Lookup(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public Object referent() {
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey k && k.referent() == key;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(key);
+        }
+    }
+}
@@ -45,7 +45,16 @@ public final class NodeExecutionDispatcher {
                                    ExecutionType executionType, ExecutorService executor,
                                    String ledgerRunId, DynamicNodeBuilder dynamicNodeBuilder,
                                    NodeFeatureEnricher nodeFeatureEnricher) {
-        this.handlerContext = new HandlerContext(pluginInvoker, config, executionType, executor, ledgerRunId, dynamicNodeBuilder, nodeFeatureEnricher);
+        this(pluginInvoker, config, executionType, executor, ledgerRunId, dynamicNodeBuilder, nodeFeatureEnricher, null);
+    }
+
+    /** @param nodeRunner runs a subtree by recursive dispatch; exposed to handlers via HandlerContext.getNodeRunner() */
+    public NodeExecutionDispatcher(PluginInvoker pluginInvoker, PipelineConfiguration config,
+                                   ExecutionType executionType, ExecutorService executor,
+                                   String ledgerRunId, DynamicNodeBuilder dynamicNodeBuilder,
+                                   NodeFeatureEnricher nodeFeatureEnricher, ChildNodeRunner nodeRunner) {
+        this.handlerContext = new HandlerContext(pluginInvoker, config, executionType, executor, ledgerRunId,
+                dynamicNodeBuilder, nodeFeatureEnricher, nodeRunner);
         this.plannerHandler = new PlannerHandler();
         this.handlerRegistry = new NodeHandlerRegistry(List.of(
                 new CoreFlowHandler(),
@@ -84,7 +93,7 @@ public final class NodeExecutionDispatcher {
      * Tree-driven dispatch: state transition only. No special handling for PLANNER.
      * Containers mutate tree (IF/SWITCH skip; PLANNER attachChildren) or no-op; leaves run logic.
      * PLANNER: expansion happens here only — we attach children and return; we do NOT run children inline.
-     * The executor loop will pick new nodes via findNextExecutable(). subtreeRunner is for ITERATOR body only.
+     * The executor loop will pick new nodes via findNextExecutable(). subtreeRunner runs a subtree in place (ITERATOR body, parallel FORK branches).
      */
     public Object dispatchWithTree(ExecutionTreeNode node, PipelineDefinition pipeline,
                                   VariableEngine variableEngine, String queueName, RuntimeExecutionTree tree,
@@ -17,6 +17,7 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -32,6 +33,20 @@ public final class NodeExecutor {
     private final SingleNodeRunner singleNodeRunner;
     private final AsyncNodeRunner asyncNodeRunner;
     private final PlannerOnlyRunner plannerOnlyRunner;
+    /** runChild passed to handlers: run executes on the calling thread, start composes via the executor. */
+    private final ChildNodeRunner runChild = new ChildNodeRunner() {
+        @Override
+        public void run(ExecutionTreeNode child, PipelineDefinition pipeline,
+                        VariableEngine variableEngine, String queueName) {
+            executeNode(child, pipeline, variableEngine, queueName);
+        }
+
+        @Override
+        public CompletableFuture<Void> start(ExecutionTreeNode child, PipelineDefinition pipeline,
+                                             VariableEngine variableEngine, String queueName) {
+            return startNode(child, pipeline, variableEngine, queueName);
+        }
+    };
 
     public NodeExecutor(PluginInvoker pluginInvoker, PipelineConfiguration config,
                         ExecutionType executionType, ExecutorService executor,
@@ -45,7 +60,7 @@ public final class NodeExecutor {
         this.ledgerRunId = ledgerRunId;
         NodeFeatureRunner featureRunner = new NodeFeatureRunner();
         NodeExecutionDispatcher dispatcher = new NodeExecutionDispatcher(
-                pluginInvoker, config, et, executor, ledgerRunId, dynamicNodeBuilder, nodeFeatureEnricher);
+                pluginInvoker, config, et, executor, ledgerRunId, dynamicNodeBuilder, nodeFeatureEnricher, runChild);
         this.singleNodeRunner = new SingleNodeRunner(featureRunner, dispatcher, tid, tcm);
         this.asyncNodeRunner = new AsyncNodeRunner(singleNodeRunner, et, executor, ledgerRunId);
         this.plannerOnlyRunner = new PlannerOnlyRunner(featureRunner, dispatcher, tid, tcm, ledgerRunId);
@@ -87,35 +102,44 @@ public final class NodeExecutor {
         }
         if (ledgerRunId != null && !ledgerRunId.isBlank()) LedgerContext.setRunId(ledgerRunId);
         try {
-            singleNodeRunner.runOne(node, pipeline, variableEngine, queueName, this::executeNode, this::executeNodeSync);
+            singleNodeRunner.runOne(node, pipeline, variableEngine, queueName, runChild, this::executeNodeSync);
         } finally {
             if (ledgerRunId != null && !ledgerRunId.isBlank()) LedgerContext.clear();
         }
     }
 
-    /** Execute one node (async or sync); used as runChild by dispatcher. */
+    /** Execute one node on the calling thread; used as runChild by dispatcher. */
     public void executeNode(ExecutionTreeNode node, PipelineDefinition pipeline,
                             VariableEngine variableEngine, String queueName) {
-        asyncNodeRunner.executeNode(node, pipeline, variableEngine, queueName, this::executeNode, this::executeNodeSync);
+        asyncNodeRunner.executeNode(node, pipeline, variableEngine, queueName, runChild, this::executeNodeSync);
+    }
+
+    /** Start one node (on the executor when ASYNC); used as runChild.start by dispatcher (e.g. FORK branches). */
+    public CompletableFuture<Void> startNode(ExecutionTreeNode node, PipelineDefinition pipeline,
+                                             VariableEngine variableEngine, String queueName) {
+        return asyncNodeRunner.startNode(node, pipeline, variableEngine, queueName, runChild, this::executeNodeSync);
     }
 
     /** Sync execution of one node; used as runChildSync by dispatcher. */
     public void executeNodeSync(ExecutionTreeNode node, PipelineDefinition pipeline,
                                 VariableEngine variableEngine, String queueName) {
-        singleNodeRunner.runOne(node, pipeline, variableEngine, queueName, this::executeNode, this::executeNodeSync);
+        singleNodeRunner.runOne(node, pipeline, variableEngine, queueName, runChild, this::executeNodeSync);
         if (log.isInfoEnabled()) {
             log.info("Tree runOneNodeInTree done | nodeId={} type={}", node.getId(), node.getType());
         }
     }
 
+    /**
+     * Runs the subtree rooted at fromNodeId (ITERATOR body, FORK branch) until it has no executable node left.
+     * Scoped lookup keeps concurrent FORK branches from picking up each other's nodes.
+     */
     private void runSubtree(RuntimeExecutionTree tree, String fromNodeId, PipelineDefinition pipeline,
                             VariableEngine variableEngine, String queueName,
                             ExpansionState expansionState, ExpansionLimits expansionLimits) {
         if (tree == null || fromNodeId == null) return;
         while (true) {
-            String nextId = tree.findNextExecutable();
+            String nextId = tree.findNextExecutableIn(fromNodeId);
             if (nextId == null) break;
-            if (!tree.isDescendant(nextId, fromNodeId)) break;
             ExecutionTreeNode n = tree.getDefinition(nextId);
             if (n == null) {
                 tree.markCompleted(nextId);
@@ -136,7 +160,9 @@ public final class NodeExecutor {
         if (log.isInfoEnabled()) {
             log.info("Tree runOneNodeInTree entry | nodeId={} type={} displayName={}", node.getId(), node.getType(), node.getDisplayName());
         }
-        singleNodeRunner.runOneInTree(node, pipeline, variableEngine, queueName, runtimeTree,
+        // Nodes inlined from a SUB_PIPELINE run with their own pipeline (scope, features); the rest with the run's.
+        PipelineDefinition inlinedFrom = runtimeTree.getPipeline(node.getId());
+        singleNodeRunner.runOneInTree(node, inlinedFrom != null ? inlinedFrom : pipeline, variableEngine, queueName, runtimeTree,
                 (fromNodeId) -> runSubtree(runtimeTree, fromNodeId, pipeline, variableEngine, queueName, expansionState, expansionLimits),
                 expansionState, expansionLimits);
     }
@@ -0,0 +1,32 @@
+package com.olo.worker.engine.node;
+
+/**
+ * Thrown by a RETRY node in tree mode instead of waiting out its backoff on the activity thread. The run stops and is
+ * resumed at {@link #getNextAttempt()} once {@link #getBackoffMs()} has passed (see
+ * {@link com.olo.worker.engine.TreeCheckpoint}). Cause: the failure of the last attempt.
+ */
+public final class RetryBackoffException extends RuntimeException {
+
+    private final String retryNodeId;
+    private final int nextAttempt;
+    private final long backoffMs;
+
+    public RetryBackoffException(String retryNodeId, int nextAttempt, long backoffMs, Throwable cause) {
+        super(String.format("RETRY node %s backing off %d ms before attempt %d", retryNodeId, backoffMs, nextAttempt), cause);
+        this.retryNodeId = retryNodeId;
+        this.nextAttempt = nextAttempt;
+        this.backoffMs = backoffMs;
+    }
+
+    public String getRetryNodeId() {
+        return retryNodeId;
+    }
+
+    public int getNextAttempt() {
+        return nextAttempt;
+    }
+
+    public long getBackoffMs() {
+        return backoffMs;
+    }
+}
@@ -0,0 +1,90 @@
+package com.olo.worker.engine.node;
+
+import com.olo.executiontree.tree.ExecutionTreeNode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single responsibility: retry parameters of a RETRY node (maxAttempts, initialIntervalMs, backoffCoefficient,
+ * retryableErrors) and the backoff before each further attempt. Shared by in-engine RETRY and by the per-node
+ * workflow plan, where the backoff is a workflow timer instead of a wait inside an activity.
+ */
+public final class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long initialIntervalMs;
+    private final double backoffCoefficient;
+    private final List<String> retryableErrors;
+
+    public RetryPolicy(int maxAttempts, long initialIntervalMs, double backoffCoefficient, List<String> retryableErrors) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialIntervalMs = Math.max(0L, initialIntervalMs);
+        this.backoffCoefficient = backoffCoefficient;
+        this.retryableErrors = retryableErrors != null ? List.copyOf(retryableErrors) : null;
+    }
+
+    /** Reads the policy from the RETRY node params (defaults: 3 attempts, no backoff, coefficient 2.0). */
+    public static RetryPolicy of(ExecutionTreeNode node) {
+        Map<String, Object> params = node.getParams();
+        return new RetryPolicy(NodeParams.paramInt(node, "maxAttempts", 3),
+                NodeParams.paramLong(node, "initialIntervalMs", 0L),
+                NodeParams.paramDouble(node, "backoffCoefficient", 2.0),
+                stringList(params != null ? params.get("retryableErrors") : null));
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /** Backoff in ms before the attempt following {@code failedAttempt} (1-based): initialIntervalMs * coefficient^(failedAttempt-1). */
+    public long backoffMs(int failedAttempt) {
+        return (long) (initialIntervalMs * Math.pow(backoffCoefficient, failedAttempt - 1));
+    }
+
+    /**
+     * True when retryableErrors is unset or one of its entries occurs in the message of the error or of one of
+     * its causes (activity failures wrap the node's error).
+     */
+    public boolean isRetryable(Throwable t) {
+        if (retryableErrors == null) return true;
+        for (Throwable c = t; c != null; c = c.getCause() == c ? null : c.getCause()) {
+            String msg = c.getMessage() != null ? c.getMessage() : c.getClass().getName();
+            for (String pattern : retryableErrors) {
+                if (msg.contains(pattern)) return true;
+            }
+        }
+        return false;
+    }
+
+    /** Plan JSON form, read back by the workflow plan executor. */
+    public Map<String, Object> toPlanMap() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("maxAttempts", maxAttempts);
+        out.put("initialIntervalMs", initialIntervalMs);
+        out.put("backoffCoefficient", backoffCoefficient);
+        if (retryableErrors != null) out.put("retryableErrors", retryableErrors);
+        return out;
+    }
+
+    /** Reads the {@link #toPlanMap()} form; missing values take the RETRY node defaults. */
+    public static RetryPolicy fromPlanMap(Map<String, Object> map) {
+        return new RetryPolicy(map.get("maxAttempts") instanceof Number n ? n.intValue() : 3,
+                map.get("initialIntervalMs") instanceof Number n ? n.longValue() : 0L,
+                map.get("backoffCoefficient") instanceof Number n ? n.doubleValue() : 2.0,
+                stringList(map.get("retryableErrors")));
+    }
+
+    /** Non-null entries as strings, or null when the value is not a collection (every error retryable). */
+    private static List<String> stringList(Object list) {
+        if (!(list instanceof Collection)) return null;
+        List<String> out = new ArrayList<>();
+        for (Object o : (Collection<?>) list) {
+            if (o != null) out.add(o.toString());
+        }
+        return out;
+    }
+}
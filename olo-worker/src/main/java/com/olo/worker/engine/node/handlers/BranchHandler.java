@@ -13,12 +13,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 
 /**
  * Single responsibility: handle IF and SWITCH branching (including tree-mode variants).
+ * Condition variables and case tables are compiled once per node ({@link CompiledBranch}); each evaluation is one
+ * variable lookup plus, for SWITCH, one hash lookup regardless of the number of cases.
  */
 public final class BranchHandler implements NodeHandler {
 
@@ -63,12 +64,7 @@ public final class BranchHandler implements NodeHandler {
 
     private Object executeIf(ExecutionTreeNode node, PipelineDefinition pipeline,
                              VariableEngine variableEngine, String queueName, ChildNodeRunner runChild) {
-        String conditionVar = NodeParams.paramString(node, "conditionVariable");
-        boolean condition = true;
-        if (conditionVar != null && !conditionVar.isBlank()) {
-            Object val = variableEngine.get(conditionVar);
-            condition = NodeParams.isTruthy(val);
-        }
+        boolean condition = evaluateCondition(CompiledBranch.of(node), variableEngine);
         List<ExecutionTreeNode> children = node.getChildren();
         if (condition && !children.isEmpty()) {
             runChild.run(children.get(0), pipeline, variableEngine, queueName);
@@ -80,19 +76,16 @@ public final class BranchHandler implements NodeHandler {
 
     private Object executeSwitch(ExecutionTreeNode node, PipelineDefinition pipeline,
                                  VariableEngine variableEngine, String queueName, ChildNodeRunner runChild) {
-        String switchVar = NodeParams.paramString(node, "switchVariable");
-        if (switchVar == null || switchVar.isBlank()) {
+        CompiledBranch compiled = CompiledBranch.of(node);
+        if (compiled.switchVariable() == null) {
             log.warn("SWITCH node {} missing switchVariable in params", node.getId());
             return null;
         }
-        Object value = variableEngine.get(switchVar);
-        for (ExecutionTreeNode child : node.getChildren()) {
-            if (child.getType() != NodeType.CASE) continue;
-            Object caseVal = child.getParams().get("caseValue");
-            if (Objects.equals(value, caseVal) || (value != null && value.toString().equals(caseVal != null ? caseVal.toString() : null))) {
-                runChild.run(child, pipeline, variableEngine, queueName);
-                return null;
-            }
+        Object value = variableEngine.get(compiled.switchVariable());
+        int[] matches = compiled.matchingCases(value);
+        if (matches.length > 0) {
+            runChild.run(node.getChildren().get(matches[0]), pipeline, variableEngine, queueName);
+            return null;
         }
         log.debug("SWITCH node {} no matching CASE for value={}", node.getId(), value);
         return null;
@@ -101,16 +94,12 @@ public final class BranchHandler implements NodeHandler {
     private Object executeIfTree(ExecutionTreeNode node,
                                  VariableEngine variableEngine,
                                  RuntimeExecutionTree tree) {
-        String conditionVar = NodeParams.paramString(node, "conditionVariable");
-        boolean condition = true;
-        if (conditionVar != null && !conditionVar.isBlank()) {
-            Object val = variableEngine.get(conditionVar);
-            condition = NodeParams.isTruthy(val);
-        }
-        List<String> childIds = tree.getNode(node.getId()) != null ? tree.getNode(node.getId()).getChildIds() : List.of();
-        if (childIds.size() >= 2) {
-            String toSkip = condition ? childIds.get(1) : childIds.get(0);
-            tree.markSkipped(toSkip);
+        boolean condition = evaluateCondition(CompiledBranch.of(node), variableEngine);
+        // By id from the definition: the runtime child list leaves out children without an id.
+        List<ExecutionTreeNode> children = node.getChildren();
+        if (children.size() >= 2) {
+            ExecutionTreeNode toSkip = condition ? children.get(1) : children.get(0);
+            if (toSkip != null) tree.markSkipped(toSkip.getId());
         }
         return null;
     }
@@ -118,20 +107,29 @@ public final class BranchHandler implements NodeHandler {
     private Object executeSwitchTree(ExecutionTreeNode node,
                                      VariableEngine variableEngine,
                                      RuntimeExecutionTree tree) {
-        String switchVar = NodeParams.paramString(node, "switchVariable");
-        if (switchVar == null || switchVar.isBlank()) return null;
-        Object value = variableEngine.get(switchVar);
+        CompiledBranch compiled = CompiledBranch.of(node);
+        if (compiled.switchVariable() == null) return null;
+        Object value = variableEngine.get(compiled.switchVariable());
+        int[] matches = compiled.matchingCases(value);
         List<String> childIds = tree.getNode(node.getId()) != null ? tree.getNode(node.getId()).getChildIds() : List.of();
         for (String childId : childIds) {
-            ExecutionTreeNode child = tree.getDefinition(childId);
-            if (child == null || child.getType() != NodeType.CASE) continue;
-            Object caseVal = child.getParams() != null ? child.getParams().get("caseValue") : null;
-            if (Objects.equals(value, caseVal) || (value != null && value.toString().equals(caseVal != null ? caseVal.toString() : null))) {
-                continue;
+            int position = compiled.positionOf(childId);
+            boolean keep;
+            if (position >= 0) {
+                keep = !compiled.isCase(position) || CompiledBranch.contains(matches, position);
+            } else {
+                // Attached at runtime, not in the compiled table: match it directly.
+                ExecutionTreeNode child = tree.getDefinition(childId);
+                keep = child == null || child.getType() != NodeType.CASE
+                        || CompiledBranch.caseMatches(value, child.getParams() != null ? child.getParams().get("caseValue") : null);
             }
-            tree.markSkipped(childId);
+            if (!keep) tree.markSkipped(childId);
         }
         return null;
     }
-}
 
+    private static boolean evaluateCondition(CompiledBranch compiled, VariableEngine variableEngine) {
+        String conditionVar = compiled.conditionVariable();
+        return conditionVar == null || NodeParams.isTruthy(variableEngine.get(conditionVar));
+    }
+}
@@ -0,0 +1,118 @@
+package com.olo.worker.engine.node.handlers;
+
+import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.executiontree.tree.NodeType;
+import com.olo.worker.engine.node.IdentityMemo;
+import com.olo.worker.engine.node.NodeParams;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single responsibility: compiled routing table of an IF or SWITCH node (condition/switch variable name and a
+ * hash table from case value to CASE child positions), built once per node and reused on every evaluation.
+ * A value matches a case when both are null or their string forms are equal (same rule as before compilation).
+ * Children are addressed by position in the definition, and by id for runtime trees, whose child lists skip
+ * children without an id. Memoized per node (see {@link IdentityMemo}).
+ */
+final class CompiledBranch {
+
+    private static final IdentityMemo<ExecutionTreeNode, CompiledBranch> CACHE = new IdentityMemo<>();
+    private static final int[] NO_MATCH = new int[0];
+
+    private final String conditionVariable;
+    private final String switchVariable;
+    private final boolean[] caseChild;
+    private final Map<String, Integer> positionById;
+    private final Map<String, int[]> casesByValue;
+    private final int[] nullCases;
+
+    private CompiledBranch(ExecutionTreeNode node) {
+        this.conditionVariable = blankToNull(NodeParams.paramString(node, "conditionVariable"));
+        this.switchVariable = blankToNull(NodeParams.paramString(node, "switchVariable"));
+        List<ExecutionTreeNode> children = node.getChildren();
+        this.caseChild = new boolean[children.size()];
+        Map<String, Integer> byId = new HashMap<>();
+        Map<String, int[]> byValue = new HashMap<>();
+        int[] nulls = NO_MATCH;
+        for (int i = 0; i < children.size(); i++) {
+            ExecutionTreeNode child = children.get(i);
+            if (child != null && child.getId() != null && !child.getId().isEmpty()) byId.putIfAbsent(child.getId(), i);
+            if (child == null || child.getType() != NodeType.CASE) continue;
+            caseChild[i] = true;
+            Object caseVal = child.getParams() != null ? child.getParams().get("caseValue") : null;
+            if (caseVal == null) {
+                nulls = append(nulls, i);
+            } else {
+                byValue.merge(caseVal.toString(), new int[] { i }, CompiledBranch::concat);
+            }
+        }
+        this.positionById = byId;
+        this.casesByValue = byValue;
+        this.nullCases = nulls;
+    }
+
+    /** Returns the compiled table for the node, compiling it on first use. */
+    static CompiledBranch of(ExecutionTreeNode node) {
+        return CACHE.computeIfAbsent(node, CompiledBranch::new);
+    }
+
+    /** IF condition variable, or null when unset (condition is then true). */
+    String conditionVariable() {
+        return conditionVariable;
+    }
+
+    /** SWITCH variable, or null when unset. */
+    String switchVariable() {
+        return switchVariable;
+    }
+
+    /** Position of the child with the id in the compiled definition, or -1 when the table has no such child. */
+    int positionOf(String childId) {
+        Integer position = childId != null ? positionById.get(childId) : null;
+        return position != null ? position : -1;
+    }
+
+    /** Whether the child at the position is a CASE node. */
+    boolean isCase(int position) {
+        return caseChild[position];
+    }
+
+    /** Positions of the CASE children matching the value, in child order; empty when none match. Do not modify. */
+    int[] matchingCases(Object value) {
+        if (value == null) return nullCases;
+        int[] positions = casesByValue.get(value instanceof String s ? s : value.toString());
+        return positions != null ? positions : NO_MATCH;
+    }
+
+    /** Match rule of the table for a single case value: both null, or equal string forms. */
+    static boolean caseMatches(Object value, Object caseVal) {
+        if (value == null || caseVal == null) return value == caseVal;
+        return value.toString().equals(caseVal.toString());
+    }
+
+    static boolean contains(int[] positions, int position) {
+        for (int p : positions) {
+            if (p == position) return true;
+        }
+        return false;
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+
+    private static int[] append(int[] positions, int position) {
+        int[] out = Arrays.copyOf(positions, positions.length + 1);
+        out[positions.length] = position;
+        return out;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+}
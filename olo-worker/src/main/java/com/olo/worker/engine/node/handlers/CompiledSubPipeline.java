@@ -0,0 +1,56 @@
+package com.olo.worker.engine.node.handlers;
+
+import com.olo.executiontree.config.PipelineConfiguration;
+import com.olo.executiontree.config.PipelineDefinition;
+import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.worker.engine.node.IdentityMemo;
+import com.olo.worker.engine.node.NodeParams;
+
+/**
+ * Single responsibility: a SUB_PIPELINE node's referenced pipeline resolved from the config, plus its tree with
+ * node ids prefixed by {@code <subPipelineNodeId>/} for inlining into a runtime tree. Built once per config and
+ * node and reused on every invocation. Memoized per config, then per node (see {@link IdentityMemo}): a new config
+ * version gets new entries, and the old ones go with the old config.
+ */
+final class CompiledSubPipeline {
+
+    private static final IdentityMemo<PipelineConfiguration, IdentityMemo<ExecutionTreeNode, CompiledSubPipeline>> CACHE =
+            new IdentityMemo<>();
+
+    private final String pipelineRef;
+    private final PipelineDefinition pipeline;
+    private final ExecutionTreeNode inlineRoot;
+
+    private CompiledSubPipeline(String pipelineRef, PipelineDefinition pipeline, String nodeId) {
+        this.pipelineRef = pipelineRef;
+        this.pipeline = pipeline;
+        this.inlineRoot = ExecutionTreeNode.withIdPrefix(pipeline.getExecutionTree(), nodeId + "/");
+    }
+
+    /** Returns the compiled sub-pipeline, or null when the config has no pipeline for the node's pipelineRef. */
+    static CompiledSubPipeline of(ExecutionTreeNode node, PipelineConfiguration config) {
+        return CACHE.computeIfAbsent(config, c -> new IdentityMemo<>())
+                .computeIfAbsent(node, n -> compile(n, config));
+    }
+
+    private static CompiledSubPipeline compile(ExecutionTreeNode node, PipelineConfiguration config) {
+        String pipelineRef = NodeParams.paramString(node, "pipelineRef");
+        if (pipelineRef == null || pipelineRef.isBlank() || config.getPipelines() == null) return null;
+        PipelineDefinition pipeline = config.getPipelines().get(pipelineRef);
+        if (pipeline == null) return null;
+        return new CompiledSubPipeline(pipelineRef, pipeline, node.getId());
+    }
+
+    String pipelineRef() {
+        return pipelineRef;
+    }
+
+    PipelineDefinition pipeline() {
+        return pipeline;
+    }
+
+    /** Sub-pipeline tree with prefixed ids, or null when the pipeline has no execution tree. */
+    ExecutionTreeNode inlineRoot() {
+        return inlineRoot;
+    }
+}
@@ -8,13 +8,18 @@ import com.olo.worker.engine.node.ChildNodeRunner;
 import com.olo.worker.engine.node.ExpansionLimits;
 import com.olo.worker.engine.node.ExpansionState;
 import com.olo.worker.engine.node.NodeParams;
+import com.olo.worker.engine.node.RetryBackoffException;
+import com.olo.worker.engine.node.RetryPolicy;
 import com.olo.worker.engine.runtime.RuntimeExecutionTree;
+import com.olo.worker.engine.runtime.RuntimeNodeState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Single responsibility: TRY_CATCH and RETRY nodes.
@@ -53,10 +58,66 @@ public final class ErrorControlHandler implements NodeHandler {
                                    ExpansionState expansionState,
                                    ExpansionLimits expansionLimits,
                                    HandlerContext ctx) {
-        // TRY_CATCH/RETRY are handled in dispatch mode only.
+        return switch (node.getType()) {
+            case TRY_CATCH -> executeTryCatchInTree(node, variableEngine, tree, subtreeRunner);
+            case RETRY -> executeRetryInTree(node, tree, subtreeRunner);
+            default -> null;
+        };
+    }
+
+    /**
+     * Tree mode TRY_CATCH: runs the try subtree in place; on failure records the error, marks the try subtree done
+     * (so the tree loop does not resume it) and runs the catch subtree, otherwise the catch subtree is skipped.
+     * Without a subtree runner the tree loop runs both children as before.
+     */
+    private Object executeTryCatchInTree(ExecutionTreeNode node, VariableEngine variableEngine,
+                                         RuntimeExecutionTree tree, Consumer<String> subtreeRunner) {
+        List<String> childIds = childIds(node, tree);
+        if (childIds.isEmpty() || subtreeRunner == null) return null;
+        String tryId = childIds.get(0);
+        String catchId = childIds.size() > 1 ? childIds.get(1) : null;
+        try {
+            subtreeRunner.accept(tryId);
+        } catch (RuntimeException t) {
+            log.warn("TRY_CATCH node {} try-block failed: {} (running catch block or rethrowing)", node.getId(), t.getMessage(), t);
+            if (catchId == null) throw t;
+            recordError(node, variableEngine, t);
+            tree.markSubtreeCompleted(tryId);
+            subtreeRunner.accept(catchId);
+            return null;
+        }
+        if (catchId != null) tree.markSkipped(catchId);
+        return null;
+    }
+
+    /**
+     * Tree mode RETRY: runs the child subtree in place and, after a retryable failure, resets it and runs it again
+     * after the backoff. When the tree allows durable backoff and the run can stop here
+     * ({@link RuntimeExecutionTree#canSuspendAt}), the backoff ends the run with a {@link RetryBackoffException}
+     * instead, and the resumed run starts at the next attempt. Without a subtree runner the tree loop runs the child
+     * once as before.
+     */
+    private Object executeRetryInTree(ExecutionTreeNode node, RuntimeExecutionTree tree, Consumer<String> subtreeRunner) {
+        List<String> childIds = childIds(node, tree);
+        if (childIds.isEmpty()) {
+            log.warn("RETRY node {} has no child", node.getId());
+            return null;
+        }
+        if (subtreeRunner == null) return null;
+        String childId = childIds.get(0);
+        int firstAttempt = tree.takeRetryAttempt(node.getId());
+        retry(node, childId, firstAttempt, attempt -> {
+            if (attempt > firstAttempt) tree.resetSubtreeToNotStarted(childId);
+            subtreeRunner.accept(childId);
+        }, () -> tree.isDurableRetryBackoff() && tree.canSuspendAt(node.getId()));
         return null;
     }
 
+    private static List<String> childIds(ExecutionTreeNode node, RuntimeExecutionTree tree) {
+        RuntimeNodeState state = tree.getNode(node.getId());
+        return state != null ? List.copyOf(state.getChildIds()) : List.of();
+    }
+
     private Object executeTryCatch(ExecutionTreeNode node, PipelineDefinition pipeline,
                                    VariableEngine variableEngine, String queueName, ChildNodeRunner runChild) {
         List<ExecutionTreeNode> children = node.getChildren();
@@ -65,10 +126,7 @@ public final class ErrorControlHandler implements NodeHandler {
             runChild.run(children.get(0), pipeline, variableEngine, queueName);
         } catch (Throwable t) {
             log.warn("TRY_CATCH node {} try-block failed: {} (running catch block or rethrowing)", node.getId(), t.getMessage(), t);
-            String errorVar = NodeParams.paramString(node, "errorVariable");
-            if (errorVar != null && !errorVar.isBlank()) {
-                variableEngine.put(errorVar, t.getMessage() != null ? t.getMessage() : t.toString());
-            }
+            recordError(node, variableEngine, t);
             if (children.size() > 1) {
                 runChild.run(children.get(1), pipeline, variableEngine, queueName);
             } else {
@@ -78,6 +136,13 @@ public final class ErrorControlHandler implements NodeHandler {
         return null;
     }
 
+    private static void recordError(ExecutionTreeNode node, VariableEngine variableEngine, Throwable t) {
+        String errorVar = NodeParams.paramString(node, "errorVariable");
+        if (errorVar != null && !errorVar.isBlank()) {
+            variableEngine.put(errorVar, t.getMessage() != null ? t.getMessage() : t.toString());
+        }
+    }
+
     private Object executeRetry(ExecutionTreeNode node, PipelineDefinition pipeline,
                                 VariableEngine variableEngine, String queueName, ChildNodeRunner runChild) {
         List<ExecutionTreeNode> children = node.getChildren();
@@ -85,33 +150,48 @@ public final class ErrorControlHandler implements NodeHandler {
             log.warn("RETRY node {} has no child", node.getId());
             return null;
         }
-        int maxAttempts = NodeParams.paramInt(node, "maxAttempts", 3);
-        long initialMs = NodeParams.paramLong(node, "initialIntervalMs", 0L);
-        double backoffCoefficient = NodeParams.paramDouble(node, "backoffCoefficient", 2.0);
-        Throwable last = null;
         ExecutionTreeNode child = children.get(0);
-        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+        retry(node, child.getId(), 1, attempt -> runChild.run(child, pipeline, variableEngine, queueName), () -> false);
+        return null;
+    }
+
+    /**
+     * Runs {@code attemptRunner} for attempts {@code firstAttempt}..maxAttempts, backing off between attempts per
+     * {@link RetryPolicy}. When {@code durableBackoff} is true at a backoff, throws {@link RetryBackoffException} so
+     * the caller waits outside the activity (workflow timer); otherwise the backoff blocks the calling thread and the
+     * activity keeps its worker slot (dispatch mode, and RETRY nodes nested inside another handler's subtree).
+     */
+    private static void retry(ExecutionTreeNode node, String childId, int firstAttempt, IntConsumer attemptRunner,
+                              BooleanSupplier durableBackoff) {
+        RetryPolicy policy = RetryPolicy.of(node);
+        int maxAttempts = policy.getMaxAttempts();
+        Throwable last = null;
+        for (int attempt = Math.min(firstAttempt, maxAttempts); attempt <= maxAttempts; attempt++) {
             try {
-                runChild.run(child, pipeline, variableEngine, queueName);
+                attemptRunner.accept(attempt);
                 if (attempt > 1) {
-                    log.info("RETRY node {} child {} succeeded on attempt {}/{}", node.getId(), child.getId(), attempt, maxAttempts);
+                    log.info("RETRY node {} child {} succeeded on attempt {}/{}", node.getId(), childId, attempt, maxAttempts);
                 }
-                return null;
+                return;
             } catch (Throwable t) {
                 last = t;
                 log.warn("RETRY node {} child {} attempt {}/{} failed: {}",
-                        node.getId(), child.getId(), attempt, maxAttempts, t.getMessage(), t);
+                        node.getId(), childId, attempt, maxAttempts, t.getMessage(), t);
                 if (attempt == maxAttempts) {
-                    log.error("RETRY node {} child {} all {} attempts exhausted; failing", node.getId(), child.getId(), maxAttempts);
+                    log.error("RETRY node {} child {} all {} attempts exhausted; failing", node.getId(), childId, maxAttempts);
                     break;
                 }
-                if (!NodeParams.isRetryable(node, t)) {
-                    log.warn("RETRY node {} child {} error not retryable; failing without further attempts", node.getId(), child.getId());
+                if (!policy.isRetryable(t)) {
+                    log.warn("RETRY node {} child {} error not retryable; failing without further attempts", node.getId(), childId);
                     throw t;
                 }
-                long sleepMs = (long) (initialMs * Math.pow(backoffCoefficient, attempt - 1));
+                long sleepMs = policy.backoffMs(attempt);
+                if (sleepMs > 0 && durableBackoff.getAsBoolean()) {
+                    log.info("RETRY node {} child {} ending the run for a {} ms backoff before attempt {}/{}", node.getId(), childId, sleepMs, attempt + 1, maxAttempts);
+                    throw new RetryBackoffException(node.getId(), attempt + 1, sleepMs, t);
+                }
                 if (sleepMs > 0) {
-                    log.info("RETRY node {} child {} backing off {} ms before attempt {}/{}", node.getId(), child.getId(), sleepMs, attempt + 1, maxAttempts);
+                    log.info("RETRY node {} child {} backing off {} ms before attempt {}/{}", node.getId(), childId, sleepMs, attempt + 1, maxAttempts);
                     try {
                         Thread.sleep(sleepMs);
                     } catch (InterruptedException e) {
@@ -124,4 +204,3 @@ public final class ErrorControlHandler implements NodeHandler {
         throw last instanceof RuntimeException ? (RuntimeException) last : new RuntimeException(last);
     }
 }
-
@@ -11,13 +11,24 @@ import com.olo.worker.engine.node.ExpansionLimits;
 import com.olo.worker.engine.node.ExpansionState;
 import com.olo.worker.engine.node.NodeParams;
 import com.olo.worker.engine.runtime.RuntimeExecutionTree;
+import com.olo.worker.engine.runtime.RuntimeNodeState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
@@ -27,6 +38,8 @@ public final class ForkJoinHandler implements NodeHandler {
 
     private static final Logger log = LoggerFactory.getLogger(ForkJoinHandler.class);
 
+    private static final int NO_WINNER = -1;
+
     @Override
     public Set<NodeType> supportedTypes() {
         return Set.of(NodeType.FORK, NodeType.JOIN);
@@ -58,10 +71,57 @@ public final class ForkJoinHandler implements NodeHandler {
                                    ExpansionLimits expansionLimits,
                                    HandlerContext ctx) {
         if (node.getType() == NodeType.JOIN) {
+            RuntimeNodeState state = tree.getNode(node.getId());
+            List<String> childIds = state != null ? List.copyOf(state.getChildIds()) : List.of();
+            if (isRacing(node) && canRace(childIds.size(), ctx) && ctx.getNodeRunner() != null) {
+                List<ExecutionTreeNode> children = new ArrayList<>(childIds.size());
+                for (String childId : childIds) {
+                    children.add(tree.getDefinition(childId));
+                }
+                int winner = raceChildren(node, children, pipeline, variableEngine, queueName, ctx.getNodeRunner(), ctx);
+                // Children ran outside the tree loop: winner's subtree is done, losers are skipped.
+                for (int i = 0; i < childIds.size(); i++) {
+                    if (i == winner) tree.markSubtreeCompleted(childIds.get(i));
+                    else tree.markSkipped(childIds.get(i));
+                }
+                return null;
+            }
             // Tree mode JOIN: run children via no-op ChildNodeRunner (state changes handled by tree).
             return executeJoin(node, pipeline, variableEngine, queueName, (n, p, v, q) -> {}, ctx);
         }
-        // FORK is a tree-structure concept; execution is handled by the runtime/executor.
+        if (node.getType() == NodeType.FORK) {
+            return executeForkInTree(node, tree, subtreeRunner, ctx);
+        }
+        return null;
+    }
+
+    /**
+     * Tree mode FORK. With ASYNC and an executor, branches run concurrently (at most maxParallelism at a time,
+     * the calling thread being one of the workers) and this returns only when every started branch has finished,
+     * so a following JOIN sees all branch writes. Otherwise returns immediately and the tree loop runs the branches
+     * one after another. After a branch fails no further branches are started; the first failure is rethrown.
+     */
+    private Object executeForkInTree(ExecutionTreeNode node,
+                                     RuntimeExecutionTree tree,
+                                     Consumer<String> subtreeRunner,
+                                     HandlerContext ctx) {
+        RuntimeNodeState state = tree.getNode(node.getId());
+        List<String> branchIds = state != null ? List.copyOf(state.getChildIds()) : List.of();
+        boolean runParallel = ctx.getExecutionType() == ExecutionType.ASYNC
+                && ctx.getExecutor() != null
+                && subtreeRunner != null
+                && branchIds.size() > 1;
+        if (!runParallel) return null;
+        int maxParallelism = NodeParams.paramInt(node, "maxParallelism", branchIds.size());
+        int workers = Math.min(branchIds.size(), maxParallelism > 0 ? maxParallelism : branchIds.size());
+        if (log.isInfoEnabled()) {
+            log.info("FORK parallel | nodeId={} branches={} workers={}", node.getId(), branchIds.size(), workers);
+        }
+        Queue<String> pending = new ConcurrentLinkedQueue<>(branchIds);
+        ParallelLanes.run(ctx, workers, () -> {
+            String branchId = pending.poll();
+            return branchId != null ? () -> subtreeRunner.accept(branchId) : null;
+        });
         return null;
     }
 
@@ -78,32 +138,18 @@ public final class ForkJoinHandler implements NodeHandler {
                 && ctx.getExecutor() != null
                 && children.size() > 1;
         if (runParallel) {
-            List<Future<?>> futures = new ArrayList<>(children.size());
-            String runId = ctx.getLedgerRunId();
-            var executor = ctx.getExecutor();
+            // Start every branch, then wait once; branches run on the executor while later ones are being started.
+            List<CompletableFuture<Void>> branches = new ArrayList<>(children.size());
             for (ExecutionTreeNode child : children) {
-                Future<?> future = executor.submit(() -> {
-                    if (runId != null && !runId.isBlank()) {
-                        LedgerContext.setRunId(runId);
-                    }
-                    try {
-                        runChildSync.run(child, pipeline, variableEngine, queueName);
-                    } finally {
-                        if (runId != null && !runId.isBlank()) {
-                            LedgerContext.clear();
-                        }
-                    }
-                });
-                futures.add(future);
+                branches.add(runChild.start(child, pipeline, variableEngine, queueName));
             }
-            for (Future<?> future : futures) {
-                try {
-                    future.get();
-                } catch (Exception e) {
-                    Throwable cause = e.getCause() != null ? e.getCause() : e;
-                    if (cause instanceof RuntimeException re) throw re;
-                    throw new RuntimeException(cause);
-                }
+            try {
+                CompletableFuture.allOf(branches.toArray(new CompletableFuture[0])).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof RuntimeException re) throw re;
+                if (cause instanceof Error err) throw err;
+                throw new RuntimeException(cause);
             }
         } else {
             for (ExecutionTreeNode child : children) {
@@ -128,7 +174,9 @@ public final class ForkJoinHandler implements NodeHandler {
         switch (strategy.toUpperCase()) {
             case "ANY":
             case "FIRST_WINS":
-                if (!children.isEmpty()) {
+                if (canRace(children.size(), ctx)) {
+                    raceChildren(node, children, pipeline, variableEngine, queueName, runChild, ctx);
+                } else if (!children.isEmpty()) {
                     runChild.run(children.get(0), pipeline, variableEngine, queueName);
                 }
                 break;
@@ -156,5 +204,91 @@ public final class ForkJoinHandler implements NodeHandler {
         }
         return null;
     }
-}
 
+    private static boolean isRacing(ExecutionTreeNode node) {
+        String strategy = NodeParams.paramString(node, "mergeStrategy");
+        return "ANY".equalsIgnoreCase(strategy) || "FIRST_WINS".equalsIgnoreCase(strategy);
+    }
+
+    private static boolean canRace(int childCount, HandlerContext ctx) {
+        return ctx.getExecutionType() == ExecutionType.ASYNC && ctx.getExecutor() != null && childCount > 1;
+    }
+
+    /**
+     * ANY / FIRST_WINS race: starts every child on its own copy of the variables, keeps the first child that
+     * succeeds and cancels the others (interrupting their threads, which aborts in-flight plugin HTTP calls).
+     * Only the winner's writes are merged back. Returns the winner's index; rethrows the first failure if every
+     * child failed.
+     * <p>
+     * A child that has not started when a winner is known is not run. When the run's executor has no free slot it
+     * runs submitted children on this thread, where they cannot be cancelled; the race then degrades to running
+     * children one after another until the first success.
+     */
+    private int raceChildren(ExecutionTreeNode node,
+                             List<ExecutionTreeNode> children,
+                             PipelineDefinition pipeline,
+                             VariableEngine variableEngine,
+                             String queueName,
+                             ChildNodeRunner runner,
+                             HandlerContext ctx) {
+        Map<String, Object> baseline = variableEngine.getExportMap();
+        String runId = ctx.getLedgerRunId();
+        CompletionService<Integer> race = new ExecutorCompletionService<>(ctx.getExecutor());
+        AtomicInteger decided = new AtomicInteger(NO_WINNER);
+        List<VariableEngine> engines = new ArrayList<>(children.size());
+        List<Future<Integer>> futures = new ArrayList<>(children.size());
+        for (int i = 0; i < children.size() && decided.get() == NO_WINNER; i++) {
+            int index = i;
+            ExecutionTreeNode child = children.get(i);
+            VariableEngine branchEngine = VariableEngine.fromVariableMap(pipeline, baseline);
+            engines.add(branchEngine);
+            futures.add(race.submit(() -> {
+                if (decided.get() != NO_WINNER) return NO_WINNER;
+                if (runId != null && !runId.isBlank()) {
+                    LedgerContext.setRunId(runId);
+                }
+                try {
+                    runner.run(child, pipeline, branchEngine, queueName);
+                    return decided.compareAndSet(NO_WINNER, index) ? index : NO_WINNER;
+                } finally {
+                    if (runId != null && !runId.isBlank()) {
+                        LedgerContext.clear();
+                    }
+                }
+            }));
+        }
+        int winner = NO_WINNER;
+        Throwable firstFailure = null;
+        try {
+            for (int done = 0; done < futures.size() && winner == NO_WINNER; done++) {
+                Future<Integer> finished = race.take();
+                try {
+                    winner = finished.get();
+                } catch (ExecutionException e) {
+                    if (firstFailure == null) firstFailure = e.getCause() != null ? e.getCause() : e;
+                } catch (CancellationException e) {
+                    if (firstFailure == null) firstFailure = e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for JOIN " + node.getId() + " branches", e);
+        } finally {
+            for (Future<Integer> future : futures) {
+                future.cancel(true);
+            }
+        }
+        if (winner == NO_WINNER) {
+            if (firstFailure instanceof RuntimeException re) throw re;
+            if (firstFailure instanceof Error err) throw err;
+            throw new RuntimeException(firstFailure);
+        }
+        for (Map.Entry<String, Object> e : engines.get(winner).getDeltaExportMap(baseline).entrySet()) {
+            variableEngine.put(e.getKey(), e.getValue());
+        }
+        if (log.isInfoEnabled()) {
+            log.info("JOIN race | nodeId={} winner={} branches={}", node.getId(), children.get(winner).getId(), children.size());
+        }
+        return winner;
+    }
+}
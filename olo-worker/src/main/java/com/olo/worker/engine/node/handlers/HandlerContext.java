@@ -5,11 +5,13 @@ import com.olo.executiontree.config.PipelineConfiguration;
 import com.olo.node.DynamicNodeBuilder;
 import com.olo.node.NodeFeatureEnricher;
 import com.olo.worker.engine.PluginInvoker;
+import com.olo.worker.engine.node.ChildNodeRunner;
 
 import java.util.concurrent.ExecutorService;
 
 /**
- * Shared context for node handlers: plugin invoker, config, execution type, executor, ledger run id, enricher.
+ * Shared context for node handlers: plugin invoker, config, execution type, executor, ledger run id, enricher,
+ * and a node runner for running a subtree outside the runtime tree (e.g. ITERATOR parallel map items).
  */
 public final class HandlerContext {
 
@@ -20,11 +22,19 @@ public final class HandlerContext {
     private final String ledgerRunId;
     private final DynamicNodeBuilder dynamicNodeBuilder;
     private final NodeFeatureEnricher nodeFeatureEnricher;
+    private final ChildNodeRunner nodeRunner;
 
     public HandlerContext(PluginInvoker pluginInvoker, PipelineConfiguration config,
                           ExecutionType executionType, ExecutorService executor,
                           String ledgerRunId, DynamicNodeBuilder dynamicNodeBuilder,
                           NodeFeatureEnricher nodeFeatureEnricher) {
+        this(pluginInvoker, config, executionType, executor, ledgerRunId, dynamicNodeBuilder, nodeFeatureEnricher, null);
+    }
+
+    public HandlerContext(PluginInvoker pluginInvoker, PipelineConfiguration config,
+                          ExecutionType executionType, ExecutorService executor,
+                          String ledgerRunId, DynamicNodeBuilder dynamicNodeBuilder,
+                          NodeFeatureEnricher nodeFeatureEnricher, ChildNodeRunner nodeRunner) {
         this.pluginInvoker = pluginInvoker;
         this.config = config;
         this.executionType = executionType != null ? executionType : ExecutionType.SYNC;
@@ -32,6 +42,7 @@ public final class HandlerContext {
         this.ledgerRunId = ledgerRunId;
         this.dynamicNodeBuilder = dynamicNodeBuilder;
         this.nodeFeatureEnricher = nodeFeatureEnricher != null ? nodeFeatureEnricher : (n, c) -> n;
+        this.nodeRunner = nodeRunner;
     }
 
     public PluginInvoker getPluginInvoker() { return pluginInvoker; }
@@ -41,4 +52,6 @@ public final class HandlerContext {
     public String getLedgerRunId() { return ledgerRunId; }
     public DynamicNodeBuilder getDynamicNodeBuilder() { return dynamicNodeBuilder; }
     public NodeFeatureEnricher getNodeFeatureEnricher() { return nodeFeatureEnricher; }
+    /** Runs a node and its subtree by recursive dispatch (no runtime tree); null when not wired. */
+    public ChildNodeRunner getNodeRunner() { return nodeRunner; }
 }
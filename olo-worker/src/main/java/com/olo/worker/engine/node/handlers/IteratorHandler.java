@@ -1,5 +1,6 @@
 package com.olo.worker.engine.node.handlers;
 
+import com.olo.executiontree.config.ExecutionType;
 import com.olo.executiontree.config.PipelineDefinition;
 import com.olo.executiontree.tree.ExecutionTreeNode;
 import com.olo.executiontree.tree.NodeType;
@@ -12,18 +13,28 @@ import com.olo.worker.engine.runtime.RuntimeExecutionTree;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
  * Single responsibility: handle ITERATOR nodes (dispatch + tree mode).
+ * Default mode runs the body once per item, in order, on the shared variables. With {@code mode: PARALLEL} items run
+ * concurrently (up to maxParallelism; ASYNC pipelines only, else one at a time), each on its own copy of the variables;
+ * the value of itemResultVariable after each item is collected, in item order, into resultsVariable.
  */
 public final class IteratorHandler implements NodeHandler {
 
     private static final Logger log = LoggerFactory.getLogger(IteratorHandler.class);
 
+    static final String MODE_PARALLEL = "PARALLEL";
+    static final int DEFAULT_MAX_PARALLELISM = 4;
+
     @Override
     public Set<NodeType> supportedTypes() {
         return Set.of(NodeType.ITERATOR);
@@ -52,6 +63,10 @@ public final class IteratorHandler implements NodeHandler {
         List<ExecutionTreeNode> children = node.getChildren();
         if (children.isEmpty()) return null;
         ExecutionTreeNode body = children.get(0);
+        if (isParallel(node)) {
+            runParallelMap(node, body, (Collection<?>) coll, pipeline, variableEngine, queueName, runChild, ctx);
+            return null;
+        }
         int index = 0;
         for (Object item : (Collection<?>) coll) {
             variableEngine.put(itemVar, item);
@@ -84,6 +99,16 @@ public final class IteratorHandler implements NodeHandler {
         List<String> childIds = tree.getNode(node.getId()) != null ? tree.getNode(node.getId()).getChildIds() : List.of();
         if (childIds.isEmpty()) return null;
         String bodyId = childIds.get(0);
+        if (isParallel(node)) {
+            if (ctx.getNodeRunner() != null) {
+                runParallelMap(node, tree.getDefinition(bodyId), collection, pipeline, variableEngine, queueName,
+                        ctx.getNodeRunner(), ctx);
+                // Items ran outside the tree; mark the body done so the tree loop does not run it again.
+                tree.markSubtreeCompleted(bodyId);
+                return null;
+            }
+            log.warn("ITERATOR node {} mode PARALLEL needs a node runner in tree mode; running items sequentially", node.getId());
+        }
         int index = 0;
         for (Object item : collection) {
             if (indexVar != null) variableEngine.put(indexVar, index);
@@ -94,5 +119,56 @@ public final class IteratorHandler implements NodeHandler {
         }
         return null;
     }
-}
 
+    private static boolean isParallel(ExecutionTreeNode node) {
+        return MODE_PARALLEL.equalsIgnoreCase(NodeParams.paramString(node, "mode"));
+    }
+
+    /**
+     * Runs the body once per item on isolated copies of the variables, at most maxParallelism items at a time.
+     * Only resultsVariable (list of each item's itemResultVariable, in item order) is written back; other body
+     * writes stay in the item's copy. The first item failure is rethrown after running items finish.
+     */
+    private void runParallelMap(ExecutionTreeNode node,
+                                ExecutionTreeNode body,
+                                Collection<?> collection,
+                                PipelineDefinition pipeline,
+                                VariableEngine variableEngine,
+                                String queueName,
+                                ChildNodeRunner bodyRunner,
+                                HandlerContext ctx) {
+        String itemVar = NodeParams.paramString(node, "itemVariable");
+        String indexVar = NodeParams.paramString(node, "indexVariable");
+        String itemResultVar = NodeParams.paramString(node, "itemResultVariable");
+        String resultsVar = NodeParams.paramString(node, "resultsVariable");
+        List<Object> items = new ArrayList<>(collection);
+        int maxParallelism = NodeParams.paramInt(node, "maxParallelism", DEFAULT_MAX_PARALLELISM);
+        int lanes = ctx.getExecutionType() == ExecutionType.ASYNC
+                ? Math.min(items.size(), maxParallelism > 0 ? maxParallelism : DEFAULT_MAX_PARALLELISM)
+                : 1;
+        if (log.isInfoEnabled()) {
+            log.info("ITERATOR parallel | nodeId={} items={} lanes={}", node.getId(), items.size(), lanes);
+        }
+        Map<String, Object> baseline = variableEngine.getExportMap();
+        Object[] results = new Object[items.size()];
+        AtomicInteger next = new AtomicInteger();
+        ParallelLanes.run(ctx, lanes, () -> {
+            int index = next.getAndIncrement();
+            if (index >= items.size()) return null;
+            return () -> {
+                VariableEngine itemEngine = VariableEngine.fromVariableMap(pipeline, baseline);
+                itemEngine.put(itemVar, items.get(index));
+                if (indexVar != null && !indexVar.isBlank()) {
+                    itemEngine.put(indexVar, index);
+                }
+                bodyRunner.run(body, pipeline, itemEngine, queueName);
+                if (itemResultVar != null && !itemResultVar.isBlank()) {
+                    results[index] = itemEngine.get(itemResultVar);
+                }
+            };
+        });
+        if (resultsVar != null && !resultsVar.isBlank()) {
+            variableEngine.put(resultsVar, new ArrayList<>(Arrays.asList(results)));
+        }
+    }
+}
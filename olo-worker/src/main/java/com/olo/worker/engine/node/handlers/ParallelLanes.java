@@ -0,0 +1,73 @@
+package com.olo.worker.engine.node.handlers;
+
+import com.olo.ledger.LedgerContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Single responsibility: drain a task source on a bounded number of lanes (the calling thread plus lanes - 1
+ * executor tasks) and rethrow the first failure once every lane has stopped.
+ * After a failure no lane takes a new task; tasks already running finish.
+ */
+final class ParallelLanes {
+
+    private ParallelLanes() {
+    }
+
+    /**
+     * @param ctx      handler context (executor and ledger run id); without an executor everything runs on the caller
+     * @param lanes    number of lanes; values &lt; 1 are treated as 1
+     * @param nextTask thread-safe source of tasks; returns null when there is no more work
+     */
+    static void run(HandlerContext ctx, int lanes, Supplier<Runnable> nextTask) {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService executor = ctx.getExecutor();
+        int extraLanes = executor != null ? Math.max(0, lanes - 1) : 0;
+        String runId = ctx.getLedgerRunId();
+        List<Future<?>> futures = new ArrayList<>(extraLanes);
+        for (int i = 0; i < extraLanes; i++) {
+            futures.add(executor.submit(() -> {
+                if (runId != null && !runId.isBlank()) {
+                    LedgerContext.setRunId(runId);
+                }
+                try {
+                    drain(nextTask, failure);
+                } finally {
+                    if (runId != null && !runId.isBlank()) {
+                        LedgerContext.clear();
+                    }
+                }
+            }));
+        }
+        drain(nextTask, failure);
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                failure.compareAndSet(null, e.getCause() != null ? e.getCause() : e);
+            }
+        }
+        Throwable cause = failure.get();
+        if (cause != null) {
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private static void drain(Supplier<Runnable> nextTask, AtomicReference<Throwable> failure) {
+        Runnable task;
+        while (failure.get() == null && (task = nextTask.get()) != null) {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+        }
+    }
+}
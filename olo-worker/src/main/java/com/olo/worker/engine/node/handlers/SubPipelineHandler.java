@@ -9,6 +9,7 @@ import com.olo.worker.engine.node.ExpansionLimits;
 import com.olo.worker.engine.node.ExpansionState;
 import com.olo.worker.engine.node.NodeParams;
 import com.olo.worker.engine.runtime.RuntimeExecutionTree;
+import com.olo.worker.engine.runtime.RuntimeNodeState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +18,8 @@ import java.util.function.Consumer;
 
 /**
  * Single responsibility: SUB_PIPELINE nodes.
+ * The referenced pipeline is resolved once per config (see {@link CompiledSubPipeline}). Dispatch mode runs its
+ * tree through the child runner; tree mode inlines it under the node so the tree loop schedules it.
  */
 public final class SubPipelineHandler implements NodeHandler {
 
@@ -35,23 +38,11 @@ public final class SubPipelineHandler implements NodeHandler {
                            ChildNodeRunner runChild,
                            ChildNodeRunner runChildSync,
                            HandlerContext ctx) {
-        if (ctx.getConfig() == null || ctx.getConfig().getPipelines() == null) {
-            log.warn("SUB_PIPELINE node {} has no PipelineConfiguration; skipping", node.getId());
-            return null;
-        }
-        String pipelineRef = NodeParams.paramString(node, "pipelineRef");
-        if (pipelineRef == null || pipelineRef.isBlank()) {
-            log.warn("SUB_PIPELINE node {} missing pipelineRef in params", node.getId());
-            return null;
-        }
-        PipelineDefinition subPipeline = ctx.getConfig().getPipelines().get(pipelineRef);
-        if (subPipeline == null) {
-            log.warn("SUB_PIPELINE node {} pipelineRef '{}' not found in config", node.getId(), pipelineRef);
-            return null;
-        }
-        ExecutionTreeNode subRoot = subPipeline.getExecutionTree();
+        CompiledSubPipeline sub = resolve(node, ctx);
+        if (sub == null) return null;
+        ExecutionTreeNode subRoot = sub.pipeline().getExecutionTree();
         if (subRoot != null) {
-            runChild.run(subRoot, subPipeline, variableEngine, queueName);
+            runChild.run(subRoot, sub.pipeline(), variableEngine, queueName);
         }
         return null;
     }
@@ -66,8 +57,46 @@ public final class SubPipelineHandler implements NodeHandler {
                                    ExpansionState expansionState,
                                    ExpansionLimits expansionLimits,
                                    HandlerContext ctx) {
-        // SUB_PIPELINE is executed via child runner; no special tree-mode behavior.
+        CompiledSubPipeline sub = resolve(node, ctx);
+        if (sub == null || sub.inlineRoot() == null) return null;
+        if (tree.getNode(sub.inlineRoot().getId()) != null) return null;
+        checkNotRecursive(node, sub, tree);
+        // Inline as children: the tree loop then runs the sub-pipeline with the same scheduling as the parent's nodes.
+        tree.attachSubtree(node.getId(), sub.inlineRoot(), sub.pipeline());
         return null;
     }
+
+    private static CompiledSubPipeline resolve(ExecutionTreeNode node, HandlerContext ctx) {
+        if (ctx.getConfig() == null || ctx.getConfig().getPipelines() == null) {
+            log.warn("SUB_PIPELINE node {} has no PipelineConfiguration; skipping", node.getId());
+            return null;
+        }
+        String pipelineRef = NodeParams.paramString(node, "pipelineRef");
+        if (pipelineRef == null || pipelineRef.isBlank()) {
+            log.warn("SUB_PIPELINE node {} missing pipelineRef in params", node.getId());
+            return null;
+        }
+        CompiledSubPipeline sub = CompiledSubPipeline.of(node, ctx.getConfig());
+        if (sub == null) {
+            log.warn("SUB_PIPELINE node {} pipelineRef '{}' not found in config", node.getId(), pipelineRef);
+        }
+        return sub;
+    }
+
+    /** Fails when an enclosing SUB_PIPELINE already inlines the same pipeline (inlining would never end). */
+    private static void checkNotRecursive(ExecutionTreeNode node, CompiledSubPipeline sub, RuntimeExecutionTree tree) {
+        RuntimeNodeState state = tree.getNode(node.getId());
+        for (String id = state != null ? state.getParentId() : null; id != null; ) {
+            RuntimeNodeState ancestor = tree.getNode(id);
+            if (ancestor == null) break;
+            ExecutionTreeNode def = ancestor.getDefinition();
+            if (def != null && def.getType() == NodeType.SUB_PIPELINE
+                    && sub.pipelineRef().equals(NodeParams.paramString(def, "pipelineRef"))) {
+                throw new IllegalStateException("SUB_PIPELINE node " + node.getId() + " recursively includes pipeline '"
+                        + sub.pipelineRef() + "'");
+            }
+            id = ancestor.getParentId();
+        }
+    }
 }
 
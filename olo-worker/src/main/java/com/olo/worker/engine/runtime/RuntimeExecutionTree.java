@@ -1,27 +1,38 @@
 package com.olo.worker.engine.runtime;
 
+import com.olo.executiontree.config.PipelineDefinition;
 import com.olo.executiontree.tree.ExecutionTreeNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Mutable runtime tree for execution. Built from static definition; planner adds nodes via {@link #attachChildren}.
+ * Ready nodes are tracked incrementally as statuses change, so {@link #findNextExecutable()} does not walk the tree.
+ * Mutations are synchronized; node lookups ({@link #getNode}) read a ConcurrentHashMap without the lock, and insertion
+ * order is kept in a separate list for {@link #getAllNodes()}.
  */
 public final class RuntimeExecutionTree {
 
     private static final Logger log = LoggerFactory.getLogger(RuntimeExecutionTree.class);
 
-    private final Map<String, RuntimeNodeState> nodesById = new LinkedHashMap<>();
+    private final Map<String, RuntimeNodeState> nodesById = new ConcurrentHashMap<>();
+    /** Node ids in insertion order. Guarded by {@code this}. */
+    private final List<String> order = new ArrayList<>();
     private final String rootId;
     /** Planner node ids that have already been expanded (idempotency guard for activity retry). */
-    private final Set<String> expandedPlannerNodeIds = new HashSet<>();
+    private final Set<String> expandedPlannerNodeIds = ConcurrentHashMap.newKeySet();
+    private final RuntimeReadyQueue readyQueue = new RuntimeReadyQueue(nodesById);
+    /** RETRY node id to the attempt it resumes at (restored from a checkpoint); each entry is read once. */
+    private final Map<String, Integer> retryResumeAttempts = new ConcurrentHashMap<>();
+    /** When set, a RETRY node that {@link #canSuspendAt} ends the run for its backoff instead of sleeping. */
+    private volatile boolean durableRetryBackoff;
 
     public RuntimeExecutionTree(ExecutionTreeNode staticRoot) {
         if (staticRoot == null) {
@@ -33,10 +44,12 @@ public final class RuntimeExecutionTree {
     }
 
     private void buildFromStatic(ExecutionTreeNode node, String parentId) {
-        if (node == null) return;
+        if (node == null || node.getId() == null) return;
         String id = node.getId();
         RuntimeNodeState state = new RuntimeNodeState(id, node, parentId, false);
         nodesById.put(id, state);
+        order.add(id);
+        readyQueue.register(id);
         List<ExecutionTreeNode> children = node.getChildren();
         if (children != null) {
             for (ExecutionTreeNode child : children) {
@@ -62,8 +75,49 @@ public final class RuntimeExecutionTree {
     }
 
     /** Attach planner-generated nodes as children of the given parent. */
-    public void attachChildren(String parentNodeId, List<ExecutionTreeNode> definitions) {
-        RuntimeTreeAttach.attach(nodesById, parentNodeId, definitions);
+    public synchronized void attachChildren(String parentNodeId, List<ExecutionTreeNode> definitions) {
+        RuntimeTreeAttach.attach(nodesById, order, parentNodeId, definitions);
+        RuntimeNodeState parent = getNode(parentNodeId);
+        if (parent != null) {
+            for (String childId : parent.getChildIds()) {
+                readyQueue.register(childId);
+            }
+        }
+    }
+
+    /**
+     * Attaches {@code root} and all its descendants under the given parent, each recorded as belonging to
+     * {@code pipeline} (see {@link #getPipeline}), so an inlined sub-pipeline is scheduled like the parent's own nodes.
+     * Nodes whose id is already in the tree are not attached again.
+     */
+    public synchronized void attachSubtree(String parentNodeId, ExecutionTreeNode root, PipelineDefinition pipeline) {
+        RuntimeNodeState parent = getNode(parentNodeId);
+        if (parent == null || root == null || root.getId() == null || nodesById.containsKey(root.getId())) return;
+        attachInlined(root, parent, pipeline);
+        if (log.isInfoEnabled()) {
+            log.info("Tree attachSubtree | parentId={} | rootId={} | pipeline={}", parentNodeId, root.getId(),
+                    pipeline != null ? pipeline.getName() : null);
+        }
+    }
+
+    private void attachInlined(ExecutionTreeNode node, RuntimeNodeState parent, PipelineDefinition pipeline) {
+        String id = node.getId();
+        RuntimeNodeState state = new RuntimeNodeState(id, node, parent.getNodeId(), true, pipeline);
+        nodesById.put(id, state);
+        order.add(id);
+        parent.addChildId(id);
+        readyQueue.register(id);
+        for (ExecutionTreeNode child : node.getChildren()) {
+            if (child != null && child.getId() != null && !nodesById.containsKey(child.getId())) {
+                attachInlined(child, state, pipeline);
+            }
+        }
+    }
+
+    /** Pipeline the node was inlined from (SUB_PIPELINE), or null when it belongs to the run's pipeline. */
+    public PipelineDefinition getPipeline(String nodeId) {
+        RuntimeNodeState state = getNode(nodeId);
+        return state != null ? state.getPipeline() : null;
     }
 
     /**
@@ -99,14 +153,47 @@ public final class RuntimeExecutionTree {
         setStatus(nodeId, NodeStatus.SKIPPED);
     }
 
-    private void setStatus(String nodeId, NodeStatus status) {
+    private synchronized void setStatus(String nodeId, NodeStatus status) {
         RuntimeNodeState state = getNode(nodeId);
-        if (state != null) state.setStatus(status);
+        if (state == null) return;
+        state.setStatus(status);
+        readyQueue.refreshWithChildren(nodeId);
     }
 
-    /** Returns the next node to execute (NOT_STARTED, parent COMPLETED, DFS), or null when none. */
-    public String findNextExecutable() {
-        return RuntimeTreeTraversal.findNextExecutable(rootId, nodesById);
+    /** Marks the node and all descendants COMPLETED (subtree already executed outside the tree loop). */
+    public synchronized void markSubtreeCompleted(String nodeId) {
+        RuntimeNodeState state = getNode(nodeId);
+        if (state == null) return;
+        setStatus(nodeId, NodeStatus.COMPLETED);
+        for (String childId : state.getChildIds()) {
+            markSubtreeCompleted(childId);
+        }
+    }
+
+    /** Returns the next node to execute (NOT_STARTED, parent COMPLETED, DFS order), or null when none. */
+    public synchronized String findNextExecutable() {
+        String next = readyQueue.peek();
+        if (log.isInfoEnabled()) {
+            if (next != null) log.info("Tree findNextExecutable | found | nodeId={}", next);
+            else log.info("Tree findNextExecutable | no executable node | return null");
+        }
+        return next;
+    }
+
+    /**
+     * Returns the next node to execute within the subtree rooted at scopeId, or null when the subtree is done.
+     * The scope node itself is returned while it is NOT_STARTED, regardless of its parent's status, so a subtree
+     * (ITERATOR body, FORK branch) can be driven while its container is still running. Disjoint scopes can be
+     * driven from different threads.
+     */
+    public synchronized String findNextExecutableIn(String scopeId) {
+        RuntimeNodeState scope = getNode(scopeId);
+        if (scope == null) return null;
+        String next = scope.getStatus() == NodeStatus.NOT_STARTED ? scopeId : readyQueue.peekWithin(scopeId);
+        if (log.isDebugEnabled()) {
+            log.debug("Tree findNextExecutableIn | scopeId={} | nodeId={}", scopeId, next);
+        }
+        return next;
     }
 
     /** True if nodeId is ancestorId or a descendant of ancestorId. */
@@ -119,17 +206,86 @@ public final class RuntimeExecutionTree {
     }
 
     /** Sets node and all descendants to NOT_STARTED (e.g. for ITERATOR body re-run). */
-    public void resetSubtreeToNotStarted(String nodeId) {
+    public synchronized void resetSubtreeToNotStarted(String nodeId) {
         RuntimeNodeState state = getNode(nodeId);
         if (state == null) return;
         state.setStatus(NodeStatus.NOT_STARTED);
+        readyQueue.refresh(nodeId);
         for (String childId : state.getChildIds()) {
             resetSubtreeToNotStarted(childId);
         }
     }
 
-    public List<RuntimeNodeState> getAllNodes() {
-        return new ArrayList<>(nodesById.values());
+    /** Lets RETRY nodes end the run for their backoff; the caller must resume it from a checkpoint. */
+    public void enableDurableRetryBackoff() {
+        this.durableRetryBackoff = true;
+    }
+
+    public boolean isDurableRetryBackoff() {
+        return durableRetryBackoff;
+    }
+
+    /** Makes the RETRY node start at {@code attempt} the next time it runs (resume after a backoff). */
+    public void resumeRetryAt(String retryNodeId, int attempt) {
+        if (retryNodeId != null && attempt > 1) retryResumeAttempts.put(retryNodeId, attempt);
+    }
+
+    /** Attempt the RETRY node starts at: the one set by {@link #resumeRetryAt} (consumed), else 1. */
+    public int takeRetryAttempt(String retryNodeId) {
+        Integer attempt = retryNodeId != null ? retryResumeAttempts.remove(retryNodeId) : null;
+        return attempt != null ? attempt : 1;
+    }
+
+    /**
+     * True when the run can stop at this node and be rebuilt later from {@link #staticStatuses()}: the node is in the
+     * static tree, the tree loop scheduled it (every ancestor COMPLETED or SKIPPED, so no handler is driving it as
+     * part of an enclosing subtree) and no planner-attached or inlined node outside its subtree is left to run.
+     */
+    public synchronized boolean canSuspendAt(String nodeId) {
+        RuntimeNodeState state = getNode(nodeId);
+        if (state == null || state.isDynamic()) return false;
+        String ancestorId = state.getParentId();
+        while (ancestorId != null) {
+            RuntimeNodeState ancestor = nodesById.get(ancestorId);
+            if (ancestor == null) return false;
+            NodeStatus s = ancestor.getStatus();
+            if (s != NodeStatus.COMPLETED && s != NodeStatus.SKIPPED) return false;
+            ancestorId = ancestor.getParentId();
+        }
+        for (RuntimeNodeState n : nodesById.values()) {
+            if (n.isDynamic() && n.getStatus() == NodeStatus.NOT_STARTED && !isDescendant(n.getNodeId(), nodeId)) return false;
+        }
+        return true;
+    }
+
+    /** Status of every node of the static tree, in insertion order (planner-attached and inlined nodes excluded). */
+    public synchronized Map<String, NodeStatus> staticStatuses() {
+        Map<String, NodeStatus> out = new LinkedHashMap<>();
+        for (String id : order) {
+            RuntimeNodeState state = nodesById.get(id);
+            if (!state.isDynamic()) out.put(id, state.getStatus());
+        }
+        return out;
+    }
+
+    /** Applies statuses from {@link #staticStatuses()} of an earlier run of the same tree; unknown ids are ignored. */
+    public synchronized void restoreStatuses(Map<String, NodeStatus> statuses) {
+        if (statuses == null) return;
+        for (Map.Entry<String, NodeStatus> e : statuses.entrySet()) {
+            RuntimeNodeState state = getNode(e.getKey());
+            if (state != null && !state.isDynamic()) state.setStatus(e.getValue());
+        }
+        for (String id : order) {
+            readyQueue.refresh(id);
+        }
+    }
+
+    public synchronized List<RuntimeNodeState> getAllNodes() {
+        List<RuntimeNodeState> out = new ArrayList<>(order.size());
+        for (String id : order) {
+            out.add(nodesById.get(id));
+        }
+        return out;
     }
 
     /** Total number of nodes in the tree (static + dynamically attached). */
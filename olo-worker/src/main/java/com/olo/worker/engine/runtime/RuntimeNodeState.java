@@ -1,9 +1,10 @@
 package com.olo.worker.engine.runtime;
 
+import com.olo.executiontree.config.PipelineDefinition;
 import com.olo.executiontree.tree.ExecutionTreeNode;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Stateful runtime view of one node: definition (immutable) + parent, children, status.
@@ -17,14 +18,21 @@ public final class RuntimeNodeState {
     private final List<String> childIds;
     private volatile NodeStatus status;
     private final boolean dynamic;
+    private final PipelineDefinition pipeline;
 
     public RuntimeNodeState(String nodeId, ExecutionTreeNode definition, String parentId, boolean dynamic) {
+        this(nodeId, definition, parentId, dynamic, null);
+    }
+
+    public RuntimeNodeState(String nodeId, ExecutionTreeNode definition, String parentId, boolean dynamic,
+                            PipelineDefinition pipeline) {
         this.nodeId = nodeId;
         this.definition = definition;
         this.parentId = parentId;
-        this.childIds = new ArrayList<>();
+        this.childIds = new CopyOnWriteArrayList<>();
         this.status = NodeStatus.NOT_STARTED;
         this.dynamic = dynamic;
+        this.pipeline = pipeline;
     }
 
     public String getNodeId() {
@@ -39,7 +47,7 @@ public final class RuntimeNodeState {
         return parentId;
     }
 
-    /** Mutable list of child node ids (static + dynamically attached). */
+    /** Mutable list of child node ids (static + dynamically attached); safe to iterate while children are attached. */
     public List<String> getChildIds() {
         return childIds;
     }
@@ -59,4 +67,9 @@ public final class RuntimeNodeState {
     public boolean isDynamic() {
         return dynamic;
     }
+
+    /** Pipeline the node belongs to when it was inlined from a sub-pipeline; null for the run's own pipeline. */
+    public PipelineDefinition getPipeline() {
+        return pipeline;
+    }
 }
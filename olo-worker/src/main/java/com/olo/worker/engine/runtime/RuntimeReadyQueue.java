@@ -0,0 +1,146 @@
+package com.olo.worker.engine.runtime;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Single responsibility: keep the set of ready nodes (NOT_STARTED, parent COMPLETED or root) of a runtime tree,
+ * ordered by DFS pre-order, so the next executable node is found without walking the tree.
+ * Each node gets an immutable pre-order key (path of child indexes from the root); planner-attached children are
+ * appended to their parent's children, so keys of existing nodes never change.
+ */
+final class RuntimeReadyQueue {
+
+    private final Map<String, RuntimeNodeState> nodesById;
+    private final Map<String, int[]> pathById = new HashMap<>();
+    private final TreeSet<String> ready = new TreeSet<>(this::compareByPath);
+
+    RuntimeReadyQueue(Map<String, RuntimeNodeState> nodesById) {
+        this.nodesById = nodesById;
+    }
+
+    /** Assigns the pre-order key of a node; call for the root and for every child after it is added to its parent. */
+    void register(String nodeId) {
+        RuntimeNodeState state = nodesById.get(nodeId);
+        if (state == null || pathById.containsKey(nodeId)) return;
+        String parentId = state.getParentId();
+        int[] parentPath = parentId != null ? pathById.get(parentId) : null;
+        if (parentPath == null) {
+            pathById.put(nodeId, new int[0]);
+        } else {
+            int index = nodesById.get(parentId).getChildIds().indexOf(nodeId);
+            // Not linked as a child (e.g. empty id): unreachable from the root, so never ready.
+            if (index < 0) return;
+            int[] path = Arrays.copyOf(parentPath, parentPath.length + 1);
+            path[parentPath.length] = index;
+            pathById.put(nodeId, path);
+        }
+        refresh(nodeId);
+    }
+
+    /** Re-evaluates whether the node is ready (after its own or its parent's status changed). */
+    void refresh(String nodeId) {
+        RuntimeNodeState state = nodesById.get(nodeId);
+        if (state == null || !pathById.containsKey(nodeId)) return;
+        if (isReady(state)) {
+            ready.add(nodeId);
+        } else {
+            ready.remove(nodeId);
+        }
+    }
+
+    /** Re-evaluates the node and its direct children (children's readiness depends on the parent's status). */
+    void refreshWithChildren(String nodeId) {
+        refresh(nodeId);
+        RuntimeNodeState state = nodesById.get(nodeId);
+        if (state == null) return;
+        for (String childId : state.getChildIds()) {
+            refresh(childId);
+        }
+    }
+
+    /**
+     * Returns the first ready node in DFS pre-order whose ancestors are all COMPLETED or SKIPPED (same result as a
+     * DFS walk from the root), or null. Entries that are no longer ready are dropped on the way.
+     */
+    String peek() {
+        Iterator<String> it = ready.iterator();
+        while (it.hasNext()) {
+            String id = it.next();
+            RuntimeNodeState state = nodesById.get(id);
+            if (state == null || !isReady(state)) {
+                it.remove();
+                continue;
+            }
+            if (isReachable(state)) return id;
+        }
+        return null;
+    }
+
+    /**
+     * Like {@link #peek()} but limited to strict descendants of the scope node: returns the first ready descendant
+     * in DFS pre-order whose ancestors up to and including the scope node are COMPLETED or SKIPPED, or null.
+     * Descendants are contiguous in pre-order, so only that range of the ready set is visited.
+     */
+    String peekWithin(String scopeId) {
+        int[] scopePath = pathById.get(scopeId);
+        if (scopePath == null) return null;
+        Iterator<String> it = ready.tailSet(scopeId, false).iterator();
+        while (it.hasNext()) {
+            String id = it.next();
+            if (!hasPrefix(pathById.get(id), scopePath)) return null;
+            RuntimeNodeState state = nodesById.get(id);
+            if (state == null || !isReady(state)) {
+                it.remove();
+                continue;
+            }
+            if (isReachableWithin(state, scopeId)) return id;
+        }
+        return null;
+    }
+
+    private boolean isReady(RuntimeNodeState state) {
+        if (state.getStatus() != NodeStatus.NOT_STARTED) return false;
+        if (state.getParentId() == null) return true;
+        RuntimeNodeState parent = nodesById.get(state.getParentId());
+        return parent != null && parent.getStatus() == NodeStatus.COMPLETED;
+    }
+
+    private boolean isReachable(RuntimeNodeState state) {
+        String ancestorId = state.getParentId();
+        while (ancestorId != null) {
+            RuntimeNodeState ancestor = nodesById.get(ancestorId);
+            if (ancestor == null) return false;
+            NodeStatus s = ancestor.getStatus();
+            if (s != NodeStatus.COMPLETED && s != NodeStatus.SKIPPED) return false;
+            ancestorId = ancestor.getParentId();
+        }
+        return true;
+    }
+
+    private boolean isReachableWithin(RuntimeNodeState state, String scopeId) {
+        String ancestorId = state.getParentId();
+        while (ancestorId != null) {
+            RuntimeNodeState ancestor = nodesById.get(ancestorId);
+            if (ancestor == null) return false;
+            NodeStatus s = ancestor.getStatus();
+            if (s != NodeStatus.COMPLETED && s != NodeStatus.SKIPPED) return false;
+            if (ancestorId.equals(scopeId)) return true;
+            ancestorId = ancestor.getParentId();
+        }
+        return false;
+    }
+
+    private static boolean hasPrefix(int[] path, int[] prefix) {
+        return path.length > prefix.length
+                && Arrays.equals(path, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    private int compareByPath(String a, String b) {
+        int c = Arrays.compare(pathById.get(a), pathById.get(b));
+        return c != 0 ? c : a.compareTo(b);
+    }
+}
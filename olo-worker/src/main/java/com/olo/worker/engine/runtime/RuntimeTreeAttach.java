@@ -15,7 +15,8 @@ final class RuntimeTreeAttach {
 
     private static final Logger log = LoggerFactory.getLogger(RuntimeTreeAttach.class);
 
-    static void attach(Map<String, RuntimeNodeState> nodesById, String parentNodeId, List<ExecutionTreeNode> definitions) {
+    static void attach(Map<String, RuntimeNodeState> nodesById, List<String> order, String parentNodeId,
+                       List<ExecutionTreeNode> definitions) {
         if (parentNodeId == null || definitions == null || definitions.isEmpty()) {
             if (log.isInfoEnabled() && parentNodeId != null)
                 log.info("Tree attachChildren skip | parentId={} | definitions null or empty", parentNodeId);
@@ -32,9 +33,10 @@ final class RuntimeTreeAttach {
         for (ExecutionTreeNode def : definitions) {
             if (def == null) continue;
             String id = def.getId();
-            if (nodesById.containsKey(id)) continue;
+            if (id == null || nodesById.containsKey(id)) continue;
             RuntimeNodeState state = new RuntimeNodeState(id, def, parentNodeId, true);
             nodesById.put(id, state);
+            order.add(id);
             parent.addChildId(id);
             addedIds.add(id);
             if (log.isInfoEnabled())
@@ -11,7 +11,8 @@ import java.time.Duration;
 
 /**
  * OLO Kernel workflow: get plan, then run per-step/per-node or fallback to RunExecutionTree.
- * Plan execution (steps, nodes, variable map merge) is delegated to {@link WorkflowPlanExecutor}.
+ * Plan execution (steps, nodes, variable map merge) is delegated to {@link WorkflowPlanExecutor}; RunExecutionTree
+ * runs through {@link TreeRunResumer}, which waits out RETRY backoffs on workflow timers.
  */
 public class OloKernelWorkflowImpl implements com.olo.worker.workflow.OloKernelWorkflow {
 
@@ -32,8 +33,10 @@ public class OloKernelWorkflowImpl implements com.olo.worker.workflow.OloKernelW
         OloKernelActivities activities = Workflow.newActivityStub(
                 OloKernelActivities.class,
                 ActivityOptions.newBuilder().setStartToCloseTimeout(activityTimeout).build());
-        ActivityStub untypedActivityStub = Workflow.newUntypedActivityStub(
-                ActivityOptions.newBuilder().setStartToCloseTimeout(activityTimeout).build());
+        ActivityOptions nodeActivityOptions = ActivityOptions.newBuilder().setStartToCloseTimeout(activityTimeout).build();
+        ActivityStub untypedActivityStub = Workflow.newUntypedActivityStub(nodeActivityOptions);
+        ActivityStub retryStepStub = Workflow.newUntypedActivityStub(
+                WorkflowPlanExecutor.retryStepOptions(nodeActivityOptions));
 
         activities.processInput(workflowInput.toJson());
         String queueName = workflowInput.getRouting() != null ? workflowInput.getRouting().getPipeline() : null;
@@ -44,22 +47,22 @@ public class OloKernelWorkflowImpl implements com.olo.worker.workflow.OloKernelW
         if (planJson == null || !planJson.contains("\"linear\":true")) {
             Workflow.getLogger(OloKernelWorkflowImpl.class).info(
                     "Scheduling RunExecutionTree activity: tree is non-linear (plan is null or linear=false)");
-            String result = activities.runExecutionTree(queueNameOrEmpty, workflowInputJson);
-            return result != null ? result : "";
+            return TreeRunResumer.run(activities, queueNameOrEmpty, workflowInputJson);
         }
 
         try {
+            PlanContentRecovery plan = new PlanContentRecovery(planJson, workflowInputJson,
+                    input -> activities.getExecutionPlan(queueNameOrEmpty, input));
             String variableMapJson = WorkflowPlanExecutor.runPlan(
-                    planJson, untypedActivityStub, queueNameOrEmpty, workflowInputJson);
-            String result = activities.applyResultMapping(planJson, variableMapJson);
+                    plan, untypedActivityStub, retryStepStub, queueNameOrEmpty, workflowInputJson);
+            String result = plan.call(() -> activities.applyResultMapping(plan.planJson(), variableMapJson));
             return result != null ? result : "";
         } catch (Exception e) {
             Workflow.getLogger(OloKernelWorkflowImpl.class).warn(
                     "Per-node execution failed, falling back to RunExecutionTree: {}", e.getMessage());
             Workflow.getLogger(OloKernelWorkflowImpl.class).info(
                     "Scheduling RunExecutionTree activity: fallback after per-node execution failure");
-            String result = activities.runExecutionTree(queueNameOrEmpty, workflowInputJson);
-            return result != null ? result : "";
+            return TreeRunResumer.run(activities, queueNameOrEmpty, workflowInputJson);
         }
     }
 }
@@ -0,0 +1,114 @@
+package com.olo.worker.workflow.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.olo.worker.cache.PlanContentStore;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Single responsibility: the plan passed to node activities, and recovery when the content store has lost the plan or
+ * config behind its references. On a {@link PlanContentStore#CONTENT_MISSING} failure the plan is re-published
+ * (getExecutionPlan with the run's runId pinned, which stores the content again, or returns it inline when the shared
+ * store is unavailable) and the failed call is repeated once. Every activity call gets its own recovery, so content
+ * that expires again later in a long run is re-published again. A re-published plan that differs from the running
+ * one is rejected, so the workflow falls back to RunExecutionTree instead of mixing two plans.
+ */
+final class PlanContentRecovery {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+    /** Plan fields that must be identical for a re-published plan to replace the running one. */
+    private static final List<String> STRUCTURE_KEYS =
+            List.of("runId", "pipelineName", "queueName", "steps", "nodes", "tryCatch", "retries");
+
+    private final String workflowInputJson;
+    private final Function<String, String> getExecutionPlan;
+    private String planJson;
+    private Map<String, Object> plan;
+
+    /**
+     * @param getExecutionPlan calls the getExecutionPlan activity with the given workflow input JSON; null disables recovery
+     */
+    PlanContentRecovery(String planJson, String workflowInputJson, Function<String, String> getExecutionPlan) {
+        this.planJson = planJson;
+        this.plan = parse(planJson);
+        this.workflowInputJson = workflowInputJson;
+        this.getExecutionPlan = getExecutionPlan;
+    }
+
+    /** Current plan JSON (as returned by getExecutionPlan). */
+    String planJson() {
+        return planJson;
+    }
+
+    /** Current parsed plan. */
+    Map<String, Object> plan() {
+        return plan;
+    }
+
+    /** What node activities receive as argument 0: the plan reference when there is one, else the full plan JSON. */
+    String planArg() {
+        Object planRef = plan.get("planRef");
+        return planRef != null && !planRef.toString().isBlank() ? planRef.toString() : planJson;
+    }
+
+    /**
+     * Runs the activity call; if it fails because referenced content is gone, re-publishes the plan and runs it once
+     * more. The call must read {@link #planArg()} / {@link #planJson()} when invoked, not capture them beforehand.
+     */
+    <T> T call(Supplier<T> activityCall) {
+        try {
+            return activityCall.get();
+        } catch (RuntimeException e) {
+            if (!isRecoverable(e)) throw e;
+            republish();
+            return activityCall.get();
+        }
+    }
+
+    /** True when {@code failure} is a content-missing failure and this recovery can re-publish the plan. */
+    boolean isRecoverable(Throwable failure) {
+        return getExecutionPlan != null && PlanContentStore.isContentMissing(failure);
+    }
+
+    /** Re-publishes the plan; later {@link #planArg()} / {@link #planJson()} calls return the fresh plan. */
+    void republish() {
+        Object runId = plan.get("runId");
+        String fresh = getExecutionPlan.apply(withRunId(workflowInputJson, runId != null ? runId.toString() : null));
+        Map<String, Object> freshPlan = parse(fresh);
+        for (String key : STRUCTURE_KEYS) {
+            if (!Objects.equals(plan.get(key), freshPlan.get(key))) {
+                throw new IllegalStateException("Re-published plan differs from the running plan in '" + key + "'");
+            }
+        }
+        planJson = fresh;
+        plan = freshPlan;
+    }
+
+    /** Pins the plan's runId in the workflow input context, so the re-published plan keeps the run's identity. */
+    static String withRunId(String workflowInputJson, String runId) {
+        if (runId == null || runId.isBlank()) return workflowInputJson;
+        try {
+            ObjectNode root = (ObjectNode) MAPPER.readTree(workflowInputJson);
+            ObjectNode context = root.get("context") instanceof ObjectNode c ? c : root.putObject("context");
+            context.put("runId", runId);
+            return MAPPER.writeValueAsString(root);
+        } catch (Exception e) {
+            return workflowInputJson;
+        }
+    }
+
+    private static Map<String, Object> parse(String json) {
+        try {
+            return MAPPER.readValue(json, MAP_TYPE);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid plan JSON: " + e.getMessage(), e);
+        }
+    }
+}
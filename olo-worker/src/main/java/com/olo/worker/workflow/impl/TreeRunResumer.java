@@ -0,0 +1,47 @@
+package com.olo.worker.workflow.impl;
+
+import com.olo.worker.activity.OloKernelActivities;
+import com.olo.worker.activity.tree.impl.TreeRunService;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.workflow.Workflow;
+
+import java.time.Duration;
+
+/**
+ * Single responsibility: run RunExecutionTree to completion across RETRY backoffs. When the activity ends with a
+ * {@link TreeRunService#RETRY_BACKOFF} failure, the workflow sleeps for the backoff on a durable timer (no activity
+ * and no worker slot is held) and continues the run with resumeExecutionTree from the failure's checkpoint.
+ */
+final class TreeRunResumer {
+
+    private TreeRunResumer() {
+    }
+
+    static String run(OloKernelActivities activities, String queueName, String workflowInputJson) {
+        String checkpointJson = null;
+        while (true) {
+            try {
+                String result = checkpointJson == null
+                        ? activities.runExecutionTree(queueName, workflowInputJson)
+                        : activities.resumeExecutionTree(queueName, workflowInputJson, checkpointJson);
+                return result != null ? result : "";
+            } catch (RuntimeException e) {
+                ApplicationFailure backoff = retryBackoff(e);
+                if (backoff == null) throw e;
+                checkpointJson = backoff.getDetails().get(0, String.class);
+                long backoffMs = backoff.getDetails().get(1, Long.class);
+                Workflow.getLogger(TreeRunResumer.class).info(
+                        "RunExecutionTree backing off {} ms on a workflow timer before resuming", backoffMs);
+                Workflow.sleep(Duration.ofMillis(backoffMs));
+            }
+        }
+    }
+
+    /** The {@link TreeRunService#RETRY_BACKOFF} failure in {@code t}'s cause chain, or null. */
+    static ApplicationFailure retryBackoff(Throwable t) {
+        for (Throwable c = t; c != null; c = c.getCause()) {
+            if (c instanceof ApplicationFailure af && TreeRunService.RETRY_BACKOFF.equals(af.getType())) return af;
+        }
+        return null;
+    }
+}
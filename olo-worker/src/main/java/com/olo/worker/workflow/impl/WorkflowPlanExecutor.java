@@ -2,13 +2,21 @@ package com.olo.worker.workflow.impl;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olo.worker.engine.node.RetryPolicy;
+import com.olo.worker.workflow.impl.WorkflowVariableMapHelper.VariableMap;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.common.RetryOptions;
 import io.temporal.workflow.ActivityStub;
+import io.temporal.workflow.Workflow;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Single responsibility: run a linear or parallel execution plan (steps/nodes) and return updated variable map JSON.
+ * Steps listed under {@code retries} (RETRY nodes) are retried with a workflow timer between attempts, on a
+ * single-attempt activity stub so Temporal's own retry does not stack on top.
  */
 public final class WorkflowPlanExecutor {
 
@@ -19,12 +27,42 @@ public final class WorkflowPlanExecutor {
 
     /**
      * Runs the plan (parallel steps or linear nodes) and returns the final variable map JSON.
+     * When the plan carries a {@code planRef} (content hash), node activities receive that reference
+     * instead of the full plan JSON so history does not grow with plan size times step count.
      * Throws on parse/execution failure so the workflow can fall back to RunExecutionTree.
      */
     public static String runPlan(String planJson, ActivityStub untypedActivityStub,
                                  String queueForActivities, String workflowInputJson) throws Exception {
-        @SuppressWarnings("unchecked")
-        Map<String, Object> plan = MAPPER.readValue(planJson, Map.class);
+        return runPlan(planJson, untypedActivityStub, untypedActivityStub, queueForActivities, workflowInputJson);
+    }
+
+    /**
+     * Same as {@link #runPlan(String, ActivityStub, String, String)}; RETRY steps run on {@code retryStepStub},
+     * which should be built with {@link #retryStepOptions} so the step's RetryPolicy is the only retry.
+     */
+    public static String runPlan(String planJson, ActivityStub untypedActivityStub, ActivityStub retryStepStub,
+                                 String queueForActivities, String workflowInputJson) throws Exception {
+        return runPlan(new PlanContentRecovery(planJson, workflowInputJson, null),
+                untypedActivityStub, retryStepStub, queueForActivities, workflowInputJson);
+    }
+
+    /**
+     * Options for the stub that runs RETRY steps: {@code options} limited to a single attempt. Without it Temporal
+     * retries a failing activity on its own, without limit, and the step's RetryPolicy never sees the failure.
+     */
+    public static ActivityOptions retryStepOptions(ActivityOptions options) {
+        return ActivityOptions.newBuilder(options)
+                .setRetryOptions(RetryOptions.newBuilder().setMaximumAttempts(1).build())
+                .build();
+    }
+
+    /**
+     * Same as {@link #runPlan(String, ActivityStub, ActivityStub, String, String)}; a node activity that fails
+     * because the plan's referenced content is gone is repeated once after {@code recovery} re-publishes the plan.
+     */
+    static String runPlan(PlanContentRecovery recovery, ActivityStub untypedActivityStub, ActivityStub retryStepStub,
+                          String queueForActivities, String workflowInputJson) throws Exception {
+        Map<String, Object> plan = recovery.plan();
         String variableMapJson = (String) plan.get("initialVariableMapJson");
         String planQueueName = (String) plan.get("queueName");
         if (planQueueName == null || planQueueName.isBlank()) planQueueName = queueForActivities;
@@ -36,28 +74,34 @@ public final class WorkflowPlanExecutor {
                 ? ((Number) tryCatchMeta.get("catchStepIndex")).intValue() : null;
         String errorVariable = tryCatchMeta != null && tryCatchMeta.get("errorVariable") != null
                 ? tryCatchMeta.get("errorVariable").toString() : null;
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> retries = (Map<String, Map<String, Object>>) plan.get("retries");
 
         if (steps != null && !steps.isEmpty() && variableMapJson != null) {
             int tryCatchCatchStepIndex = catchStepIndex != null && catchStepIndex >= 0 ? catchStepIndex : -1;
+            VariableMap variables = VariableMap.ofJson(variableMapJson);
             try {
                 for (int stepIndex = 0; stepIndex < steps.size(); stepIndex++) {
                     if (tryCatchCatchStepIndex >= 0 && stepIndex == tryCatchCatchStepIndex) continue;
                     List<Map<String, Object>> step = steps.get(stepIndex);
-                    variableMapJson = WorkflowVariableMapHelper.runStep(untypedActivityStub, planJson, queueForActivities, workflowInputJson,
-                            step, variableMapJson);
-                    if (variableMapJson == null) variableMapJson = "{}";
+                    Map<String, Object> retry = retries != null ? retries.get(String.valueOf(stepIndex)) : null;
+                    variables = retry != null
+                            ? runStepWithRetry(retryStepStub, recovery, queueForActivities, workflowInputJson,
+                                    step, variables, RetryPolicy.fromPlanMap(retry))
+                            : runStep(untypedActivityStub, recovery, queueForActivities, workflowInputJson,
+                                    step, variables);
                 }
             } catch (Exception e) {
                 if (tryCatchCatchStepIndex >= 0 && tryCatchCatchStepIndex < steps.size() && errorVariable != null) {
-                    variableMapJson = WorkflowVariableMapHelper.mergeErrorIntoVariableMap(variableMapJson, errorVariable, e.getMessage());
-                    variableMapJson = WorkflowVariableMapHelper.runStep(untypedActivityStub, planJson, queueForActivities, workflowInputJson,
-                            steps.get(tryCatchCatchStepIndex), variableMapJson);
-                    if (variableMapJson == null) variableMapJson = "{}";
+                    variables = VariableMap.ofJson(WorkflowVariableMapHelper.mergeErrorIntoVariableMap(
+                            variables.json(), errorVariable, e.getMessage()));
+                    variables = runStep(untypedActivityStub, recovery, queueForActivities, workflowInputJson,
+                            steps.get(tryCatchCatchStepIndex), variables);
                 } else {
                     throw e;
                 }
             }
-            return variableMapJson;
+            return variables.json();
         }
 
         @SuppressWarnings("unchecked")
@@ -69,9 +113,11 @@ public final class WorkflowPlanExecutor {
             String activityType = node.get("activityType");
             String nodeId = node.get("nodeId");
             if (activityType == null || nodeId == null) continue;
-            variableMapJson = untypedActivityStub.execute(
+            String nodeInput = variableMapJson;
+            String nodeQueue = planQueueName;
+            variableMapJson = recovery.call(() -> untypedActivityStub.execute(
                     activityType, String.class,
-                    planJson, nodeId, variableMapJson, planQueueName, workflowInputJson, null);
+                    recovery.planArg(), nodeId, nodeInput, nodeQueue, workflowInputJson, null));
             if (variableMapJson == null) variableMapJson = "{}";
             Map<String, Object> parsed = parseAsMap(variableMapJson);
             if (parsed != null && parsed.containsKey("dynamicSteps")) {
@@ -86,9 +132,11 @@ public final class WorkflowPlanExecutor {
                         String stepActivityType = step.get("activityType") != null ? step.get("activityType").toString() : null;
                         String stepNodeId = step.get("nodeId") != null ? step.get("nodeId").toString() : null;
                         if (stepActivityType == null || stepNodeId == null) continue;
-                        variableMapJson = untypedActivityStub.execute(
+                        String stepInput = variableMapJson;
+                        String stepQueue = planQueueName;
+                        variableMapJson = recovery.call(() -> untypedActivityStub.execute(
                                 stepActivityType, String.class,
-                                planJson, stepNodeId, variableMapJson, planQueueName, workflowInputJson, dynamicStepsJson);
+                                recovery.planArg(), stepNodeId, stepInput, stepQueue, workflowInputJson, dynamicStepsJson));
                         if (variableMapJson == null) variableMapJson = "{}";
                     }
                 }
@@ -98,6 +146,30 @@ public final class WorkflowPlanExecutor {
         return variableMapJson;
     }
 
+    /**
+     * Runs a step produced by a RETRY node, up to maxAttempts times. The backoff between attempts is a durable
+     * workflow timer, so no activity slot is held while waiting and the wait survives worker restarts.
+     */
+    private static VariableMap runStepWithRetry(ActivityStub untypedActivityStub, PlanContentRecovery recovery, String queueForActivities,
+                                                String workflowInputJson, List<Map<String, Object>> step,
+                                                VariableMap variables, RetryPolicy policy) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return runStep(untypedActivityStub, recovery, queueForActivities, workflowInputJson, step, variables);
+            } catch (RuntimeException e) {
+                if (attempt >= policy.getMaxAttempts() || !policy.isRetryable(e)) throw e;
+                long backoffMs = policy.backoffMs(attempt);
+                if (backoffMs > 0) Workflow.sleep(Duration.ofMillis(backoffMs));
+            }
+        }
+    }
+
+    private static VariableMap runStep(ActivityStub untypedActivityStub, PlanContentRecovery recovery, String queueForActivities,
+                                       String workflowInputJson, List<Map<String, Object>> step, VariableMap variables) {
+        return WorkflowVariableMapHelper.runStep(untypedActivityStub, recovery, queueForActivities, workflowInputJson,
+                step, variables);
+    }
+
     static Map<String, Object> parseAsMap(String json) {
         if (json == null || json.isBlank()) return null;
         try {
@@ -2,6 +2,7 @@ package com.olo.worker.workflow.impl;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olo.worker.activity.ExecuteNodeDynamicActivity;
 import io.temporal.workflow.ActivityStub;
 import io.temporal.workflow.Async;
 import io.temporal.workflow.Promise;
@@ -18,12 +19,65 @@ final class WorkflowVariableMapHelper {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    /**
+     * A step's variable map as JSON and/or parsed. Parsing and serializing happen at most once each and the result is
+     * kept, so consecutive parallel steps merge onto the map the previous step built instead of re-parsing its JSON.
+     * The parsed map is never modified; merges work on a copy.
+     */
+    static final class VariableMap {
+        private String json;
+        private Map<String, Object> map;
+
+        private VariableMap(String json, Map<String, Object> map) {
+            this.json = json;
+            this.map = map;
+        }
+
+        static VariableMap ofJson(String json) {
+            return new VariableMap(json != null && !json.isEmpty() ? json : "{}", null);
+        }
+
+        static VariableMap ofMap(Map<String, Object> map) {
+            return new VariableMap(null, map);
+        }
+
+        String json() {
+            if (json == null) {
+                try {
+                    json = MAPPER.writeValueAsString(map);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Failed to serialize variable map: " + e.getMessage(), e);
+                }
+            }
+            return json;
+        }
+
+        Map<String, Object> map() throws Exception {
+            if (map == null) {
+                Map<String, Object> parsed = MAPPER.readValue(json, new TypeReference<Map<String, Object>>() {});
+                map = parsed != null ? parsed : new LinkedHashMap<>();
+            }
+            return map;
+        }
+    }
+
+    /**
+     * Applies each result onto the base map. Results of parallel branches are deltas (only the variables the
+     * branch added or changed), so cost scales with what was written rather than with the full map size.
+     * When {@code outputVariablesPerResult} matches the results, only those keys are taken from each result.
+     */
     static String mergeVariableMaps(String baseVariableMapJson, List<String> resultVariableMapJsonList,
                                     List<List<String>> outputVariablesPerResult) {
+        VariableMap base = VariableMap.ofJson(baseVariableMapJson);
+        VariableMap merged = mergeVariableMaps(base, resultVariableMapJsonList, outputVariablesPerResult);
+        return merged != base ? merged.json() : baseVariableMapJson != null ? baseVariableMapJson : "{}";
+    }
+
+    /** Same as {@link #mergeVariableMaps(String, List, List)}; the base is parsed only if not already parsed. */
+    static VariableMap mergeVariableMaps(VariableMap base, List<String> resultVariableMapJsonList,
+                                         List<List<String>> outputVariablesPerResult) {
         try {
-            Map<String, Object> merged = baseVariableMapJson != null && !baseVariableMapJson.isEmpty()
-                    ? MAPPER.readValue(baseVariableMapJson, new TypeReference<Map<String, Object>>() {})
-                    : new LinkedHashMap<>();
+            Map<String, Object> merged = new LinkedHashMap<>(base.map());
             boolean usePluginOutputsOnly = outputVariablesPerResult != null
                     && outputVariablesPerResult.size() == resultVariableMapJsonList.size();
             for (int i = 0; i < resultVariableMapJsonList.size(); i++) {
@@ -45,9 +99,9 @@ final class WorkflowVariableMapHelper {
                     }
                 }
             }
-            return MAPPER.writeValueAsString(merged);
+            return VariableMap.ofMap(merged);
         } catch (Exception e) {
-            return baseVariableMapJson != null ? baseVariableMapJson : "{}";
+            return base;
         }
     }
 
@@ -63,19 +117,28 @@ final class WorkflowVariableMapHelper {
         }
     }
 
-    static String runStep(ActivityStub untypedActivityStub, String planJson, String queueForActivities,
-                          String workflowInputJson, List<Map<String, Object>> step, String variableMapJson) {
-        if (step == null || step.isEmpty()) return variableMapJson;
+    /**
+     * Runs one plan step, carrying the map between steps. Node activities receive {@link PlanContentRecovery#planArg()}
+     * (the full plan JSON or its content reference). An activity that fails because the referenced content is gone
+     * is repeated after the plan is re-published; in a parallel step only the failed branches are re-issued, so
+     * branches that already succeeded do not run their plugins again.
+     */
+    static VariableMap runStep(ActivityStub untypedActivityStub, PlanContentRecovery recovery, String queueForActivities,
+                               String workflowInputJson, List<Map<String, Object>> step, VariableMap variables) {
+        if (step == null || step.isEmpty()) return variables;
         if (step.size() == 1) {
             Map<String, Object> node = step.get(0);
             String activityType = node.get("activityType") != null ? node.get("activityType").toString() : null;
             String nodeId = node.get("nodeId") != null ? node.get("nodeId").toString() : null;
-            if (activityType == null || nodeId == null) return variableMapJson;
-            return untypedActivityStub.execute(
+            if (activityType == null || nodeId == null) return variables;
+            String currentMap = variables.json();
+            return VariableMap.ofJson(recovery.call(() -> untypedActivityStub.execute(
                     activityType, String.class,
-                    planJson, nodeId, variableMapJson, queueForActivities, workflowInputJson, null);
+                    recovery.planArg(), nodeId, currentMap, queueForActivities, workflowInputJson, null)));
         }
-        List<Promise<String>> promises = new ArrayList<>();
+        String currentMap = variables.json();
+        List<String> activityTypes = new ArrayList<>();
+        List<String> nodeIds = new ArrayList<>();
         List<List<String>> outputVariablesPerResult = new ArrayList<>();
         for (Map<String, Object> node : step) {
             String at = node.get("activityType") != null ? node.get("activityType").toString() : null;
@@ -87,35 +150,70 @@ final class WorkflowVariableMapHelper {
                 for (Object o : list) { if (o != null) outputVars.add(o.toString()); }
             }
             outputVariablesPerResult.add(outputVars);
-            final String activityType = at;
-            final String nodeId = nid;
-            final String currentMap = variableMapJson;
-            Promise<String> p = Async.function(() -> untypedActivityStub.execute(
+            activityTypes.add(at);
+            nodeIds.add(nid);
+        }
+        if (nodeIds.isEmpty()) return variables;
+        String[] results = new String[nodeIds.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < nodeIds.size(); i++) pending.add(i);
+        RuntimeException missing = runBranches(untypedActivityStub, recovery.planArg(), queueForActivities,
+                workflowInputJson, currentMap, activityTypes, nodeIds, pending, results, recovery);
+        if (missing != null) {
+            // Only content-missing failures are left in pending; re-publish once for all of them.
+            recovery.republish();
+            runBranches(untypedActivityStub, recovery.planArg(), queueForActivities,
+                    workflowInputJson, currentMap, activityTypes, nodeIds, pending, results, null);
+        }
+        List<String> nonEmpty = new ArrayList<>();
+        List<List<String>> nonEmptyOutputs = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null && !results[i].isEmpty()) {
+                nonEmpty.add(results[i]);
+                nonEmptyOutputs.add(outputVariablesPerResult.get(i));
+            }
+        }
+        return mergeVariableMaps(variables, nonEmpty, nonEmptyOutputs);
+    }
+
+    /**
+     * Runs the {@code pending} branches in parallel and waits for all of them, so none is still running when the
+     * workflow moves on (a late completion would otherwise get NOT_FOUND). Results go into {@code results} and
+     * succeeded branches leave {@code pending}. Returns the first content-missing failure when every failure is one
+     * that {@code recovery} can handle (the failed branches stay pending), null when all succeeded; throws the first
+     * failure otherwise (always, when {@code recovery} is null).
+     */
+    private static RuntimeException runBranches(ActivityStub untypedActivityStub, String planArg, String queueForActivities,
+                                                String workflowInputJson, String currentMap, List<String> activityTypes,
+                                                List<String> nodeIds, List<Integer> pending, String[] results,
+                                                PlanContentRecovery recovery) {
+        List<Promise<String>> promises = new ArrayList<>();
+        for (int i : pending) {
+            String activityType = activityTypes.get(i);
+            String nodeId = nodeIds.get(i);
+            promises.add(Async.function(() -> untypedActivityStub.execute(
                     activityType, String.class,
-                    planJson, nodeId, currentMap, queueForActivities, workflowInputJson, null));
-            promises.add(p);
+                    planArg, nodeId, currentMap, queueForActivities, workflowInputJson, null,
+                    ExecuteNodeDynamicActivity.RESULT_MODE_DELTA)));
         }
-        if (promises.isEmpty()) return variableMapJson;
-        try {
-            Promise.allOf(promises).get();
-        } catch (Throwable firstFailure) {
-            // Wait for all parallel activities to report to Temporal before propagating failure.
-            // Otherwise the workflow may complete (e.g. fallback) while other activities are still
-            // running; when they report completion they get NOT_FOUND: workflow execution already completed.
-            for (Promise<String> p : promises) {
-                try {
-                    p.get();
-                } catch (Throwable ignored) {
-                    // Already failed or will fail; we only need them to finish and report.
-                }
+        RuntimeException firstFailure = null;
+        boolean allRecoverable = true;
+        List<Integer> failed = new ArrayList<>();
+        for (int k = 0; k < promises.size(); k++) {
+            try {
+                results[pending.get(k)] = promises.get(k).get();
+            } catch (RuntimeException e) {
+                if (firstFailure == null) firstFailure = e;
+                allRecoverable &= recovery != null && recovery.isRecoverable(e);
+                failed.add(pending.get(k));
             }
-            throw firstFailure;
         }
-        List<String> results = new ArrayList<>();
-        for (Promise<String> p : promises) {
-            String r = p.get();
-            if (r != null && !r.isEmpty()) results.add(r);
+        if (firstFailure == null) {
+            pending.clear();
+            return null;
         }
-        return mergeVariableMaps(variableMapJson, results, outputVariablesPerResult);
+        if (!allRecoverable) throw firstFailure;
+        pending.retainAll(failed);
+        return firstFailure;
     }
 }
@@ -0,0 +1,76 @@
+package com.olo.worker.activity.node.impl;
+
+import com.olo.executiontree.config.PipelineConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParsedPlanCacheTest {
+
+    private static ParsedPlanCache.ParsedPlan parsed(String tenantId) {
+        return new ParsedPlanCache.ParsedPlan(tenantId, new HashMap<>(), null, null, "r1");
+    }
+
+    @Test
+    void planRefKeyIsTenantPlusRef() {
+        assertEquals("t\nsha256:abc", ParsedPlanCache.planKey("t", "sha256:abc"));
+        assertNotEquals(ParsedPlanCache.planKey("t", "sha256:abc"), ParsedPlanCache.planKey("u", "sha256:abc"));
+    }
+
+    @Test
+    void inlinePlanIsKeyedByContentHash() {
+        String plan = "{\"runId\":\"r1\",\"configJson\":\"" + "x".repeat(100_000) + "\"}";
+        String key = ParsedPlanCache.planKey("t", plan);
+        assertTrue(key.startsWith("t\nsha256:"), key);
+        assertTrue(key.length() < 100, key);
+        assertEquals(key, ParsedPlanCache.planKey("t", new String(plan)));
+        assertNotEquals(key, ParsedPlanCache.planKey("t", plan.replace("r1", "r2")));
+    }
+
+    @Test
+    void tenantIsReadFromTheInputContext() {
+        String input = "{\"inputs\":[{\"value\":\"" + "y".repeat(10_000) + "\"}],"
+                + "\"context\":{\"runId\":\"r\",\"tenantId\":\"acme\"},\"routing\":{}}";
+        assertEquals("acme", NodeExecutionPlanUtils.tenantIdOfInput(input));
+        assertNull(NodeExecutionPlanUtils.tenantIdOfInput("{\"context\":{\"runId\":\"r\"}}"));
+        assertNull(NodeExecutionPlanUtils.tenantIdOfInput("{\"context\":{\"tenantId\":null}}"));
+        assertNull(NodeExecutionPlanUtils.tenantIdOfInput("not json"));
+    }
+
+    @Test
+    void plansAreBoundedLeastRecentlyUsedFirst() {
+        ParsedPlanCache cache = new ParsedPlanCache(2, 1);
+        ParsedPlanCache.ParsedPlan a = parsed("t");
+        cache.putPlan("a", a);
+        cache.putPlan("b", parsed("t"));
+        assertSame(a, cache.getPlan("a"));
+        cache.putPlan("c", parsed("t"));
+
+        assertNotNull(cache.getPlan("a"));
+        assertNull(cache.getPlan("b"));
+        assertNotNull(cache.getPlan("c"));
+    }
+
+    @Test
+    void configIsParsedOncePerIdentity() {
+        ParsedPlanCache cache = new ParsedPlanCache();
+        AtomicInteger parses = new AtomicInteger();
+        cache.getOrParseConfig("t:sha256:c1", () -> {
+            parses.incrementAndGet();
+            return new PipelineConfiguration(null, null, null, null, null);
+        });
+        cache.getOrParseConfig("t:sha256:c1", () -> {
+            parses.incrementAndGet();
+            return null;
+        });
+        assertEquals(1, parses.get());
+    }
+}
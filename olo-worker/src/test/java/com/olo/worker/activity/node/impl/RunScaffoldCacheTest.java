@@ -0,0 +1,95 @@
+package com.olo.worker.activity.node.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunScaffoldCacheTest {
+
+    private static RunScaffoldCache.RunScaffold get(RunScaffoldCache cache, String runId, AtomicInteger builds) {
+        return cache.getOrCreate(runId, null, null, null, "q", () -> {
+            builds.incrementAndGet();
+            return null;
+        });
+    }
+
+    @Test
+    void concurrentFirstNodesOfARunBuildOneScaffold() throws Exception {
+        RunScaffoldCache cache = new RunScaffoldCache();
+        AtomicInteger builds = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RunScaffoldCache.RunScaffold>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                start.await(5, TimeUnit.SECONDS);
+                return get(cache, "run-1", builds);
+            }));
+        }
+        start.countDown();
+        Set<RunScaffoldCache.RunScaffold> distinct = ConcurrentHashMap.newKeySet();
+        for (Future<RunScaffoldCache.RunScaffold> f : results) distinct.add(f.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(1, builds.get());
+        assertEquals(1, distinct.size());
+    }
+
+    @Test
+    void evictedRunIsRebuiltOnNextUse() {
+        RunScaffoldCache cache = new RunScaffoldCache();
+        AtomicInteger builds = new AtomicInteger();
+        RunScaffoldCache.RunScaffold first = get(cache, "run-1", builds);
+        assertSame(first, get(cache, "run-1", builds));
+        cache.evict("run-1");
+        assertEquals(0, cache.size());
+        assertNotSame(first, get(cache, "run-1", builds));
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    void leastRecentlyUsedRunIsDroppedWhenFull() {
+        RunScaffoldCache cache = new RunScaffoldCache(2, 60_000L);
+        AtomicInteger builds = new AtomicInteger();
+        RunScaffoldCache.RunScaffold a = get(cache, "a", builds);
+        get(cache, "b", builds);
+        get(cache, "a", builds);
+        get(cache, "c", builds);
+        assertEquals(2, cache.size());
+        assertSame(a, get(cache, "a", builds));
+        assertEquals(3, builds.get());
+    }
+
+    @Test
+    void lastNodeAndRunIdAreReadFromThePlan() {
+        Map<String, Object> plan = Map.of("steps", List.of(
+                List.of(Map.of("nodeId", "n1")),
+                List.of(Map.of("nodeId", "n2"))));
+        assertTrue(NodeExecutionPlanUtils.isLastNodeInPlan(plan, "n2"));
+        assertFalse(NodeExecutionPlanUtils.isLastNodeInPlan(plan, "n1"));
+        Map<String, Object> parallelEnd = Map.of("steps", List.of(
+                List.of(Map.of("nodeId", "n1"), Map.of("nodeId", "n2"))));
+        assertFalse(NodeExecutionPlanUtils.isLastNodeInPlan(parallelEnd, "n2"));
+
+        assertEquals("r-1", NodeExecutionPlanUtils.runIdOfPlan(
+                "{\"linear\":true,\"configJson\":{\"runId\":\"nested\"},\"steps\":[[{\"nodeId\":\"n\"}]],\"runId\":\"r-1\"}"));
+        assertNull(NodeExecutionPlanUtils.runIdOfPlan("{\"linear\":true}"));
+        assertNull(NodeExecutionPlanUtils.runIdOfPlan("not json"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.olo.worker.codec;
+
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressingPayloadCodecTest {
+
+    private static Payload json(String data) {
+        return Payload.newBuilder()
+                .putMetadata("encoding", ByteString.copyFromUtf8("json/plain"))
+                .setData(ByteString.copyFromUtf8(data))
+                .build();
+    }
+
+    private static String largeJson() {
+        StringBuilder sb = new StringBuilder("{\"nodes\":[");
+        for (int i = 0; i < 500; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"nodeId\":\"n").append(i).append("\",\"activityType\":\"PLUGIN\"}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    @Test
+    void largePayloadIsCompressedAndRoundTrips() {
+        CompressingPayloadCodec codec = new CompressingPayloadCodec(1024);
+        Payload original = json(largeJson());
+
+        Payload encoded = codec.encode(List.of(original)).get(0);
+        assertEquals(CompressingPayloadCodec.ENCODING, encoded.getMetadataOrDefault("encoding", ByteString.EMPTY).toStringUtf8());
+        assertTrue(encoded.getSerializedSize() < original.getSerializedSize());
+
+        Payload decoded = codec.decode(List.of(encoded)).get(0);
+        assertEquals(original, decoded);
+    }
+
+    @Test
+    void payloadBelowThresholdPassesThrough() {
+        CompressingPayloadCodec codec = new CompressingPayloadCodec(1024);
+        Payload small = json("{\"a\":1}");
+        assertSame(small, codec.encode(List.of(small)).get(0));
+    }
+
+    @Test
+    void uncompressedPayloadDecodesUnchanged() {
+        CompressingPayloadCodec codec = new CompressingPayloadCodec(1);
+        Payload plain = json(largeJson());
+        assertSame(plain, codec.decode(List.of(plain)).get(0));
+    }
+
+    @Test
+    void encodingTwiceDoesNotCompressAgain() {
+        CompressingPayloadCodec codec = new CompressingPayloadCodec(1);
+        Payload encoded = codec.encode(List.of(json(largeJson()))).get(0);
+        assertSame(encoded, codec.encode(List.of(encoded)).get(0));
+    }
+}
@@ -0,0 +1,89 @@
+package com.olo.worker.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EngineExecutorTest {
+
+    @Test
+    void platformPoolUnlessVirtualThreadsRequested() {
+        EngineExecutor executor = new EngineExecutor(4, 2, false);
+        assertFalse(executor.isVirtualThreads());
+        executor.shutdown();
+    }
+
+    @Test
+    void shutdownNowInterruptsRunTasks() throws Exception {
+        EngineExecutor engine = new EngineExecutor(4, 2, false);
+        ExecutorService run = engine.newRunExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        run.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        run.shutdownNow();
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(run.awaitTermination(5, TimeUnit.SECONDS));
+        engine.shutdown();
+    }
+
+    @Test
+    void shutdownNowLeavesOtherRunsAlone() throws Exception {
+        EngineExecutor engine = new EngineExecutor(4, 2, false);
+        ExecutorService stopped = engine.newRunExecutor();
+        ExecutorService other = engine.newRunExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Boolean> otherInterrupted = new AtomicReference<>();
+        CountDownLatch otherDone = new CountDownLatch(1);
+        other.execute(() -> {
+            try {
+                otherInterrupted.set(!release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                otherInterrupted.set(true);
+            }
+            otherDone.countDown();
+        });
+        stopped.shutdownNow();
+        release.countDown();
+        assertTrue(otherDone.await(5, TimeUnit.SECONDS));
+        assertEquals(Boolean.FALSE, otherInterrupted.get());
+        engine.shutdown();
+    }
+
+    @Test
+    void runsOnCallerWhenRunSlotsAreTaken() throws Exception {
+        EngineExecutor engine = new EngineExecutor(4, 1, false);
+        ExecutorService run = engine.newRunExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        run.execute(() -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        run.execute(() -> ranOn.set(Thread.currentThread()));
+        assertSame(Thread.currentThread(), ranOn.get());
+        assertEquals(1L, engine.getCallerRunsTasks());
+        release.countDown();
+        run.shutdown();
+        assertTrue(run.awaitTermination(5, TimeUnit.SECONDS));
+        engine.shutdown();
+    }
+}
@@ -0,0 +1,101 @@
+package com.olo.worker.engine;
+
+import com.olo.executioncontext.ExecutionConfigSnapshot;
+import com.olo.executiontree.config.ExecutionType;
+import com.olo.executiontree.config.PipelineConfiguration;
+import com.olo.executiontree.config.PipelineDefinition;
+import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.executiontree.tree.NodeType;
+import com.olo.plugin.PluginExecutor;
+import com.olo.worker.engine.runtime.NodeStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.olo.worker.engine.TreeFixtures.node;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExecutionEngineResumeTest {
+
+    private static ExecutionTreeNode plugin(String id) {
+        return new ExecutionTreeNode(id, id, NodeType.PLUGIN, List.of(), null, id.toUpperCase(), null, null, null, null,
+                null, null, null, null, null, null, Map.of(), null, null, null, null);
+    }
+
+    /** SEQUENCE a, RETRY r (b), c with a one-minute backoff. */
+    private static ExecutionConfigSnapshot snapshot(String version) {
+        ExecutionTreeNode retry = node("r", NodeType.RETRY, Map.of("maxAttempts", 3, "initialIntervalMs", 60_000),
+                List.of(plugin("b")));
+        ExecutionTreeNode root = node("root", NodeType.SEQUENCE, Map.of(), List.of(plugin("a"), retry, plugin("c")));
+        PipelineDefinition pipeline = new PipelineDefinition("p", null, null, List.of(), null, root, null, List.of(),
+                ExecutionType.SYNC);
+        return ExecutionConfigSnapshot.of("t", "q", new PipelineConfiguration(version, null, null, null, Map.of("p", pipeline)),
+                version, "run-1");
+    }
+
+    /** Records plugin calls; plugin B fails its first {@code failures} calls. */
+    private static PluginExecutor executor(List<String> calls, int failures) {
+        return new PluginExecutor() {
+            @Override
+            public String execute(String pluginId, String inputsJson, String nodeId) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Map<String, Object> executeWithMap(String pluginId, Map<String, Object> inputs, String nodeId) {
+                calls.add(pluginId);
+                if ("B".equals(pluginId) && calls.stream().filter("B"::equals).count() <= failures) {
+                    throw new IllegalStateException("B down");
+                }
+                return Map.of();
+            }
+
+            @Override
+            public String toJson(Map<String, Object> map) {
+                return "{}";
+            }
+
+            @Override
+            public Map<String, Object> fromJson(String json) {
+                return Map.of();
+            }
+        };
+    }
+
+    @Test
+    void retryBackoffSuspendsTheRunAndResumeContinuesAtTheNextAttempt() {
+        List<String> calls = new ArrayList<>();
+        PluginExecutor executor = executor(calls, 1);
+
+        TreeRunSuspendedException suspended = assertThrows(TreeRunSuspendedException.class,
+                () -> ExecutionEngine.runResumable(snapshot("1"), Map.of(), executor, Map.of(), null, null, null));
+
+        TreeCheckpoint checkpoint = TreeCheckpoint.fromJson(suspended.getCheckpoint().toJson());
+        assertEquals(List.of("A", "B"), calls);
+        assertEquals("run-1", checkpoint.getRunId());
+        assertEquals("r", checkpoint.getRetryNodeId());
+        assertEquals(2, checkpoint.getNextAttempt());
+        assertEquals(60_000L, checkpoint.getBackoffMs());
+        assertEquals(NodeStatus.COMPLETED, checkpoint.getStatuses().get("a"));
+        assertEquals(NodeStatus.NOT_STARTED, checkpoint.getStatuses().get("r"));
+        assertEquals(NodeStatus.NOT_STARTED, checkpoint.getStatuses().get("b"));
+
+        ExecutionEngine.runResumable(snapshot("1"), Map.of(), executor, Map.of(), null, null, checkpoint);
+
+        assertEquals(List.of("A", "B", "B", "C"), calls);
+    }
+
+    @Test
+    void resumeRejectsACheckpointOfAnotherConfigVersion() {
+        List<String> calls = new ArrayList<>();
+        TreeRunSuspendedException suspended = assertThrows(TreeRunSuspendedException.class,
+                () -> ExecutionEngine.runResumable(snapshot("1"), Map.of(), executor(calls, 1), Map.of(), null, null, null));
+
+        assertThrows(IllegalStateException.class, () -> ExecutionEngine.runResumable(snapshot("2"), Map.of(),
+                executor(calls, 0), Map.of(), null, null, suspended.getCheckpoint()));
+        assertEquals(List.of("A", "B"), calls);
+    }
+}
@@ -0,0 +1,43 @@
+package com.olo.worker.engine;
+
+import com.olo.executiontree.config.ExecutionType;
+import com.olo.executiontree.config.PipelineDefinition;
+import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.executiontree.tree.NodeType;
+import com.olo.worker.engine.node.ChildNodeRunner;
+import com.olo.worker.engine.node.handlers.HandlerContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/** Shared test fixtures: tree nodes, a pipeline around a root, and handler contexts. */
+public final class TreeFixtures {
+
+    private TreeFixtures() {
+    }
+
+    /** Node whose display name is its id; all other definition fields are unset. */
+    public static ExecutionTreeNode node(String id, NodeType type, Map<String, Object> params, List<ExecutionTreeNode> children) {
+        return new ExecutionTreeNode(id, id, type, children, null, null, null, null, null, null, null, null, null, null,
+                null, null, params, null, null, null, null);
+    }
+
+    /** PLUGIN node without params or children. */
+    public static ExecutionTreeNode leaf(String id) {
+        return node(id, NodeType.PLUGIN, Map.of(), List.of());
+    }
+
+    /** ASYNC pipeline "p" with the given root and no variables. */
+    public static PipelineDefinition pipeline(ExecutionTreeNode root) {
+        return new PipelineDefinition("p", null, null, List.of(), null, root, null, List.of(), ExecutionType.ASYNC);
+    }
+
+    public static HandlerContext context(ExecutionType type, ExecutorService executor) {
+        return context(type, executor, null);
+    }
+
+    public static HandlerContext context(ExecutionType type, ExecutorService executor, ChildNodeRunner nodeRunner) {
+        return new HandlerContext(null, null, type, executor, null, null, null, nodeRunner);
+    }
+}
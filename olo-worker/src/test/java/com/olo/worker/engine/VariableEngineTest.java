@@ -0,0 +1,163 @@
+package com.olo.worker.engine;
+
+import com.olo.executiontree.config.ExecutionType;
+import com.olo.executiontree.config.PipelineDefinition;
+import com.olo.executiontree.inputcontract.InputContract;
+import com.olo.executiontree.variableregistry.VariableRegistryEntry;
+import com.olo.executiontree.variableregistry.VariableScope;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.olo.worker.engine.TreeFixtures.leaf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VariableEngineTest {
+
+    private static PipelineDefinition pipeline(boolean strict) {
+        List<VariableRegistryEntry> registry = List.of(
+                new VariableRegistryEntry("in", "STRING", VariableScope.IN),
+                new VariableRegistryEntry("tmp", "STRING", VariableScope.INTERNAL),
+                new VariableRegistryEntry("out", "STRING", VariableScope.OUT));
+        return new PipelineDefinition("p", null, new InputContract(strict, List.of()), registry, null, leaf("n"),
+                null, List.of(), ExecutionType.SYNC);
+    }
+
+    private static VariableEngine engine() {
+        return new VariableEngine(pipeline(false), Map.of("in", "hello"));
+    }
+
+    @Test
+    void inputSeedsInVariablesOnly() {
+        VariableEngine engine = new VariableEngine(pipeline(false), Map.of("in", "hello", "out", "ignored"));
+
+        assertEquals("hello", engine.get("in"));
+        assertNull(engine.get("tmp"));
+        assertNull(engine.get("out"));
+    }
+
+    @Test
+    void strictContractRejectsUnknownInput() {
+        assertThrows(IllegalArgumentException.class, () -> new VariableEngine(pipeline(true), Map.of("other", 1)));
+    }
+
+    @Test
+    void registryAndExtraNamesAreBothReadable() {
+        VariableEngine engine = engine();
+        engine.put("out", "answer");
+        engine.put("extra", 42);
+
+        assertEquals("answer", engine.get("out"));
+        assertEquals(42, engine.get("extra"));
+        assertNull(engine.get("missing"));
+        assertNull(engine.get(null));
+    }
+
+    @Test
+    void nullsAreKeptInBothTiers() {
+        VariableEngine engine = engine();
+        engine.put("in", null);
+        engine.put("extra", null);
+
+        Map<String, Object> export = engine.getExportMap();
+
+        assertNull(engine.get("in"));
+        assertNull(engine.get("extra"));
+        assertTrue(export.containsKey("in"));
+        assertTrue(export.containsKey("extra"));
+        assertNull(export.get("extra"));
+    }
+
+    @Test
+    void exportListsRegistryFirstAndIsAnImmutableSnapshot() {
+        VariableEngine engine = engine();
+        engine.put("extra", "x");
+        engine.put("tmp", "t");
+
+        Map<String, Object> export = engine.getExportMap();
+        engine.put("tmp", "changed");
+        engine.put("later", 1);
+
+        assertEquals(List.of("in", "tmp", "out", "extra"), new ArrayList<>(export.keySet()));
+        assertEquals("t", export.get("tmp"));
+        assertEquals(4, export.size());
+        assertThrows(UnsupportedOperationException.class, () -> export.put("tmp", "y"));
+        assertThrows(UnsupportedOperationException.class, () -> export.entrySet().iterator().next().setValue("y"));
+    }
+
+    @Test
+    void engineFromSnapshotIsIndependentOfTheSource() {
+        VariableEngine source = engine();
+        source.put("extra", null);
+        Map<String, Object> snapshot = source.getExportMap();
+
+        VariableEngine copy = VariableEngine.fromVariableMap(pipeline(false), snapshot);
+        copy.put("in", "copy");
+        source.put("out", "source");
+
+        assertEquals("hello", source.get("in"));
+        assertNull(copy.get("out"));
+        assertTrue(copy.getExportMap().containsKey("extra"));
+    }
+
+    @Test
+    void engineFromPlainMapFillsMissingRegistryNames() {
+        Map<String, Object> plain = new HashMap<>();
+        plain.put("out", "o");
+        plain.put("extra", null);
+
+        Map<String, Object> export = VariableEngine.fromVariableMap(pipeline(false), plain).getExportMap();
+
+        assertEquals(List.of("in", "tmp", "out", "extra"), new ArrayList<>(export.keySet()));
+        assertEquals("o", export.get("out"));
+        assertNull(export.get("in"));
+    }
+
+    @Test
+    void deltaAgainstSnapshotHasOnlyChangedAndAddedNames() {
+        VariableEngine engine = engine();
+        engine.put("extra", "same");
+        Map<String, Object> baseline = engine.getExportMap();
+
+        engine.put("out", "answer");
+        engine.put("in", "hello");
+        engine.put("extra", "same");
+        engine.put("added", null);
+
+        Map<String, Object> delta = engine.getDeltaExportMap(baseline);
+
+        assertEquals(List.of("out", "added"), new ArrayList<>(delta.keySet()));
+        assertEquals("answer", delta.get("out"));
+        assertNull(delta.get("added"));
+    }
+
+    @Test
+    void deltaAgainstPlainMapTreatsAbsentNamesAsChanged() {
+        VariableEngine engine = engine();
+        engine.put("tmp", "t");
+        Map<String, Object> baseline = new LinkedHashMap<>();
+        baseline.put("in", "hello");
+        baseline.put("tmp", "old");
+
+        Map<String, Object> delta = engine.getDeltaExportMap(baseline);
+
+        assertEquals(List.of("tmp", "out"), new ArrayList<>(delta.keySet()));
+        assertEquals("t", delta.get("tmp"));
+        assertNull(delta.get("out"));
+    }
+
+    @Test
+    void deltaWithoutBaselineIsTheFullMap() {
+        VariableEngine engine = engine();
+        engine.put("extra", 1);
+
+        assertEquals(engine.getExportMap(), engine.getDeltaExportMap(null));
+    }
+}
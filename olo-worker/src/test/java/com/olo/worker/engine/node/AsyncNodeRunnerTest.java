@@ -0,0 +1,115 @@
+package com.olo.worker.engine.node;
+
+import com.olo.executiontree.config.ExecutionType;
+import com.olo.executiontree.config.PipelineDefinition;
+import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.executiontree.tree.NodeType;
+import com.olo.ledger.LedgerContext;
+import com.olo.worker.engine.VariableEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.olo.worker.engine.TreeFixtures.leaf;
+import static com.olo.worker.engine.TreeFixtures.node;
+import static com.olo.worker.engine.TreeFixtures.pipeline;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncNodeRunnerTest {
+
+    /** SEQUENCE with one child: dispatch calls runChild for the child, which the tests use as the node's work. */
+    private static ExecutionTreeNode sequence(String id) {
+        return node(id, NodeType.SEQUENCE, Map.of(), List.of(leaf(id + "-child")));
+    }
+
+    private static AsyncNodeRunner runner(ExecutionType type, ExecutorService executor, String runId) {
+        NodeExecutionDispatcher dispatcher = new NodeExecutionDispatcher(null, null, type, executor, runId, null, null);
+        return new AsyncNodeRunner(new SingleNodeRunner(new NodeFeatureRunner(), dispatcher, "t", Map.of()),
+                type, executor, runId);
+    }
+
+    @Test
+    void executeNodeRunsOnCallerAndRestoresRunId() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ExecutionTreeNode node = sequence("s");
+        PipelineDefinition pipeline = pipeline(node);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        AtomicReference<String> runIdSeen = new AtomicReference<>();
+        LedgerContext.setRunId("outer");
+        try {
+            runner(ExecutionType.ASYNC, executor, "run-1").executeNode(node, pipeline,
+                    new VariableEngine(pipeline, Map.of()), "q", (n, p, v, q) -> {
+                        ranOn.set(Thread.currentThread());
+                        runIdSeen.set(LedgerContext.getRunId());
+                    }, null);
+            assertSame(Thread.currentThread(), ranOn.get());
+            assertEquals("run-1", runIdSeen.get());
+            assertEquals("outer", LedgerContext.getRunId());
+        } finally {
+            LedgerContext.clear();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void startNodeOverlapsAsyncNodesOnExecutor() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ExecutionTreeNode a = sequence("a");
+        ExecutionTreeNode b = sequence("b");
+        PipelineDefinition pipeline = pipeline(a);
+        AsyncNodeRunner runner = runner(ExecutionType.ASYNC, executor, "run-1");
+        CyclicBarrier bothRunning = new CyclicBarrier(2);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        ChildNodeRunner work = (n, p, v, q) -> {
+            ranOn.set(Thread.currentThread());
+            try {
+                // Only passes when both nodes are running at the same time.
+                bothRunning.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        CompletableFuture<Void> first = runner.startNode(a, pipeline, new VariableEngine(pipeline, Map.of()), "q", work, null);
+        CompletableFuture<Void> second = runner.startNode(b, pipeline, new VariableEngine(pipeline, Map.of()), "q", work, null);
+        CompletableFuture.allOf(first, second).join();
+        assertNotSame(Thread.currentThread(), ranOn.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void startNodeFailureCompletesFutureExceptionally() {
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        ExecutionTreeNode node = sequence("s");
+        PipelineDefinition pipeline = pipeline(node);
+        CompletableFuture<Void> future = runner(ExecutionType.ASYNC, executor, null).startNode(node, pipeline,
+                new VariableEngine(pipeline, Map.of()), "q", (n, p, v, q) -> {
+                    throw new IllegalStateException("boom");
+                }, null);
+        CompletionException thrown = assertThrows(CompletionException.class, future::join);
+        assertTrue(thrown.getCause() instanceof IllegalStateException);
+        executor.shutdown();
+    }
+
+    @Test
+    void syncStartNodeRunsInline() {
+        ExecutionTreeNode node = sequence("s");
+        PipelineDefinition pipeline = pipeline(node);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        CompletableFuture<Void> future = runner(ExecutionType.SYNC, null, null).startNode(node, pipeline,
+                new VariableEngine(pipeline, Map.of()), "q", (n, p, v, q) -> ranOn.set(Thread.currentThread()), null);
+        assertTrue(future.isDone());
+        assertSame(Thread.currentThread(), ranOn.get());
+    }
+}
@@ -0,0 +1,52 @@
+package com.olo.worker.engine.node;
+
+import com.olo.annotations.FeaturePhase;
+import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.features.FeatureRegistry;
+import com.olo.features.ResolvedPrePost;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static com.olo.worker.engine.TreeFixtures.leaf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class FeatureResolverTest {
+
+    @Test
+    void repeatedResolutionIsMemoized() {
+        ExecutionTreeNode node = leaf("n");
+        FeatureRegistry registry = FeatureRegistry.getInstance();
+
+        ResolvedPrePost first = FeatureResolver.resolve(node, "q", null, registry);
+
+        assertSame(first, FeatureResolver.resolve(node, "q", null, registry));
+        assertEquals(1, FeatureResolver.cachedContexts(node));
+    }
+
+    @Test
+    void registryChangeReplacesTheEntryInsteadOfAddingOne() {
+        ExecutionTreeNode node = leaf("n");
+        FeatureRegistry registry = FeatureRegistry.getInstance();
+        ResolvedPrePost before = FeatureResolver.resolve(node, "q", null, registry);
+
+        registry.register("resolver-test-" + UUID.randomUUID(), FeaturePhase.PRE, new String[] { "NO_SUCH_TYPE" }, new Object());
+        ResolvedPrePost after = FeatureResolver.resolve(node, "q", null, registry);
+
+        assertNotSame(before, after);
+        assertEquals(1, FeatureResolver.cachedContexts(node));
+    }
+
+    @Test
+    void eachQueueIsItsOwnContext() {
+        ExecutionTreeNode node = leaf("n");
+        FeatureRegistry registry = FeatureRegistry.getInstance();
+
+        FeatureResolver.resolve(node, "q", null, registry);
+        FeatureResolver.resolve(node, "q-debug", null, registry);
+
+        assertEquals(2, FeatureResolver.cachedContexts(node));
+    }
+}
@@ -0,0 +1,54 @@
+package com.olo.worker.engine.node;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class IdentityMemoTest {
+
+    @Test
+    void computesOncePerIdentityNotPerEquality() {
+        IdentityMemo<List<String>, Object> memo = new IdentityMemo<>();
+        AtomicInteger computed = new AtomicInteger();
+        List<String> a = new ArrayList<>(List.of("x"));
+        List<String> equalToA = new ArrayList<>(List.of("x"));
+
+        Object first = memo.computeIfAbsent(a, k -> { computed.incrementAndGet(); return new Object(); });
+        assertSame(first, memo.computeIfAbsent(a, k -> { computed.incrementAndGet(); return new Object(); }));
+        assertSame(first, memo.get(a));
+        memo.computeIfAbsent(equalToA, k -> { computed.incrementAndGet(); return new Object(); });
+
+        assertEquals(2, computed.get());
+        assertEquals(2, memo.size());
+    }
+
+    @Test
+    void nullResultIsNotMemoized() {
+        IdentityMemo<Object, String> memo = new IdentityMemo<>();
+        Object key = new Object();
+        assertNull(memo.computeIfAbsent(key, k -> null));
+        assertEquals("v", memo.computeIfAbsent(key, k -> "v"));
+    }
+
+    @Test
+    void collectedEntriesArePurgedOnNextUpdate() {
+        IdentityMemo<Object, String> memo = new IdentityMemo<>();
+        Object kept = new Object();
+        Object dropped = new Object();
+        memo.put(kept, "kept");
+        memo.put(dropped, "dropped");
+
+        memo.markCollected(dropped);
+        memo.put(new Object(), "other");
+
+        assertEquals(2, memo.size());
+        assertEquals("kept", memo.get(kept));
+        assertNull(memo.get(dropped));
+    }
+}
@@ -0,0 +1,51 @@
+package com.olo.worker.engine.node;
+
+import com.olo.annotations.FeaturePhase;
+import com.olo.executiontree.config.ExecutionType;
+import com.olo.executiontree.config.PipelineConfiguration;
+import com.olo.executiontree.config.PipelineDefinition;
+import com.olo.executiontree.scope.FeatureDef;
+import com.olo.executiontree.scope.Scope;
+import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.executiontree.tree.NodeType;
+import com.olo.features.FeatureRegistry;
+import com.olo.features.PreNodeCall;
+import com.olo.worker.engine.PluginInvoker;
+import com.olo.worker.engine.VariableEngine;
+import com.olo.worker.engine.runtime.RuntimeExecutionTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.olo.worker.engine.TreeFixtures.leaf;
+import static com.olo.worker.engine.TreeFixtures.node;
+import static com.olo.worker.engine.TreeFixtures.pipeline;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NodeExecutorTest {
+
+    @Test
+    void inlinedSubPipelineNodesRunWithTheSubPipelineScope() {
+        List<String> seen = new CopyOnWriteArrayList<>();
+        String feature = "sub-scope-probe-" + UUID.randomUUID();
+        FeatureRegistry.getInstance().register(feature, FeaturePhase.PRE, new String[0],
+                (PreNodeCall) context -> seen.add(context.getNodeId()));
+        PipelineDefinition child = new PipelineDefinition("child", null, null, List.of(),
+                new Scope(List.of(), List.of(new FeatureDef(feature, null, null))),
+                node("c", NodeType.SEQUENCE, Map.of(), List.of(leaf("c1"))), null, List.of(), ExecutionType.SYNC);
+        ExecutionTreeNode root = node("root", NodeType.SEQUENCE, Map.of(), List.of(
+                leaf("a"), node("sp", NodeType.SUB_PIPELINE, Map.of("pipelineRef", "child"), List.of())));
+        PipelineDefinition parent = pipeline(root);
+        PipelineConfiguration config = new PipelineConfiguration("1", null, null, null, Map.of("p", parent, "child", child));
+        NodeExecutor executor = new NodeExecutor(new PluginInvoker(null), config, ExecutionType.SYNC, null, "t", null,
+                null, null);
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(root);
+
+        executor.runWithTree(tree, parent, new VariableEngine(parent, Map.of()), "q");
+
+        assertEquals(List.of("sp/c1"), seen);
+    }
+}
@@ -0,0 +1,89 @@
+package com.olo.worker.engine.node.handlers;
+
+import com.olo.executiontree.config.ExecutionType;
+import com.olo.executiontree.config.PipelineDefinition;
+import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.executiontree.tree.NodeType;
+import com.olo.worker.engine.TreeFixtures;
+import com.olo.worker.engine.VariableEngine;
+import com.olo.worker.engine.runtime.NodeStatus;
+import com.olo.worker.engine.runtime.RuntimeExecutionTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.olo.worker.engine.TreeFixtures.leaf;
+import static com.olo.worker.engine.TreeFixtures.node;
+import static com.olo.worker.engine.TreeFixtures.pipeline;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BranchHandlerTest {
+
+    private static ExecutionTreeNode caseNode(String id, Object caseValue) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("caseValue", caseValue);
+        return node(id, NodeType.CASE, params, List.of());
+    }
+
+    private static HandlerContext context() {
+        return TreeFixtures.context(ExecutionType.SYNC, null);
+    }
+
+    private static RuntimeExecutionTree dispatchInTree(ExecutionTreeNode node, Map<String, Object> variables) {
+        PipelineDefinition pipeline = pipeline(node);
+        VariableEngine engine = new VariableEngine(pipeline, Map.of());
+        variables.forEach(engine::put);
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(node);
+        new BranchHandler().dispatchWithTree(node, pipeline, engine, "q", tree, id -> {}, null, null, context());
+        return tree;
+    }
+
+    @Test
+    void treeSwitchMatchesCasesByIdWhenRuntimeChildrenSkipIdlessChildren() {
+        // The first child has no id, so the runtime child list is [b, c] while the definition has three children.
+        ExecutionTreeNode sw = node("sw", NodeType.SWITCH, Map.of("switchVariable", "choice"),
+                List.of(caseNode("", "a"), caseNode("b", "b"), caseNode("c", "c")));
+        RuntimeExecutionTree tree = dispatchInTree(sw, Map.of("choice", "c"));
+        assertEquals(NodeStatus.SKIPPED, tree.getNode("b").getStatus());
+        assertEquals(NodeStatus.NOT_STARTED, tree.getNode("c").getStatus());
+    }
+
+    @Test
+    void treeSwitchMatchesChildrenAttachedAtRuntime() {
+        ExecutionTreeNode sw = node("sw", NodeType.SWITCH, Map.of("switchVariable", "choice"),
+                List.of(caseNode("a", "a")));
+        PipelineDefinition pipeline = pipeline(sw);
+        VariableEngine engine = new VariableEngine(pipeline, Map.of());
+        engine.put("choice", "late");
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(sw);
+        tree.attachChildren("sw", List.of(caseNode("late", "late"), caseNode("other", "other")));
+        new BranchHandler().dispatchWithTree(sw, pipeline, engine, "q", tree, id -> {}, null, null, context());
+        assertEquals(NodeStatus.SKIPPED, tree.getNode("a").getStatus());
+        assertEquals(NodeStatus.NOT_STARTED, tree.getNode("late").getStatus());
+        assertEquals(NodeStatus.SKIPPED, tree.getNode("other").getStatus());
+    }
+
+    @Test
+    void treeIfSkipsTheBranchNotTaken() {
+        ExecutionTreeNode ifNode = node("if", NodeType.IF, Map.of("conditionVariable", "flag"),
+                List.of(leaf("then"), leaf("else")));
+        RuntimeExecutionTree tree = dispatchInTree(ifNode, Map.of("flag", false));
+        assertEquals(NodeStatus.SKIPPED, tree.getNode("then").getStatus());
+        assertEquals(NodeStatus.NOT_STARTED, tree.getNode("else").getStatus());
+    }
+
+    @Test
+    void switchRunsFirstMatchingCase() {
+        ExecutionTreeNode sw = node("sw", NodeType.SWITCH, Map.of("switchVariable", "choice"),
+                List.of(caseNode("one", 1), caseNode("two", "2"), caseNode("two-again", 2)));
+        PipelineDefinition pipeline = pipeline(sw);
+        VariableEngine engine = new VariableEngine(pipeline, Map.of());
+        engine.put("choice", 2);
+        List<String> ran = new ArrayList<>();
+        new BranchHandler().dispatch(sw, pipeline, engine, "q", (n, p, v, q) -> ran.add(n.getId()), null, context());
+        assertEquals(List.of("two"), ran);
+    }
+}
@@ -0,0 +1,157 @@
+package com.olo.worker.engine.node.handlers;
+
+import com.olo.executiontree.config.ExecutionType;
+import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.executiontree.tree.NodeType;
+import com.olo.worker.engine.VariableEngine;
+import com.olo.worker.engine.node.RetryBackoffException;
+import com.olo.worker.engine.runtime.NodeStatus;
+import com.olo.worker.engine.runtime.RuntimeExecutionTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.olo.worker.engine.TreeFixtures.context;
+import static com.olo.worker.engine.TreeFixtures.leaf;
+import static com.olo.worker.engine.TreeFixtures.node;
+import static com.olo.worker.engine.TreeFixtures.pipeline;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ErrorControlHandlerTest {
+
+    private static Object runInTree(ExecutionTreeNode node, ExecutionTreeNode root, VariableEngine variables,
+                                    RuntimeExecutionTree tree, Consumer<String> subtreeRunner) {
+        return new ErrorControlHandler().dispatchWithTree(node, pipeline(root), variables, "q", tree, subtreeRunner,
+                null, null, context(ExecutionType.SYNC, null));
+    }
+
+    /** Subtree runner that fails its first {@code failures} runs of a subtree and marks the subtree done otherwise. */
+    private static Consumer<String> failing(RuntimeExecutionTree tree, int failures, List<String> runs) {
+        return id -> {
+            runs.add(id + ":" + tree.getNode(id).getStatus());
+            if (runs.size() <= failures) throw new IllegalStateException("boom " + runs.size());
+            tree.markSubtreeCompleted(id);
+        };
+    }
+
+    private static ExecutionTreeNode tryCatch(List<ExecutionTreeNode> children) {
+        return node("tc", NodeType.TRY_CATCH, Map.of("errorVariable", "err"), children);
+    }
+
+    private static ExecutionTreeNode retry(Map<String, Object> params) {
+        return node("r", NodeType.RETRY, params, List.of(node("body", NodeType.SEQUENCE, Map.of(), List.of(leaf("x")))));
+    }
+
+    @Test
+    void tryCatchInTreeRecordsErrorMarksTryDoneAndRunsCatch() {
+        ExecutionTreeNode tc = tryCatch(List.of(leaf("try"), leaf("catch")));
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(tc);
+        VariableEngine variables = new VariableEngine(pipeline(tc), Map.of());
+        List<String> runs = new ArrayList<>();
+
+        runInTree(tc, tc, variables, tree, failing(tree, 1, runs));
+
+        assertEquals(List.of("try:NOT_STARTED", "catch:NOT_STARTED"), runs);
+        assertEquals("boom 1", variables.get("err"));
+        assertEquals(NodeStatus.COMPLETED, tree.getNode("try").getStatus());
+        assertEquals(NodeStatus.COMPLETED, tree.getNode("catch").getStatus());
+    }
+
+    @Test
+    void tryCatchInTreeSkipsCatchWhenTrySucceeds() {
+        ExecutionTreeNode tc = tryCatch(List.of(leaf("try"), leaf("catch")));
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(tc);
+        List<String> runs = new ArrayList<>();
+
+        runInTree(tc, tc, new VariableEngine(pipeline(tc), Map.of()), tree, failing(tree, 0, runs));
+
+        assertEquals(List.of("try:NOT_STARTED"), runs);
+        assertEquals(NodeStatus.SKIPPED, tree.getNode("catch").getStatus());
+    }
+
+    @Test
+    void tryCatchInTreeWithoutCatchRethrows() {
+        ExecutionTreeNode tc = tryCatch(List.of(leaf("try")));
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(tc);
+        VariableEngine variables = new VariableEngine(pipeline(tc), Map.of());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> runInTree(tc, tc, variables, tree, failing(tree, 1, new ArrayList<>())));
+
+        assertEquals("boom 1", e.getMessage());
+        assertNull(variables.get("err"));
+    }
+
+    @Test
+    void retryInTreeResetsTheChildSubtreeBeforeEachAttempt() {
+        ExecutionTreeNode r = retry(Map.of("maxAttempts", 3));
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(r);
+        List<String> runs = new ArrayList<>();
+        Consumer<String> runner = failing(tree, 2, runs);
+
+        runInTree(r, r, new VariableEngine(pipeline(r), Map.of()), tree, id -> {
+            assertEquals(NodeStatus.NOT_STARTED, tree.getNode("x").getStatus());
+            tree.markCompleted("x");
+            runner.accept(id);
+        });
+
+        assertEquals(List.of("body:NOT_STARTED", "body:NOT_STARTED", "body:NOT_STARTED"), runs);
+        assertEquals(NodeStatus.COMPLETED, tree.getNode("x").getStatus());
+    }
+
+    @Test
+    void retryInTreeEndsTheRunForADurableBackoff() {
+        ExecutionTreeNode r = retry(Map.of("maxAttempts", 3, "initialIntervalMs", 60_000));
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(r);
+        tree.enableDurableRetryBackoff();
+        List<String> runs = new ArrayList<>();
+
+        RetryBackoffException e = assertThrows(RetryBackoffException.class,
+                () -> runInTree(r, r, new VariableEngine(pipeline(r), Map.of()), tree, failing(tree, 1, runs)));
+
+        assertEquals("r", e.getRetryNodeId());
+        assertEquals(2, e.getNextAttempt());
+        assertEquals(60_000L, e.getBackoffMs());
+        assertEquals("boom 1", e.getCause().getMessage());
+        assertEquals(1, runs.size());
+    }
+
+    @Test
+    void retryInTreeResumesAtTheCheckpointedAttempt() {
+        ExecutionTreeNode r = retry(Map.of("maxAttempts", 3, "initialIntervalMs", 60_000));
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(r);
+        tree.enableDurableRetryBackoff();
+        tree.resumeRetryAt("r", 3);
+        List<String> runs = new ArrayList<>();
+        Consumer<String> runner = failing(tree, 1, runs);
+
+        // Attempt 3 is the last one: its failure is final rather than another backoff.
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> runInTree(r, r, new VariableEngine(pipeline(r), Map.of()), tree, runner));
+
+        assertEquals("boom 1", e.getMessage());
+        assertEquals(1, runs.size());
+        assertEquals(1, tree.takeRetryAttempt("r"));
+    }
+
+    @Test
+    void nestedRetryInTreeBacksOffInPlace() {
+        ExecutionTreeNode r = retry(Map.of("maxAttempts", 2, "initialIntervalMs", 5));
+        ExecutionTreeNode root = node("root", NodeType.SEQUENCE, Map.of(), List.of(r));
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(root);
+        tree.enableDurableRetryBackoff();
+        List<String> runs = new ArrayList<>();
+
+        // root is still NOT_STARTED, as when an enclosing handler drives the RETRY node as part of its subtree.
+        Object result = runInTree(r, root, new VariableEngine(pipeline(root), Map.of()), tree, failing(tree, 1, runs));
+
+        assertNull(result);
+        assertEquals(2, runs.size());
+        assertEquals(NodeStatus.COMPLETED, tree.getNode("body").getStatus());
+    }
+}
@@ -0,0 +1,218 @@
+package com.olo.worker.engine.node.handlers;
+
+import com.olo.executiontree.config.ExecutionType;
+import com.olo.executiontree.config.PipelineDefinition;
+import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.executiontree.tree.NodeType;
+import com.olo.worker.engine.VariableEngine;
+import com.olo.worker.engine.node.ChildNodeRunner;
+import com.olo.worker.engine.runtime.RuntimeExecutionTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.olo.worker.engine.TreeFixtures.context;
+import static com.olo.worker.engine.TreeFixtures.leaf;
+import static com.olo.worker.engine.TreeFixtures.node;
+import static com.olo.worker.engine.TreeFixtures.pipeline;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForkJoinHandlerTest {
+
+    private static ExecutionTreeNode fork(int branches, Map<String, Object> params) {
+        List<ExecutionTreeNode> children = new ArrayList<>();
+        for (int i = 1; i <= branches; i++) {
+            children.add(leaf("b" + i));
+        }
+        return node("fork", NodeType.FORK, params, children);
+    }
+
+    private static void runForkInTree(ExecutionTreeNode fork, HandlerContext ctx, Consumer<String> branchRunner) {
+        PipelineDefinition pipeline = pipeline(fork);
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(fork);
+        new ForkJoinHandler().dispatchWithTree(fork, pipeline, new VariableEngine(pipeline, Map.of()), "q", tree,
+                branchRunner, null, null, ctx);
+    }
+
+    @Test
+    void treeForkRunsBranchesConcurrently() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CyclicBarrier allStarted = new CyclicBarrier(3);
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        runForkInTree(fork(3, Map.of()), context(ExecutionType.ASYNC, executor), branchId -> {
+            try {
+                // Only passes when all three branches are running at the same time.
+                allStarted.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            ran.add(branchId);
+        });
+        executor.shutdown();
+        assertEquals(3, ran.size());
+        assertTrue(ran.containsAll(List.of("b1", "b2", "b3")));
+    }
+
+    @Test
+    void treeForkHonoursMaxParallelism() {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        runForkInTree(fork(6, Map.of("maxParallelism", 2)), context(ExecutionType.ASYNC, executor), branchId -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            finished.incrementAndGet();
+        });
+        executor.shutdown();
+        assertEquals(6, finished.get());
+        assertTrue(maxRunning.get() <= 2, "max concurrent branches " + maxRunning.get());
+    }
+
+    @Test
+    void treeForkStopsStartingBranchesAfterFailure() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () ->
+                runForkInTree(fork(4, Map.of("maxParallelism", 1)), context(ExecutionType.ASYNC, executor), branchId -> {
+                    ran.add(branchId);
+                    if (branchId.equals("b2")) throw new IllegalStateException("boom");
+                }));
+        executor.shutdown();
+        assertEquals("boom", thrown.getMessage());
+        assertEquals(List.of("b1", "b2"), ran);
+    }
+
+    @Test
+    void syncTreeForkLeavesBranchesToTreeLoop() {
+        List<String> ran = new ArrayList<>();
+        runForkInTree(fork(3, Map.of()), context(ExecutionType.SYNC, null), ran::add);
+        assertTrue(ran.isEmpty());
+    }
+
+    private static ExecutionTreeNode join(String strategy, String... childIds) {
+        List<ExecutionTreeNode> children = new ArrayList<>();
+        for (String id : childIds) {
+            children.add(node(id, NodeType.PLUGIN, Map.of(), List.of()));
+        }
+        return node("join", NodeType.JOIN, Map.of("mergeStrategy", strategy), children);
+    }
+
+    private static VariableEngine race(ExecutionTreeNode join, ExecutorService executor, ChildNodeRunner runChild) {
+        PipelineDefinition pipeline = pipeline(join);
+        VariableEngine variables = new VariableEngine(pipeline, Map.of());
+        variables.put("input", "q");
+        variables.put("answer", "none");
+        new ForkJoinHandler().dispatch(join, pipeline, variables, "q", runChild, runChild,
+                context(ExecutionType.ASYNC, executor));
+        return variables;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException("interrupted", e);
+        }
+    }
+
+    /** Runs every task on the submitting thread, like the run executor when it has no free slot. */
+    private static final class CallerRunsExecutor extends AbstractExecutorService {
+        @Override public void execute(Runnable command) { command.run(); }
+        @Override public void shutdown() { }
+        @Override public List<Runnable> shutdownNow() { return List.of(); }
+        @Override public boolean isShutdown() { return false; }
+        @Override public boolean isTerminated() { return false; }
+        @Override public boolean awaitTermination(long timeout, TimeUnit unit) { return true; }
+    }
+
+    @Test
+    void raceMergesOnlyTheWinnersWrites() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        VariableEngine variables = race(join("ANY", "slow", "fast", "failing"), executor, (n, p, v, q) -> {
+            switch (n.getId()) {
+                case "fast" -> {
+                    v.put("answer", "fast");
+                    v.put("fastOnly", 1);
+                }
+                case "slow" -> {
+                    sleep(2_000);
+                    v.put("answer", "slow");
+                    v.put("slowOnly", 1);
+                }
+                default -> throw new IllegalStateException("failing branch");
+            }
+        });
+        executor.shutdownNow();
+        assertEquals("fast", variables.get("answer"));
+        assertEquals(1, variables.get("fastOnly"));
+        assertNull(variables.get("slowOnly"));
+        assertEquals("q", variables.get("input"));
+    }
+
+    @Test
+    void raceCancelsLosers() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch loserStarted = new CountDownLatch(1);
+        CountDownLatch loserInterrupted = new CountDownLatch(1);
+        race(join("FIRST_WINS", "loser", "winner"), executor, (n, p, v, q) -> {
+            if (n.getId().equals("loser")) {
+                loserStarted.countDown();
+                try {
+                    Thread.sleep(30_000);
+                } catch (InterruptedException e) {
+                    loserInterrupted.countDown();
+                }
+                return;
+            }
+            try {
+                loserStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            v.put("answer", "winner");
+        });
+        assertTrue(loserInterrupted.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    void raceWithoutFreeSlotsRunsChildrenUntilFirstSuccess() {
+        List<String> ran = new ArrayList<>();
+        VariableEngine variables = race(join("ANY", "c1", "c2", "c3"), new CallerRunsExecutor(), (n, p, v, q) -> {
+            ran.add(n.getId());
+            if (n.getId().equals("c1")) throw new IllegalStateException("c1 failed");
+            v.put("answer", n.getId());
+        });
+        assertEquals(List.of("c1", "c2"), ran);
+        assertEquals("c2", variables.get("answer"));
+    }
+
+    @Test
+    void raceRethrowsWhenEveryChildFails() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        assertThrows(IllegalStateException.class, () -> race(join("ANY", "a", "b"), executor, (n, p, v, q) -> {
+            throw new IllegalStateException(n.getId() + " failed");
+        }));
+        executor.shutdown();
+    }
+}
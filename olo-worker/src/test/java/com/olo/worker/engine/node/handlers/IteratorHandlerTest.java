@@ -0,0 +1,140 @@
+package com.olo.worker.engine.node.handlers;
+
+import com.olo.executiontree.config.ExecutionType;
+import com.olo.executiontree.config.PipelineDefinition;
+import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.executiontree.tree.NodeType;
+import com.olo.worker.engine.VariableEngine;
+import com.olo.worker.engine.node.ChildNodeRunner;
+import com.olo.worker.engine.runtime.NodeStatus;
+import com.olo.worker.engine.runtime.RuntimeExecutionTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.olo.worker.engine.TreeFixtures.context;
+import static com.olo.worker.engine.TreeFixtures.leaf;
+import static com.olo.worker.engine.TreeFixtures.node;
+import static com.olo.worker.engine.TreeFixtures.pipeline;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IteratorHandlerTest {
+
+    private static ExecutionTreeNode iterator(Map<String, Object> extraParams) {
+        Map<String, Object> params = new HashMap<>(Map.of(
+                "collectionVariable", "items", "itemVariable", "item", "indexVariable", "index",
+                "itemResultVariable", "out", "resultsVariable", "results", "mode", "PARALLEL"));
+        params.putAll(extraParams);
+        return node("it", NodeType.ITERATOR, params, List.of(leaf("body")));
+    }
+
+    /** Body: out = item * 10 + index, plus a scratch write that must stay in the item's copy. */
+    private static final ChildNodeRunner BODY = (n, p, v, q) -> {
+        v.put("out", ((Integer) v.get("item")) * 10 + (Integer) v.get("index"));
+        v.put("scratch", "written");
+    };
+
+    @Test
+    void parallelMapCollectsResultsInItemOrderOnIsolatedCopies() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ExecutionTreeNode node = iterator(Map.of("maxParallelism", 3));
+        PipelineDefinition pipeline = pipeline(node);
+        VariableEngine variables = new VariableEngine(pipeline, Map.of());
+        variables.put("items", List.of(1, 2, 3));
+        CyclicBarrier allRunning = new CyclicBarrier(3);
+        new IteratorHandler().dispatch(node, pipeline, variables, "q", (n, p, v, q) -> {
+            try {
+                // Only passes when all three items are running at the same time.
+                allRunning.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            BODY.run(n, p, v, q);
+        }, null, context(ExecutionType.ASYNC, executor, null));
+        executor.shutdown();
+        assertEquals(List.of(10, 21, 32), variables.get("results"));
+        assertNull(variables.get("scratch"));
+        assertNull(variables.get("item"));
+    }
+
+    @Test
+    void parallelMapHonoursMaxParallelism() {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        ExecutionTreeNode node = iterator(Map.of("maxParallelism", 2));
+        PipelineDefinition pipeline = pipeline(node);
+        VariableEngine variables = new VariableEngine(pipeline, Map.of());
+        variables.put("items", List.of(1, 2, 3, 4, 5, 6));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        new IteratorHandler().dispatch(node, pipeline, variables, "q", (n, p, v, q) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            BODY.run(n, p, v, q);
+        }, null, context(ExecutionType.ASYNC, executor, null));
+        executor.shutdown();
+        assertEquals(List.of(10, 21, 32, 43, 54, 65), variables.get("results"));
+        assertTrue(maxRunning.get() <= 2, "max concurrent items " + maxRunning.get());
+    }
+
+    @Test
+    void syncParallelMapRunsItemsOneAtATime() {
+        ExecutionTreeNode node = iterator(Map.of());
+        PipelineDefinition pipeline = pipeline(node);
+        VariableEngine variables = new VariableEngine(pipeline, Map.of());
+        variables.put("items", List.of(1, 2));
+        Thread caller = Thread.currentThread();
+        new IteratorHandler().dispatch(node, pipeline, variables, "q", (n, p, v, q) -> {
+            assertEquals(caller, Thread.currentThread());
+            BODY.run(n, p, v, q);
+        }, null, context(ExecutionType.SYNC, null, null));
+        assertEquals(List.of(10, 21), variables.get("results"));
+    }
+
+    @Test
+    void parallelMapRethrowsItemFailure() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ExecutionTreeNode node = iterator(Map.of());
+        PipelineDefinition pipeline = pipeline(node);
+        VariableEngine variables = new VariableEngine(pipeline, Map.of());
+        variables.put("items", List.of(1, 2, 3));
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () ->
+                new IteratorHandler().dispatch(node, pipeline, variables, "q", (n, p, v, q) -> {
+                    if (Integer.valueOf(2).equals(v.get("item"))) throw new IllegalStateException("item 2");
+                    BODY.run(n, p, v, q);
+                }, null, context(ExecutionType.ASYNC, executor, null)));
+        executor.shutdown();
+        assertEquals("item 2", thrown.getMessage());
+        assertNull(variables.get("results"));
+    }
+
+    @Test
+    void treeModeParallelMapMarksBodyCompleted() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ExecutionTreeNode node = iterator(Map.of());
+        PipelineDefinition pipeline = pipeline(node);
+        VariableEngine variables = new VariableEngine(pipeline, Map.of());
+        variables.put("items", List.of(1, 2));
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(node);
+        new IteratorHandler().dispatchWithTree(node, pipeline, variables, "q", tree, id -> {
+            throw new IllegalStateException("tree loop must not run the body");
+        }, null, null, context(ExecutionType.ASYNC, executor, BODY));
+        executor.shutdown();
+        assertEquals(List.of(10, 21), variables.get("results"));
+        assertEquals(NodeStatus.COMPLETED, tree.getNode("body").getStatus());
+    }
+}
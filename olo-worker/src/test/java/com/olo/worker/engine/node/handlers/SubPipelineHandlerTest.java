@@ -0,0 +1,113 @@
+package com.olo.worker.engine.node.handlers;
+
+import com.olo.executiontree.config.ExecutionType;
+import com.olo.executiontree.config.PipelineConfiguration;
+import com.olo.executiontree.config.PipelineDefinition;
+import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.executiontree.tree.NodeType;
+import com.olo.worker.engine.VariableEngine;
+import com.olo.worker.engine.runtime.RuntimeExecutionTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.olo.worker.engine.TreeFixtures.leaf;
+import static com.olo.worker.engine.TreeFixtures.node;
+import static com.olo.worker.engine.TreeFixtures.pipeline;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SubPipelineHandlerTest {
+
+    private static ExecutionTreeNode subPipeline(String id, String pipelineRef) {
+        return node(id, NodeType.SUB_PIPELINE, Map.of("pipelineRef", pipelineRef), List.of());
+    }
+
+    private static PipelineConfiguration config(PipelineDefinition child) {
+        return new PipelineConfiguration("1", null, null, null, Map.of("child", child));
+    }
+
+    private static HandlerContext context(PipelineConfiguration config) {
+        return new HandlerContext(null, config, ExecutionType.SYNC, null, null, null, null);
+    }
+
+    private static void dispatchInTree(ExecutionTreeNode node, RuntimeExecutionTree tree, PipelineConfiguration config) {
+        PipelineDefinition parent = pipeline(tree.getDefinition(tree.getRootId()));
+        new SubPipelineHandler().dispatchWithTree(node, parent, new VariableEngine(parent, Map.of()), "q", tree,
+                id -> {}, null, null, context(config));
+    }
+
+    @Test
+    void compiledSubPipelineIsReusedPerConfigAndNode() {
+        ExecutionTreeNode sp = subPipeline("sp", "child");
+        PipelineDefinition child = pipeline(node("c", NodeType.SEQUENCE, Map.of(), List.of(leaf("c1"))));
+        PipelineConfiguration config = config(child);
+
+        CompiledSubPipeline compiled = CompiledSubPipeline.of(sp, config);
+
+        assertSame(compiled, CompiledSubPipeline.of(sp, config));
+        assertNotSame(compiled, CompiledSubPipeline.of(sp, config(child)));
+        assertNotSame(compiled, CompiledSubPipeline.of(subPipeline("sp", "child"), config));
+        assertSame(child, compiled.pipeline());
+        assertEquals("sp/c", compiled.inlineRoot().getId());
+        assertEquals("sp/c1", compiled.inlineRoot().getChildren().get(0).getId());
+        assertNull(CompiledSubPipeline.of(subPipeline("other", "missing"), config));
+    }
+
+    @Test
+    void treeModeInlinesTheSubPipelineOnce() {
+        ExecutionTreeNode sp = subPipeline("sp", "child");
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(node("root", NodeType.SEQUENCE, Map.of(), List.of(sp)));
+        PipelineDefinition child = pipeline(node("c", NodeType.SEQUENCE, Map.of(), List.of(leaf("c1"))));
+        PipelineConfiguration config = config(child);
+
+        dispatchInTree(sp, tree, config);
+        dispatchInTree(sp, tree, config);
+
+        assertEquals(4, tree.getTotalNodeCount());
+        assertEquals(List.of("sp/c"), tree.getNode("sp").getChildIds());
+        assertSame(child, tree.getPipeline("sp/c"));
+        assertSame(child, tree.getPipeline("sp/c1"));
+    }
+
+    @Test
+    void treeModeSkipsAnUnknownPipeline() {
+        ExecutionTreeNode sp = subPipeline("sp", "missing");
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(node("root", NodeType.SEQUENCE, Map.of(), List.of(sp)));
+
+        dispatchInTree(sp, tree, config(pipeline(leaf("c"))));
+
+        assertEquals(2, tree.getTotalNodeCount());
+    }
+
+    @Test
+    void recursiveIncludeFails() {
+        ExecutionTreeNode sp = subPipeline("sp", "child");
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(node("root", NodeType.SEQUENCE, Map.of(), List.of(sp)));
+        PipelineConfiguration config = config(pipeline(subPipeline("again", "child")));
+
+        dispatchInTree(sp, tree, config);
+        ExecutionTreeNode inner = tree.getDefinition("sp/again");
+
+        assertThrows(IllegalStateException.class, () -> dispatchInTree(inner, tree, config));
+    }
+
+    @Test
+    void dispatchRunsTheSubTreeWithItsOwnPipeline() {
+        ExecutionTreeNode sp = subPipeline("sp", "child");
+        PipelineDefinition child = pipeline(leaf("c"));
+        PipelineDefinition parent = pipeline(sp);
+        List<String> ran = new ArrayList<>();
+
+        new SubPipelineHandler().dispatch(sp, parent, new VariableEngine(parent, Map.of()), "q",
+                (n, p, engine, queue) -> ran.add(n.getId() + "@" + (p == child ? "child" : "other")), null,
+                context(config(child)));
+
+        assertEquals(List.of("c@child"), ran);
+    }
+}
@@ -0,0 +1,202 @@
+package com.olo.worker.engine.runtime;
+
+import com.olo.executiontree.config.PipelineDefinition;
+import com.olo.executiontree.tree.ExecutionTreeNode;
+import com.olo.executiontree.tree.NodeType;
+import com.olo.worker.engine.TreeFixtures;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuntimeExecutionTreeTest {
+
+    private static ExecutionTreeNode node(String id, List<ExecutionTreeNode> children) {
+        return TreeFixtures.node(id, children.isEmpty() ? NodeType.PLUGIN : NodeType.SEQUENCE, Map.of(), children);
+    }
+
+    private static ExecutionTreeNode randomTree(Random random, String prefix, int depth, int[] counter) {
+        List<ExecutionTreeNode> children = new ArrayList<>();
+        int n = depth > 0 ? random.nextInt(4) : 0;
+        for (int i = 0; i < n; i++) {
+            children.add(randomTree(random, prefix, depth - 1, counter));
+        }
+        return node(prefix + counter[0]++, children);
+    }
+
+    /** The DFS walk findNextExecutable used before ready nodes were tracked incrementally. */
+    private static String walkNextExecutable(RuntimeExecutionTree tree, String startId, boolean scoped) {
+        if (startId == null) return null;
+        Deque<String> stack = new ArrayDeque<>();
+        stack.push(startId);
+        while (!stack.isEmpty()) {
+            String id = stack.pop();
+            RuntimeNodeState state = tree.getNode(id);
+            if (state == null) continue;
+            if (state.getStatus() == NodeStatus.NOT_STARTED) {
+                if (state.getParentId() == null || (scoped && id.equals(startId))) return id;
+                RuntimeNodeState parent = tree.getNode(state.getParentId());
+                if (parent != null && parent.getStatus() == NodeStatus.COMPLETED) return id;
+            }
+            if (state.getStatus() == NodeStatus.COMPLETED || state.getStatus() == NodeStatus.SKIPPED) {
+                for (int i = state.getChildIds().size() - 1; i >= 0; i--) {
+                    stack.push(state.getChildIds().get(i));
+                }
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void readyQueueMatchesDfsWalkOnRandomTreesAndOperations() {
+        for (int seed = 0; seed < 200; seed++) {
+            Random random = new Random(seed);
+            int[] counter = {0};
+            RuntimeExecutionTree tree = new RuntimeExecutionTree(randomTree(random, "n", 4, counter));
+            for (int op = 0; op < 80; op++) {
+                List<RuntimeNodeState> nodes = tree.getAllNodes();
+                String target = nodes.get(random.nextInt(nodes.size())).getNodeId();
+                switch (random.nextInt(7)) {
+                    case 0, 1 -> {
+                        String next = tree.findNextExecutable();
+                        if (next != null) tree.markCompleted(next);
+                    }
+                    case 2 -> tree.markCompleted(target);
+                    case 3 -> tree.markFailed(target);
+                    case 4 -> tree.markSkipped(target);
+                    case 5 -> tree.resetSubtreeToNotStarted(target);
+                    default -> tree.attachChildren(target,
+                            List.of(randomTree(random, "d", 1, counter), randomTree(random, "d", 0, counter)));
+                }
+                assertEquals(walkNextExecutable(tree, tree.getRootId(), false), tree.findNextExecutable(),
+                        "seed " + seed + " op " + op);
+                String scope = nodes.get(random.nextInt(nodes.size())).getNodeId();
+                assertEquals(walkNextExecutable(tree, scope, true), tree.findNextExecutableIn(scope),
+                        "seed " + seed + " op " + op + " scope " + scope);
+            }
+        }
+    }
+
+    @Test
+    void getAllNodesKeepsInsertionOrder() {
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(node("root", List.of(
+                node("a", List.of(node("a1", List.of()))), node("b", List.of()))));
+        tree.attachChildren("b", List.of(node("b1", List.of()), node("b2", List.of())));
+        List<String> ids = new ArrayList<>();
+        for (RuntimeNodeState state : tree.getAllNodes()) ids.add(state.getNodeId());
+        assertEquals(List.of("root", "a", "a1", "b", "b1", "b2"), ids);
+    }
+
+    @Test
+    void lookupsAreSafeWhileChildrenAreAttached() throws Exception {
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(node("root", List.of()));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                for (int i = 0; i < 2000; i++) {
+                    tree.getNode("c" + i);
+                    tree.getDefinition("root");
+                    for (String childId : tree.getNode("root").getChildIds()) {
+                        assertNotNull(childId);
+                    }
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 2000; i++) {
+            tree.attachChildren("root", List.of(node("c" + i, List.of())));
+        }
+        reader.join();
+        assertNull(failure.get());
+        assertEquals(2001, tree.getTotalNodeCount());
+    }
+
+    @Test
+    void attachSubtreeInlinesNodesWithTheirPipeline() {
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(node("root", List.of(node("sp", List.of()))));
+        PipelineDefinition sub = TreeFixtures.pipeline(node("x", List.of()));
+        ExecutionTreeNode inlined = node("x", List.of(node("y", List.of())));
+
+        tree.attachSubtree("sp", inlined, sub);
+        tree.attachSubtree("sp", inlined, sub);
+        tree.attachSubtree("missing", node("z", List.of()), sub);
+
+        assertEquals(4, tree.getTotalNodeCount());
+        assertEquals(List.of("x"), tree.getNode("sp").getChildIds());
+        assertEquals("x", tree.getNode("y").getParentId());
+        assertSame(sub, tree.getPipeline("x"));
+        assertSame(sub, tree.getPipeline("y"));
+        assertNull(tree.getPipeline("sp"));
+        assertNull(tree.getNode("z"));
+        tree.markCompleted(tree.findNextExecutable());
+        tree.markCompleted(tree.findNextExecutable());
+        assertEquals("x", tree.findNextExecutable());
+    }
+
+    @Test
+    void resetSubtreeToNotStartedMakesTheSubtreeRunnableAgain() {
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(node("root", List.of(
+                node("a", List.of(node("a1", List.of()), node("a2", List.of()))), node("b", List.of()))));
+        for (int i = 0; i < 4; i++) {
+            tree.markCompleted(tree.findNextExecutable());
+        }
+
+        tree.resetSubtreeToNotStarted("a");
+
+        assertEquals(NodeStatus.COMPLETED, tree.getNode("root").getStatus());
+        for (String id : List.of("a", "a1", "a2", "b")) {
+            assertEquals(NodeStatus.NOT_STARTED, tree.getNode(id).getStatus());
+        }
+        assertEquals("a", tree.findNextExecutable());
+        tree.markCompleted("a");
+        assertEquals("a1", tree.findNextExecutable());
+    }
+
+    @Test
+    void restoreStatusesRebuildsTheReadyNodesOfAStaticTree() {
+        ExecutionTreeNode def = node("root", List.of(node("a", List.of()), node("r", List.of(node("r1", List.of())))));
+        RuntimeExecutionTree first = new RuntimeExecutionTree(def);
+        first.markCompleted(first.findNextExecutable());
+        first.markCompleted(first.findNextExecutable());
+        first.attachChildren("a", List.of(node("planned", List.of())));
+
+        RuntimeExecutionTree resumed = new RuntimeExecutionTree(def);
+        resumed.restoreStatuses(first.staticStatuses());
+
+        assertEquals(List.of("root", "a", "r", "r1"), List.copyOf(first.staticStatuses().keySet()));
+        assertEquals(first.staticStatuses(), resumed.staticStatuses());
+        assertEquals("r", resumed.findNextExecutable());
+    }
+
+    @Test
+    void canSuspendAtOnlyNodesTheTreeLoopScheduled() {
+        RuntimeExecutionTree tree = new RuntimeExecutionTree(node("root", List.of(
+                node("a", List.of(node("a1", List.of()))), node("b", List.of()))));
+        assertTrue(tree.canSuspendAt("root"));
+        assertFalse(tree.canSuspendAt("a"));
+
+        tree.markCompleted("root");
+        assertTrue(tree.canSuspendAt("a"));
+        assertFalse(tree.canSuspendAt("a1"));
+
+        tree.attachChildren("b", List.of(node("planned", List.of())));
+        assertFalse(tree.canSuspendAt("a"));
+        assertFalse(tree.canSuspendAt("planned"));
+        tree.markCompleted("planned");
+        assertTrue(tree.canSuspendAt("a"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.olo.worker.workflow.impl;
+
+import com.olo.worker.cache.PlanContentStore;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.activity.DynamicActivity;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.common.RetryOptions;
+import io.temporal.common.converter.EncodedValues;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.workflow.ActivityStub;
+import io.temporal.workflow.Workflow;
+import io.temporal.workflow.WorkflowInterface;
+import io.temporal.workflow.WorkflowMethod;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelStepRecoveryTest {
+
+    private static final String QUEUE = "parallel-step-recovery-test";
+    private static final String PLAN = "{\"linear\":true,\"runId\":\"r1\",\"initialVariableMapJson\":\"{}\",\"planRef\":\"sha256:p1\","
+            + "\"steps\":[[{\"activityType\":\"NODE\",\"nodeId\":\"n1\",\"outputVariables\":[\"n1\"]},"
+            + "{\"activityType\":\"NODE\",\"nodeId\":\"n2\",\"outputVariables\":[\"n2\"]}]]}";
+    private static final String REPUBLISHED = PLAN.replace("sha256:p1", "sha256:p2");
+
+    /** Calls seen by the node activity, as {@code nodeId@planArg}. */
+    static final List<String> CALLS = new CopyOnWriteArrayList<>();
+
+    @WorkflowInterface
+    public interface PlanWorkflow {
+        @WorkflowMethod
+        String run(String planJson);
+    }
+
+    /** Runs the plan with a recovery whose re-publish returns the same plan under a new reference. */
+    public static class PlanWorkflowImpl implements PlanWorkflow {
+        @Override
+        public String run(String planJson) {
+            ActivityStub stub = Workflow.newUntypedActivityStub(ActivityOptions.newBuilder()
+                    .setStartToCloseTimeout(Duration.ofSeconds(10))
+                    .setRetryOptions(RetryOptions.newBuilder().setMaximumAttempts(1).build())
+                    .build());
+            PlanContentRecovery recovery = new PlanContentRecovery(planJson, "{}", input -> REPUBLISHED);
+            try {
+                return WorkflowPlanExecutor.runPlan(recovery, stub, stub, QUEUE, "{}");
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /** n2 finds the original plan content gone; everything else succeeds and writes its node id. */
+    public static class NodeActivity implements DynamicActivity {
+        @Override
+        public Object execute(EncodedValues args) {
+            String planArg = args.get(0, String.class);
+            String nodeId = args.get(1, String.class);
+            CALLS.add(nodeId + "@" + planArg);
+            if ("n2".equals(nodeId) && "sha256:p1".equals(planArg)) throw PlanContentStore.contentMissing(planArg);
+            return "{\"" + nodeId + "\":\"ok\"}";
+        }
+    }
+
+    @Test
+    void onlyTheBranchThatLostItsContentIsReissued() {
+        CALLS.clear();
+        TestWorkflowEnvironment env = TestWorkflowEnvironment.newInstance();
+        try {
+            Worker worker = env.newWorker(QUEUE);
+            worker.registerWorkflowImplementationTypes(PlanWorkflowImpl.class);
+            worker.registerActivitiesImplementations(new NodeActivity());
+            env.start();
+
+            String result = env.getWorkflowClient().newWorkflowStub(PlanWorkflow.class,
+                    WorkflowOptions.newBuilder().setTaskQueue(QUEUE).build()).run(PLAN);
+
+            assertEquals("{\"n1\":\"ok\",\"n2\":\"ok\"}", result);
+            assertEquals(3, CALLS.size(), CALLS.toString());
+            assertTrue(CALLS.containsAll(List.of("n1@sha256:p1", "n2@sha256:p1", "n2@sha256:p2")), CALLS.toString());
+        } finally {
+            env.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.olo.worker.workflow.impl;
+
+import com.olo.worker.cache.PlanContentStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlanContentRecoveryTest {
+
+    private static final String PLAN = "{\"linear\":true,\"runId\":\"r1\",\"pipelineName\":\"p\",\"configRef\":\"sha256:c1\","
+            + "\"nodes\":[{\"activityType\":\"ECHO\",\"nodeId\":\"n1\"}],\"planRef\":\"sha256:p1\"}";
+    private static final String REPUBLISHED = "{\"linear\":true,\"runId\":\"r1\",\"pipelineName\":\"p\",\"configRef\":\"sha256:c1\","
+            + "\"nodes\":[{\"activityType\":\"ECHO\",\"nodeId\":\"n1\"}],\"planRef\":\"sha256:p2\"}";
+
+    @Test
+    void contentMissingRepublishesWithRunIdAndRepeatsCall() {
+        List<String> inputs = new ArrayList<>();
+        PlanContentRecovery recovery = new PlanContentRecovery(PLAN, "{\"context\":{\"tenantId\":\"t\"}}", input -> {
+            inputs.add(input);
+            return REPUBLISHED;
+        });
+        List<String> planArgs = new ArrayList<>();
+        String result = recovery.call(() -> {
+            planArgs.add(recovery.planArg());
+            if (planArgs.size() == 1) throw PlanContentStore.contentMissing("sha256:p1");
+            return "ok";
+        });
+        assertEquals("ok", result);
+        assertEquals(List.of("sha256:p1", "sha256:p2"), planArgs);
+        assertEquals(1, inputs.size());
+        assertTrue(inputs.get(0).contains("\"runId\":\"r1\""), inputs.get(0));
+
+        // A call that still finds the content missing after re-publishing fails.
+        assertThrows(RuntimeException.class, () -> recovery.call(() -> {
+            throw PlanContentStore.contentMissing("sha256:p2");
+        }));
+        assertEquals(2, inputs.size());
+    }
+
+    @Test
+    void laterExpiryInTheSameRunIsRecoveredAgain() {
+        List<String> inputs = new ArrayList<>();
+        PlanContentRecovery recovery = new PlanContentRecovery(PLAN, "{}", input -> {
+            inputs.add(input);
+            return REPUBLISHED;
+        });
+        for (int i = 0; i < 2; i++) {
+            List<String> planArgs = new ArrayList<>();
+            assertEquals("ok", recovery.call(() -> {
+                planArgs.add(recovery.planArg());
+                if (planArgs.size() == 1) throw PlanContentStore.contentMissing(recovery.planArg());
+                return "ok";
+            }));
+        }
+        assertEquals(2, inputs.size());
+    }
+
+    @Test
+    void otherFailuresAreNotRecovered() {
+        List<String> inputs = new ArrayList<>();
+        PlanContentRecovery recovery = new PlanContentRecovery(PLAN, "{}", input -> {
+            inputs.add(input);
+            return REPUBLISHED;
+        });
+        assertThrows(IllegalStateException.class, () -> recovery.call(() -> {
+            throw new IllegalStateException("plugin failed");
+        }));
+        assertEquals(0, inputs.size());
+    }
+
+    @Test
+    void republishedPlanWithDifferentStructureIsRejected() {
+        String changed = REPUBLISHED.replace("\"n1\"", "\"n2\"");
+        PlanContentRecovery recovery = new PlanContentRecovery(PLAN, "{}", input -> changed);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> recovery.call(() -> {
+            throw PlanContentStore.contentMissing("sha256:p1");
+        }));
+        assertTrue(e.getMessage().contains("nodes"), e.getMessage());
+    }
+}
@@ -0,0 +1,119 @@
+package com.olo.worker.workflow.impl;
+
+import io.temporal.activity.Activity;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.activity.DynamicActivity;
+import io.temporal.client.WorkflowFailedException;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.common.converter.EncodedValues;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.workflow.Workflow;
+import io.temporal.workflow.WorkflowInterface;
+import io.temporal.workflow.WorkflowMethod;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkflowPlanExecutorRetryTest {
+
+    private static final String QUEUE = "plan-retry-test";
+
+    @WorkflowInterface
+    public interface PlanWorkflow {
+        @WorkflowMethod
+        String run(String planJson);
+    }
+
+    /** Runs the plan with the same stub setup as OloKernelWorkflowImpl. */
+    public static class PlanWorkflowImpl implements PlanWorkflow {
+        @Override
+        public String run(String planJson) {
+            ActivityOptions options = ActivityOptions.newBuilder().setStartToCloseTimeout(Duration.ofSeconds(10)).build();
+            try {
+                return WorkflowPlanExecutor.runPlan(planJson, Workflow.newUntypedActivityStub(options),
+                        Workflow.newUntypedActivityStub(WorkflowPlanExecutor.retryStepOptions(options)), QUEUE, "{}");
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /** Node activity that fails its first {@code failures} calls; records Temporal's attempt number per call. */
+    public static class FlakyNodeActivity implements DynamicActivity {
+        final List<Integer> temporalAttempts = new CopyOnWriteArrayList<>();
+        private final int failures;
+
+        FlakyNodeActivity(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public Object execute(EncodedValues args) {
+            temporalAttempts.add(Activity.getExecutionContext().getInfo().getAttempt());
+            if (temporalAttempts.size() <= failures) {
+                throw ApplicationFailure.newFailure("node failed", "NodeError");
+            }
+            return "{\"out\":\"ok\"}";
+        }
+    }
+
+    private static String plan(int maxAttempts) {
+        return "{\"linear\":true,\"initialVariableMapJson\":\"{}\",\"steps\":[[{\"activityType\":\"NODE\",\"nodeId\":\"n1\"}]],"
+                + "\"retries\":{\"0\":{\"maxAttempts\":" + maxAttempts + ",\"initialIntervalMs\":1000,\"backoffCoefficient\":2.0}}}";
+    }
+
+    private static TestWorkflowEnvironment start(FlakyNodeActivity activity) {
+        TestWorkflowEnvironment env = TestWorkflowEnvironment.newInstance();
+        Worker worker = env.newWorker(QUEUE);
+        worker.registerWorkflowImplementationTypes(PlanWorkflowImpl.class);
+        worker.registerActivitiesImplementations(activity);
+        env.start();
+        return env;
+    }
+
+    private static PlanWorkflow workflow(TestWorkflowEnvironment env) {
+        return env.getWorkflowClient().newWorkflowStub(PlanWorkflow.class,
+                WorkflowOptions.newBuilder().setTaskQueue(QUEUE).build());
+    }
+
+    @Test
+    void retryStepIsRetriedByPolicyWithTimersNotByTemporal() {
+        FlakyNodeActivity activity = new FlakyNodeActivity(2);
+        TestWorkflowEnvironment env = start(activity);
+        try {
+            long startMs = env.currentTimeMillis();
+            String result = workflow(env).run(plan(3));
+            long elapsedMs = env.currentTimeMillis() - startMs;
+
+            assertEquals("{\"out\":\"ok\"}", result);
+            // Three policy attempts, each a first (and only) Temporal attempt.
+            assertEquals(List.of(1, 1, 1), activity.temporalAttempts);
+            // Backoffs of 1s and 2s ran as workflow timers (skipped time in the test environment).
+            assertTrue(elapsedMs >= 3000, "elapsed " + elapsedMs);
+        } finally {
+            env.close();
+        }
+    }
+
+    @Test
+    void retryStepFailsOnceMaxAttemptsAreUsed() {
+        FlakyNodeActivity activity = new FlakyNodeActivity(Integer.MAX_VALUE);
+        TestWorkflowEnvironment env = start(activity);
+        try {
+            assertThrows(WorkflowFailedException.class, () -> workflow(env).run(plan(2)));
+            assertEquals(List.of(1, 1), activity.temporalAttempts);
+        } finally {
+            env.close();
+        }
+    }
+}
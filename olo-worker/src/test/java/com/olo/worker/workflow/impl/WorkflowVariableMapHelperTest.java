@@ -0,0 +1,57 @@
+package com.olo.worker.workflow.impl;
+
+import com.olo.worker.workflow.impl.WorkflowVariableMapHelper.VariableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class WorkflowVariableMapHelperTest {
+
+    private static final String BASE = "{\"input\":\"q\",\"a\":null,\"b\":null,\"shared\":{\"k\":1}}";
+
+    @Test
+    void deltaResultsMergeLikeFullMaps() {
+        List<String> full = List.of(
+                "{\"input\":\"q\",\"a\":\"A\",\"b\":null,\"shared\":{\"k\":1}}",
+                "{\"input\":\"q\",\"a\":null,\"b\":[1,2],\"shared\":{\"k\":1}}");
+        List<String> delta = List.of("{\"a\":\"A\"}", "{\"b\":[1,2]}");
+
+        assertEquals(WorkflowVariableMapHelper.mergeVariableMaps(BASE, full, null),
+                WorkflowVariableMapHelper.mergeVariableMaps(BASE, delta, null));
+        List<List<String>> outputs = List.of(List.of("a"), List.of("b"));
+        assertEquals(WorkflowVariableMapHelper.mergeVariableMaps(BASE, full, outputs),
+                WorkflowVariableMapHelper.mergeVariableMaps(BASE, delta, outputs));
+        assertEquals("{\"input\":\"q\",\"a\":\"A\",\"b\":[1,2],\"shared\":{\"k\":1}}",
+                WorkflowVariableMapHelper.mergeVariableMaps(BASE, delta, outputs));
+    }
+
+    @Test
+    void nullInDeltaDoesNotClearBase() {
+        String base = "{\"a\":\"kept\"}";
+        assertEquals(WorkflowVariableMapHelper.mergeVariableMaps(base, List.of("{\"a\":null,\"c\":1}"), null),
+                WorkflowVariableMapHelper.mergeVariableMaps(base, List.of("{\"c\":1}"), null));
+    }
+
+    @Test
+    void carriedMapMatchesJsonRoundTripAcrossSteps() {
+        List<String> step1 = List.of("{\"a\":\"A\"}", "{\"b\":2}");
+        List<String> step2 = List.of("{\"a\":\"A2\"}", "{\"c\":{\"x\":[true]}}");
+
+        String viaJson = WorkflowVariableMapHelper.mergeVariableMaps(
+                WorkflowVariableMapHelper.mergeVariableMaps(BASE, step1, null), step2, null);
+        VariableMap carried = WorkflowVariableMapHelper.mergeVariableMaps(
+                WorkflowVariableMapHelper.mergeVariableMaps(VariableMap.ofJson(BASE), step1, null), step2, null);
+
+        assertEquals(viaJson, carried.json());
+    }
+
+    @Test
+    void invalidResultLeavesBaseUnchanged() {
+        VariableMap base = VariableMap.ofJson(BASE);
+        assertSame(base, WorkflowVariableMapHelper.mergeVariableMaps(base, List.of("not json"), null));
+        assertEquals(BASE, WorkflowVariableMapHelper.mergeVariableMaps(BASE, List.of("not json"), null));
+    }
+}